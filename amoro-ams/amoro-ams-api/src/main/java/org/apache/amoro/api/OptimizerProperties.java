@@ -37,6 +37,23 @@ public class OptimizerProperties {
   public static final boolean OPTIMIZER_EXTEND_DISK_STORAGE_DEFAULT = false;
   public static final String OPTIMIZER_DISK_STORAGE_PATH = "disk-storage-path";
   public static final String OPTIMIZER_MEMORY_STORAGE_SIZE = "memory-storage-size";
+  public static final String OPTIMIZER_TABLE_CACHE_SIZE = "table-cache-size";
+  public static final int OPTIMIZER_TABLE_CACHE_SIZE_DEFAULT = 64;
+  public static final String OPTIMIZER_TABLE_EMBEDDED = "table-embedded";
+  public static final boolean OPTIMIZER_TABLE_EMBEDDED_DEFAULT = true;
+  public static final String OPTIMIZER_MEMORY_BUDGET_RATIO = "memory-budget-ratio";
+  public static final double OPTIMIZER_MEMORY_BUDGET_RATIO_DEFAULT = 0.6;
+  public static final String OPTIMIZER_MEMORY_BUDGET = "memory-budget";
+  public static final String OPTIMIZER_PREFETCH_BUFFER_SIZE = "prefetch-buffer-size";
+  public static final String OPTIMIZER_MIN_EXECUTION_PARALLEL = "min-execution-parallel";
+  public static final String OPTIMIZER_EXECUTOR_IDLE_TIMEOUT = "executor-idle-timeout";
+  public static final long OPTIMIZER_EXECUTOR_IDLE_TIMEOUT_DEFAULT = 300000; // 5 min
+  // Token of the registered optimizer, to update its thread count by authenticating again
+  public static final String OPTIMIZER_REGISTERED_TOKEN = "registered-token";
   public static final String MAX_INPUT_FILE_SIZE_PER_THREAD = "max-input-file-size-per-thread";
   public static final Long MAX_INPUT_FILE_SIZE_PER_THREAD_DEFAULT = 512 * 1024 * 1024L; // 512MB
+  public static final String STREAMING_PLANNING_ENABLED = "streaming-planning.enabled";
+  public static final boolean STREAMING_PLANNING_ENABLED_DEFAULT = false;
+  public static final String STREAMING_PLANNING_BATCH_SIZE = "streaming-planning.batch-size";
+  public static final int STREAMING_PLANNING_BATCH_SIZE_DEFAULT = 100;
 }
@@ -18,15 +18,20 @@
 
 package org.apache.amoro.api.config;
 
+import org.apache.amoro.optimizing.ClusteringStrategy;
 import org.apache.amoro.properties.HiveTableProperties;
 import org.apache.amoro.shade.guava32.com.google.common.base.MoreObjects;
 import org.apache.amoro.shade.guava32.com.google.common.base.Objects;
+import org.apache.amoro.shade.jackson2.com.fasterxml.jackson.annotation.JsonIgnore;
 import org.apache.amoro.shade.jackson2.com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import org.apache.amoro.table.TableProperties;
 import org.apache.amoro.utils.CompatiblePropertyUtil;
 import org.apache.iceberg.util.PropertyUtil;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 /** Configuration for optimizing process scheduling and executing. */
 @JsonIgnoreProperties(ignoreUnknown = true)
@@ -53,6 +58,9 @@ public class OptimizingConfig {
   // self-optimizing.max-task-size-bytes
   private long maxTaskSize;
 
+  // self-optimizing.target-task-duration
+  private long targetTaskDuration;
+
   // self-optimizing.max-file-count
   private int maxFileCount;
 
@@ -80,6 +88,15 @@ public class OptimizingConfig {
   // self-optimizing.full.rewrite-all-files
   private boolean fullRewriteAllFiles;
 
+  // self-optimizing.clustering.columns
+  private List<String> clusteringColumns;
+
+  // self-optimizing.clustering.strategy
+  private ClusteringStrategy clusteringStrategy;
+
+  // self-optimizing.clustering.trigger.overlap-ratio
+  private double clusteringOverlapRatio;
+
   // base.file-index.hash-bucket
   private int baseHashBucket;
 
@@ -157,6 +174,15 @@ public class OptimizingConfig {
     return this;
   }
 
+  public long getTargetTaskDuration() {
+    return targetTaskDuration;
+  }
+
+  public OptimizingConfig setTargetTaskDuration(long targetTaskDuration) {
+    this.targetTaskDuration = targetTaskDuration;
+    return this;
+  }
+
   public int getMaxFileCount() {
     return maxFileCount;
   }
@@ -246,6 +272,38 @@ public class OptimizingConfig {
     return this;
   }
 
+  public List<String> getClusteringColumns() {
+    return clusteringColumns;
+  }
+
+  public OptimizingConfig setClusteringColumns(List<String> clusteringColumns) {
+    this.clusteringColumns = clusteringColumns;
+    return this;
+  }
+
+  public ClusteringStrategy getClusteringStrategy() {
+    return clusteringStrategy;
+  }
+
+  public OptimizingConfig setClusteringStrategy(ClusteringStrategy clusteringStrategy) {
+    this.clusteringStrategy = clusteringStrategy;
+    return this;
+  }
+
+  public double getClusteringOverlapRatio() {
+    return clusteringOverlapRatio;
+  }
+
+  public OptimizingConfig setClusteringOverlapRatio(double clusteringOverlapRatio) {
+    this.clusteringOverlapRatio = clusteringOverlapRatio;
+    return this;
+  }
+
+  @JsonIgnore
+  public boolean isClusteringEnabled() {
+    return clusteringColumns != null && !clusteringColumns.isEmpty();
+  }
+
   public int getBaseHashBucket() {
     return baseHashBucket;
   }
@@ -288,6 +346,7 @@ public class OptimizingConfig {
         && maxCommitRetryCount == that.maxCommitRetryCount
         && targetSize == that.targetSize
         && maxTaskSize == that.maxTaskSize
+        && targetTaskDuration == that.targetTaskDuration
         && maxFileCount == that.maxFileCount
         && openFileCost == that.openFileCost
         && fragmentRatio == that.fragmentRatio
@@ -297,6 +356,9 @@ public class OptimizingConfig {
         && Double.compare(that.majorDuplicateRatio, majorDuplicateRatio) == 0
         && fullTriggerInterval == that.fullTriggerInterval
         && fullRewriteAllFiles == that.fullRewriteAllFiles
+        && Objects.equal(clusteringColumns, that.clusteringColumns)
+        && clusteringStrategy == that.clusteringStrategy
+        && Double.compare(that.clusteringOverlapRatio, clusteringOverlapRatio) == 0
         && baseHashBucket == that.baseHashBucket
         && baseRefreshInterval == that.baseRefreshInterval
         && hiveRefreshInterval == that.hiveRefreshInterval
@@ -313,6 +375,7 @@ public class OptimizingConfig {
         maxCommitRetryCount,
         targetSize,
         maxTaskSize,
+        targetTaskDuration,
         maxFileCount,
         openFileCost,
         fragmentRatio,
@@ -322,6 +385,9 @@ public class OptimizingConfig {
         majorDuplicateRatio,
         fullTriggerInterval,
         fullRewriteAllFiles,
+        clusteringColumns,
+        clusteringStrategy,
+        clusteringOverlapRatio,
         baseHashBucket,
         baseRefreshInterval,
         hiveRefreshInterval);
@@ -337,6 +403,7 @@ public class OptimizingConfig {
         .add("maxCommitRetryCount", maxCommitRetryCount)
         .add("targetSize", targetSize)
         .add("maxTaskSize", maxTaskSize)
+        .add("targetTaskDuration", targetTaskDuration)
         .add("maxFileCount", maxFileCount)
         .add("openFileCost", openFileCost)
         .add("fragmentRatio", fragmentRatio)
@@ -345,6 +412,9 @@ public class OptimizingConfig {
         .add("majorDuplicateRatio", majorDuplicateRatio)
         .add("fullTriggerInterval", fullTriggerInterval)
         .add("fullRewriteAllFiles", fullRewriteAllFiles)
+        .add("clusteringColumns", clusteringColumns)
+        .add("clusteringStrategy", clusteringStrategy)
+        .add("clusteringOverlapRatio", clusteringOverlapRatio)
         .add("baseHashBucket", baseHashBucket)
         .add("baseRefreshInterval", baseRefreshInterval)
         .add("hiveRefreshInterval", hiveRefreshInterval)
@@ -398,6 +468,11 @@ public class OptimizingConfig {
                 properties,
                 TableProperties.SELF_OPTIMIZING_MAX_TASK_SIZE,
                 TableProperties.SELF_OPTIMIZING_MAX_TASK_SIZE_DEFAULT))
+        .setTargetTaskDuration(
+            CompatiblePropertyUtil.propertyAsLong(
+                properties,
+                TableProperties.SELF_OPTIMIZING_TARGET_TASK_DURATION,
+                TableProperties.SELF_OPTIMIZING_TARGET_TASK_DURATION_DEFAULT))
         .setTargetQuota(
             CompatiblePropertyUtil.propertyAsDouble(
                 properties,
@@ -428,6 +503,27 @@ public class OptimizingConfig {
                 properties,
                 TableProperties.SELF_OPTIMIZING_FULL_REWRITE_ALL_FILES,
                 TableProperties.SELF_OPTIMIZING_FULL_REWRITE_ALL_FILES_DEFAULT))
+        .setClusteringColumns(
+            Arrays.stream(
+                    PropertyUtil.propertyAsString(
+                            properties,
+                            TableProperties.SELF_OPTIMIZING_CLUSTERING_COLUMNS,
+                            TableProperties.SELF_OPTIMIZING_CLUSTERING_COLUMNS_DEFAULT)
+                        .split(","))
+                .map(String::trim)
+                .filter(column -> !column.isEmpty())
+                .collect(Collectors.toList()))
+        .setClusteringStrategy(
+            ClusteringStrategy.fromName(
+                PropertyUtil.propertyAsString(
+                    properties,
+                    TableProperties.SELF_OPTIMIZING_CLUSTERING_STRATEGY,
+                    TableProperties.SELF_OPTIMIZING_CLUSTERING_STRATEGY_DEFAULT)))
+        .setClusteringOverlapRatio(
+            PropertyUtil.propertyAsDouble(
+                properties,
+                TableProperties.SELF_OPTIMIZING_CLUSTERING_TRIGGER_OVERLAP_RATIO,
+                TableProperties.SELF_OPTIMIZING_CLUSTERING_TRIGGER_OVERLAP_RATIO_DEFAULT))
         .setBaseHashBucket(
             CompatiblePropertyUtil.propertyAsInt(
                 properties,
@@ -76,6 +76,10 @@ public class Resource {
     return threadCount;
   }
 
+  protected void setThreadCount(int threadCount) {
+    this.threadCount = threadCount;
+  }
+
   public int getMemoryMb() {
     return memoryMb;
   }
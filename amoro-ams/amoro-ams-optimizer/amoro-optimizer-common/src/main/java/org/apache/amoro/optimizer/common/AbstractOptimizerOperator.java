@@ -21,6 +21,7 @@ package org.apache.amoro.optimizer.common;
 import org.apache.amoro.ErrorCodes;
 import org.apache.amoro.api.AmoroException;
 import org.apache.amoro.api.OptimizingService;
+import org.apache.amoro.client.AmsThriftUrl;
 import org.apache.amoro.client.OptimizingClientPools;
 import org.apache.amoro.shade.guava32.com.google.common.base.Preconditions;
 import org.apache.amoro.shade.thrift.org.apache.thrift.TApplicationException;
@@ -50,7 +51,7 @@ public class AbstractOptimizerOperator implements Serializable {
   protected <T> T callAms(AmsCallOperation<T> operation) throws TException {
     while (isStarted()) {
       try {
-        return operation.call(OptimizingClientPools.getClient(config.getAmsUrl()));
+        return operation.call(OptimizingClientPools.getClient(optimizingServiceUrl()));
       } catch (Throwable t) {
         if (shouldReturnNull(t)) {
           return null;
@@ -92,7 +93,7 @@ public class AbstractOptimizerOperator implements Serializable {
       if (tokenIsReady()) {
         String token = getToken();
         try {
-          return operation.call(OptimizingClientPools.getClient(config.getAmsUrl()), token);
+          return operation.call(OptimizingClientPools.getClient(optimizingServiceUrl()), token);
         } catch (Throwable t) {
           if (t instanceof AmoroException
               && ErrorCodes.PLUGIN_RETRY_AUTH_ERROR_CODE == ((AmoroException) (t)).getErrorCode()) {
@@ -118,10 +119,25 @@ public class AbstractOptimizerOperator implements Serializable {
     throw new IllegalStateException("Operator is stopped");
   }
 
+  /**
+   * Call ams once with the token, even if the operator is stopped, to release resources held in
+   * ams before exiting.
+   */
+  protected <T> T callAuthenticatedAmsOnce(AmsAuthenticatedCallOperation<T> operation)
+      throws TException {
+    Preconditions.checkState(tokenIsReady(), "Optimizer has not been registered to ams");
+    return operation.call(OptimizingClientPools.getClient(optimizingServiceUrl()), getToken());
+  }
+
   public static void setCallAmsInterval(long callAmsInterval) {
     AbstractOptimizerOperator.callAmsInterval = callAmsInterval;
   }
 
+  /** Url of the optimizing service, which is resolved to the AMS node serving the group. */
+  private String optimizingServiceUrl() {
+    return AmsThriftUrl.withOptimizerGroup(config.getAmsUrl(), config.getGroupName());
+  }
+
   protected OptimizerConfig getConfig() {
     return config;
   }
@@ -19,10 +19,17 @@
 package org.apache.amoro.optimizer.common;
 
 import org.apache.amoro.api.OptimizerProperties;
+import org.apache.amoro.shade.guava32.com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.function.IntFunction;
 import java.util.function.Supplier;
 import java.util.stream.IntStream;
@@ -32,42 +39,78 @@ public class Optimizer {
 
   private final OptimizerConfig config;
   private final OptimizerToucher toucher;
-  private final OptimizerExecutor[] executors;
+  private final IntFunction<OptimizerExecutor> executorFactory;
+  private final boolean elastic;
+  private final Map<Integer, OptimizerExecutor> executors = new ConcurrentSkipListMap<>();
+  private ScheduledExecutorService scaler;
 
   public Optimizer(OptimizerConfig config) {
-    this(config, () -> new OptimizerToucher(config), (i) -> new OptimizerExecutor(config, i));
+    this(
+        config,
+        () -> new OptimizerToucher(config),
+        (i) -> new OptimizerExecutor(config, i),
+        config.isElastic());
   }
 
   protected Optimizer(
       OptimizerConfig config,
       Supplier<OptimizerToucher> toucherFactory,
       IntFunction<OptimizerExecutor> executorFactory) {
+    this(config, toucherFactory, executorFactory, false);
+  }
+
+  /**
+   * @param elastic whether executor threads are scaled between the min execution parallel and the
+   *     execution parallel, only for optimizers running executor threads by themselves
+   */
+  protected Optimizer(
+      OptimizerConfig config,
+      Supplier<OptimizerToucher> toucherFactory,
+      IntFunction<OptimizerExecutor> executorFactory,
+      boolean elastic) {
     this.config = config;
     this.toucher = toucherFactory.get();
-    this.executors = new OptimizerExecutor[config.getExecutionParallel()];
-    IntStream.range(0, config.getExecutionParallel())
-        .forEach(i -> executors[i] = executorFactory.apply(i));
+    this.executorFactory = executorFactory;
+    this.elastic = elastic;
+    // elastic optimizers start with the min execution parallel, and grow with pending tasks
+    int parallel = elastic ? config.getMinExecutionParallel() : config.getExecutionParallel();
+    IntStream.range(0, parallel).forEach(i -> executors.put(i, executorFactory.apply(i)));
+    toucher.reportThreadCount(executors.size());
     if (config.getResourceId() != null) {
       toucher.withRegisterProperty(OptimizerProperties.RESOURCE_ID, config.getResourceId());
     }
+    OptimizerMemoryBudget memoryBudget = OptimizerExecutor.memoryBudget(config);
+    if (memoryBudget.isEnabled()) {
+      toucher.withRegisterProperty(
+          OptimizerProperties.OPTIMIZER_MEMORY_BUDGET, String.valueOf(memoryBudget.budget()));
+    }
   }
 
   public void startOptimizing() {
     LOG.info("Starting optimizer with configuration:{}", config);
-    Arrays.stream(executors)
-        .forEach(
-            optimizerExecutor -> {
-              new Thread(
-                      optimizerExecutor::start,
-                      String.format("Optimizer-executor-%d", optimizerExecutor.getThreadId()))
-                  .start();
-            });
+    executors.values().forEach(this::startExecutor);
+    if (elastic) {
+      scaler =
+          Executors.newSingleThreadScheduledExecutor(
+              new ThreadFactoryBuilder()
+                  .setDaemon(true)
+                  .setNameFormat("optimizer-executor-scaler")
+                  .build());
+      scaler.scheduleWithFixedDelay(
+          this::scaleExecutors,
+          config.getHeartBeat(),
+          config.getHeartBeat(),
+          TimeUnit.MILLISECONDS);
+    }
     toucher.withTokenChangeListener(new SetTokenToExecutors()).start();
   }
 
   public void stopOptimizing() {
+    if (scaler != null) {
+      scaler.shutdownNow();
+    }
     toucher.stop();
-    Arrays.stream(executors).forEach(OptimizerExecutor::stop);
+    executors.values().forEach(OptimizerExecutor::stop);
   }
 
   public OptimizerToucher getToucher() {
@@ -75,14 +118,86 @@ public class Optimizer {
   }
 
   public OptimizerExecutor[] getExecutors() {
-    return executors;
+    return executors.values().toArray(new OptimizerExecutor[0]);
+  }
+
+  private void startExecutor(OptimizerExecutor executor) {
+    new Thread(
+            () -> {
+              executor.start();
+              if (executor.isRetiring() && executors.remove(executor.getThreadId(), executor)) {
+                LOG.info("Stopped optimizer executor[{}] on idle", executor.getThreadId());
+                toucher.reportThreadCount(executors.size());
+              }
+            },
+            String.format("Optimizer-executor-%d", executor.getThreadId()))
+        .start();
+  }
+
+  /**
+   * Scale executor threads in the elastic mode. An executor is added if all executors are busy, one
+   * of them has polled a task since the last scaling and none has polled an empty queue, and an
+   * executor idle for longer than the idle timeout is retired, so that the thread count follows
+   * the pending tasks.
+   *
+   * <p>Busy executors do not poll, so a recently polled task is required as evidence that ams
+   * still has pending tasks, otherwise executors would be added and retired over and over.
+   */
+  void scaleExecutors() {
+    try {
+      long now = System.currentTimeMillis();
+      long lastScaleTime = now - config.getHeartBeat();
+      long activeCount = executors.values().stream().filter(e -> !e.isRetiring()).count();
+      boolean allBusy =
+          executors.values().stream()
+              .allMatch(
+                  e ->
+                      !e.isRetiring()
+                          && e.getIdleTime() == 0
+                          && e.getLastEmptyPollTime() < lastScaleTime);
+      boolean polledTask =
+          executors.values().stream().anyMatch(e -> e.getLastTaskPollTime() >= lastScaleTime);
+      if (allBusy && polledTask && activeCount < config.getExecutionParallel()) {
+        addExecutor();
+        return;
+      }
+      if (activeCount > config.getMinExecutionParallel()) {
+        Optional<OptimizerExecutor> idleExecutor =
+            executors.values().stream()
+                .filter(e -> !e.isRetiring() && e.getIdleTime() > config.getExecutorIdleTimeout())
+                .max(Comparator.comparingInt(OptimizerExecutor::getThreadId));
+        idleExecutor.ifPresent(
+            executor -> {
+              LOG.info("Retire optimizer executor[{}] which is idle", executor.getThreadId());
+              executor.retire();
+            });
+      }
+    } catch (Throwable t) {
+      LOG.error("Optimizer failed to scale executors", t);
+    }
+  }
+
+  private void addExecutor() {
+    // reuse the smallest thread id which is not used by any executor
+    int threadId = 0;
+    while (executors.containsKey(threadId)) {
+      threadId++;
+    }
+    OptimizerExecutor executor = executorFactory.apply(threadId);
+    if (toucher.getToken() != null) {
+      executor.setToken(toucher.getToken());
+    }
+    executors.put(threadId, executor);
+    LOG.info("Add optimizer executor[{}] for pending tasks", threadId);
+    startExecutor(executor);
+    toucher.reportThreadCount(executors.size());
   }
 
   class SetTokenToExecutors implements OptimizerToucher.TokenChangeListener {
 
     @Override
     public void tokenChange(String newToken) {
-      Arrays.stream(executors).forEach(optimizerExecutor -> optimizerExecutor.setToken(newToken));
+      executors.values().forEach(optimizerExecutor -> optimizerExecutor.setToken(newToken));
     }
   }
 }
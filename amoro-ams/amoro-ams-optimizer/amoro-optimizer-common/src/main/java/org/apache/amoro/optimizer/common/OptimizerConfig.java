@@ -82,6 +82,38 @@ public class OptimizerConfig implements Serializable {
       usage = "Memory storage size limit when extending disk storage(MB), default 512MB")
   private long memoryStorageSize = 512; // 512 M
 
+  @Option(
+      name = "-tcs",
+      aliases = "--" + OptimizerProperties.OPTIMIZER_TABLE_CACHE_SIZE,
+      usage = "Max number of tables cached for executing tasks, default 64")
+  private int tableCacheSize = OptimizerProperties.OPTIMIZER_TABLE_CACHE_SIZE_DEFAULT;
+
+  @Option(
+      name = "-mbr",
+      aliases = "--" + OptimizerProperties.OPTIMIZER_MEMORY_BUDGET_RATIO,
+      usage = "Ratio of max jvm memory as the memory budget of tasks, 0 to disable, default 0.6")
+  private double memoryBudgetRatio = OptimizerProperties.OPTIMIZER_MEMORY_BUDGET_RATIO_DEFAULT;
+
+  @Option(
+      name = "-pfs",
+      aliases = "--" + OptimizerProperties.OPTIMIZER_PREFETCH_BUFFER_SIZE,
+      usage = "Buffer size to prefetch input files of the next tasks(MB), 0 to disable, default 0")
+  private long prefetchBufferSize = 0;
+
+  @Option(
+      name = "-mp",
+      aliases = "--" + OptimizerProperties.OPTIMIZER_MIN_EXECUTION_PARALLEL,
+      usage =
+          "Min execution parallel of the elastic mode, executor threads grow up to the execution parallel with pending tasks and shrink to it when idle, 0 to disable, default 0")
+  private int minExecutionParallel = 0;
+
+  @Option(
+      name = "-eit",
+      aliases = "--" + OptimizerProperties.OPTIMIZER_EXECUTOR_IDLE_TIMEOUT,
+      usage =
+          "Idle time(ms) before an executor thread is stopped in the elastic mode, default 5min")
+  private long executorIdleTimeout = OptimizerProperties.OPTIMIZER_EXECUTOR_IDLE_TIMEOUT_DEFAULT;
+
   @Option(name = "-id", aliases = "--" + OptimizerProperties.RESOURCE_ID, usage = "Resource id")
   private String resourceId;
 
@@ -156,6 +188,54 @@ public class OptimizerConfig implements Serializable {
     this.diskStoragePath = diskStoragePath;
   }
 
+  public int getTableCacheSize() {
+    return tableCacheSize;
+  }
+
+  public void setTableCacheSize(int tableCacheSize) {
+    this.tableCacheSize = tableCacheSize;
+  }
+
+  public double getMemoryBudgetRatio() {
+    return memoryBudgetRatio;
+  }
+
+  public void setMemoryBudgetRatio(double memoryBudgetRatio) {
+    this.memoryBudgetRatio = memoryBudgetRatio;
+  }
+
+  public long getPrefetchBufferSize() {
+    return prefetchBufferSize;
+  }
+
+  public void setPrefetchBufferSize(long prefetchBufferSize) {
+    this.prefetchBufferSize = prefetchBufferSize;
+  }
+
+  public int getMinExecutionParallel() {
+    return minExecutionParallel;
+  }
+
+  public void setMinExecutionParallel(int minExecutionParallel) {
+    this.minExecutionParallel = minExecutionParallel;
+  }
+
+  public long getExecutorIdleTimeout() {
+    return executorIdleTimeout;
+  }
+
+  public void setExecutorIdleTimeout(long executorIdleTimeout) {
+    this.executorIdleTimeout = executorIdleTimeout;
+  }
+
+  /**
+   * Returns whether executor threads are elastic, between the min execution parallel and the
+   * execution parallel.
+   */
+  public boolean isElastic() {
+    return minExecutionParallel > 0 && minExecutionParallel < executionParallel;
+  }
+
   public String getResourceId() {
     return resourceId;
   }
@@ -175,6 +255,11 @@ public class OptimizerConfig implements Serializable {
         .add("extendDiskStorage", extendDiskStorage)
         .add("rocksDBBasePath", diskStoragePath)
         .add("memoryStorageSize", memoryStorageSize)
+        .add("tableCacheSize", tableCacheSize)
+        .add("memoryBudgetRatio", memoryBudgetRatio)
+        .add("prefetchBufferSize", prefetchBufferSize)
+        .add("minExecutionParallel", minExecutionParallel)
+        .add("executorIdleTimeout", executorIdleTimeout)
         .add("resourceId", resourceId)
         .toString();
   }
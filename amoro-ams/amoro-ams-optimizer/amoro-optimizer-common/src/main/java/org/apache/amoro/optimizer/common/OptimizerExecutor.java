@@ -20,11 +20,16 @@ package org.apache.amoro.optimizer.common;
 
 import org.apache.amoro.api.OptimizingTask;
 import org.apache.amoro.api.OptimizingTaskResult;
+import org.apache.amoro.io.PrefetchedFileBuffer;
 import org.apache.amoro.optimizing.OptimizingExecutor;
 import org.apache.amoro.optimizing.OptimizingExecutorFactory;
 import org.apache.amoro.optimizing.OptimizingInputProperties;
 import org.apache.amoro.optimizing.TableOptimizing;
+import org.apache.amoro.optimizing.TableReference;
+import org.apache.amoro.optimizing.TableReferencedInput;
+import org.apache.amoro.shade.guava32.com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.amoro.shade.thrift.org.apache.thrift.TException;
+import org.apache.amoro.table.MixedTable;
 import org.apache.amoro.utils.ExceptionUtil;
 import org.apache.amoro.utils.SerializationUtil;
 import org.apache.iceberg.common.DynConstructors;
@@ -32,39 +37,223 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public class OptimizerExecutor extends AbstractOptimizerOperator {
 
   private static final Logger LOG = LoggerFactory.getLogger(OptimizerExecutor.class);
 
+  /** Max time to wait for the memory budget before checking whether the executor is stopped. */
+  private static final long BUDGET_WAIT_TIME = 1000;
+
+  /** Max time to wait for the next task being acquired when the executor is stopped. */
+  private static final long STOP_WAIT_TIME = 10000;
+
+  /** Tables of the tasks, shared by all executor threads in jvm. */
+  private static volatile OptimizerTableCache tableCache;
+
+  /** Memory budget of the tasks, shared by all executor threads in jvm. */
+  private static volatile OptimizerMemoryBudget memoryBudget;
+
+  /** Whether the buffer of prefetched files has been excluded from the memory budget. */
+  private static boolean prefetchBufferReserved = false;
+
   private final int threadId;
 
+  // states of the executor to scale executor threads in the elastic mode
+  private volatile boolean retiring = false;
+  private volatile boolean executing = false;
+  private volatile long idleStartTime = System.currentTimeMillis();
+  private volatile long lastEmptyPollTime = 0;
+  private volatile long lastTaskPollTime = 0;
+
   public OptimizerExecutor(OptimizerConfig config, int threadId) {
     super(config);
     this.threadId = threadId;
   }
 
   public void start() {
-    while (isStarted()) {
-      try {
-        OptimizingTask task = pollTask();
-        if (task != null && ackTask(task)) {
-          OptimizingTaskResult result = executeTask(task);
-          completeTask(result);
+    OptimizingTaskPrefetcher prefetcher = createPrefetcher();
+    ExecutorService prefetchExecutor =
+        prefetcher == null
+            ? null
+            : Executors.newSingleThreadExecutor(
+                new ThreadFactoryBuilder()
+                    .setDaemon(true)
+                    .setNameFormat("optimizer-prefetcher-" + threadId)
+                    .build());
+    CompletableFuture<OptimizingTask> nextTask = null;
+    try {
+      // a retiring executor stops polling, but still executes the task it has acknowledged
+      while (isStarted() && (!retiring || nextTask != null)) {
+        try {
+          OptimizingTask task;
+          if (nextTask != null) {
+            CompletableFuture<OptimizingTask> prefetchedTask = nextTask;
+            nextTask = null;
+            task = prefetchedTask.join();
+          } else {
+            // do not poll tasks while tasks executing in the jvm have used up the memory budget
+            if (!awaitBudgetHeadroom()) {
+              continue;
+            }
+            task = pollAndAckTask();
+          }
+          if (task == null) {
+            continue;
+          }
+          if (prefetcher != null && !retiring) {
+            // acquire the next task and prefetch its input files while executing this one
+            nextTask =
+                CompletableFuture.supplyAsync(
+                    () -> {
+                      if (!awaitBudgetHeadroom()) {
+                        return null;
+                      }
+                      OptimizingTask next = pollAndAckTask();
+                      if (next != null) {
+                        prefetcher.prefetch(next);
+                      }
+                      return next;
+                    },
+                    prefetchExecutor);
+          }
+          executing = true;
+          try {
+            OptimizingTaskResult result = executeTask(task);
+            completeTask(result);
+          } finally {
+            executing = false;
+            idleStartTime = System.currentTimeMillis();
+          }
+        } catch (Throwable t) {
+          LOG.error("Optimizer executor[{}] got an unexpected error", threadId, t);
         }
-      } catch (Throwable t) {
-        LOG.error("Optimizer executor[{}] got an unexpected error", threadId, t);
+      }
+    } finally {
+      if (prefetchExecutor != null) {
+        // interrupt prefetching, and give the acknowledged but not executed task back to ams
+        prefetchExecutor.shutdownNow();
+        failUnexecutedTask(nextTask);
+      }
+    }
+  }
+
+  /**
+   * Wait until the memory budget has room for another task, or the executor stops polling tasks.
+   */
+  private boolean awaitBudgetHeadroom() {
+    OptimizerMemoryBudget budget = memoryBudget(getConfig());
+    try {
+      while (isStarted() && !retiring) {
+        if (budget.awaitHeadroom(BUDGET_WAIT_TIME)) {
+          return true;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return false;
+  }
+
+  private void failUnexecutedTask(CompletableFuture<OptimizingTask> nextTask) {
+    if (nextTask == null) {
+      return;
+    }
+    OptimizingTask task;
+    try {
+      task = nextTask.get(STOP_WAIT_TIME, TimeUnit.MILLISECONDS);
+    } catch (Throwable t) {
+      LOG.warn("Optimizer executor[{}] failed to get the next task when stopped", threadId, t);
+      return;
+    }
+    if (task == null) {
+      return;
+    }
+    OptimizingTaskResult result = new OptimizingTaskResult(task.getTaskId(), threadId);
+    result.setErrorMessage(
+        String.format(
+            "Optimizer executor[%d] stopped before executing the task[%s]",
+            threadId, task.getTaskId()));
+    try {
+      callAuthenticatedAmsOnce(
+          (client, token) -> {
+            client.completeTask(token, result);
+            return null;
+          });
+      LOG.info(
+          "Optimizer executor[{}] gave back task[{}] to ams when stopped",
+          threadId,
+          task.getTaskId());
+    } catch (Throwable t) {
+      LOG.warn(
+          "Optimizer executor[{}] failed to give back task[{}] to ams",
+          threadId,
+          task.getTaskId(),
+          t);
+    }
+  }
+
+  /**
+   * Returns whether tasks are executed in this jvm, so that the next task can be acquired and
+   * prefetched while executing the current one.
+   */
+  protected boolean supportsPrefetching() {
+    return true;
+  }
+
+  private OptimizingTaskPrefetcher createPrefetcher() {
+    if (!supportsPrefetching() || getConfig().getPrefetchBufferSize() <= 0) {
+      return null;
+    }
+    long bufferSize = getConfig().getPrefetchBufferSize() * 1024 * 1024;
+    PrefetchedFileBuffer.initialize(bufferSize);
+    synchronized (OptimizerExecutor.class) {
+      // the buffer is shared by all executor threads in jvm
+      if (!prefetchBufferReserved) {
+        memoryBudget(getConfig()).reserveFixed(bufferSize);
+        prefetchBufferReserved = true;
       }
     }
+    return new OptimizingTaskPrefetcher(getConfig(), PrefetchedFileBuffer.get());
   }
 
   public int getThreadId() {
     return threadId;
   }
 
+  /**
+   * Stop polling tasks, the executor thread exits after the task it has acknowledged is completed.
+   */
+  public void retire() {
+    retiring = true;
+  }
+
+  public boolean isRetiring() {
+    return retiring;
+  }
+
+  /** Returns how long the executor has not been executing tasks, 0 if it is executing one. */
+  public long getIdleTime() {
+    return executing ? 0 : System.currentTimeMillis() - idleStartTime;
+  }
+
+  /** Returns the last time ams had no pending task for this executor. */
+  public long getLastEmptyPollTime() {
+    return lastEmptyPollTime;
+  }
+
+  /** Returns the last time this executor polled a task from ams. */
+  public long getLastTaskPollTime() {
+    return lastTaskPollTime;
+  }
+
   private OptimizingTask pollTask() {
     OptimizingTask task = null;
-    while (isStarted()) {
+    while (isStarted() && !retiring) {
       try {
         task = callAuthenticatedAms((client, token) -> client.pollTask(token, threadId));
       } catch (TException exception) {
@@ -72,14 +261,21 @@ public class OptimizerExecutor extends AbstractOptimizerOperator {
       }
       if (task != null) {
         LOG.info("Optimizer executor[{}] polled task[{}] from ams", threadId, task.getTaskId());
+        lastTaskPollTime = System.currentTimeMillis();
         break;
       } else {
+        lastEmptyPollTime = System.currentTimeMillis();
         waitAShortTime();
       }
     }
     return task;
   }
 
+  private OptimizingTask pollAndAckTask() {
+    OptimizingTask task = pollTask();
+    return task != null && ackTask(task) ? task : null;
+  }
+
   private boolean ackTask(OptimizingTask task) {
     try {
       callAuthenticatedAms(
@@ -131,6 +327,10 @@ public class OptimizerExecutor extends AbstractOptimizerOperator {
     try {
       OptimizingInputProperties properties = OptimizingInputProperties.parse(task.getProperties());
       input = SerializationUtil.simpleDeserialize(task.getTaskInput());
+      if (input instanceof TableReferencedInput) {
+        ((TableReferencedInput) input)
+            .resolveTable(reference -> resolveTable(config, properties, reference));
+      }
       String executorFactoryImpl = properties.getExecutorFactoryImpl();
       DynConstructors.Ctor<OptimizingExecutorFactory> ctor =
           DynConstructors.builder(OptimizingExecutorFactory.class)
@@ -141,12 +341,17 @@ public class OptimizerExecutor extends AbstractOptimizerOperator {
       if (config.isExtendDiskStorage()) {
         properties.enableSpillMap();
       }
-      properties.setMaxSizeInMemory(config.getMemoryStorageSize() * 1024 * 1024);
-      properties.setSpillMapPath(config.getDiskStoragePath());
-      factory.initialize(properties.getProperties());
+      TableOptimizing.OptimizingOutput output;
+      long estimatedMemory = OptimizerMemoryBudget.estimate(input, properties.isClustering());
+      try (OptimizerMemoryBudget.Reservation reservation =
+          memoryBudget(config).reserve(estimatedMemory, config.isExtendDiskStorage())) {
+        properties.setMaxSizeInMemory(reservation.spillThreshold());
+        properties.setSpillMapPath(config.getDiskStoragePath());
+        factory.initialize(properties.getProperties());
 
-      OptimizingExecutor executor = factory.createExecutor(input);
-      TableOptimizing.OptimizingOutput output = executor.execute();
+        OptimizingExecutor executor = factory.createExecutor(input);
+        output = executor.execute();
+      }
       ByteBuffer outputByteBuffer = SerializationUtil.simpleSerialize(output);
       OptimizingTaskResult result = new OptimizingTaskResult(task.getTaskId(), threadId);
       result.setTaskOutput(outputByteBuffer);
@@ -171,4 +376,40 @@ public class OptimizerExecutor extends AbstractOptimizerOperator {
       return errorResult;
     }
   }
+
+  static MixedTable resolveTable(
+      OptimizerConfig config, OptimizingInputProperties properties, TableReference reference) {
+    String tableServiceUrl =
+        properties.getTableServiceUrl() != null
+            ? properties.getTableServiceUrl()
+            : config.getAmsUrl();
+    return tableCache(config).get(reference, tableServiceUrl);
+  }
+
+  private static OptimizerTableCache tableCache(OptimizerConfig config) {
+    if (tableCache == null) {
+      synchronized (OptimizerExecutor.class) {
+        if (tableCache == null) {
+          tableCache = new OptimizerTableCache(config.getTableCacheSize());
+        }
+      }
+    }
+    return tableCache;
+  }
+
+  /** Returns the memory budget of tasks executed in the jvm. */
+  public static OptimizerMemoryBudget memoryBudget(OptimizerConfig config) {
+    if (memoryBudget == null) {
+      synchronized (OptimizerExecutor.class) {
+        if (memoryBudget == null) {
+          memoryBudget = OptimizerMemoryBudget.of(config);
+          LOG.info(
+              "Memory budget of optimizing tasks is {} bytes, max jvm memory {} bytes",
+              memoryBudget.budget(),
+              Runtime.getRuntime().maxMemory());
+        }
+      }
+    }
+    return memoryBudget;
+  }
 }
@@ -0,0 +1,255 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.optimizer.common;
+
+import org.apache.amoro.optimizing.RewriteFilesInput;
+import org.apache.amoro.optimizing.TableOptimizing;
+import org.apache.amoro.shade.guava32.com.google.common.annotations.VisibleForTesting;
+import org.apache.iceberg.ContentFile;
+import org.apache.iceberg.FileContent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Memory budget of tasks executed in the jvm, shared by all executor threads.
+ *
+ * <p>The memory of a task is estimated by the delete files of its input, which are loaded into
+ * memory to filter deleted rows, and by the data files of a clustering task, whose rows are
+ * buffered in memory to be sorted. A task is admitted only if the estimated memory fits into the
+ * free budget, or the budget is not used by any other task, in the order they are reserved. Tasks
+ * which are able to spill to disk are admitted with less memory than estimated, and spill to disk
+ * beyond the granted memory. Executor threads do not poll new tasks while the budget is exhausted.
+ */
+public class OptimizerMemoryBudget {
+  private static final Logger LOG = LoggerFactory.getLogger(OptimizerMemoryBudget.class);
+
+  /** Memory of readers, writers and their buffers of a task, without delete files. */
+  static final long BASE_TASK_MEMORY = 32L * 1024 * 1024;
+
+  /**
+   * Min memory for an admitted spillable task to keep in memory, so that a task granted little more
+   * than the base memory does not spill every record to disk.
+   */
+  static final long MIN_SPILL_THRESHOLD = 8L * 1024 * 1024;
+
+  /** Equality delete records are kept in memory as objects, several times larger than on disk. */
+  static final int EQUALITY_DELETE_EXPANSION = 4;
+
+  /** Position deletes are kept in memory as bitmaps, which are close to the size on disk. */
+  static final int POSITION_DELETE_EXPANSION = 1;
+
+  /**
+   * Rows of clustering tasks are buffered in memory as objects to be sorted, up to the spill
+   * threshold of the task.
+   */
+  static final int CLUSTERED_DATA_EXPANSION = 4;
+
+  private final long budget;
+  private final long maxSpillThreshold;
+  private final Deque<Object> waiters = new ArrayDeque<>();
+  private long reserved = 0;
+  // memory used out of tasks for the lifetime of the jvm
+  private long fixed = 0;
+
+  /**
+   * Create a memory budget.
+   *
+   * @param budget memory budget in bytes, or not positive to disable admission control
+   * @param maxSpillThreshold max memory in bytes for a spillable task to keep in memory
+   */
+  public OptimizerMemoryBudget(long budget, long maxSpillThreshold) {
+    this.budget = budget;
+    this.maxSpillThreshold = maxSpillThreshold;
+  }
+
+  public static OptimizerMemoryBudget of(OptimizerConfig config) {
+    long budget = (long) (Runtime.getRuntime().maxMemory() * config.getMemoryBudgetRatio());
+    return new OptimizerMemoryBudget(budget, config.getMemoryStorageSize() * 1024 * 1024);
+  }
+
+  public boolean isEnabled() {
+    return budget > 0;
+  }
+
+  /** Memory budget in bytes. */
+  public long budget() {
+    return budget;
+  }
+
+  public synchronized long reserved() {
+    return reserved;
+  }
+
+  /**
+   * Exclude memory used out of tasks for the lifetime of the jvm from the budget, such as the
+   * buffer of prefetched files. The budget still admits one task at a time if it is used up.
+   *
+   * @param bytes memory in bytes
+   */
+  public synchronized void reserveFixed(long bytes) {
+    fixed += bytes;
+  }
+
+  /**
+   * Estimate the memory to execute the input.
+   *
+   * @param input input of the task
+   * @param clustering whether rows of the rewritten data files are sorted before they are written
+   * @return estimated memory in bytes
+   */
+  public static long estimate(TableOptimizing.OptimizingInput input, boolean clustering) {
+    long memory = BASE_TASK_MEMORY;
+    if (input instanceof RewriteFilesInput) {
+      RewriteFilesInput rewriteInput = (RewriteFilesInput) input;
+      for (ContentFile<?> deleteFile : rewriteInput.deleteFiles()) {
+        // equality deletes of mixed format tables are data files of the change store
+        int expansion =
+            deleteFile.content() == FileContent.POSITION_DELETES
+                ? POSITION_DELETE_EXPANSION
+                : EQUALITY_DELETE_EXPANSION;
+        memory += deleteFile.fileSizeInBytes() * expansion;
+      }
+      if (clustering) {
+        for (ContentFile<?> dataFile : rewriteInput.dataFiles()) {
+          memory += dataFile.fileSizeInBytes() * CLUSTERED_DATA_EXPANSION;
+        }
+      }
+    }
+    return memory;
+  }
+
+  /**
+   * Wait until the budget has room for another task, before polling a new task.
+   *
+   * @param timeoutMs max time to wait
+   * @return true if the budget has room for another task
+   */
+  public synchronized boolean awaitHeadroom(long timeoutMs) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + timeoutMs;
+    while (exhausted()) {
+      long waitTime = deadline - System.currentTimeMillis();
+      if (waitTime <= 0) {
+        return false;
+      }
+      wait(waitTime);
+    }
+    return true;
+  }
+
+  /**
+   * Reserve memory for a task, wait until the task is admitted.
+   *
+   * @param estimated estimated memory of the task
+   * @param spillable whether the task is able to spill to disk
+   * @return the reservation, which should be closed after the task is executed
+   */
+  public synchronized Reservation reserve(long estimated, boolean spillable)
+      throws InterruptedException {
+    if (!isEnabled()) {
+      return new Reservation(0, maxSpillThreshold);
+    }
+    Object waiter = new Object();
+    waiters.add(waiter);
+    try {
+      while (waiters.peek() != waiter || !admit(estimated, spillable)) {
+        wait();
+      }
+    } finally {
+      waiters.remove(waiter);
+      notifyAll();
+    }
+    long granted = Math.min(estimated, Math.max(free(), BASE_TASK_MEMORY));
+    reserved += granted;
+    if (granted >= estimated) {
+      return new Reservation(granted, maxSpillThreshold);
+    }
+    // spill to disk beyond the granted memory
+    long spillThreshold =
+        Math.min(maxSpillThreshold, Math.max(MIN_SPILL_THRESHOLD, granted - BASE_TASK_MEMORY));
+    LOG.info(
+        "Admitted task with {} bytes less than estimated {} bytes, spill threshold {} bytes",
+        granted,
+        estimated,
+        spillThreshold);
+    return new Reservation(granted, spillThreshold);
+  }
+
+  private boolean exhausted() {
+    if (!isEnabled()) {
+      return false;
+    }
+    // tasks waiting for admission go first
+    return !waiters.isEmpty() || (reserved > 0 && free() < BASE_TASK_MEMORY);
+  }
+
+  private long free() {
+    return budget - fixed - reserved;
+  }
+
+  private boolean admit(long estimated, boolean spillable) {
+    long free = free();
+    if (reserved == 0 || estimated <= free) {
+      return true;
+    }
+    return spillable && free >= BASE_TASK_MEMORY;
+  }
+
+  private synchronized void release(long granted) {
+    reserved -= granted;
+    notifyAll();
+  }
+
+  @VisibleForTesting
+  synchronized int waitingCount() {
+    return waiters.size();
+  }
+
+  /** Memory reserved for a task, which is released when closed. */
+  public class Reservation implements AutoCloseable {
+    private final long granted;
+    private final long spillThreshold;
+    private boolean released = false;
+
+    private Reservation(long granted, long spillThreshold) {
+      this.granted = granted;
+      this.spillThreshold = spillThreshold;
+    }
+
+    /** Memory granted to the task in bytes. */
+    public long granted() {
+      return granted;
+    }
+
+    /** Max memory in bytes for the task to keep in memory before spilling to disk. */
+    public long spillThreshold() {
+      return spillThreshold;
+    }
+
+    @Override
+    public void close() {
+      if (!released) {
+        released = true;
+        release(granted);
+      }
+    }
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.optimizer.common;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.apache.amoro.UnifiedCatalog;
+import org.apache.amoro.UnifiedCatalogLoader;
+import org.apache.amoro.optimizing.TableReference;
+import org.apache.amoro.shade.guava32.com.google.common.annotations.VisibleForTesting;
+import org.apache.amoro.shade.guava32.com.google.common.collect.Maps;
+import org.apache.amoro.table.MixedTable;
+import org.apache.amoro.table.TableIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of tables resolved by the {@link TableReference} of optimizing inputs, shared by all
+ * executor threads of the optimizer.
+ *
+ * <p>A cached table is never refreshed, since it is used by tasks running at the same time. It is
+ * used only if it contains the snapshots the task is planned on, otherwise the table is reloaded
+ * from the catalog, and the reloaded table replaces the cached one for later tasks.
+ *
+ * <p>Tables are loaded through the catalogs of the AMS table service, so optimizers need access to
+ * the catalogs and their metastores. Failures to load a table are remembered for a while, during
+ * which tasks fall back to the table embedded in their inputs, if any.
+ */
+public class OptimizerTableCache {
+  private static final Logger LOG = LoggerFactory.getLogger(OptimizerTableCache.class);
+
+  // catalogs are reloaded at times, to pick up catalogs changed or dropped in the ams
+  private static final long CATALOG_EXPIRATION_MINUTES = 10;
+  // tables are not loaded again for a while after a failure, so that tasks shipped with the table
+  // fall back to it without waiting for an unreachable catalog each time
+  private static final long LOAD_FAILURE_EXPIRATION_SECONDS = 60;
+
+  private final Cache<TableIdentifier, MixedTable> tables;
+  private final Cache<String, UnifiedCatalog> catalogs =
+      Caffeine.newBuilder().expireAfterWrite(CATALOG_EXPIRATION_MINUTES, TimeUnit.MINUTES).build();
+  private final Cache<TableIdentifier, RuntimeException> loadFailures =
+      Caffeine.newBuilder()
+          .expireAfterWrite(LOAD_FAILURE_EXPIRATION_SECONDS, TimeUnit.SECONDS)
+          .build();
+
+  public OptimizerTableCache(int maxSize) {
+    this.tables = Caffeine.newBuilder().maximumSize(maxSize).build();
+  }
+
+  /**
+   * Returns the table referenced by the optimizing input.
+   *
+   * @param reference reference of the table
+   * @param amsUrl url of the ams table service, to load catalogs
+   * @return the table, which is not older than the planning of the input
+   */
+  public MixedTable get(TableReference reference, String amsUrl) {
+    TableIdentifier identifier = reference.getIdentifier();
+    MixedTable table = tables.get(identifier, id -> loadTableOrFail(id, amsUrl));
+    if (reference.isSatisfiedBy(table)) {
+      return table;
+    }
+    LOG.info("Reload table {} which does not satisfy {}", identifier, reference);
+    MixedTable reloadedTable = loadTableOrFail(identifier, amsUrl);
+    // keep the table if another task has already reloaded it
+    tables
+        .asMap()
+        .compute(
+            identifier,
+            (id, cachedTable) ->
+                cachedTable != null && reference.isSatisfiedBy(cachedTable)
+                    ? cachedTable
+                    : reloadedTable);
+    return reloadedTable;
+  }
+
+  private MixedTable loadTableOrFail(TableIdentifier identifier, String amsUrl) {
+    RuntimeException failure = loadFailures.getIfPresent(identifier);
+    if (failure != null) {
+      throw new IllegalStateException("Table " + identifier + " failed to load recently", failure);
+    }
+    try {
+      return loadTable(identifier, amsUrl);
+    } catch (RuntimeException e) {
+      loadFailures.put(identifier, e);
+      throw e;
+    }
+  }
+
+  @VisibleForTesting
+  protected MixedTable loadTable(TableIdentifier identifier, String amsUrl) {
+    UnifiedCatalog catalog =
+        catalogs.get(
+            identifier.getCatalog(),
+            name -> UnifiedCatalogLoader.loadUnifiedCatalog(amsUrl, name, Maps.newHashMap()));
+    return (MixedTable)
+        catalog.loadTable(identifier.getDatabase(), identifier.getTableName()).originalTable();
+  }
+}
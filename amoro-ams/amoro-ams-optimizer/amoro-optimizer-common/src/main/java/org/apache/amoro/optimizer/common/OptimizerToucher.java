@@ -35,10 +35,13 @@ public class OptimizerToucher extends AbstractOptimizerOperator {
   private TokenChangeListener tokenChangeListener;
   private final Map<String, String> registerProperties = Maps.newHashMap();
   private final long startTime;
+  private volatile int threadCount;
+  private volatile boolean threadCountChanged = false;
 
   public OptimizerToucher(OptimizerConfig config) {
     super(config);
     this.startTime = System.currentTimeMillis();
+    this.threadCount = config.getExecutionParallel();
   }
 
   public OptimizerToucher withTokenChangeListener(TokenChangeListener tokenChangeListener) {
@@ -52,11 +55,24 @@ public class OptimizerToucher extends AbstractOptimizerOperator {
     return this;
   }
 
+  /** Report the current executor thread count to ams, with the next heart beat. */
+  public void reportThreadCount(int threadCount) {
+    this.threadCount = threadCount;
+    this.threadCountChanged = true;
+  }
+
+  public int getThreadCount() {
+    return threadCount;
+  }
+
   public void start() {
     LOG.info("Starting optimizer toucher with configuration:{}", getConfig());
     while (isStarted()) {
       try {
         if (checkToken()) {
+          if (threadCountChanged) {
+            updateThreadCount();
+          }
           touch();
         }
         waitAShortTime(getConfig().getHeartBeat());
@@ -76,14 +92,8 @@ public class OptimizerToucher extends AbstractOptimizerOperator {
                   withRegisterProperty(
                       OptimizerProperties.OPTIMIZER_HEART_BEAT_INTERVAL,
                       String.valueOf(getConfig().getHeartBeat()));
-                  OptimizerRegisterInfo registerInfo = new OptimizerRegisterInfo();
-                  registerInfo.setThreadCount(getConfig().getExecutionParallel());
-                  registerInfo.setMemoryMb(getConfig().getMemorySize());
-                  registerInfo.setGroupName(getConfig().getGroupName());
-                  registerInfo.setProperties(registerProperties);
-                  registerInfo.setResourceId(getConfig().getResourceId());
-                  registerInfo.setStartTime(startTime);
-                  return client.authenticate(registerInfo);
+                  threadCountChanged = false;
+                  return client.authenticate(buildRegisterInfo(registerProperties));
                 });
         setToken(token);
         if (tokenChangeListener != null) {
@@ -103,6 +113,43 @@ public class OptimizerToucher extends AbstractOptimizerOperator {
     return true;
   }
 
+  /**
+   * Update the thread count of the registered optimizer, by authenticating again with the current
+   * token, which is kept by ams.
+   */
+  private void updateThreadCount() {
+    String token = getToken();
+    try {
+      threadCountChanged = false;
+      Map<String, String> properties = Maps.newHashMap(registerProperties);
+      properties.put(OptimizerProperties.OPTIMIZER_REGISTERED_TOKEN, token);
+      String newToken = callAms(client -> client.authenticate(buildRegisterInfo(properties)));
+      LOG.info("Updated thread count of optimizer[{}] to {}", token, threadCount);
+      if (!token.equals(newToken)) {
+        // registered as a new optimizer by ams which does not support updating
+        setToken(newToken);
+        if (tokenChangeListener != null) {
+          tokenChangeListener.tokenChange(newToken);
+        }
+        LOG.info("Registered optimizer to ams with token:{}", newToken);
+      }
+    } catch (TException e) {
+      threadCountChanged = true;
+      LOG.error("Update thread count of optimizer[{}] failed", token, e);
+    }
+  }
+
+  private OptimizerRegisterInfo buildRegisterInfo(Map<String, String> properties) {
+    OptimizerRegisterInfo registerInfo = new OptimizerRegisterInfo();
+    registerInfo.setThreadCount(threadCount);
+    registerInfo.setMemoryMb(getConfig().getMemorySize());
+    registerInfo.setGroupName(getConfig().getGroupName());
+    registerInfo.setProperties(properties);
+    registerInfo.setResourceId(getConfig().getResourceId());
+    registerInfo.setStartTime(startTime);
+    return registerInfo;
+  }
+
   private void touch() {
     try {
       callAms(
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.optimizer.common;
+
+import org.apache.amoro.api.OptimizingTask;
+import org.apache.amoro.io.AuthenticatedFileIO;
+import org.apache.amoro.io.PrefetchedFileBuffer;
+import org.apache.amoro.optimizing.IcebergRewriteExecutorFactory;
+import org.apache.amoro.optimizing.OptimizingInputProperties;
+import org.apache.amoro.optimizing.RewriteFilesInput;
+import org.apache.amoro.optimizing.TableOptimizing;
+import org.apache.amoro.utils.SerializationUtil;
+import org.apache.iceberg.ContentFile;
+import org.apache.iceberg.DataFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Prefetches input files of a task into the {@link PrefetchedFileBuffer} before it is executed.
+ * Delete files are prefetched entirely since they are read entirely by the task, while only tails
+ * of data files are prefetched, which contain the footers.
+ *
+ * <p>Only tasks executed by {@link IcebergRewriteExecutorFactory} are prefetched, since their
+ * readers read files through the buffer.
+ */
+public class OptimizingTaskPrefetcher {
+
+  private static final Logger LOG = LoggerFactory.getLogger(OptimizingTaskPrefetcher.class);
+
+  /** Length of the tail of data files to prefetch, large enough for common parquet footers. */
+  static final long DATA_FILE_TAIL_LENGTH = 128 * 1024;
+
+  private final OptimizerConfig config;
+  private final PrefetchedFileBuffer buffer;
+
+  public OptimizingTaskPrefetcher(OptimizerConfig config, PrefetchedFileBuffer buffer) {
+    this.config = config;
+    this.buffer = buffer;
+  }
+
+  /**
+   * Prefetch input files of the task, failures are ignored since the task can still read files
+   * from the file system.
+   */
+  public void prefetch(OptimizingTask task) {
+    long startTime = System.currentTimeMillis();
+    try {
+      OptimizingInputProperties properties = OptimizingInputProperties.parse(task.getProperties());
+      String executorFactoryImpl = properties.getExecutorFactoryImpl();
+      if (!IcebergRewriteExecutorFactory.class.getName().equals(executorFactoryImpl)) {
+        return;
+      }
+      TableOptimizing.OptimizingInput input =
+          SerializationUtil.simpleDeserialize(task.getTaskInput());
+      if (!(input instanceof RewriteFilesInput)) {
+        return;
+      }
+      RewriteFilesInput rewriteInput = (RewriteFilesInput) input;
+      rewriteInput.resolveTable(
+          reference -> OptimizerExecutor.resolveTable(config, properties, reference));
+      AuthenticatedFileIO io = rewriteInput.getTable().io();
+      for (ContentFile<?> deleteFile : rewriteInput.deleteFiles()) {
+        String path = deleteFile.path().toString();
+        buffer.prefetch(io, path, deleteFile.fileSizeInBytes(), deleteFile.fileSizeInBytes());
+      }
+      for (DataFile dataFile : rewriteInput.dataFiles()) {
+        String path = dataFile.path().toString();
+        buffer.prefetch(io, path, dataFile.fileSizeInBytes(), DATA_FILE_TAIL_LENGTH);
+      }
+      LOG.info(
+          "Prefetched input files of task[{}] and cost {}, buffer size {} bytes",
+          task.getTaskId(),
+          System.currentTimeMillis() - startTime,
+          buffer.sizeInBytes());
+    } catch (Throwable t) {
+      LOG.warn("Failed to prefetch input files of task[{}]", task.getTaskId(), t);
+    }
+  }
+}
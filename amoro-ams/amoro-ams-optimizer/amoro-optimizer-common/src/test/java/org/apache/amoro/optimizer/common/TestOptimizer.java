@@ -54,4 +54,100 @@ public class TestOptimizer extends OptimizerTestBase {
     Assert.assertEquals(2, taskResults.size());
     optimizer.stopOptimizing();
   }
+
+  @Test
+  public void testScaleElasticExecutors() throws InterruptedException {
+    OptimizerConfig optimizerConfig =
+        OptimizerTestHelpers.buildOptimizerConfig(TEST_AMS.getServerUrl());
+    optimizerConfig.setExecutionParallel(3);
+    optimizerConfig.setMinExecutionParallel(1);
+    optimizerConfig.setExecutorIdleTimeout(1000);
+    Optimizer optimizer =
+        new Optimizer(
+            optimizerConfig,
+            () -> new OptimizerToucher(optimizerConfig),
+            i -> new TestElasticExecutor(optimizerConfig, i),
+            true);
+    Assert.assertEquals(1, optimizer.getExecutors().length);
+    Assert.assertEquals(1, optimizer.getToucher().getThreadCount());
+
+    // do not grow if busy executors have not polled any task recently
+    TestElasticExecutor first = (TestElasticExecutor) optimizer.getExecutors()[0];
+    optimizer.scaleExecutors();
+    Assert.assertEquals(1, optimizer.getExecutors().length);
+
+    // grow while all executors are busy and ams has pending tasks
+    first.lastTaskPollTime = System.currentTimeMillis();
+    optimizer.scaleExecutors();
+    Assert.assertEquals(2, optimizer.getExecutors().length);
+    Assert.assertEquals(2, optimizer.getToucher().getThreadCount());
+
+    // do not grow if ams has no pending task
+    TestElasticExecutor executor = (TestElasticExecutor) optimizer.getExecutors()[1];
+    executor.lastEmptyPollTime = System.currentTimeMillis();
+    optimizer.scaleExecutors();
+    Assert.assertEquals(2, optimizer.getExecutors().length);
+
+    // grow up to the execution parallel
+    executor.lastEmptyPollTime = 0;
+    first.lastTaskPollTime = System.currentTimeMillis();
+    optimizer.scaleExecutors();
+    optimizer.scaleExecutors();
+    Assert.assertEquals(3, optimizer.getExecutors().length);
+    Assert.assertEquals(3, optimizer.getToucher().getThreadCount());
+
+    // shrink down to the min execution parallel while executors are idle
+    for (OptimizerExecutor idleExecutor : optimizer.getExecutors()) {
+      ((TestElasticExecutor) idleExecutor).idleTime = 2000;
+    }
+    optimizer.scaleExecutors();
+    optimizer.scaleExecutors();
+    optimizer.scaleExecutors();
+    waitForThreadCount(optimizer, 1);
+    Assert.assertEquals(1, optimizer.getExecutors().length);
+    Assert.assertEquals(0, optimizer.getExecutors()[0].getThreadId());
+    optimizer.stopOptimizing();
+  }
+
+  private void waitForThreadCount(Optimizer optimizer, int threadCount)
+      throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+    while (optimizer.getToucher().getThreadCount() != threadCount
+        && System.currentTimeMillis() < deadline) {
+      TimeUnit.MILLISECONDS.sleep(OptimizerTestHelpers.CALL_AMS_INTERVAL);
+    }
+    Assert.assertEquals(threadCount, optimizer.getToucher().getThreadCount());
+  }
+
+  private static class TestElasticExecutor extends OptimizerExecutor {
+    private volatile long idleTime = 0;
+    private volatile long lastEmptyPollTime = 0;
+    private volatile long lastTaskPollTime = 0;
+
+    private TestElasticExecutor(OptimizerConfig config, int threadId) {
+      super(config, threadId);
+    }
+
+    @Override
+    public void start() {
+      while (isStarted() && !isRetiring()) {
+        waitAShortTime(100);
+      }
+    }
+
+    @Override
+    public long getIdleTime() {
+      return idleTime;
+    }
+
+    @Override
+    public long getLastEmptyPollTime() {
+      return lastEmptyPollTime;
+    }
+
+    @Override
+    public long getLastTaskPollTime() {
+      return lastTaskPollTime;
+    }
+  }
 }
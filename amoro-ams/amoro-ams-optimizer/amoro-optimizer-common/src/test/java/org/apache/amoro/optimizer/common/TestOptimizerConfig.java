@@ -28,7 +28,8 @@ public class TestOptimizerConfig {
 
   @Test
   public void testParseArguments() throws CmdLineException {
-    String cmd = "-a thrift://127.0.0.1:1260 -p 11 -g g1 -hb 2000 -eds -dsp /tmp/amoro -msz 512";
+    String cmd =
+        "-a thrift://127.0.0.1:1260 -p 11 -g g1 -hb 2000 -eds -dsp /tmp/amoro -msz 512 -mbr 0.5 -pfs 64 -mp 2 -eit 60000";
     String[] args = cmd.split(" ");
     OptimizerConfig optimizerConfig = new OptimizerConfig(args);
     Assert.assertEquals("thrift://127.0.0.1:1260", optimizerConfig.getAmsUrl());
@@ -38,6 +39,11 @@ public class TestOptimizerConfig {
     Assert.assertTrue(optimizerConfig.isExtendDiskStorage());
     Assert.assertEquals("/tmp/amoro", optimizerConfig.getDiskStoragePath());
     Assert.assertEquals(512, optimizerConfig.getMemoryStorageSize());
+    Assert.assertEquals(0.5, optimizerConfig.getMemoryBudgetRatio(), 0);
+    Assert.assertEquals(64, optimizerConfig.getPrefetchBufferSize());
+    Assert.assertEquals(2, optimizerConfig.getMinExecutionParallel());
+    Assert.assertEquals(60000, optimizerConfig.getExecutorIdleTimeout());
+    Assert.assertTrue(optimizerConfig.isElastic());
   }
 
   @Test
@@ -35,6 +35,7 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
@@ -103,21 +104,85 @@ public class TestOptimizerExecutor extends OptimizerTestBase {
     Assert.assertTrue(taskResult.getErrorMessage().contains(FAILED_TASK_MESSAGE));
   }
 
+  @Test
+  public void testExecuteTasksPipelined() throws InterruptedException, TException {
+    String token = TEST_AMS.getOptimizerHandler().authenticate(new OptimizerRegisterInfo());
+    for (int i = 0; i < 3; i++) {
+      TEST_AMS.getOptimizerHandler().offerTask(TestOptimizingInput.slowInput(i, 100).toTask(0, i));
+    }
+    OptimizerExecutor pipelinedExecutor = startPipelinedExecutor(token);
+    try {
+      TimeUnit.MILLISECONDS.sleep(OptimizerTestHelpers.CALL_AMS_INTERVAL * 2);
+      Assert.assertEquals(0, TEST_AMS.getOptimizerHandler().getPendingTasks().size());
+      List<OptimizingTaskResult> results =
+          TEST_AMS.getOptimizerHandler().getCompletedTasks().get(token);
+      Assert.assertEquals(3, results.size());
+      for (int i = 0; i < 3; i++) {
+        Assert.assertEquals(new OptimizingTaskId(0, i), results.get(i).getTaskId());
+        Assert.assertNull(results.get(i).getErrorMessage());
+      }
+    } finally {
+      pipelinedExecutor.stop();
+    }
+  }
+
+  @Test
+  public void testGiveBackPrefetchedTaskWhenStopped() throws InterruptedException, TException {
+    String token = TEST_AMS.getOptimizerHandler().authenticate(new OptimizerRegisterInfo());
+    TEST_AMS
+        .getOptimizerHandler()
+        .offerTask(
+            TestOptimizingInput.slowInput(0, OptimizerTestHelpers.CALL_AMS_INTERVAL * 4)
+                .toTask(0, 0));
+    TEST_AMS.getOptimizerHandler().offerTask(TestOptimizingInput.successInput(1).toTask(0, 1));
+    OptimizerExecutor pipelinedExecutor = startPipelinedExecutor(token);
+    // the second task is acknowledged while executing the first one
+    TimeUnit.MILLISECONDS.sleep(OptimizerTestHelpers.CALL_AMS_INTERVAL);
+    Assert.assertEquals(0, TEST_AMS.getOptimizerHandler().getPendingTasks().size());
+    Assert.assertEquals(2, TEST_AMS.getOptimizerHandler().getExecutingTasks().get(token).size());
+
+    // the result of the executing task is dropped as before, while the acknowledged one is given
+    // back to ams after the executing task finishes
+    pipelinedExecutor.stop();
+    TimeUnit.MILLISECONDS.sleep(OptimizerTestHelpers.CALL_AMS_INTERVAL * 6);
+    List<OptimizingTaskResult> results =
+        TEST_AMS.getOptimizerHandler().getCompletedTasks().get(token);
+    Assert.assertEquals(1, results.size());
+    Assert.assertEquals(new OptimizingTaskId(0, 1), results.get(0).getTaskId());
+    Assert.assertTrue(results.get(0).getErrorMessage().contains("stopped before executing"));
+  }
+
+  private OptimizerExecutor startPipelinedExecutor(String token) {
+    OptimizerConfig optimizerConfig =
+        OptimizerTestHelpers.buildOptimizerConfig(TEST_AMS.getServerUrl());
+    optimizerConfig.setPrefetchBufferSize(1);
+    OptimizerExecutor executor = new OptimizerExecutor(optimizerConfig, 1);
+    executor.setToken(token);
+    new Thread(executor::start).start();
+    return executor;
+  }
+
   public static class TestOptimizingInput extends BaseOptimizingInput {
     private final int inputId;
     private final boolean executeSuccess;
+    private final long executeTime;
 
-    private TestOptimizingInput(int inputId, boolean executeSuccess) {
+    private TestOptimizingInput(int inputId, boolean executeSuccess, long executeTime) {
       this.inputId = inputId;
       this.executeSuccess = executeSuccess;
+      this.executeTime = executeTime;
     }
 
     public static TestOptimizingInput successInput(int inputId) {
-      return new TestOptimizingInput(inputId, true);
+      return new TestOptimizingInput(inputId, true, 0);
     }
 
     public static TestOptimizingInput failedInput(int inputId) {
-      return new TestOptimizingInput(inputId, false);
+      return new TestOptimizingInput(inputId, false, 0);
+    }
+
+    public static TestOptimizingInput slowInput(int inputId, long executeTime) {
+      return new TestOptimizingInput(inputId, true, executeTime);
     }
 
     private int inputId() {
@@ -158,6 +223,13 @@ public class TestOptimizerExecutor extends OptimizerTestBase {
 
     @Override
     public TestOptimizingOutput execute() {
+      if (input.executeTime > 0) {
+        try {
+          TimeUnit.MILLISECONDS.sleep(input.executeTime);
+        } catch (InterruptedException e) {
+          throw new IllegalStateException(e);
+        }
+      }
       if (input.executeSuccess) {
         return new TestOptimizingOutput(input.inputId());
       } else {
@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.optimizer.common;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.apache.amoro.TableFormat;
+import org.apache.amoro.optimizing.RewriteFilesInput;
+import org.apache.amoro.table.TableIdentifier;
+import org.apache.amoro.table.UnkeyedTable;
+import org.apache.iceberg.ContentFile;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.DataFiles;
+import org.apache.iceberg.DeleteFile;
+import org.apache.iceberg.FileMetadata;
+import org.apache.iceberg.PartitionSpec;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class TestOptimizerMemoryBudget {
+
+  private static final long MB = 1024 * 1024;
+
+  @Test
+  public void testEstimate() {
+    Assert.assertEquals(
+        OptimizerMemoryBudget.BASE_TASK_MEMORY,
+        OptimizerMemoryBudget.estimate(
+            TestOptimizerExecutor.TestOptimizingInput.successInput(1), false));
+
+    DataFile dataFile = dataFile("data-1.parquet", 100 * MB);
+    // equality deletes of mixed format tables are data files of the change store
+    DataFile mixedEqDeleteFile = dataFile("eq-delete-1.parquet", 2 * MB);
+    DeleteFile eqDeleteFile =
+        FileMetadata.deleteFileBuilder(PartitionSpec.unpartitioned())
+            .ofEqualityDeletes(1)
+            .withPath("eq-delete-2.parquet")
+            .withFileSizeInBytes(3 * MB)
+            .withRecordCount(1)
+            .build();
+    DeleteFile posDeleteFile =
+        FileMetadata.deleteFileBuilder(PartitionSpec.unpartitioned())
+            .ofPositionDeletes()
+            .withPath("pos-delete-1.parquet")
+            .withFileSizeInBytes(5 * MB)
+            .withRecordCount(1)
+            .build();
+    RewriteFilesInput input =
+        new RewriteFilesInput(
+            new DataFile[] {dataFile},
+            new DataFile[0],
+            new ContentFile<?>[] {mixedEqDeleteFile, posDeleteFile},
+            new ContentFile<?>[] {eqDeleteFile},
+            mockTable());
+    // data files are streamed, only delete files are weighted
+    Assert.assertEquals(
+        OptimizerMemoryBudget.BASE_TASK_MEMORY
+            + (2 + 3) * MB * OptimizerMemoryBudget.EQUALITY_DELETE_EXPANSION
+            + 5 * MB * OptimizerMemoryBudget.POSITION_DELETE_EXPANSION,
+        OptimizerMemoryBudget.estimate(input, false));
+    // rows of the rewritten data files of a clustering task are buffered to be sorted
+    Assert.assertEquals(
+        OptimizerMemoryBudget.estimate(input, false)
+            + 100 * MB * OptimizerMemoryBudget.CLUSTERED_DATA_EXPANSION,
+        OptimizerMemoryBudget.estimate(input, true));
+  }
+
+  @Test
+  public void testDisabled() throws InterruptedException {
+    OptimizerMemoryBudget budget = new OptimizerMemoryBudget(0, 512 * MB);
+    Assert.assertFalse(budget.isEnabled());
+    try (OptimizerMemoryBudget.Reservation reservation = budget.reserve(1024 * MB, false)) {
+      Assert.assertEquals(512 * MB, reservation.spillThreshold());
+      Assert.assertEquals(0, budget.reserved());
+      Assert.assertTrue(budget.awaitHeadroom(0));
+    }
+  }
+
+  @Test
+  public void testAdmitInOrder() throws Exception {
+    OptimizerMemoryBudget budget = new OptimizerMemoryBudget(100 * MB, 512 * MB);
+    OptimizerMemoryBudget.Reservation first = budget.reserve(80 * MB, false);
+    Assert.assertEquals(80 * MB, first.granted());
+    Assert.assertEquals(512 * MB, first.spillThreshold());
+
+    CompletableFuture<OptimizerMemoryBudget.Reservation> second = reserveAsync(budget, 40 * MB);
+    waitUntilWaiting(budget);
+    Assert.assertThrows(TimeoutException.class, () -> second.get(100, TimeUnit.MILLISECONDS));
+    // polls are deferred while a task is waiting for admission
+    Assert.assertFalse(budget.awaitHeadroom(10));
+
+    first.close();
+    Assert.assertEquals(40 * MB, second.get(10, TimeUnit.SECONDS).granted());
+    Assert.assertEquals(40 * MB, budget.reserved());
+    Assert.assertTrue(budget.awaitHeadroom(0));
+    second.get().close();
+    Assert.assertEquals(0, budget.reserved());
+  }
+
+  @Test
+  public void testAdmitSpillableTask() throws InterruptedException {
+    OptimizerMemoryBudget budget = new OptimizerMemoryBudget(100 * MB, 512 * MB);
+    try (OptimizerMemoryBudget.Reservation first = budget.reserve(50 * MB, false);
+        OptimizerMemoryBudget.Reservation second = budget.reserve(200 * MB, true)) {
+      Assert.assertEquals(50 * MB, first.granted());
+      Assert.assertEquals(50 * MB, second.granted());
+      Assert.assertEquals(
+          50 * MB - OptimizerMemoryBudget.BASE_TASK_MEMORY, second.spillThreshold());
+      Assert.assertEquals(100 * MB, budget.reserved());
+      Assert.assertFalse(budget.awaitHeadroom(10));
+    }
+    Assert.assertEquals(0, budget.reserved());
+  }
+
+  @Test
+  public void testMinSpillThreshold() throws InterruptedException {
+    OptimizerMemoryBudget budget = new OptimizerMemoryBudget(100 * MB, 512 * MB);
+    long free = OptimizerMemoryBudget.BASE_TASK_MEMORY;
+    try (OptimizerMemoryBudget.Reservation first = budget.reserve(100 * MB - free, false);
+        OptimizerMemoryBudget.Reservation second = budget.reserve(200 * MB, true)) {
+      // no memory is granted beyond the base memory, but the task still keeps some in memory
+      Assert.assertEquals(free, second.granted());
+      Assert.assertEquals(OptimizerMemoryBudget.MIN_SPILL_THRESHOLD, second.spillThreshold());
+    }
+
+    // the min threshold does not exceed the configured max threshold
+    budget = new OptimizerMemoryBudget(100 * MB, MB);
+    try (OptimizerMemoryBudget.Reservation first = budget.reserve(100 * MB - free, false);
+        OptimizerMemoryBudget.Reservation second = budget.reserve(200 * MB, true)) {
+      Assert.assertEquals(MB, second.spillThreshold());
+    }
+  }
+
+  @Test
+  public void testAdmitOversizedTaskAlone() throws InterruptedException {
+    OptimizerMemoryBudget budget = new OptimizerMemoryBudget(100 * MB, 512 * MB);
+    try (OptimizerMemoryBudget.Reservation reservation = budget.reserve(200 * MB, false)) {
+      Assert.assertEquals(100 * MB, reservation.granted());
+    }
+    Assert.assertEquals(0, budget.reserved());
+  }
+
+  @Test
+  public void testReserveFixedMemory() throws InterruptedException {
+    OptimizerMemoryBudget budget = new OptimizerMemoryBudget(100 * MB, 512 * MB);
+    // such as the buffer of prefetched files
+    budget.reserveFixed(30 * MB);
+    try (OptimizerMemoryBudget.Reservation reservation = budget.reserve(50 * MB, false)) {
+      Assert.assertEquals(50 * MB, reservation.granted());
+      Assert.assertFalse(budget.awaitHeadroom(10));
+    }
+    Assert.assertTrue(budget.awaitHeadroom(0));
+    // a task larger than the rest of the budget is still admitted alone
+    try (OptimizerMemoryBudget.Reservation reservation = budget.reserve(100 * MB, false)) {
+      Assert.assertEquals(70 * MB, reservation.granted());
+    }
+  }
+
+  private static DataFile dataFile(String path, long fileSizeInBytes) {
+    return DataFiles.builder(PartitionSpec.unpartitioned())
+        .withPath(path)
+        .withFileSizeInBytes(fileSizeInBytes)
+        .withRecordCount(1)
+        .build();
+  }
+
+  private static UnkeyedTable mockTable() {
+    UnkeyedTable table = mock(UnkeyedTable.class);
+    when(table.id()).thenReturn(TableIdentifier.of("catalog", "db", "table"));
+    when(table.format()).thenReturn(TableFormat.MIXED_ICEBERG);
+    when(table.location()).thenReturn("file:/tmp/table");
+    when(table.isKeyedTable()).thenReturn(false);
+    when(table.asUnkeyedTable()).thenReturn(table);
+    return table;
+  }
+
+  private CompletableFuture<OptimizerMemoryBudget.Reservation> reserveAsync(
+      OptimizerMemoryBudget budget, long estimated) {
+    return CompletableFuture.supplyAsync(
+        () -> {
+          try {
+            return budget.reserve(estimated, false);
+          } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+          }
+        });
+  }
+
+  private void waitUntilWaiting(OptimizerMemoryBudget budget) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 10000;
+    while (budget.waitingCount() == 0 && System.currentTimeMillis() < deadline) {
+      TimeUnit.MILLISECONDS.sleep(10);
+    }
+    Assert.assertEquals(1, budget.waitingCount());
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.optimizer.common;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.apache.amoro.TableFormat;
+import org.apache.amoro.optimizing.TableReference;
+import org.apache.amoro.table.MixedTable;
+import org.apache.amoro.table.TableIdentifier;
+import org.apache.amoro.table.UnkeyedTable;
+import org.apache.iceberg.Snapshot;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedList;
+
+public class TestOptimizerTableCache {
+
+  private static final TableIdentifier TABLE_ID = TableIdentifier.of("catalog", "db", "table");
+  private static final String AMS_URL = "thrift://127.0.0.1:1260";
+
+  @Test
+  public void testHit() {
+    MixedTable table = mockTable(1L);
+    TestTableCache tableCache = new TestTableCache(table);
+
+    Assert.assertSame(table, tableCache.get(TableReference.of(table), AMS_URL));
+    Assert.assertSame(table, tableCache.get(TableReference.of(table), AMS_URL));
+    Assert.assertEquals(1, tableCache.loads);
+  }
+
+  @Test
+  public void testReloadOlderTable() {
+    MixedTable table = mockTable(1L);
+    MixedTable newerTable = mockTable(1L, 2L);
+    TestTableCache tableCache = new TestTableCache(table, newerTable);
+    MixedTable usedTable = tableCache.get(TableReference.of(table), AMS_URL);
+
+    // a task planned on a newer snapshot reloads the table, instead of refreshing the shared one
+    TableReference newerReference = TableReference.of(newerTable);
+    Assert.assertSame(newerTable, tableCache.get(newerReference, AMS_URL));
+    verify(usedTable, never()).refresh();
+
+    // the reloaded table replaces the cached one for later tasks
+    Assert.assertSame(newerTable, tableCache.get(newerReference, AMS_URL));
+    Assert.assertSame(newerTable, tableCache.get(TableReference.of(table), AMS_URL));
+    Assert.assertEquals(2, tableCache.loads);
+  }
+
+  @Test
+  public void testLoadFailure() {
+    MixedTable table = mockTable(1L);
+    // the catalog is not reachable when the table is loaded for the first time
+    TestTableCache tableCache = new TestTableCache(null, table);
+
+    Assert.assertThrows(
+        IllegalStateException.class, () -> tableCache.get(TableReference.of(table), AMS_URL));
+    // the failure is remembered, so that tasks fall back to their embedded tables at once
+    Assert.assertThrows(
+        IllegalStateException.class, () -> tableCache.get(TableReference.of(table), AMS_URL));
+    Assert.assertEquals(1, tableCache.loads);
+  }
+
+  /** Mock a table with snapshots, the last of which is the current one. */
+  private static MixedTable mockTable(Long... snapshotIds) {
+    UnkeyedTable table = mock(UnkeyedTable.class);
+    when(table.id()).thenReturn(TABLE_ID);
+    when(table.format()).thenReturn(TableFormat.MIXED_ICEBERG);
+    when(table.location()).thenReturn("file:/tmp/table");
+    when(table.isKeyedTable()).thenReturn(false);
+    when(table.asUnkeyedTable()).thenReturn(table);
+    when(table.snapshot(anyLong())).thenReturn(null);
+    Snapshot currentSnapshot = null;
+    for (long snapshotId : snapshotIds) {
+      Snapshot snapshot = mock(Snapshot.class);
+      when(snapshot.snapshotId()).thenReturn(snapshotId);
+      when(table.snapshot(snapshotId)).thenReturn(snapshot);
+      currentSnapshot = snapshot;
+    }
+    when(table.currentSnapshot()).thenReturn(currentSnapshot);
+    return table;
+  }
+
+  private static class TestTableCache extends OptimizerTableCache {
+    private final Deque<MixedTable> loadedTables;
+    private int loads = 0;
+
+    TestTableCache(MixedTable... loadedTables) {
+      super(10);
+      this.loadedTables = new LinkedList<>(Arrays.asList(loadedTables));
+    }
+
+    @Override
+    protected MixedTable loadTable(TableIdentifier identifier, String amsUrl) {
+      loads++;
+      MixedTable table = loadedTables.poll();
+      if (table == null) {
+        throw new IllegalStateException("Failed to connect to the catalog");
+      }
+      return table;
+    }
+  }
+}
@@ -22,6 +22,7 @@ import org.apache.amoro.api.resource.Resource;
 import org.apache.amoro.optimizer.common.Optimizer;
 import org.apache.amoro.optimizer.common.OptimizerConfig;
 import org.apache.amoro.optimizer.common.OptimizerToucher;
+import org.apache.spark.SparkConf;
 import org.apache.spark.api.java.JavaSparkContext;
 import org.apache.spark.sql.SparkSession;
 import org.apache.spark.util.Utils;
@@ -33,11 +34,59 @@ public class SparkOptimizer extends Optimizer {
   private static final Logger LOG = LoggerFactory.getLogger(SparkOptimizer.class);
   private static final String APP_NAME_FORMAT = "amoro-spark-optimizer-%s";
 
+  /** Whether to execute tasks as spark-native jobs, see {@link SparkOptimizingJobBatcher}. */
+  public static final String NATIVE_EXECUTION_ENABLED =
+      "spark.amoro.optimizer.native-execution.enabled";
+
+  /** Max size of data files in a part of a split task, or 0 to not split tasks. */
+  public static final String TASK_SPLIT_SIZE = "spark.amoro.optimizer.task-split-size";
+  // a quarter of the default max task size of tables, so that tasks of the default size are split
+  public static final String TASK_SPLIT_SIZE_DEFAULT = "32m";
+
+  /** Max number of tasks (or parts of them) in a spark job. */
+  public static final String JOB_BATCH_SIZE = "spark.amoro.optimizer.job-batch-size";
+
+  /** Max time to wait for more tasks before submitting a spark job. */
+  public static final String JOB_BATCH_LINGER = "spark.amoro.optimizer.job-batch-linger";
+
+  private final SparkOptimizingJobBatcher jobBatcher;
+
   public SparkOptimizer(OptimizerConfig config, JavaSparkContext jsc) {
+    this(config, jsc, createJobBatcher(config, jsc));
+  }
+
+  private SparkOptimizer(
+      OptimizerConfig config, JavaSparkContext jsc, SparkOptimizingJobBatcher jobBatcher) {
     super(
         config,
         () -> new OptimizerToucher(config),
-        (i) -> new SparkOptimizerExecutor(jsc, config, i));
+        (i) -> new SparkOptimizerExecutor(jsc, config, i, jobBatcher));
+    this.jobBatcher = jobBatcher;
+  }
+
+  @Override
+  public void stopOptimizing() {
+    super.stopOptimizing();
+    if (jobBatcher != null) {
+      jobBatcher.stop();
+    }
+  }
+
+  private static SparkOptimizingJobBatcher createJobBatcher(
+      OptimizerConfig config, JavaSparkContext jsc) {
+    SparkConf conf = jsc.getConf();
+    if (!conf.getBoolean(NATIVE_EXECUTION_ENABLED, false)) {
+      return null;
+    }
+    SparkOptimizingTaskSplitter taskSplitter =
+        new SparkOptimizingTaskSplitter(
+            conf.getSizeAsBytes(TASK_SPLIT_SIZE, TASK_SPLIT_SIZE_DEFAULT));
+    return new SparkOptimizingJobBatcher(
+        jsc,
+        config,
+        taskSplitter,
+        conf.getInt(JOB_BATCH_SIZE, 16),
+        conf.getTimeAsMs(JOB_BATCH_LINGER, "200ms"));
   }
 
   public static void main(String[] args) throws Exception {
@@ -22,6 +22,7 @@ import org.apache.amoro.api.OptimizingTask;
 import org.apache.amoro.api.OptimizingTaskResult;
 import org.apache.amoro.optimizer.common.OptimizerConfig;
 import org.apache.amoro.optimizer.common.OptimizerExecutor;
+import org.apache.amoro.optimizing.CleanExpiredFilesInput;
 import org.apache.amoro.optimizing.RewriteFilesInput;
 import org.apache.amoro.optimizing.TableOptimizing;
 import org.apache.amoro.shade.guava32.com.google.common.collect.ImmutableList;
@@ -30,6 +31,7 @@ import org.apache.amoro.utils.SerializationUtil;
 import org.apache.spark.api.java.JavaSparkContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import scala.Tuple2;
 
 import java.util.List;
 
@@ -41,11 +43,31 @@ public class SparkOptimizerExecutor extends OptimizerExecutor {
   private static final Logger LOG = LoggerFactory.getLogger(SparkOptimizerExecutor.class);
   private final JavaSparkContext jsc;
   private final int threadId;
+  private final SparkOptimizingJobBatcher jobBatcher;
 
   public SparkOptimizerExecutor(JavaSparkContext jsc, OptimizerConfig config, int threadId) {
+    this(jsc, config, threadId, null);
+  }
+
+  /**
+   * Create an executor which executes tasks by the spark-native job batcher shared by all executor
+   * threads, or wraps each task as a spark job if the batcher is null.
+   */
+  public SparkOptimizerExecutor(
+      JavaSparkContext jsc,
+      OptimizerConfig config,
+      int threadId,
+      SparkOptimizingJobBatcher jobBatcher) {
     super(config, threadId);
     this.jsc = jsc;
     this.threadId = threadId;
+    this.jobBatcher = jobBatcher;
+  }
+
+  /** Tasks are executed by spark executors, which do not share the buffer of the driver. */
+  @Override
+  protected boolean supportsPrefetching() {
+    return false;
   }
 
   @Override
@@ -54,12 +76,16 @@ public class SparkOptimizerExecutor extends OptimizerExecutor {
     String threadName = Thread.currentThread().getName();
     try {
       long startTime = System.currentTimeMillis();
-      ImmutableList<OptimizingTask> of = ImmutableList.of(task);
-      jsc.setJobDescription(jobDescription(task));
-      SparkOptimizingTaskFunction taskFunction =
-          new SparkOptimizingTaskFunction(getConfig(), threadId);
-      List<OptimizingTaskResult> results = jsc.parallelize(of, 1).map(taskFunction).collect();
-      result = results.get(0);
+      if (jobBatcher != null) {
+        result = jobBatcher.execute(threadId, task);
+      } else {
+        ImmutableList<Tuple2<Integer, OptimizingTask>> of =
+            ImmutableList.of(new Tuple2<>(threadId, task));
+        jsc.setJobDescription(jobDescription(task));
+        SparkOptimizingTaskFunction taskFunction = new SparkOptimizingTaskFunction(getConfig());
+        List<OptimizingTaskResult> results = jsc.parallelize(of, 1).map(taskFunction).collect();
+        result = results.get(0);
+      }
       LOG.info(
           "Optimizer executor[{}] executed task[{}] and cost {}",
           threadName,
@@ -83,7 +109,14 @@ public class SparkOptimizerExecutor extends OptimizerExecutor {
       description =
           String.format(
               "Amoro rewrite files task, table name:%s, task id:%s",
-              ((RewriteFilesInput) input).getTable().name(), task.getTaskId());
+              ((RewriteFilesInput) input).getTableReference().getIdentifier(),
+              task.getTaskId());
+    } else if (input instanceof CleanExpiredFilesInput) {
+      description =
+          String.format(
+              "Amoro clean expired files task, table name:%s, task id:%s",
+              ((CleanExpiredFilesInput) input).getTableReference().getIdentifier(),
+              task.getTaskId());
     } else {
       throw new IllegalArgumentException("Unsupported task:" + input.getClass());
     }
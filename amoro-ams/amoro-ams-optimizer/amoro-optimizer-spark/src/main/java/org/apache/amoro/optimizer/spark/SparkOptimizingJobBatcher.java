@@ -0,0 +1,254 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.optimizer.spark;
+
+import org.apache.amoro.api.OptimizingTask;
+import org.apache.amoro.api.OptimizingTaskResult;
+import org.apache.amoro.optimizer.common.OptimizerConfig;
+import org.apache.amoro.shade.guava32.com.google.common.collect.Lists;
+import org.apache.amoro.shade.guava32.com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import scala.Tuple2;
+import scala.collection.Iterator;
+import scala.collection.JavaConverters;
+import scala.runtime.AbstractFunction0;
+import scala.runtime.AbstractFunction1;
+import scala.runtime.AbstractFunction2;
+import scala.runtime.BoxedUnit;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * The {@code SparkOptimizingJobBatcher} executes the tasks of all executor threads as spark-native
+ * jobs. A large task is split into parts executed by different spark partitions, and the tasks (or
+ * parts of them) submitted within the linger time are batched into one spark job with a partition
+ * for each, which saves the overhead of scheduling a spark job for every small task. The result of
+ * each task is reported as soon as its partition finishes, without waiting for the other partitions
+ * of the job.
+ */
+public class SparkOptimizingJobBatcher {
+  private static final Logger LOG = LoggerFactory.getLogger(SparkOptimizingJobBatcher.class);
+
+  private final JavaSparkContext jsc;
+  private final SparkOptimizingTaskFunction taskFunction;
+  private final SparkOptimizingTaskSplitter taskSplitter;
+  private final int maxBatchSize;
+  private final long lingerMs;
+  private final BlockingQueue<PendingTask> pendingTasks = new LinkedBlockingQueue<>();
+  // tasks submitted and not completed yet, whether queued, being dispatched or running
+  private final Set<PendingTask> inflightTasks = ConcurrentHashMap.newKeySet();
+  private final ExecutorService jobExecutor;
+  private final Thread dispatcher;
+  private volatile boolean stopped = false;
+
+  public SparkOptimizingJobBatcher(
+      JavaSparkContext jsc,
+      OptimizerConfig config,
+      SparkOptimizingTaskSplitter taskSplitter,
+      int maxBatchSize,
+      long lingerMs) {
+    this.jsc = jsc;
+    this.taskFunction = new SparkOptimizingTaskFunction(config);
+    this.taskSplitter = taskSplitter;
+    this.maxBatchSize = maxBatchSize;
+    this.lingerMs = lingerMs;
+    this.jobExecutor =
+        Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("spark-optimizing-job-%d")
+                .build());
+    this.dispatcher = new Thread(this::dispatch, "spark-optimizing-job-batcher");
+    this.dispatcher.setDaemon(true);
+    this.dispatcher.start();
+  }
+
+  /**
+   * Execute the task and wait for the result.
+   *
+   * @param threadId id of the executor thread which polled the task
+   * @param task task to execute
+   * @return result of the task, which contains the error message if the task failed
+   * @throws IllegalStateException if the spark job failed, or the batcher is stopped or interrupted
+   *     while waiting for the result
+   */
+  public OptimizingTaskResult execute(int threadId, OptimizingTask task) {
+    List<OptimizingTask> parts = taskSplitter.split(task);
+    List<CompletableFuture<OptimizingTaskResult>> futures =
+        parts.stream().map(part -> submit(threadId, part)).collect(Collectors.toList());
+    List<OptimizingTaskResult> results = Lists.newArrayListWithCapacity(futures.size());
+    try {
+      for (CompletableFuture<OptimizingTaskResult> future : futures) {
+        results.add(future.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while executing task " + task.getTaskId(), e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Failed to execute task " + task.getTaskId(), e.getCause());
+    }
+    return taskSplitter.merge(task, threadId, results);
+  }
+
+  /** Stop the batcher, failing all tasks not completed yet, including those already dispatched. */
+  public void stop() {
+    stopped = true;
+    dispatcher.interrupt();
+    jobExecutor.shutdown();
+    pendingTasks.clear();
+    IllegalStateException exception = stoppedException();
+    inflightTasks.forEach(pendingTask -> pendingTask.result.completeExceptionally(exception));
+  }
+
+  private CompletableFuture<OptimizingTaskResult> submit(int threadId, OptimizingTask task) {
+    PendingTask pendingTask = new PendingTask(threadId, task);
+    inflightTasks.add(pendingTask);
+    pendingTask.result.whenComplete((result, error) -> inflightTasks.remove(pendingTask));
+    // registered as inflight before checking, so either this or stop() fails the task
+    if (stopped) {
+      pendingTask.result.completeExceptionally(stoppedException());
+    } else {
+      pendingTasks.add(pendingTask);
+    }
+    return pendingTask.result;
+  }
+
+  private static IllegalStateException stoppedException() {
+    return new IllegalStateException("Spark optimizer is stopped");
+  }
+
+  private void dispatch() {
+    while (!stopped) {
+      List<PendingTask> batch = Lists.newArrayList();
+      try {
+        batch.add(pendingTasks.take());
+        long deadline = System.currentTimeMillis() + lingerMs;
+        while (batch.size() < maxBatchSize) {
+          long waitTime = Math.max(deadline - System.currentTimeMillis(), 0);
+          PendingTask pendingTask = pendingTasks.poll(waitTime, TimeUnit.MILLISECONDS);
+          if (pendingTask == null) {
+            break;
+          }
+          batch.add(pendingTask);
+        }
+        jobExecutor.execute(() -> runJob(batch));
+      } catch (InterruptedException e) {
+        LOG.info("Spark optimizing job batcher is interrupted");
+        Thread.currentThread().interrupt();
+        IllegalStateException exception = stoppedException();
+        batch.forEach(pendingTask -> pendingTask.result.completeExceptionally(exception));
+        return;
+      } catch (Throwable t) {
+        // e.g. the job executor rejected the batch, fail it instead of leaving the tasks waiting
+        LOG.error("Spark optimizing job batcher failed to dispatch {} tasks", batch.size(), t);
+        batch.forEach(pendingTask -> pendingTask.result.completeExceptionally(t));
+      }
+    }
+  }
+
+  private void runJob(List<PendingTask> batch) {
+    long startTime = System.currentTimeMillis();
+    List<Tuple2<Integer, OptimizingTask>> tasks =
+        batch.stream()
+            .map(pendingTask -> new Tuple2<>(pendingTask.threadId, pendingTask.task))
+            .collect(Collectors.toList());
+    String taskIds =
+        batch.stream()
+            .map(pendingTask -> pendingTask.task.getTaskId().toString())
+            .distinct()
+            .collect(Collectors.joining(","));
+    try {
+      jsc.setJobDescription(String.format("Amoro optimizing job, task ids:%s", taskIds));
+      JavaRDD<OptimizingTaskResult> results =
+          jsc.parallelize(tasks, tasks.size()).map(taskFunction);
+      List<Object> partitions =
+          IntStream.range(0, tasks.size())
+              .<Object>mapToObj(Integer::valueOf)
+              .collect(Collectors.toList());
+      // the result of each partition is reported as soon as it finishes, instead of waiting for
+      // the slowest partition of the job
+      jsc.sc()
+          .submitJob(
+              results.rdd(),
+              new PartitionResult(),
+              JavaConverters.asScalaBuffer(partitions),
+              new AbstractFunction2<Object, OptimizingTaskResult, BoxedUnit>() {
+                @Override
+                public BoxedUnit apply(Object partition, OptimizingTaskResult result) {
+                  batch.get((Integer) partition).result.complete(result);
+                  return BoxedUnit.UNIT;
+                }
+              },
+              new AbstractFunction0<BoxedUnit>() {
+                @Override
+                public BoxedUnit apply() {
+                  return BoxedUnit.UNIT;
+                }
+              })
+          .get();
+      LOG.info(
+          "Spark optimizing job of {} partitions for tasks[{}] cost {}",
+          batch.size(),
+          taskIds,
+          System.currentTimeMillis() - startTime);
+    } catch (Throwable t) {
+      LOG.error("Spark optimizing job for tasks[{}] failed", taskIds, t);
+      // tasks of the partitions already finished keep their results
+      batch.forEach(pendingTask -> pendingTask.result.completeExceptionally(t));
+    }
+  }
+
+  /** Result of a partition of the job, which executes a single task. */
+  private static class PartitionResult
+      extends AbstractFunction1<Iterator<OptimizingTaskResult>, OptimizingTaskResult>
+      implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public OptimizingTaskResult apply(Iterator<OptimizingTaskResult> results) {
+      return results.next();
+    }
+  }
+
+  private static class PendingTask {
+    private final int threadId;
+    private final OptimizingTask task;
+    private final CompletableFuture<OptimizingTaskResult> result = new CompletableFuture<>();
+
+    private PendingTask(int threadId, OptimizingTask task) {
+      this.threadId = threadId;
+      this.task = task;
+    }
+  }
+}
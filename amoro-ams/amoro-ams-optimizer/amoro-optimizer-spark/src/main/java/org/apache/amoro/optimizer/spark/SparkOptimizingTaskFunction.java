@@ -25,23 +25,24 @@ import org.apache.amoro.optimizer.common.OptimizerExecutor;
 import org.apache.spark.api.java.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import scala.Tuple2;
 
 /**
  * The {@code SparkOptimizingTaskExecuteFunction} defines the whole processing logic that how to
- * execute {@code OptimizingTask}
+ * execute {@code OptimizingTask}, the task is paired with the id of the executor thread which
+ * polled it.
  */
-public class SparkOptimizingTaskFunction implements Function<OptimizingTask, OptimizingTaskResult> {
+public class SparkOptimizingTaskFunction
+    implements Function<Tuple2<Integer, OptimizingTask>, OptimizingTaskResult> {
   private static final Logger LOG = LoggerFactory.getLogger(SparkOptimizingTaskFunction.class);
   private final OptimizerConfig config;
-  private final int threadId;
 
-  public SparkOptimizingTaskFunction(OptimizerConfig config, int threadId) {
+  public SparkOptimizingTaskFunction(OptimizerConfig config) {
     this.config = config;
-    this.threadId = threadId;
   }
 
   @Override
-  public OptimizingTaskResult call(OptimizingTask task) {
-    return OptimizerExecutor.executeTask(config, threadId, task, LOG);
+  public OptimizingTaskResult call(Tuple2<Integer, OptimizingTask> task) {
+    return OptimizerExecutor.executeTask(config, task._1(), task._2(), LOG);
   }
 }
@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.optimizer.spark;
+
+import org.apache.amoro.api.OptimizingTask;
+import org.apache.amoro.api.OptimizingTaskResult;
+import org.apache.amoro.optimizing.IcebergRewriteExecutorFactory;
+import org.apache.amoro.optimizing.OptimizingInputProperties;
+import org.apache.amoro.optimizing.OptimizingTaskSummary;
+import org.apache.amoro.optimizing.RewriteFilesInput;
+import org.apache.amoro.optimizing.RewriteFilesOutput;
+import org.apache.amoro.optimizing.TableOptimizing;
+import org.apache.amoro.shade.guava32.com.google.common.collect.Lists;
+import org.apache.amoro.shade.guava32.com.google.common.collect.Maps;
+import org.apache.amoro.utils.SerializationUtil;
+import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.DeleteFile;
+import org.apache.iceberg.FileContent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code SparkOptimizingTaskSplitter} splits a large rewrite task into parts by groups of its
+ * data files, so that the parts can be executed by different spark partitions, and merges the
+ * results of the parts as the result of the task.
+ *
+ * <p>Only iceberg rewrite tasks without re-pos-deleted data files and clustering are split, as the
+ * parts of them write data files independently. Each part reads only the delete files which may
+ * apply to its data files, see {@link RewriteFilesInput#split(DataFile[])}.
+ */
+public class SparkOptimizingTaskSplitter {
+  private static final Logger LOG = LoggerFactory.getLogger(SparkOptimizingTaskSplitter.class);
+
+  private final long splitSize;
+
+  public SparkOptimizingTaskSplitter(long splitSize) {
+    this.splitSize = splitSize;
+  }
+
+  /**
+   * Split the task by groups of data files not larger than the split size.
+   *
+   * @param task task to split
+   * @return parts of the task, or the task itself if it is not split
+   */
+  public List<OptimizingTask> split(OptimizingTask task) {
+    TableOptimizing.OptimizingInput input =
+        SerializationUtil.simpleDeserialize(task.getTaskInput());
+    if (!canSplit(task, input)) {
+      return Collections.singletonList(task);
+    }
+    RewriteFilesInput rewriteInput = (RewriteFilesInput) input;
+    List<List<DataFile>> groups = Lists.newArrayList();
+    List<DataFile> group = Lists.newArrayList();
+    long groupSize = 0;
+    for (DataFile dataFile : rewriteInput.rewrittenDataFiles()) {
+      if (!group.isEmpty() && groupSize + dataFile.fileSizeInBytes() > splitSize) {
+        groups.add(group);
+        group = Lists.newArrayList();
+        groupSize = 0;
+      }
+      group.add(dataFile);
+      groupSize += dataFile.fileSizeInBytes();
+    }
+    groups.add(group);
+    if (groups.size() == 1) {
+      return Collections.singletonList(task);
+    }
+
+    List<OptimizingTask> parts = Lists.newArrayListWithCapacity(groups.size());
+    for (List<DataFile> dataFiles : groups) {
+      OptimizingTask part = task.deepCopy();
+      part.setTaskInput(
+          SerializationUtil.simpleSerialize(
+              rewriteInput.split(dataFiles.toArray(new DataFile[0]))));
+      parts.add(part);
+    }
+    LOG.info("Split task[{}] into {} parts by data files", task.getTaskId(), parts.size());
+    return parts;
+  }
+
+  /**
+   * Merge the results of the parts as the result of the task, the task fails if any part fails.
+   *
+   * @param task task the parts are split from
+   * @param threadId id of the executor thread
+   * @param results results of the parts
+   * @return result of the task
+   */
+  public OptimizingTaskResult merge(
+      OptimizingTask task, int threadId, List<OptimizingTaskResult> results) {
+    if (results.size() == 1) {
+      return results.get(0);
+    }
+    List<DataFile> dataFiles = Lists.newArrayList();
+    // parts of a task may output the same delete files, which are counted once
+    Map<String, DeleteFile> deleteFiles = Maps.newLinkedHashMap();
+    Map<String, String> summary = Maps.newHashMap();
+    for (OptimizingTaskResult partResult : results) {
+      if (partResult.getErrorMessage() != null) {
+        OptimizingTaskResult errorResult = new OptimizingTaskResult(task.getTaskId(), threadId);
+        errorResult.setErrorMessage(partResult.getErrorMessage());
+        return errorResult;
+      }
+      RewriteFilesOutput output = SerializationUtil.simpleDeserialize(partResult.getTaskOutput());
+      if (output.getDataFiles() != null) {
+        dataFiles.addAll(Arrays.asList(output.getDataFiles()));
+      }
+      if (output.getDeleteFiles() != null) {
+        for (DeleteFile deleteFile : output.getDeleteFiles()) {
+          deleteFiles.putIfAbsent(deleteFile.path().toString(), deleteFile);
+        }
+      }
+      for (Map.Entry<String, String> entry : output.summary().entrySet()) {
+        summary.merge(
+            entry.getKey(), entry.getValue(), (v1, v2) -> mergeSummary(entry.getKey(), v1, v2));
+      }
+    }
+
+    summary.putAll(fileSummary(dataFiles, deleteFiles.values()));
+
+    RewriteFilesOutput output =
+        new RewriteFilesOutput(
+            dataFiles.toArray(new DataFile[0]),
+            deleteFiles.values().toArray(new DeleteFile[0]),
+            summary);
+    OptimizingTaskResult result = new OptimizingTaskResult(task.getTaskId(), threadId);
+    result.setTaskOutput(SerializationUtil.simpleSerialize(output));
+    result.setSummary(output.summary());
+    return result;
+  }
+
+  /** Summary of the files output by the task, instead of the sum of the summaries of parts. */
+  private static Map<String, String> fileSummary(
+      List<DataFile> dataFiles, Collection<DeleteFile> deleteFiles) {
+    OptimizingTaskSummary summary = new OptimizingTaskSummary();
+    summary.setDataFileCnt(dataFiles.size());
+    summary.setDataFileTotalSize(dataFiles.stream().mapToLong(DataFile::fileSizeInBytes).sum());
+    int eqDeleteFileCnt = 0;
+    long eqDeleteFileTotalSize = 0;
+    int posDeleteFileCnt = 0;
+    long posDeleteFileTotalSize = 0;
+    for (DeleteFile deleteFile : deleteFiles) {
+      if (deleteFile.content() == FileContent.EQUALITY_DELETES) {
+        eqDeleteFileCnt++;
+        eqDeleteFileTotalSize += deleteFile.fileSizeInBytes();
+      } else {
+        posDeleteFileCnt++;
+        posDeleteFileTotalSize += deleteFile.fileSizeInBytes();
+      }
+    }
+    summary.setEqDeleteFileCnt(eqDeleteFileCnt);
+    summary.setEqDeleteFileTotalSize(eqDeleteFileTotalSize);
+    summary.setPosDeleteFileCnt(posDeleteFileCnt);
+    summary.setPosDeleteFileTotalSize(posDeleteFileTotalSize);
+    return summary.getSummary();
+  }
+
+  private static String mergeSummary(String key, String value1, String value2) {
+    long merged;
+    if (OptimizingTaskSummary.EXECUTE_DURATION.equals(key)) {
+      // parts are executed in parallel
+      merged = Math.max(Long.parseLong(value1), Long.parseLong(value2));
+    } else {
+      merged = Long.parseLong(value1) + Long.parseLong(value2);
+    }
+    return String.valueOf(merged);
+  }
+
+  private boolean canSplit(OptimizingTask task, TableOptimizing.OptimizingInput input) {
+    if (splitSize <= 0 || !(input instanceof RewriteFilesInput)) {
+      return false;
+    }
+    OptimizingInputProperties properties = OptimizingInputProperties.parse(task.getProperties());
+    RewriteFilesInput rewriteInput = (RewriteFilesInput) input;
+    return IcebergRewriteExecutorFactory.class.getName().equals(properties.getExecutorFactoryImpl())
+        && StringUtils.isBlank(
+            properties.getProperties().get(OptimizingInputProperties.CLUSTERING_COLUMNS))
+        && ArrayUtils.isEmpty(rewriteInput.rePosDeletedDataFiles())
+        && ArrayUtils.getLength(rewriteInput.rewrittenDataFiles()) > 1;
+  }
+}
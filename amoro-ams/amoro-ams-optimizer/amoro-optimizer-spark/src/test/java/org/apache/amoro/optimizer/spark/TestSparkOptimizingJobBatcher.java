@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.optimizer.spark;
+
+import org.apache.amoro.api.OptimizingTaskId;
+import org.apache.amoro.api.OptimizingTaskResult;
+import org.apache.amoro.optimizer.common.OptimizerTestHelpers;
+import org.apache.amoro.optimizer.common.TestOptimizerExecutor.TestOptimizingInput;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.scheduler.SparkListener;
+import org.apache.spark.scheduler.SparkListenerJobStart;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class TestSparkOptimizingJobBatcher {
+
+  private static final JobCounter JOB_COUNTER = new JobCounter();
+  private static JavaSparkContext jsc;
+
+  // executor threads of the optimizer
+  private final ExecutorService executorThreads = Executors.newFixedThreadPool(4);
+  private SparkOptimizingJobBatcher batcher;
+
+  @BeforeClass
+  public static void startSpark() {
+    jsc = new JavaSparkContext("local[4]", "test-spark-optimizing-job-batcher");
+    jsc.sc().addSparkListener(JOB_COUNTER);
+  }
+
+  @AfterClass
+  public static void stopSpark() {
+    jsc.stop();
+  }
+
+  @Before
+  public void resetJobCounter() {
+    JOB_COUNTER.jobs.set(0);
+  }
+
+  @After
+  public void stopBatcher() {
+    if (batcher != null) {
+      batcher.stop();
+    }
+    executorThreads.shutdownNow();
+  }
+
+  @Test
+  public void testBatchTasks() throws InterruptedException {
+    batcher = createBatcher(2, 1000);
+    List<CompletableFuture<OptimizingTaskResult>> results =
+        IntStream.range(0, 4)
+            .mapToObj(
+                i ->
+                    CompletableFuture.supplyAsync(
+                        () -> batcher.execute(i, TestOptimizingInput.successInput(i).toTask(0, i)),
+                        executorThreads))
+            .collect(Collectors.toList());
+
+    for (int i = 0; i < results.size(); i++) {
+      OptimizingTaskResult result = results.get(i).join();
+      Assert.assertEquals(new OptimizingTaskId(0, i), result.getTaskId());
+      Assert.assertEquals(i, result.getThreadId());
+      Assert.assertNull(result.getErrorMessage());
+    }
+    // 4 tasks submitted within the linger time are batched into jobs of 2 partitions
+    Assert.assertEquals(2, JOB_COUNTER.await(2));
+  }
+
+  @Test
+  public void testReportTaskBeforeJobFinished() throws InterruptedException {
+    batcher = createBatcher(2, 1000);
+    CompletableFuture<OptimizingTaskResult> slowResult =
+        CompletableFuture.supplyAsync(
+            () -> batcher.execute(1, TestOptimizingInput.slowInput(1, 10000).toTask(0, 1)),
+            executorThreads);
+    CompletableFuture<OptimizingTaskResult> fastResult =
+        CompletableFuture.supplyAsync(
+            () -> batcher.execute(2, TestOptimizingInput.successInput(2).toTask(0, 2)),
+            executorThreads);
+
+    // both tasks are executed by one job, and the fast one does not wait for the slow one
+    OptimizingTaskResult result = fastResult.join();
+    Assert.assertEquals(new OptimizingTaskId(0, 2), result.getTaskId());
+    Assert.assertNull(result.getErrorMessage());
+    Assert.assertFalse(slowResult.isDone());
+    Assert.assertEquals(1, JOB_COUNTER.await(1));
+  }
+
+  @Test
+  public void testExecuteFailedTask() throws InterruptedException {
+    batcher = createBatcher(2, 0);
+    OptimizingTaskResult result =
+        batcher.execute(1, TestOptimizingInput.failedInput(1).toTask(0, 1));
+
+    Assert.assertEquals(new OptimizingTaskId(0, 1), result.getTaskId());
+    Assert.assertNotNull(result.getErrorMessage());
+    Assert.assertEquals(1, JOB_COUNTER.await(1));
+  }
+
+  @Test
+  public void testStopWithDispatchedTask() throws InterruptedException {
+    batcher = createBatcher(2, 0);
+    CompletableFuture<OptimizingTaskResult> result =
+        CompletableFuture.supplyAsync(
+            () -> batcher.execute(1, TestOptimizingInput.slowInput(1, 10000).toTask(0, 1)),
+            executorThreads);
+    // the task is taken by the dispatcher and running in a spark job
+    Assert.assertEquals(1, JOB_COUNTER.await(1));
+
+    batcher.stop();
+    long stopTime = System.currentTimeMillis();
+    Assert.assertThrows(Exception.class, result::join);
+    Assert.assertTrue(System.currentTimeMillis() - stopTime < 5000);
+
+    // tasks executed after stopped fail at once
+    Assert.assertThrows(
+        IllegalStateException.class,
+        () -> batcher.execute(2, TestOptimizingInput.successInput(2).toTask(0, 2)));
+  }
+
+  private SparkOptimizingJobBatcher createBatcher(int maxBatchSize, long lingerMs) {
+    return new SparkOptimizingJobBatcher(
+        jsc,
+        OptimizerTestHelpers.buildOptimizerConfig("thrift://127.0.0.1:1260"),
+        new SparkOptimizingTaskSplitter(0),
+        maxBatchSize,
+        lingerMs);
+  }
+
+  private static class JobCounter extends SparkListener {
+    private final AtomicInteger jobs = new AtomicInteger();
+
+    @Override
+    public void onJobStart(SparkListenerJobStart jobStart) {
+      jobs.incrementAndGet();
+    }
+
+    /** Wait for the listener bus to deliver the expected job events, which is asynchronous. */
+    private int await(int expectedJobs) throws InterruptedException {
+      long deadline = System.currentTimeMillis() + 10000;
+      while (jobs.get() < expectedJobs && System.currentTimeMillis() < deadline) {
+        TimeUnit.MILLISECONDS.sleep(10);
+      }
+      // give unexpected jobs a chance to be counted
+      TimeUnit.MILLISECONDS.sleep(100);
+      return jobs.get();
+    }
+  }
+}
@@ -0,0 +1,252 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.optimizer.spark;
+
+import org.apache.amoro.BasicTableTestHelper;
+import org.apache.amoro.DataFileTestHelpers;
+import org.apache.amoro.TableFormat;
+import org.apache.amoro.api.OptimizingTask;
+import org.apache.amoro.api.OptimizingTaskId;
+import org.apache.amoro.api.OptimizingTaskResult;
+import org.apache.amoro.catalog.BasicCatalogTestHelper;
+import org.apache.amoro.catalog.TableTestBase;
+import org.apache.amoro.optimizing.IcebergRewriteExecutorFactory;
+import org.apache.amoro.optimizing.OptimizingInputProperties;
+import org.apache.amoro.optimizing.OptimizingTaskSummary;
+import org.apache.amoro.optimizing.RewriteFilesInput;
+import org.apache.amoro.optimizing.RewriteFilesOutput;
+import org.apache.amoro.shade.guava32.com.google.common.collect.ImmutableMap;
+import org.apache.amoro.shade.guava32.com.google.common.collect.Lists;
+import org.apache.amoro.shade.guava32.com.google.common.collect.Maps;
+import org.apache.amoro.utils.SerializationUtil;
+import org.apache.iceberg.ContentFile;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.DeleteFile;
+import org.apache.iceberg.FileMetadata;
+import org.apache.iceberg.MetadataColumns;
+import org.apache.iceberg.Metrics;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.types.Conversions;
+import org.apache.iceberg.types.Types;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class TestSparkOptimizingTaskSplitter extends TableTestBase {
+
+  public TestSparkOptimizingTaskSplitter() {
+    super(
+        new BasicCatalogTestHelper(TableFormat.MIXED_ICEBERG),
+        new BasicTableTestHelper(false, false));
+  }
+
+  @Test
+  public void testSplit() {
+    // data files of 10 bytes
+    DataFile[] dataFiles = dataFiles(5);
+    OptimizingTask task = task(rewriteInput(dataFiles, new DataFile[0]), Maps.newHashMap());
+
+    List<OptimizingTask> parts = new SparkOptimizingTaskSplitter(20).split(task);
+
+    Assert.assertEquals(3, parts.size());
+    List<DataFile> partDataFiles = Lists.newArrayList();
+    for (OptimizingTask part : parts) {
+      Assert.assertEquals(task.getTaskId(), part.getTaskId());
+      Assert.assertEquals(task.getProperties(), part.getProperties());
+      RewriteFilesInput partInput = SerializationUtil.simpleDeserialize(part.getTaskInput());
+      Assert.assertTrue(partInput.rewrittenDataFiles().length <= 2);
+      partDataFiles.addAll(Arrays.asList(partInput.rewrittenDataFiles()));
+    }
+    Assert.assertArrayEquals(
+        Arrays.stream(dataFiles).map(file -> file.path().toString()).toArray(),
+        partDataFiles.stream().map(file -> file.path().toString()).toArray());
+  }
+
+  @Test
+  public void testSplitDeleteFiles() {
+    DataFile[] dataFiles = dataFiles(5);
+    DeleteFile referencingFirstFile = posDeleteFile("delete-0.parquet", dataFiles[0]);
+    DeleteFile referencingAnyFile = posDeleteFile("delete-1.parquet", null);
+    RewriteFilesInput input =
+        new RewriteFilesInput(
+            dataFiles,
+            new DataFile[0],
+            new ContentFile<?>[] {referencingFirstFile, referencingAnyFile},
+            new ContentFile<?>[0],
+            getMixedTable());
+
+    List<OptimizingTask> parts =
+        new SparkOptimizingTaskSplitter(20).split(task(input, Maps.newHashMap()));
+
+    Assert.assertEquals(3, parts.size());
+    for (int i = 0; i < parts.size(); i++) {
+      RewriteFilesInput partInput =
+          SerializationUtil.simpleDeserialize(parts.get(i).getTaskInput());
+      // only the part of the first data file reads the delete file referencing it
+      List<String> expectedDeleteFiles =
+          i == 0
+              ? Lists.newArrayList("delete-0.parquet", "delete-1.parquet")
+              : Lists.newArrayList("delete-1.parquet");
+      Assert.assertEquals(
+          expectedDeleteFiles,
+          Arrays.stream(partInput.readOnlyDeleteFiles())
+              .map(file -> file.path().toString())
+              .collect(Collectors.toList()));
+    }
+  }
+
+  @Test
+  public void testNotSplit() {
+    DataFile[] dataFiles = dataFiles(5);
+    OptimizingTask task = task(rewriteInput(dataFiles, new DataFile[0]), Maps.newHashMap());
+
+    // splitting is disabled
+    Assert.assertEquals(1, new SparkOptimizingTaskSplitter(0).split(task).size());
+    // data files fit in a part
+    Assert.assertEquals(1, new SparkOptimizingTaskSplitter(100).split(task).size());
+
+    SparkOptimizingTaskSplitter splitter = new SparkOptimizingTaskSplitter(20);
+    // clustering tasks
+    OptimizingTask clusteringTask =
+        task(
+            rewriteInput(dataFiles, new DataFile[0]),
+            ImmutableMap.of(OptimizingInputProperties.CLUSTERING_COLUMNS, "id"));
+    Assert.assertEquals(1, splitter.split(clusteringTask).size());
+    // tasks with re-pos-deleted data files
+    OptimizingTask rePosTask = task(rewriteInput(dataFiles, dataFiles(1)), Maps.newHashMap());
+    Assert.assertEquals(1, splitter.split(rePosTask).size());
+  }
+
+  @Test
+  public void testMerge() {
+    DataFile[] dataFiles = dataFiles(2);
+    OptimizingTask task = task(rewriteInput(dataFiles, new DataFile[0]), Maps.newHashMap());
+    SparkOptimizingTaskSplitter splitter = new SparkOptimizingTaskSplitter(10);
+
+    List<OptimizingTaskResult> partResults =
+        Lists.newArrayList(partResult(task, dataFiles[0]), partResult(task, dataFiles[1]));
+    OptimizingTaskResult result = splitter.merge(task, 1, partResults);
+
+    Assert.assertEquals(task.getTaskId(), result.getTaskId());
+    Assert.assertEquals(1, result.getThreadId());
+    Assert.assertNull(result.getErrorMessage());
+    RewriteFilesOutput output = SerializationUtil.simpleDeserialize(result.getTaskOutput());
+    Assert.assertEquals(2, output.getDataFiles().length);
+    Assert.assertEquals(0, output.getDeleteFiles().length);
+    Assert.assertEquals("2", result.getSummary().get(OptimizingTaskSummary.DATA_FILE_CNT));
+    Assert.assertEquals("20", result.getSummary().get(OptimizingTaskSummary.DATA_FILE_TOTAL_SIZE));
+    // parts are executed in parallel
+    Assert.assertEquals("100", result.getSummary().get(OptimizingTaskSummary.EXECUTE_DURATION));
+
+    // delete files output by multiple parts are counted once
+    DeleteFile deleteFile = posDeleteFile("delete.parquet", null);
+    OptimizingTaskResult deleteResult =
+        splitter.merge(
+            task,
+            1,
+            Lists.newArrayList(
+                partResult(task, dataFiles[0], deleteFile),
+                partResult(task, dataFiles[1], deleteFile)));
+    RewriteFilesOutput deleteOutput =
+        SerializationUtil.simpleDeserialize(deleteResult.getTaskOutput());
+    Assert.assertEquals(1, deleteOutput.getDeleteFiles().length);
+    Assert.assertEquals(
+        "1", deleteResult.getSummary().get(OptimizingTaskSummary.POS_DELETE_FILE_CNT));
+    Assert.assertEquals(
+        "5", deleteResult.getSummary().get(OptimizingTaskSummary.POS_DELETE_FILE_TOTAL_SIZE));
+
+    OptimizingTaskResult failedPart = new OptimizingTaskResult(task.getTaskId(), 1);
+    failedPart.setErrorMessage("failed");
+    OptimizingTaskResult failedResult =
+        splitter.merge(task, 1, Lists.newArrayList(partResult(task, dataFiles[0]), failedPart));
+    Assert.assertEquals("failed", failedResult.getErrorMessage());
+    Assert.assertNull(failedResult.getTaskOutput());
+  }
+
+  private DataFile[] dataFiles(int count) {
+    DataFile[] dataFiles = new DataFile[count];
+    for (int i = 0; i < count; i++) {
+      dataFiles[i] = DataFileTestHelpers.getFile(i);
+    }
+    return dataFiles;
+  }
+
+  private RewriteFilesInput rewriteInput(DataFile[] dataFiles, DataFile[] rePosDeletedDataFiles) {
+    return new RewriteFilesInput(
+        dataFiles,
+        rePosDeletedDataFiles,
+        new ContentFile<?>[0],
+        new ContentFile<?>[0],
+        getMixedTable());
+  }
+
+  private OptimizingTask task(RewriteFilesInput input, Map<String, String> properties) {
+    OptimizingTask task = new OptimizingTask(new OptimizingTaskId(1, 1));
+    task.setTaskInput(SerializationUtil.simpleSerialize(input));
+    Map<String, String> taskProperties = Maps.newHashMap(properties);
+    taskProperties.put(
+        OptimizingInputProperties.TASK_EXECUTOR_FACTORY_IMPL,
+        IcebergRewriteExecutorFactory.class.getName());
+    task.setProperties(taskProperties);
+    return task;
+  }
+
+  /**
+   * Build a position delete file of 5 bytes.
+   *
+   * @param referencedDataFile the only data file referenced by the delete file, or null if the
+   *     referenced data files are unknown
+   */
+  private static DeleteFile posDeleteFile(String path, DataFile referencedDataFile) {
+    FileMetadata.Builder builder =
+        FileMetadata.deleteFileBuilder(PartitionSpec.unpartitioned())
+            .ofPositionDeletes()
+            .withPath(path)
+            .withFileSizeInBytes(5)
+            .withRecordCount(1);
+    if (referencedDataFile != null) {
+      Map<Integer, ByteBuffer> bounds =
+          ImmutableMap.of(
+              MetadataColumns.DELETE_FILE_PATH.fieldId(),
+              Conversions.toByteBuffer(Types.StringType.get(), referencedDataFile.path()));
+      builder.withMetrics(new Metrics(1L, null, null, null, null, bounds, bounds));
+    }
+    return builder.build();
+  }
+
+  private OptimizingTaskResult partResult(
+      OptimizingTask task, DataFile dataFile, DeleteFile... deleteFiles) {
+    Map<String, String> summary = Maps.newHashMap();
+    summary.put(OptimizingTaskSummary.DATA_FILE_CNT, "1");
+    summary.put(OptimizingTaskSummary.DATA_FILE_TOTAL_SIZE, "10");
+    summary.put(OptimizingTaskSummary.POS_DELETE_FILE_CNT, String.valueOf(deleteFiles.length));
+    summary.put(OptimizingTaskSummary.EXECUTE_DURATION, "100");
+    RewriteFilesOutput output =
+        new RewriteFilesOutput(new DataFile[] {dataFile}, deleteFiles, summary);
+    OptimizingTaskResult result = new OptimizingTaskResult(task.getTaskId(), 1);
+    result.setTaskOutput(SerializationUtil.simpleSerialize(output));
+    result.setSummary(output.summary());
+    return result;
+  }
+}
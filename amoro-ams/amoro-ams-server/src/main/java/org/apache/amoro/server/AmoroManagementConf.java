@@ -65,6 +65,14 @@ public class AmoroManagementConf {
           .defaultValue(3 * 60 * 1000L)
           .withDescription("Interval to refresh the external catalog.");
 
+  public static final ConfigOption<Long> REFRESH_EXTERNAL_CATALOGS_FULL_SYNC_INTERVAL =
+      ConfigOptions.key("refresh-external-catalogs.full-sync-interval")
+          .longType()
+          .defaultValue(60 * 60 * 1000L)
+          .withDescription(
+              "Interval to fully list the tables of external catalogs discovering tables from "
+                  + "notification events, as a fallback of missed events.");
+
   public static final ConfigOption<Integer> REFRESH_EXTERNAL_CATALOGS_THREAD_COUNT =
       ConfigOptions.key("refresh-external-catalogs.thread-count")
           .intType()
@@ -90,6 +98,20 @@ public class AmoroManagementConf {
           .defaultValue(10)
           .withDescription("The number of threads used for snapshots expiring.");
 
+  public static final ConfigOption<Boolean> EXPIRE_SNAPSHOTS_OFFLOAD_ENABLED =
+      ConfigOptions.key("expire-snapshots.offload.enabled")
+          .booleanType()
+          .defaultValue(false)
+          .withDescription(
+              "Whether to clean files of expired snapshots by optimizers of the table, AMS only commits the metadata of snapshots expiring.");
+
+  public static final ConfigOption<Duration> EXPIRE_SNAPSHOTS_OFFLOAD_TIMEOUT =
+      ConfigOptions.key("expire-snapshots.offload.timeout")
+          .durationType()
+          .defaultValue(Duration.ofMinutes(30))
+          .withDescription(
+              "Max time to wait for optimizers to clean files of expired snapshots, AMS cleans the files itself after it.");
+
   public static final ConfigOption<Boolean> CLEAN_ORPHAN_FILES_ENABLED =
       ConfigOptions.key("clean-orphan-files.enabled")
           .booleanType()
@@ -180,6 +202,38 @@ public class AmoroManagementConf {
           .defaultValue("")
           .withDescription("The Zookeeper address used for high availability.");
 
+  public static final ConfigOption<Boolean> HA_SHARDING_ENABLED =
+      ConfigOptions.key("ha.sharding.enabled")
+          .booleanType()
+          .defaultValue(false)
+          .withDescription(
+              "Whether to shard optimizer groups among all AMS nodes by consistent hashing, so that"
+                  + " tables and optimizers of each group are served by one node, instead of all"
+                  + " by the leader.");
+
+  public static final ConfigOption<Integer> HA_SHARDING_VIRTUAL_NODES =
+      ConfigOptions.key("ha.sharding.virtual-nodes")
+          .intType()
+          .defaultValue(64)
+          .withDescription("The number of virtual nodes of each AMS node on the hash ring.");
+
+  public static final ConfigOption<Long> HA_SHARDING_REBALANCE_INTERVAL =
+      ConfigOptions.key("ha.sharding.rebalance-interval")
+          .longType()
+          .defaultValue(30000L)
+          .withDescription(
+              "Interval in milliseconds to rebalance optimizer groups among AMS nodes, besides"
+                  + " rebalancing on membership changes.");
+
+  public static final ConfigOption<Boolean> HA_WARM_STANDBY_ENABLED =
+      ConfigOptions.key("ha.warm-standby.enabled")
+          .booleanType()
+          .defaultValue(false)
+          .withDescription(
+              "Whether followers keep table runtimes and optimizing queues in sync with the"
+                  + " database as warm standbys, so that a new leader only reloads what has"
+                  + " changed since the last synchronization to take over.");
+
   public static final ConfigOption<Integer> TABLE_SERVICE_THRIFT_BIND_PORT =
       ConfigOptions.key("thrift-server.table-service.bind-port")
           .intType()
@@ -228,12 +282,54 @@ public class AmoroManagementConf {
           .defaultValue("token")
           .withDescription("The authentication used by REST APIs, token (default) or basic.");
 
+  public static final ConfigOption<Integer> INTERNAL_TABLE_METADATA_CACHE_SIZE =
+      ConfigOptions.key("internal-table.metadata-cache-size")
+          .intType()
+          .defaultValue(1000)
+          .withDescription(
+              "The max number of parsed metadata of internal tables cached for all operations on "
+                  + "them, including the Iceberg REST catalog and table services, 0 to disable "
+                  + "the cache.");
+
+  public static final ConfigOption<Long> IMMUTABLE_FILE_CACHE_MEMORY_SIZE =
+      ConfigOptions.key("immutable-file-cache.memory-size")
+          .longType()
+          .defaultValue(128 * 1024 * 1024L)
+          .withDescription(
+              "Max bytes of manifests, manifest lists and Puffin files cached on heap, shared by "
+                  + "all table executors and planners, 0 to disable the cache.");
+
+  public static final ConfigOption<Long> IMMUTABLE_FILE_CACHE_MAX_FILE_SIZE =
+      ConfigOptions.key("immutable-file-cache.max-file-size")
+          .longType()
+          .defaultValue(8 * 1024 * 1024L)
+          .withDescription("Files larger than this size in bytes are never cached.");
+
+  public static final ConfigOption<String> IMMUTABLE_FILE_CACHE_DISK_DIRECTORY =
+      ConfigOptions.key("immutable-file-cache.disk-directory")
+          .stringType()
+          .noDefaultValue()
+          .withDescription("Local directory of the disk tier of the cache, unset to disable it.");
+
+  public static final ConfigOption<Long> IMMUTABLE_FILE_CACHE_DISK_SIZE =
+      ConfigOptions.key("immutable-file-cache.disk-size")
+          .longType()
+          .defaultValue(1024 * 1024 * 1024L)
+          .withDescription("Max bytes of files cached in the disk tier of the cache.");
+
   public static final ConfigOption<Integer> OPTIMIZING_COMMIT_THREAD_COUNT =
       ConfigOptions.key("self-optimizing.commit-thread-count")
           .intType()
           .defaultValue(10)
           .withDescription("The number of threads that self-optimizing uses to submit results.");
 
+  public static final ConfigOption<Integer> OPTIMIZING_PLAN_THREAD_COUNT =
+      ConfigOptions.key("self-optimizing.plan-thread-count")
+          .intType()
+          .defaultValue(10)
+          .withDescription(
+              "The number of threads that self-optimizing uses to evaluate and plan partitions of tables in parallel.");
+
   public static final ConfigOption<Integer> OPTIMIZING_RUNTIME_DATA_KEEP_DAYS =
       ConfigOptions.key("self-optimizing.runtime-data-keep-days")
           .intType()
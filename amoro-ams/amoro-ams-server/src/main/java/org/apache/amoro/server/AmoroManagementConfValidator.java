@@ -23,6 +23,7 @@ import org.apache.amoro.api.config.Configurations;
 import org.apache.amoro.server.dashboard.utils.AmsUtil;
 
 import java.net.InetAddress;
+import java.util.Arrays;
 
 public class AmoroManagementConfValidator {
   public static void validateConfig(Configurations configurations) {
@@ -55,6 +56,20 @@ public class AmoroManagementConfValidator {
                 + " must be configured when you enable "
                 + "the ams high availability");
       }
+      if (configurations.getInteger(AmoroManagementConf.HA_SHARDING_VIRTUAL_NODES) <= 0) {
+        throw new IllegalArgumentException(
+            AmoroManagementConf.HA_SHARDING_VIRTUAL_NODES.key() + " must be positive");
+      }
+    } else {
+      for (ConfigOption<Boolean> option :
+          Arrays.asList(
+              AmoroManagementConf.HA_SHARDING_ENABLED,
+              AmoroManagementConf.HA_WARM_STANDBY_ENABLED)) {
+        if (configurations.getBoolean(option)) {
+          throw new IllegalArgumentException(
+              option.key() + " requires " + AmoroManagementConf.HA_ENABLE.key() + " to be true");
+        }
+      }
     }
     // terminal config
     String terminalBackend =
@@ -68,6 +83,7 @@ public class AmoroManagementConfValidator {
 
     validateThreadCount(configurations, AmoroManagementConf.REFRESH_TABLES_THREAD_COUNT);
     validateThreadCount(configurations, AmoroManagementConf.OPTIMIZING_COMMIT_THREAD_COUNT);
+    validateThreadCount(configurations, AmoroManagementConf.OPTIMIZING_PLAN_THREAD_COUNT);
 
     if (configurations.getBoolean(AmoroManagementConf.EXPIRE_SNAPSHOTS_ENABLED)) {
       validateThreadCount(configurations, AmoroManagementConf.EXPIRE_SNAPSHOTS_THREAD_COUNT);
@@ -26,6 +26,8 @@ import org.apache.amoro.api.OptimizerProperties;
 import org.apache.amoro.api.OptimizingService;
 import org.apache.amoro.api.config.ConfigHelpers;
 import org.apache.amoro.api.config.Configurations;
+import org.apache.amoro.api.resource.ResourceGroup;
+import org.apache.amoro.io.ImmutableFileCache;
 import org.apache.amoro.server.dashboard.DashboardServer;
 import org.apache.amoro.server.dashboard.response.ErrorResponse;
 import org.apache.amoro.server.dashboard.utils.AmsUtil;
@@ -33,6 +35,7 @@ import org.apache.amoro.server.dashboard.utils.CommonUtil;
 import org.apache.amoro.server.exception.AmoroRuntimeException;
 import org.apache.amoro.server.manager.EventsManager;
 import org.apache.amoro.server.manager.MetricManager;
+import org.apache.amoro.server.metrics.ImmutableFileCacheMetrics;
 import org.apache.amoro.server.persistence.SqlSessionFactoryProvider;
 import org.apache.amoro.server.resource.ContainerMetadata;
 import org.apache.amoro.server.resource.OptimizerManager;
@@ -41,6 +44,7 @@ import org.apache.amoro.server.table.DefaultTableService;
 import org.apache.amoro.server.table.RuntimeHandlerChain;
 import org.apache.amoro.server.table.TableService;
 import org.apache.amoro.server.table.executor.AsyncTableExecutors;
+import org.apache.amoro.server.table.internal.InternalTableMetadataCache;
 import org.apache.amoro.server.terminal.TerminalManager;
 import org.apache.amoro.server.utils.ThriftServiceProxy;
 import org.apache.amoro.shade.guava32.com.google.common.annotations.VisibleForTesting;
@@ -78,6 +82,7 @@ import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
+import java.util.stream.Collectors;
 
 public class AmoroServiceContainer {
 
@@ -104,6 +109,7 @@ public class AmoroServiceContainer {
       AmoroServiceContainer service = new AmoroServiceContainer();
       while (true) {
         try {
+          service.startStandby();
           service.waitLeaderShip();
           service.startService();
           service.waitFollowerShip();
@@ -127,15 +133,57 @@ public class AmoroServiceContainer {
     haContainer.waitFollowerShip();
   }
 
+  /**
+   * Start services as a warm standby if it is enabled, which keeps table runtimes and optimizing
+   * queues in sync with the database but serves no optimizer group until this node becomes the
+   * leader.
+   */
+  public void startStandby() throws Exception {
+    if (haContainer.isWarmStandbyEnabled()) {
+      initTableService();
+      LOG.info("AMS has been started as a warm standby");
+    }
+  }
+
   public void startService() throws Exception {
+    if (tableService == null) {
+      initTableService();
+    } else {
+      takeOverStandby();
+    }
+    terminalManager = new TerminalManager(serviceConfig, tableService);
+
+    initThriftService();
+    startThriftService();
+
+    initHttpService();
+    startHttpService();
+  }
+
+  private void initTableService() throws Exception {
     EventsManager.getInstance();
     MetricManager.getInstance();
+    InternalTableMetadataCache.initialize(
+        serviceConfig.getInteger(AmoroManagementConf.INTERNAL_TABLE_METADATA_CACHE_SIZE));
+    ImmutableFileCache.initialize(
+        serviceConfig.getLong(AmoroManagementConf.IMMUTABLE_FILE_CACHE_MEMORY_SIZE),
+        serviceConfig.getLong(AmoroManagementConf.IMMUTABLE_FILE_CACHE_MAX_FILE_SIZE),
+        serviceConfig.getString(AmoroManagementConf.IMMUTABLE_FILE_CACHE_DISK_DIRECTORY),
+        serviceConfig.getLong(AmoroManagementConf.IMMUTABLE_FILE_CACHE_DISK_SIZE));
+    ImmutableFileCacheMetrics.register(
+        MetricManager.getInstance().getGlobalRegistry(), ImmutableFileCache.get());
 
     tableService = new DefaultTableService(serviceConfig);
+    if (haContainer.isShardingEnabled()) {
+      tableService.enableSharding(haContainer::servesOptimizerGroup, haContainer::hasLeadership);
+    } else if (haContainer.isWarmStandbyEnabled()) {
+      tableService.enableWarmStandby();
+    }
     optimizingService = new DefaultOptimizingService(serviceConfig, tableService);
 
     LOG.info("Setting up AMS table executors...");
-    AsyncTableExecutors.getInstance().setup(tableService, serviceConfig);
+    AsyncTableExecutors.getInstance()
+        .setup(tableService, optimizingService::getMaintenanceTaskDispatcher, serviceConfig);
     addHandlerChain(optimizingService.getTableRuntimeHandler());
     addHandlerChain(AsyncTableExecutors.getInstance().getDataExpiringExecutor());
     addHandlerChain(AsyncTableExecutors.getInstance().getSnapshotsExpiringExecutor());
@@ -149,13 +197,20 @@ public class AmoroServiceContainer {
     addHandlerChain(AsyncTableExecutors.getInstance().getTagsAutoCreatingExecutor());
     tableService.initialize();
     LOG.info("AMS table service have been initialized");
-    terminalManager = new TerminalManager(serviceConfig, tableService);
-
-    initThriftService();
-    startThriftService();
+    haContainer.startSharding(
+        () ->
+            optimizingService.listResourceGroups().stream()
+                .map(ResourceGroup::getName)
+                .collect(Collectors.toList()),
+        tableService::loadOptimizerGroup,
+        tableService::unloadOptimizerGroup);
+  }
 
-    initHttpService();
-    startHttpService();
+  private void takeOverStandby() {
+    tableService.takeOverStandby(
+        optimizingService.listResourceGroups().stream()
+            .map(ResourceGroup::getName)
+            .collect(Collectors.toList()));
   }
 
   private void addHandlerChain(RuntimeHandlerChain chain) {
@@ -165,6 +220,8 @@ public class AmoroServiceContainer {
   }
 
   public void dispose() {
+    // hand over optimizer groups to other nodes as soon as possible
+    haContainer.stopSharding();
     if (tableManagementServer != null) {
       tableManagementServer.stop();
     }
@@ -19,6 +19,7 @@
 package org.apache.amoro.server;
 
 import org.apache.amoro.AmoroTable;
+import org.apache.amoro.Constants;
 import org.apache.amoro.api.CatalogMeta;
 import org.apache.amoro.api.OptimizerProperties;
 import org.apache.amoro.api.OptimizerRegisterInfo;
@@ -31,14 +32,20 @@ import org.apache.amoro.api.config.Configurations;
 import org.apache.amoro.api.config.TableConfiguration;
 import org.apache.amoro.api.resource.Resource;
 import org.apache.amoro.api.resource.ResourceGroup;
+import org.apache.amoro.optimizing.OptimizingInputProperties;
 import org.apache.amoro.properties.CatalogMetaProperties;
+import org.apache.amoro.server.dashboard.utils.AmsUtil;
 import org.apache.amoro.server.exception.ForbiddenException;
 import org.apache.amoro.server.exception.ObjectNotExistsException;
 import org.apache.amoro.server.exception.PluginRetryAuthException;
 import org.apache.amoro.server.exception.TaskNotFoundException;
+import org.apache.amoro.server.optimizing.MaintenanceQueue;
+import org.apache.amoro.server.optimizing.MaintenanceTaskRuntime;
 import org.apache.amoro.server.optimizing.OptimizingQueue;
 import org.apache.amoro.server.optimizing.OptimizingStatus;
 import org.apache.amoro.server.optimizing.TaskRuntime;
+import org.apache.amoro.server.optimizing.maintainer.MaintenanceTaskDispatcher;
+import org.apache.amoro.server.optimizing.plan.PartitionPlanExecutor;
 import org.apache.amoro.server.persistence.StatedPersistentBase;
 import org.apache.amoro.server.persistence.mapper.OptimizerMapper;
 import org.apache.amoro.server.persistence.mapper.ResourceMapper;
@@ -71,6 +78,7 @@ import java.util.concurrent.DelayQueue;
 import java.util.concurrent.Delayed;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -93,13 +101,18 @@ public class DefaultOptimizingService extends StatedPersistentBase
   private final long taskAckTimeout;
   private final int maxPlanningParallelism;
   private final long pollingTimeout;
+  private final String tableServiceUrl;
   private final Map<String, OptimizingQueue> optimizingQueueByGroup = new ConcurrentHashMap<>();
   private final Map<String, OptimizingQueue> optimizingQueueByToken = new ConcurrentHashMap<>();
   private final Map<String, OptimizerInstance> authOptimizers = new ConcurrentHashMap<>();
+  private final Map<String, MaintenanceQueue> maintenanceQueueByGroup = new ConcurrentHashMap<>();
   private final OptimizerKeeper optimizerKeeper = new OptimizerKeeper();
   private final TableService tableService;
   private final RuntimeHandlerChain tableHandlerChain;
   private final Executor planExecutor;
+  private final PartitionPlanExecutor partitionPlanExecutor;
+  private final ScheduledExecutorService maintenanceTimeoutExecutor;
+  private final long maintenanceTaskTimeout;
 
   public DefaultOptimizingService(Configurations serviceConfig, DefaultTableService tableService) {
     this.optimizerTouchTimeout = serviceConfig.getLong(AmoroManagementConf.OPTIMIZER_HB_TIMEOUT);
@@ -107,6 +120,8 @@ public class DefaultOptimizingService extends StatedPersistentBase
     this.maxPlanningParallelism =
         serviceConfig.getInteger(AmoroManagementConf.OPTIMIZER_MAX_PLANNING_PARALLELISM);
     this.pollingTimeout = serviceConfig.getLong(AmoroManagementConf.OPTIMIZER_POLLING_TIMEOUT);
+    this.tableServiceUrl =
+        AmsUtil.getAMSThriftAddress(serviceConfig, Constants.THRIFT_TABLE_SERVICE_NAME);
     this.tableService = tableService;
     this.tableHandlerChain = new TableRuntimeHandlerImpl();
     this.planExecutor =
@@ -115,6 +130,17 @@ public class DefaultOptimizingService extends StatedPersistentBase
                 .setNameFormat("plan-executor-thread-%d")
                 .setDaemon(true)
                 .build());
+    this.partitionPlanExecutor =
+        new PartitionPlanExecutor(
+            serviceConfig.getInteger(AmoroManagementConf.OPTIMIZING_PLAN_THREAD_COUNT));
+    this.maintenanceTimeoutExecutor =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                .setNameFormat("maintenance-task-timeout-thread")
+                .setDaemon(true)
+                .build());
+    this.maintenanceTaskTimeout =
+        serviceConfig.get(AmoroManagementConf.EXPIRE_SNAPSHOTS_OFFLOAD_TIMEOUT).toMillis();
   }
 
   public RuntimeHandlerChain getTableRuntimeHandler() {
@@ -128,26 +154,109 @@ public class DefaultOptimizingService extends StatedPersistentBase
     Map<String, List<TableRuntimeMeta>> groupToTableRuntimes =
         tableRuntimeMetaList.stream()
             .collect(Collectors.groupingBy(TableRuntimeMeta::getOptimizerGroup));
-    optimizerGroups.forEach(
-        group -> {
-          String groupName = group.getName();
-          List<TableRuntimeMeta> tableRuntimeMetas = groupToTableRuntimes.remove(groupName);
-          OptimizingQueue optimizingQueue =
-              new OptimizingQueue(
-                  tableService,
-                  group,
-                  this,
-                  planExecutor,
-                  Optional.ofNullable(tableRuntimeMetas).orElseGet(ArrayList::new),
-                  maxPlanningParallelism);
-          optimizingQueueByGroup.put(groupName, optimizingQueue);
-        });
-    optimizers.forEach(optimizer -> registerOptimizer(optimizer, false));
+    optimizerGroups.stream()
+        .filter(group -> tableService.servesOptimizerGroup(group.getName()))
+        .forEach(
+            group -> {
+              String groupName = group.getName();
+              List<TableRuntimeMeta> tableRuntimeMetas = groupToTableRuntimes.remove(groupName);
+              optimizingQueueByGroup.put(
+                  groupName,
+                  createOptimizingQueue(
+                      group, Optional.ofNullable(tableRuntimeMetas).orElseGet(ArrayList::new)));
+            });
+    optimizers.stream()
+        .filter(optimizer -> tableService.servesOptimizerGroup(optimizer.getGroupName()))
+        .forEach(optimizer -> registerOptimizer(optimizer, false));
     groupToTableRuntimes
         .keySet()
         .forEach(groupName -> LOG.warn("Unloaded task runtime in group {}", groupName));
   }
 
+  /** Load the optimizing queue and optimizers of the optimizer group taken over by this node. */
+  private void loadOptimizingQueue(String groupName, List<TableRuntimeMeta> tableRuntimeMetaList) {
+    ResourceGroup group = getResourceGroup(groupName);
+    if (group == null) {
+      LOG.warn("Optimizer group {} does not exist, skip loading it", groupName);
+      return;
+    }
+    OptimizingQueue standbyQueue = optimizingQueueByGroup.get(groupName);
+    if (standbyQueue != null && standbyQueue.isStandby()) {
+      // tables of the standby queue are already in sync with the database
+      standbyQueue.updateOptimizerGroup(group);
+      standbyQueue.activate();
+    } else {
+      unloadOptimizingQueue(groupName);
+      optimizingQueueByGroup.put(groupName, createOptimizingQueue(group, tableRuntimeMetaList));
+    }
+    getAs(OptimizerMapper.class, OptimizerMapper::selectAll).stream()
+        .filter(optimizer -> optimizer.getGroupName().equals(groupName))
+        .forEach(optimizer -> registerOptimizer(optimizer, false));
+    LOG.info("Loaded optimizing queue of optimizer group {}", groupName);
+  }
+
+  /**
+   * Unload the optimizing queue and optimizers of the optimizer group handed over to another node.
+   * Optimizers are kept in the database, so that they are still authenticated by the new owner.
+   */
+  private void unloadOptimizingQueue(String groupName) {
+    authOptimizers.values().stream()
+        .filter(optimizer -> optimizer.getGroupName().equals(groupName))
+        .map(OptimizerInstance::getToken)
+        .collect(Collectors.toList())
+        .forEach(
+            token -> {
+              authOptimizers.remove(token);
+              optimizingQueueByToken.remove(token);
+            });
+    Optional.ofNullable(optimizingQueueByGroup.remove(groupName))
+        .ifPresent(
+            queue -> {
+              queue.dispose();
+              LOG.info("Unloaded optimizing queue of optimizer group {}", groupName);
+            });
+  }
+
+  private OptimizingQueue createOptimizingQueue(
+      ResourceGroup group, List<TableRuntimeMeta> tableRuntimeMetaList) {
+    return createOptimizingQueue(group, tableRuntimeMetaList, false);
+  }
+
+  private OptimizingQueue createOptimizingQueue(
+      ResourceGroup group, List<TableRuntimeMeta> tableRuntimeMetaList, boolean standby) {
+    return new OptimizingQueue(
+        tableService,
+        group,
+        this,
+        planExecutor,
+        partitionPlanExecutor,
+        tableRuntimeMetaList,
+        maxPlanningParallelism,
+        standby);
+  }
+
+  /**
+   * Keep optimizing queues of a warm standby in sync with table runtimes reloaded from the
+   * database. Tables moved to another optimizer group are dropped from the queue of the former one.
+   */
+  private void reloadStandbyQueues(List<TableRuntimeMeta> tableRuntimeMetaList) {
+    tableRuntimeMetaList.stream()
+        .map(TableRuntimeMeta::getOptimizerGroup)
+        .distinct()
+        .filter(groupName -> !optimizingQueueByGroup.containsKey(groupName))
+        .forEach(
+            groupName ->
+                Optional.ofNullable(getResourceGroup(groupName))
+                    .ifPresent(
+                        group ->
+                            optimizingQueueByGroup.put(
+                                groupName,
+                                createOptimizingQueue(group, new ArrayList<>(), true))));
+    optimizingQueueByGroup.values().stream()
+        .filter(OptimizingQueue::isStandby)
+        .forEach(queue -> tableRuntimeMetaList.forEach(queue::reloadTable));
+  }
+
   private void registerOptimizer(OptimizerInstance optimizer, boolean needPersistency) {
     if (needPersistency) {
       doAs(OptimizerMapper.class, mapper -> mapper.insertOptimizer(optimizer));
@@ -191,6 +300,10 @@ public class DefaultOptimizingService extends StatedPersistentBase
   public OptimizingTask pollTask(String authToken, int threadId) {
     LOG.debug("Optimizer {} (threadId {}) try polling task", authToken, threadId);
     OptimizingQueue queue = getQueueByToken(authToken);
+    OptimizingTask maintenanceTask = pollMaintenanceTask(authToken, threadId);
+    if (maintenanceTask != null) {
+      return maintenanceTask;
+    }
     return Optional.ofNullable(queue.pollTask(pollingTimeout))
         .map(task -> extractOptimizingTask(task, authToken, threadId, queue))
         .orElse(null);
@@ -202,7 +315,13 @@ public class DefaultOptimizingService extends StatedPersistentBase
       OptimizerThread optimizerThread = getAuthenticatedOptimizer(authToken).getThread(threadId);
       task.schedule(optimizerThread);
       LOG.info("OptimizerThread {} polled task {}", optimizerThread, task.getTaskId());
-      return task.getOptimizingTask();
+      OptimizingTask optimizingTask = task.getOptimizingTask(queue.isTableEmbedded());
+      // optimizers resolve the table referenced by the task through the table service
+      optimizingTask.setProperties(
+          OptimizingInputProperties.parse(optimizingTask.getProperties())
+              .setTableServiceUrl(tableServiceUrl)
+              .getProperties());
+      return optimizingTask;
     } catch (Throwable throwable) {
       LOG.error("Schedule task {} failed, put it to retry queue", task.getTaskId(), throwable);
       queue.retryTask(task);
@@ -210,9 +329,48 @@ public class DefaultOptimizingService extends StatedPersistentBase
     }
   }
 
+  private OptimizingTask pollMaintenanceTask(String authToken, int threadId) {
+    OptimizerInstance optimizer = getAuthenticatedOptimizer(authToken);
+    MaintenanceTaskRuntime task =
+        Optional.ofNullable(maintenanceQueueByGroup.get(optimizer.getGroupName()))
+            .map(MaintenanceQueue::pollTask)
+            .orElse(null);
+    if (task == null) {
+      return null;
+    }
+    try {
+      OptimizerThread optimizerThread = optimizer.getThread(threadId);
+      task.schedule(optimizerThread);
+      LOG.info("OptimizerThread {} polled maintenance task {}", optimizerThread, task.getTaskId());
+      OptimizingTask optimizingTask =
+          task.getOptimizingTask(getQueueByToken(authToken).isTableEmbedded());
+      optimizingTask.setProperties(
+          OptimizingInputProperties.parse(optimizingTask.getProperties())
+              .setTableServiceUrl(tableServiceUrl)
+              .getProperties());
+      return optimizingTask;
+    } catch (Throwable throwable) {
+      LOG.error("Schedule maintenance task {} failed", task.getTaskId(), throwable);
+      task.getFuture().completeExceptionally(throwable);
+      return null;
+    }
+  }
+
+  private MaintenanceTaskRuntime getMaintenanceTask(String authToken, OptimizingTaskId taskId) {
+    return Optional.ofNullable(
+            maintenanceQueueByGroup.get(getAuthenticatedOptimizer(authToken).getGroupName()))
+        .map(queue -> queue.getTask(taskId))
+        .orElseThrow(() -> new TaskNotFoundException(taskId));
+  }
+
   @Override
   public void ackTask(String authToken, int threadId, OptimizingTaskId taskId) {
     LOG.info("Ack task {} by optimizer {} (threadId {})", taskId, authToken, threadId);
+    if (MaintenanceQueue.isMaintenanceTask(taskId)) {
+      getMaintenanceTask(authToken, taskId)
+          .ack(getAuthenticatedOptimizer(authToken).getThread(threadId));
+      return;
+    }
     OptimizingQueue queue = getQueueByToken(authToken);
     Optional.ofNullable(queue.getTask(taskId))
         .orElseThrow(() -> new TaskNotFoundException(taskId))
@@ -226,14 +384,35 @@ public class DefaultOptimizingService extends StatedPersistentBase
         authToken,
         taskResult.getThreadId(),
         taskResult.getTaskId());
-    OptimizingQueue queue = getQueueByToken(authToken);
     OptimizerThread thread =
         getAuthenticatedOptimizer(authToken).getThread(taskResult.getThreadId());
+    if (MaintenanceQueue.isMaintenanceTask(taskResult.getTaskId())) {
+      getMaintenanceTask(authToken, taskResult.getTaskId()).complete(thread, taskResult);
+      return;
+    }
+    OptimizingQueue queue = getQueueByToken(authToken);
     Optional.ofNullable(queue.getTask(taskResult.getTaskId()))
         .orElseThrow(() -> new TaskNotFoundException(taskResult.getTaskId()))
         .complete(thread, taskResult);
   }
 
+  /**
+   * Returns the dispatcher of maintenance tasks to optimizers of the group. Dispatching returns
+   * null if there is no optimizer in the group.
+   */
+  public MaintenanceTaskDispatcher getMaintenanceTaskDispatcher(String optimizerGroup) {
+    return (input, executorFactoryImpl) -> {
+      if (listOptimizers(optimizerGroup).isEmpty()) {
+        return null;
+      }
+      return maintenanceQueueByGroup
+          .computeIfAbsent(
+              optimizerGroup,
+              group -> new MaintenanceQueue(maintenanceTimeoutExecutor, maintenanceTaskTimeout))
+          .submit(input, executorFactoryImpl);
+    };
+  }
+
   @Override
   public String authenticate(OptimizerRegisterInfo registerInfo) {
     LOG.info("Register optimizer {}.", registerInfo);
@@ -252,6 +431,30 @@ public class DefaultOptimizingService extends StatedPersistentBase
               }
             });
 
+    OptimizerInstance registered =
+        Optional.ofNullable(
+                registerInfo.getProperties().get(OptimizerProperties.OPTIMIZER_REGISTERED_TOKEN))
+            .map(authOptimizers::get)
+            .filter(optimizer -> optimizer.getGroupName().equals(registerInfo.getGroupName()))
+            .orElse(null);
+    if (registered != null) {
+      // an elastic optimizer reports its current thread count, which is the quota of the group
+      LOG.info(
+          "Update thread count of optimizer {} to {}",
+          registered.getToken(),
+          registerInfo.getThreadCount());
+      registered.updateThreadCount(registerInfo.getThreadCount());
+      doAs(
+          OptimizerMapper.class,
+          mapper -> mapper.updateThreadCount(registered.getToken(), registered.getThreadCount()));
+      return registered.getToken();
+    }
+
+    if (!tableService.servesOptimizerGroup(registerInfo.getGroupName())) {
+      // the optimizer should retry authenticating with the node serving the group
+      throw new PluginRetryAuthException(
+          "Optimizer group " + registerInfo.getGroupName() + " is not served by this AMS");
+    }
     OptimizingQueue queue = getQueueByGroup(registerInfo.getGroupName());
     OptimizerInstance optimizer = new OptimizerInstance(registerInfo, queue.getContainerName());
     registerOptimizer(optimizer, true);
@@ -307,15 +510,11 @@ public class DefaultOptimizingService extends StatedPersistentBase
     doAsTransaction(
         () -> {
           doAs(ResourceMapper.class, mapper -> mapper.insertResourceGroup(resourceGroup));
-          OptimizingQueue optimizingQueue =
-              new OptimizingQueue(
-                  tableService,
-                  resourceGroup,
-                  this,
-                  planExecutor,
-                  new ArrayList<>(),
-                  maxPlanningParallelism);
-          optimizingQueueByGroup.put(resourceGroup.getName(), optimizingQueue);
+          // a group not served by this node is taken over by its owner later
+          if (tableService.servesOptimizerGroup(resourceGroup.getName())) {
+            optimizingQueueByGroup.put(
+                resourceGroup.getName(), createOptimizingQueue(resourceGroup, new ArrayList<>()));
+          }
         });
   }
 
@@ -323,8 +522,8 @@ public class DefaultOptimizingService extends StatedPersistentBase
   public void deleteResourceGroup(String groupName) {
     if (canDeleteResourceGroup(groupName)) {
       doAs(ResourceMapper.class, mapper -> mapper.deleteResourceGroup(groupName));
-      OptimizingQueue optimizingQueue = optimizingQueueByGroup.remove(groupName);
-      optimizingQueue.dispose();
+      Optional.ofNullable(optimizingQueueByGroup.remove(groupName))
+          .ifPresent(OptimizingQueue::dispose);
     } else {
       throw new RuntimeException(
           String.format(
@@ -385,6 +584,9 @@ public class DefaultOptimizingService extends StatedPersistentBase
     optimizingQueueByGroup.clear();
     optimizingQueueByToken.clear();
     authOptimizers.clear();
+    maintenanceQueueByGroup.clear();
+    maintenanceTimeoutExecutor.shutdownNow();
+    partitionPlanExecutor.shutdown();
   }
 
   public boolean canDeleteResourceGroup(String name) {
@@ -400,7 +602,8 @@ public class DefaultOptimizingService extends StatedPersistentBase
         return false;
       }
     }
-    for (OptimizerInstance optimizer : listOptimizers()) {
+    // optimizers of groups served by other nodes are not authenticated by this node
+    for (OptimizerInstance optimizer : getAs(OptimizerMapper.class, OptimizerMapper::selectAll)) {
       if (optimizer.getGroupName().equals(name)) {
         return false;
       }
@@ -454,6 +657,22 @@ public class DefaultOptimizingService extends StatedPersistentBase
           .ifPresent(queue -> queue.releaseTable(tableRuntime));
     }
 
+    @Override
+    protected void handleOptimizerGroupLoaded(
+        String optimizerGroup, List<TableRuntimeMeta> tableRuntimeMetaList) {
+      loadOptimizingQueue(optimizerGroup, tableRuntimeMetaList);
+    }
+
+    @Override
+    protected void handleOptimizerGroupUnloaded(String optimizerGroup) {
+      unloadOptimizingQueue(optimizerGroup);
+    }
+
+    @Override
+    protected void handleTableRuntimesReloaded(List<TableRuntimeMeta> tableRuntimeMetaList) {
+      reloadStandbyQueues(tableRuntimeMetaList);
+    }
+
     @Override
     protected void initHandler(List<TableRuntimeMeta> tableRuntimeMetaList) {
       LOG.info("OptimizerManagementService begin initializing");
@@ -495,6 +714,16 @@ public class DefaultOptimizingService extends StatedPersistentBase
       return Long.compare(lastTouchTime, another.lastTouchTime);
     }
 
+    /**
+     * Whether the optimizer group is handed over to another node, or the optimizer is reloaded
+     * after taking over the group again, which is kept by another task.
+     */
+    public boolean isHandedOver() {
+      OptimizerInstance current = authOptimizers.get(optimizerInstance.getToken());
+      return !tableService.servesOptimizerGroup(optimizerInstance.getGroupName())
+          || current != null && current != optimizerInstance;
+    }
+
     public String getToken() {
       return optimizerInstance.getToken();
     }
@@ -538,6 +767,10 @@ public class DefaultOptimizingService extends StatedPersistentBase
         try {
           OptimizerKeepingTask keepingTask = suspendingQueue.take();
           String token = keepingTask.getToken();
+          if (keepingTask.isHandedOver()) {
+            LOG.debug("Optimizer {} has been handed over, stop keeping it", token);
+            continue;
+          }
           boolean isExpired = !keepingTask.tryKeeping();
           Optional.ofNullable(keepingTask.getQueue())
               .ifPresent(
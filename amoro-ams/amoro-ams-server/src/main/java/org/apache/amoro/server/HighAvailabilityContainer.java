@@ -21,6 +21,7 @@ package org.apache.amoro.server;
 import org.apache.amoro.api.config.Configurations;
 import org.apache.amoro.client.AmsServerInfo;
 import org.apache.amoro.properties.AmsHAProperties;
+import org.apache.amoro.server.ha.ShardManager;
 import org.apache.amoro.shade.zookeeper3.org.apache.curator.framework.CuratorFramework;
 import org.apache.amoro.shade.zookeeper3.org.apache.curator.framework.CuratorFrameworkFactory;
 import org.apache.amoro.shade.zookeeper3.org.apache.curator.framework.recipes.leader.LeaderLatch;
@@ -34,7 +35,10 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Collection;
 import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 public class HighAvailabilityContainer implements LeaderLatchListener {
 
@@ -46,6 +50,8 @@ public class HighAvailabilityContainer implements LeaderLatchListener {
   private final String optimizingServiceMasterPath;
   private final AmsServerInfo tableServiceServerInfo;
   private final AmsServerInfo optimizingServiceServerInfo;
+  private final ShardManager shardManager;
+  private final boolean warmStandby;
   private volatile CountDownLatch followerLath;
 
   public HighAvailabilityContainer(Configurations serviceConfig) throws Exception {
@@ -78,6 +84,23 @@ public class HighAvailabilityContainer implements LeaderLatchListener {
           buildServerInfo(
               serviceConfig.getString(AmoroManagementConf.SERVER_EXPOSE_HOST),
               serviceConfig.getInteger(AmoroManagementConf.OPTIMIZING_SERVICE_THRIFT_BIND_PORT));
+      if (serviceConfig.getBoolean(AmoroManagementConf.HA_SHARDING_ENABLED)) {
+        this.shardManager =
+            new ShardManager(
+                zkClient,
+                haClusterName,
+                optimizingServiceServerInfo,
+                serviceConfig.getInteger(AmoroManagementConf.HA_SHARDING_VIRTUAL_NODES),
+                serviceConfig.getLong(AmoroManagementConf.HA_SHARDING_REBALANCE_INTERVAL));
+        // every node serves its shards until it is stopped, no matter it is the leader or not
+        followerLath = new CountDownLatch(1);
+      } else {
+        this.shardManager = null;
+      }
+      // every node is already warm if optimizer groups are sharded
+      this.warmStandby =
+          shardManager == null
+              && serviceConfig.getBoolean(AmoroManagementConf.HA_WARM_STANDBY_ENABLED);
     } else {
       leaderLatch = null;
       zkClient = null;
@@ -85,32 +108,89 @@ public class HighAvailabilityContainer implements LeaderLatchListener {
       optimizingServiceMasterPath = null;
       tableServiceServerInfo = null;
       optimizingServiceServerInfo = null;
+      shardManager = null;
+      warmStandby = false;
       // block follower latch forever when ha is disabled
       followerLath = new CountDownLatch(1);
     }
   }
 
   public void waitLeaderShip() throws Exception {
+    if (shardManager != null) {
+      LOG.info("Serve optimizer groups sharded to this AMS no matter it is the leader or not");
+      if (leaderLatch.hasLeadership()) {
+        publishMasterServerInfo();
+      }
+      return;
+    }
     LOG.info("Waiting to become the leader of AMS");
     if (leaderLatch != null) {
       leaderLatch.await();
       if (leaderLatch.hasLeadership()) {
-        zkClient
-            .setData()
-            .forPath(
-                tableServiceMasterPath,
-                JacksonUtil.toJSONString(tableServiceServerInfo).getBytes(StandardCharsets.UTF_8));
-        zkClient
-            .setData()
-            .forPath(
-                optimizingServiceMasterPath,
-                JacksonUtil.toJSONString(optimizingServiceServerInfo)
-                    .getBytes(StandardCharsets.UTF_8));
+        publishMasterServerInfo();
       }
     }
     LOG.info("Became the leader of AMS");
   }
 
+  /**
+   * Whether this AMS is the leader, which runs the jobs of the whole cluster, like exploring
+   * external catalogs, if optimizer groups are sharded.
+   */
+  public boolean hasLeadership() {
+    return leaderLatch == null || leaderLatch.hasLeadership();
+  }
+
+  public boolean isShardingEnabled() {
+    return shardManager != null;
+  }
+
+  /** Whether services are started as a warm standby before this AMS becomes the leader. */
+  public boolean isWarmStandbyEnabled() {
+    return warmStandby;
+  }
+
+  /**
+   * Start serving optimizer groups sharded to this AMS.
+   *
+   * @param optimizerGroups supplier of all optimizer groups
+   * @param loadGroup called when an optimizer group is taken over
+   * @param unloadGroup called when an optimizer group is handed over
+   */
+  public void startSharding(
+      Supplier<Collection<String>> optimizerGroups,
+      Consumer<String> loadGroup,
+      Consumer<String> unloadGroup)
+      throws Exception {
+    if (shardManager != null) {
+      shardManager.start(optimizerGroups, loadGroup, unloadGroup);
+    }
+  }
+
+  public void stopSharding() {
+    if (shardManager != null) {
+      shardManager.stop();
+    }
+  }
+
+  public boolean servesOptimizerGroup(String optimizerGroup) {
+    return shardManager == null || shardManager.serves(optimizerGroup);
+  }
+
+  private void publishMasterServerInfo() throws Exception {
+    zkClient
+        .setData()
+        .forPath(
+            tableServiceMasterPath,
+            JacksonUtil.toJSONString(tableServiceServerInfo).getBytes(StandardCharsets.UTF_8));
+    zkClient
+        .setData()
+        .forPath(
+            optimizingServiceMasterPath,
+            JacksonUtil.toJSONString(optimizingServiceServerInfo)
+                .getBytes(StandardCharsets.UTF_8));
+  }
+
   public void waitFollowerShip() throws Exception {
     LOG.info("Waiting to become the follower of AMS");
     if (followerLath != null) {
@@ -120,6 +200,7 @@ public class HighAvailabilityContainer implements LeaderLatchListener {
   }
 
   public void close() {
+    stopSharding();
     if (leaderLatch != null) {
       try {
         this.zkClient.close();
@@ -136,6 +217,15 @@ public class HighAvailabilityContainer implements LeaderLatchListener {
         "Table service server {} and optimizing service server {} got leadership",
         tableServiceServerInfo.toString(),
         optimizingServiceServerInfo.toString());
+    if (shardManager != null) {
+      // table service requests are still served by the leader
+      try {
+        publishMasterServerInfo();
+      } catch (Exception e) {
+        LOG.error("Publish master server info failed", e);
+      }
+      return;
+    }
     followerLath = new CountDownLatch(1);
   }
 
@@ -145,6 +235,9 @@ public class HighAvailabilityContainer implements LeaderLatchListener {
         "Table service server {} and optimizing service server {} lost leadership",
         tableServiceServerInfo.toString(),
         optimizingServiceServerInfo.toString());
+    if (shardManager != null) {
+      return;
+    }
     followerLath.countDown();
   }
 
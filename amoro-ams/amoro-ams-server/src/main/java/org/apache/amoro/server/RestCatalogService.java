@@ -32,6 +32,7 @@ import com.fasterxml.jackson.databind.PropertyNamingStrategy;
 import io.javalin.apibuilder.EndpointGroup;
 import io.javalin.http.ContentType;
 import io.javalin.http.Context;
+import io.javalin.http.Header;
 import io.javalin.http.HttpCode;
 import io.javalin.plugin.json.JavalinJackson;
 import org.apache.amoro.TableFormat;
@@ -44,12 +45,14 @@ import org.apache.amoro.server.exception.ObjectNotExistsException;
 import org.apache.amoro.server.manager.EventsManager;
 import org.apache.amoro.server.persistence.PersistentBase;
 import org.apache.amoro.server.table.TableService;
+import org.apache.amoro.server.table.internal.InternalTableCommitPipeline;
 import org.apache.amoro.server.table.internal.InternalTableCreator;
 import org.apache.amoro.server.table.internal.InternalTableHandler;
 import org.apache.amoro.shade.guava32.com.google.common.base.Preconditions;
 import org.apache.amoro.shade.guava32.com.google.common.collect.Lists;
 import org.apache.amoro.shade.guava32.com.google.common.collect.Maps;
 import org.apache.amoro.shade.guava32.com.google.common.collect.Sets;
+import org.apache.amoro.shade.guava32.com.google.common.hash.Hashing;
 import org.apache.amoro.utils.MixedCatalogUtil;
 import org.apache.amoro.utils.TablePropertyUtil;
 import org.apache.iceberg.TableMetadata;
@@ -77,6 +80,8 @@ import org.apache.iceberg.rest.responses.LoadTableResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -108,6 +113,8 @@ public class RestCatalogService extends PersistentBase {
 
   private final TableService tableService;
 
+  private final InternalTableCommitPipeline commitPipeline = new InternalTableCommitPipeline();
+
   public RestCatalogService(TableService tableService) {
     this.tableService = tableService;
     ObjectMapper objectMapper = jsonMapper();
@@ -308,6 +315,12 @@ public class RestCatalogService extends PersistentBase {
           if (tableMetadata == null) {
             throw new NoSuchTableException("failed to load table from metadata file.");
           }
+          String etag = etag(tableMetadata);
+          ctx.header(Header.ETAG, etag);
+          if (etagMatches(ctx.header(Header.IF_NONE_MATCH), etag)) {
+            ctx.status(HttpCode.NOT_MODIFIED);
+            return null;
+          }
           return LoadTableResponse.builder().withTableMetadata(tableMetadata).build();
         });
   }
@@ -318,19 +331,9 @@ public class RestCatalogService extends PersistentBase {
         ctx,
         handler -> {
           UpdateTableRequest request = bodyAsClass(ctx, UpdateTableRequest.class);
-          TableOperations ops = handler.newTableOperator();
-          TableMetadata base = ops.current();
-          if (base == null) {
-            throw new CommitFailedException("table metadata lost.");
-          }
-
-          TableMetadata.Builder builder = TableMetadata.buildFrom(base);
-          request.requirements().forEach(r -> r.validate(base));
-          request.updates().forEach(u -> u.applyTo(builder));
-          TableMetadata newMetadata = builder.build();
-
-          ops.commit(base, newMetadata);
-          TableMetadata current = ops.current();
+          String table =
+              handler.tableMetadata().getTableIdentifier().getId() + "." + ctx.pathParam("table");
+          TableMetadata current = commitPipeline.commit(table, handler.newTableOperator(), request);
           return LoadTableResponse.builder().withTableMetadata(current).build();
         });
   }
@@ -397,7 +400,7 @@ public class RestCatalogService extends PersistentBase {
     RESTResponse r = handler.apply(internalCatalog);
     if (r != null) {
       jsonResponse(ctx, r);
-    } else {
+    } else if (ctx.status() != HttpCode.NOT_MODIFIED.getStatus()) {
       ctx.status(HttpCode.NO_CONTENT);
     }
   }
@@ -444,6 +447,22 @@ public class RestCatalogService extends PersistentBase {
     return (InternalCatalog) internalCatalog;
   }
 
+  /** Every commit writes a new metadata file, so the location identifies the table version. */
+  private static String etag(TableMetadata metadata) {
+    return "\""
+        + Hashing.sha256().hashString(metadata.metadataFileLocation(), StandardCharsets.UTF_8)
+        + "\"";
+  }
+
+  private static boolean etagMatches(String ifNoneMatch, String etag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    return Arrays.stream(ifNoneMatch.split(","))
+        .map(String::trim)
+        .anyMatch(tag -> tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag));
+  }
+
   private static void checkUnsupported(boolean condition, String message) {
     if (!condition) {
       throw new UnsupportedOperationException(message);
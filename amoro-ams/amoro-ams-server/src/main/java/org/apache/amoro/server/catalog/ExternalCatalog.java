@@ -25,13 +25,23 @@ import org.apache.amoro.TableIDWithFormat;
 import org.apache.amoro.UnifiedCatalog;
 import org.apache.amoro.api.CatalogMeta;
 import org.apache.amoro.api.ServerTableIdentifier;
+import org.apache.amoro.hive.CachedHiveClientPool;
+import org.apache.amoro.hive.HMSClient;
 import org.apache.amoro.properties.CatalogMetaProperties;
+import org.apache.amoro.server.persistence.mapper.CatalogMetaMapper;
 import org.apache.amoro.server.persistence.mapper.TableMetaMapper;
+import org.apache.amoro.shade.guava32.com.google.common.base.Preconditions;
 import org.apache.amoro.shade.guava32.com.google.common.collect.Maps;
 import org.apache.amoro.table.TableMetaStore;
 import org.apache.amoro.utils.MixedCatalogUtil;
+import org.apache.hadoop.hive.metastore.api.NotificationEvent;
+import org.apache.hadoop.hive.metastore.api.NotificationEventResponse;
+import org.apache.iceberg.ClientPool.Action;
+import org.apache.iceberg.util.PropertyUtil;
+import org.apache.thrift.TException;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.regex.Pattern;
@@ -43,6 +53,7 @@ public class ExternalCatalog extends ServerCatalog {
   TableMetaStore tableMetaStore;
   private Pattern tableFilterPattern;
   private Pattern databaseFilterPattern;
+  private volatile CachedHiveClientPool notificationClientPool;
 
   protected ExternalCatalog(CatalogMeta metadata) {
     super(metadata);
@@ -52,6 +63,7 @@ public class ExternalCatalog extends ServerCatalog {
             () -> new CommonUnifiedCatalog(this::getMetadata, Maps.newHashMap()));
     updateTableFilter(metadata);
     updateDatabaseFilter(metadata);
+    updateNotificationClientPool(metadata);
   }
 
   public void syncTable(String database, String tableName, TableFormat format) {
@@ -80,6 +92,56 @@ public class ExternalCatalog extends ServerCatalog {
     this.unifiedCatalog.refresh();
     updateDatabaseFilter(metadata);
     updateTableFilter(metadata);
+    updateNotificationClientPool(metadata);
+  }
+
+  /** Returns true if tables of this catalog could be discovered from the HMS notification log. */
+  public boolean isNotificationEnabled() {
+    return notificationClientPool != null;
+  }
+
+  /** Returns the id of the last notification event processed, null if never processed. */
+  public Long getProcessedEventId() {
+    return getAs(CatalogMetaMapper.class, mapper -> mapper.selectEventId(name()));
+  }
+
+  public void updateProcessedEventId(long eventId) {
+    doAs(CatalogMetaMapper.class, mapper -> mapper.updateEventId(eventId, name()));
+  }
+
+  /** Returns the id of the latest notification event of the metastore. */
+  public long currentEventId() {
+    return runNotificationClient(client -> client.getCurrentNotificationEventId().getEventId());
+  }
+
+  /**
+   * List the notification events after the given event id.
+   *
+   * @param lastEventId id of the last processed event
+   * @param maxEvents max number of events to list
+   * @return events ordered by event id
+   * @throws IllegalStateException if some events after the given id are already cleaned from the
+   *     notification log
+   */
+  public List<NotificationEvent> listNotificationEvents(long lastEventId, int maxEvents) {
+    NotificationEventResponse response =
+        runNotificationClient(client -> client.getNextNotification(lastEventId, maxEvents));
+    List<NotificationEvent> events =
+        response.getEvents() == null ? Collections.emptyList() : response.getEvents();
+    if (!events.isEmpty() && events.get(0).getEventId() > lastEventId + 1) {
+      throw new IllegalStateException(
+          String.format(
+              "Notification events between %d and %d are missing",
+              lastEventId, events.get(0).getEventId()));
+    }
+    return events;
+  }
+
+  /** Returns true if the table is not excluded by the database and table filters. */
+  public boolean tableIncluded(String database, String tableName) {
+    return (databaseFilterPattern == null || databaseFilterPattern.matcher(database).matches())
+        && (tableFilterPattern == null
+            || tableFilterPattern.matcher(database + "." + tableName).matches());
   }
 
   @Override
@@ -157,6 +219,31 @@ public class ExternalCatalog extends ServerCatalog {
     }
   }
 
+  private void updateNotificationClientPool(CatalogMeta metadata) {
+    boolean enabled =
+        CatalogMetaProperties.CATALOG_TYPE_HIVE.equalsIgnoreCase(metadata.getCatalogType())
+            && PropertyUtil.propertyAsBoolean(
+                metadata.getCatalogProperties(),
+                CatalogMetaProperties.TABLE_DISCOVERY_NOTIFICATION_ENABLED,
+                CatalogMetaProperties.TABLE_DISCOVERY_NOTIFICATION_ENABLED_DEFAULT);
+    notificationClientPool =
+        enabled ? new CachedHiveClientPool(tableMetaStore, metadata.getCatalogProperties()) : null;
+  }
+
+  private <R> R runNotificationClient(Action<R, HMSClient, TException> action) {
+    CachedHiveClientPool clientPool = notificationClientPool;
+    Preconditions.checkState(
+        clientPool != null, "Notification is not enabled for catalog %s", name());
+    try {
+      return clientPool.run(action);
+    } catch (TException e) {
+      throw new RuntimeException("Failed to read notification events of catalog " + name(), e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted in reading notification events", e);
+    }
+  }
+
   private <T> T doAs(Callable<T> callable) {
     return tableMetaStore.doAs(callable);
   }
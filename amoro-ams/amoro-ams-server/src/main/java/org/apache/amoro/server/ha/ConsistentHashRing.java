@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.server.ha;
+
+import org.apache.amoro.shade.guava32.com.google.common.base.Preconditions;
+import org.apache.amoro.shade.guava32.com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A consistent hash ring of AMS nodes, with virtual nodes to balance keys among them. Only keys
+ * owned by a node joining or leaving are moved when the membership changes.
+ */
+public class ConsistentHashRing {
+
+  private final TreeMap<Long, String> ring = new TreeMap<>();
+
+  public ConsistentHashRing(Collection<String> nodes, int virtualNodes) {
+    Preconditions.checkArgument(virtualNodes > 0, "virtual nodes must be positive");
+    for (String node : nodes) {
+      for (int i = 0; i < virtualNodes; i++) {
+        ring.put(hash(node + "#" + i), node);
+      }
+    }
+  }
+
+  /**
+   * Returns the node owning the key, which is the first node clockwise from the hash of the key.
+   *
+   * @param key key to locate
+   * @return the owner node, or null if there is no node
+   */
+  public String ownerOf(String key) {
+    if (ring.isEmpty()) {
+      return null;
+    }
+    Map.Entry<Long, String> entry = ring.ceilingEntry(hash(key));
+    return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+  }
+
+  private static long hash(String value) {
+    return Hashing.murmur3_128().hashString(value, StandardCharsets.UTF_8).asLong();
+  }
+}
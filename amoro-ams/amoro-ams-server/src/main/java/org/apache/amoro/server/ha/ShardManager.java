@@ -0,0 +1,307 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.server.ha;
+
+import org.apache.amoro.client.AmsServerInfo;
+import org.apache.amoro.properties.AmsHAProperties;
+import org.apache.amoro.shade.guava32.com.google.common.base.Preconditions;
+import org.apache.amoro.shade.guava32.com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.amoro.shade.zookeeper3.org.apache.curator.framework.CuratorFramework;
+import org.apache.amoro.shade.zookeeper3.org.apache.curator.framework.api.CuratorWatcher;
+import org.apache.amoro.shade.zookeeper3.org.apache.curator.framework.state.ConnectionState;
+import org.apache.amoro.shade.zookeeper3.org.apache.curator.framework.state.ConnectionStateListener;
+import org.apache.amoro.shade.zookeeper3.org.apache.zookeeper.CreateMode;
+import org.apache.amoro.shade.zookeeper3.org.apache.zookeeper.KeeperException;
+import org.apache.amoro.shade.zookeeper3.org.apache.zookeeper.data.Stat;
+import org.apache.amoro.utils.JacksonUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Shards optimizer groups among AMS nodes by consistent hashing on ZooKeeper.
+ *
+ * <p>Every node registers an ephemeral member node, and rebalances when the membership changes or
+ * periodically. A node takes over an optimizer group by creating an ephemeral shard node of the
+ * group with its server info, which also routes optimizers of the group to it, and hands over the
+ * group by deleting the shard node after unloading it. So a group is never served by two nodes,
+ * and is taken over by its new owner only after the previous one has handed it over or expired.
+ *
+ * <p>A node stops serving all groups as soon as its connection to ZooKeeper is suspended, as its
+ * shard nodes may expire and be taken over by others at any time. When reconnected, it takes back
+ * only the groups whose shard nodes are still owned by its session.
+ */
+public class ShardManager {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ShardManager.class);
+
+  private final CuratorFramework zkClient;
+  private final String clusterName;
+  private final String membersPath;
+  private final String memberId;
+  private final byte[] serverInfo;
+  private final int virtualNodes;
+  private final long rebalanceInterval;
+  private final Set<String> servedGroups = ConcurrentHashMap.newKeySet();
+  // groups unloaded on suspension, whose shard nodes may still be owned by the session
+  private final Set<String> suspendedGroups = ConcurrentHashMap.newKeySet();
+  private volatile boolean suspended = false;
+  private final CuratorWatcher membersWatcher = event -> scheduleRebalance();
+  private final ConnectionStateListener connectionStateListener =
+      (client, newState) -> handleConnectionStateChanged(newState);
+  private ScheduledExecutorService rebalanceScheduler;
+  private Supplier<Collection<String>> optimizerGroups;
+  private Consumer<String> loadGroup;
+  private Consumer<String> unloadGroup;
+
+  public ShardManager(
+      CuratorFramework zkClient,
+      String clusterName,
+      AmsServerInfo serverInfo,
+      int virtualNodes,
+      long rebalanceInterval) {
+    this.zkClient = zkClient;
+    this.clusterName = clusterName;
+    this.membersPath = AmsHAProperties.getMembersPath(clusterName);
+    this.memberId = serverInfo.getHost() + ":" + serverInfo.getThriftBindPort();
+    this.serverInfo = JacksonUtil.toJSONString(serverInfo).getBytes(StandardCharsets.UTF_8);
+    this.virtualNodes = virtualNodes;
+    this.rebalanceInterval = rebalanceInterval;
+  }
+
+  /**
+   * Join the AMS cluster and start serving optimizer groups owned by this node.
+   *
+   * @param optimizerGroups supplier of all optimizer groups
+   * @param loadGroup called when an optimizer group is taken over
+   * @param unloadGroup called when an optimizer group is handed over
+   */
+  public synchronized void start(
+      Supplier<Collection<String>> optimizerGroups,
+      Consumer<String> loadGroup,
+      Consumer<String> unloadGroup)
+      throws Exception {
+    Preconditions.checkState(rebalanceScheduler == null, "Shard manager has been started");
+    this.optimizerGroups = optimizerGroups;
+    this.loadGroup = loadGroup;
+    this.unloadGroup = unloadGroup;
+    registerMember();
+    zkClient.getConnectionStateListenable().addListener(connectionStateListener);
+    rebalanceScheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                .setNameFormat("ams-shard-rebalancer-%d")
+                .setDaemon(true)
+                .build());
+    rebalanceScheduler.scheduleWithFixedDelay(
+        this::rebalanceSilently, 0, rebalanceInterval, TimeUnit.MILLISECONDS);
+    LOG.info("AMS node {} joined the cluster {}", memberId, clusterName);
+  }
+
+  /** Hand over all served optimizer groups and leave the AMS cluster. */
+  public synchronized void stop() {
+    if (rebalanceScheduler == null) {
+      return;
+    }
+    rebalanceScheduler.shutdownNow();
+    rebalanceScheduler = null;
+    zkClient.getConnectionStateListenable().removeListener(connectionStateListener);
+    new ArrayList<>(servedGroups).forEach(this::handOver);
+    deleteQuietly(membersPath + "/" + memberId);
+    LOG.info("AMS node {} left the cluster {}", memberId, clusterName);
+  }
+
+  public boolean serves(String optimizerGroup) {
+    return !suspended && servedGroups.contains(optimizerGroup);
+  }
+
+  private void scheduleRebalance() {
+    ScheduledExecutorService scheduler = rebalanceScheduler;
+    if (scheduler != null) {
+      try {
+        scheduler.execute(this::rebalanceSilently);
+      } catch (RejectedExecutionException e) {
+        // stopped
+      }
+    }
+  }
+
+  private void rebalanceSilently() {
+    try {
+      rebalance();
+    } catch (Throwable t) {
+      LOG.error("Rebalancing optimizer groups of AMS node {} failed", memberId, t);
+    }
+  }
+
+  private synchronized void rebalance() throws Exception {
+    if (rebalanceScheduler == null || suspended) {
+      return;
+    }
+    List<String> members = zkClient.getChildren().usingWatcher(membersWatcher).forPath(membersPath);
+    ConsistentHashRing ring = new ConsistentHashRing(members, virtualNodes);
+    Set<String> groups = new HashSet<>(optimizerGroups.get());
+    for (String group : new ArrayList<>(servedGroups)) {
+      if (!groups.contains(group) || !memberId.equals(ring.ownerOf(group))) {
+        handOver(group);
+      }
+    }
+    for (String group : groups) {
+      if (!servedGroups.contains(group) && memberId.equals(ring.ownerOf(group))) {
+        // groups unloaded on suspension are taken back if their shard nodes are still owned
+        takeOver(group);
+      }
+    }
+    // release the shard nodes of groups unloaded on suspension and no more sharded to this node
+    for (String group : new ArrayList<>(suspendedGroups)) {
+      String shardPath = AmsHAProperties.getOptimizingServiceShardPath(clusterName, group);
+      if (!servedGroups.contains(group) && ownedBySession(shardPath)) {
+        deleteQuietly(shardPath);
+      }
+      suspendedGroups.remove(group);
+    }
+  }
+
+  private void takeOver(String group) throws Exception {
+    String shardPath = AmsHAProperties.getOptimizingServiceShardPath(clusterName, group);
+    try {
+      zkClient
+          .create()
+          .creatingParentsIfNeeded()
+          .withMode(CreateMode.EPHEMERAL)
+          .forPath(shardPath, serverInfo);
+    } catch (KeeperException.NodeExistsException e) {
+      if (!ownedBySession(shardPath)) {
+        LOG.info("Optimizer group {} has not been handed over yet, try again later", group);
+        return;
+      }
+    }
+    servedGroups.add(group);
+    try {
+      loadGroup.accept(group);
+      LOG.info("AMS node {} took over optimizer group {}", memberId, group);
+    } catch (Throwable t) {
+      LOG.error("AMS node {} failed to take over optimizer group {}", memberId, group, t);
+      handOver(group);
+    }
+  }
+
+  private void handOver(String group) {
+    try {
+      unload(group);
+      LOG.info("AMS node {} handed over optimizer group {}", memberId, group);
+    } finally {
+      deleteQuietly(AmsHAProperties.getOptimizingServiceShardPath(clusterName, group));
+    }
+  }
+
+  /** Unload the group, which returns after the commits of the group in progress are done. */
+  private void unload(String group) {
+    servedGroups.remove(group);
+    try {
+      unloadGroup.accept(group);
+    } catch (Throwable t) {
+      LOG.error("AMS node {} failed to unload optimizer group {}", memberId, group, t);
+    }
+  }
+
+  private void registerMember() throws Exception {
+    String memberPath = membersPath + "/" + memberId;
+    try {
+      zkClient
+          .create()
+          .creatingParentsIfNeeded()
+          .withMode(CreateMode.EPHEMERAL)
+          .forPath(memberPath, serverInfo);
+    } catch (KeeperException.NodeExistsException e) {
+      if (!ownedBySession(memberPath)) {
+        // left by the expired session of this node
+        zkClient.delete().forPath(memberPath);
+        registerMember();
+      }
+    }
+  }
+
+  private void handleConnectionStateChanged(ConnectionState newState) {
+    ScheduledExecutorService scheduler = rebalanceScheduler;
+    if (scheduler == null) {
+      return;
+    }
+    if (newState == ConnectionState.SUSPENDED || newState == ConnectionState.LOST) {
+      // the shard nodes may expire and be taken over by others, stop serving at once
+      suspended = true;
+      unloadAll();
+    } else if (newState == ConnectionState.RECONNECTED) {
+      try {
+        scheduler.execute(this::rejoin);
+      } catch (RejectedExecutionException e) {
+        // stopped
+      }
+    }
+  }
+
+  private synchronized void unloadAll() {
+    if (servedGroups.isEmpty()) {
+      return;
+    }
+    LOG.warn("AMS node {} lost the zookeeper connection, unload all optimizer groups", memberId);
+    suspendedGroups.addAll(servedGroups);
+    new ArrayList<>(servedGroups).forEach(this::unload);
+  }
+
+  private synchronized void rejoin() {
+    try {
+      suspended = false;
+      if (zkClient.checkExists().forPath(membersPath + "/" + memberId) == null) {
+        registerMember();
+      }
+      rebalance();
+    } catch (Throwable t) {
+      LOG.error("AMS node {} failed to rejoin the cluster {}", memberId, clusterName, t);
+    }
+  }
+
+  /** Whether the ephemeral node is left by this node, before the connection is recovered. */
+  private boolean ownedBySession(String path) throws Exception {
+    Stat stat = zkClient.checkExists().forPath(path);
+    return stat != null
+        && stat.getEphemeralOwner() == zkClient.getZookeeperClient().getZooKeeper().getSessionId();
+  }
+
+  private void deleteQuietly(String path) {
+    try {
+      zkClient.delete().forPath(path);
+    } catch (Exception e) {
+      LOG.warn("Failed to delete zookeeper node {}", path, e);
+    }
+  }
+}
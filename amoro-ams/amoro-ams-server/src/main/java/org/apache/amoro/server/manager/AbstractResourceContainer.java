@@ -105,6 +105,35 @@ public abstract class AbstractResourceContainer implements ResourceContainer {
                 resource.getProperties().get(OptimizerProperties.OPTIMIZER_MEMORY_STORAGE_SIZE));
       }
     }
+    if (resource.getProperties().containsKey(OptimizerProperties.OPTIMIZER_TABLE_CACHE_SIZE)) {
+      stringBuilder
+          .append(" -tcs ")
+          .append(resource.getProperties().get(OptimizerProperties.OPTIMIZER_TABLE_CACHE_SIZE));
+    }
+    if (resource.getProperties().containsKey(OptimizerProperties.OPTIMIZER_MEMORY_BUDGET_RATIO)) {
+      stringBuilder
+          .append(" -mbr ")
+          .append(resource.getProperties().get(OptimizerProperties.OPTIMIZER_MEMORY_BUDGET_RATIO));
+    }
+    if (resource.getProperties().containsKey(OptimizerProperties.OPTIMIZER_PREFETCH_BUFFER_SIZE)) {
+      stringBuilder
+          .append(" -pfs ")
+          .append(resource.getProperties().get(OptimizerProperties.OPTIMIZER_PREFETCH_BUFFER_SIZE));
+    }
+    if (resource
+        .getProperties()
+        .containsKey(OptimizerProperties.OPTIMIZER_MIN_EXECUTION_PARALLEL)) {
+      stringBuilder
+          .append(" -mp ")
+          .append(
+              resource.getProperties().get(OptimizerProperties.OPTIMIZER_MIN_EXECUTION_PARALLEL));
+    }
+    if (resource.getProperties().containsKey(OptimizerProperties.OPTIMIZER_EXECUTOR_IDLE_TIMEOUT)) {
+      stringBuilder
+          .append(" -eit ")
+          .append(
+              resource.getProperties().get(OptimizerProperties.OPTIMIZER_EXECUTOR_IDLE_TIMEOUT));
+    }
     if (StringUtils.isNotEmpty(resource.getResourceId())) {
       stringBuilder.append(" -id ").append(resource.getResourceId());
     }
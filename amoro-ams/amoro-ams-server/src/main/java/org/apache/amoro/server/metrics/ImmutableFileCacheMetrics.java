@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.server.metrics;
+
+import static org.apache.amoro.api.metrics.MetricDefine.defineCounter;
+import static org.apache.amoro.api.metrics.MetricDefine.defineGauge;
+
+import org.apache.amoro.api.metrics.Counter;
+import org.apache.amoro.api.metrics.Gauge;
+import org.apache.amoro.api.metrics.MetricDefine;
+import org.apache.amoro.io.ImmutableFileCache;
+import org.apache.amoro.shade.guava32.com.google.common.collect.ImmutableMap;
+
+import java.util.function.LongSupplier;
+
+/** Metrics of the {@link ImmutableFileCache} sharing in AMS. */
+public class ImmutableFileCacheMetrics {
+
+  public static final MetricDefine IMMUTABLE_FILE_CACHE_MEMORY_HIT_COUNT =
+      defineCounter("immutable_file_cache_memory_hit_count")
+          .withDescription("Number of reads served by the on-heap tier of immutable file cache")
+          .build();
+
+  public static final MetricDefine IMMUTABLE_FILE_CACHE_DISK_HIT_COUNT =
+      defineCounter("immutable_file_cache_disk_hit_count")
+          .withDescription("Number of reads served by the disk tier of immutable file cache")
+          .build();
+
+  public static final MetricDefine IMMUTABLE_FILE_CACHE_MISS_COUNT =
+      defineCounter("immutable_file_cache_miss_count")
+          .withDescription("Number of reads missed by immutable file cache")
+          .build();
+
+  public static final MetricDefine IMMUTABLE_FILE_CACHE_HIT_RATE =
+      defineGauge("immutable_file_cache_hit_rate")
+          .withDescription("Ratio of reads served by immutable file cache")
+          .build();
+
+  public static final MetricDefine IMMUTABLE_FILE_CACHE_HIT_BYTES =
+      defineCounter("immutable_file_cache_hit_bytes")
+          .withDescription("Bytes served by immutable file cache")
+          .build();
+
+  public static final MetricDefine IMMUTABLE_FILE_CACHE_MISS_BYTES =
+      defineCounter("immutable_file_cache_miss_bytes")
+          .withDescription("Bytes read from file systems on misses of immutable file cache")
+          .build();
+
+  public static final MetricDefine IMMUTABLE_FILE_CACHE_MEMORY_BYTES =
+      defineGauge("immutable_file_cache_memory_bytes")
+          .withDescription("Bytes cached in the on-heap tier of immutable file cache")
+          .build();
+
+  public static final MetricDefine IMMUTABLE_FILE_CACHE_DISK_BYTES =
+      defineGauge("immutable_file_cache_disk_bytes")
+          .withDescription("Bytes cached in the disk tier of immutable file cache")
+          .build();
+
+  private ImmutableFileCacheMetrics() {}
+
+  /** Register the metrics of the cache, do nothing if the cache is not enabled. */
+  public static void register(MetricRegistry registry, ImmutableFileCache cache) {
+    if (cache == null) {
+      return;
+    }
+    registry.register(
+        IMMUTABLE_FILE_CACHE_MEMORY_HIT_COUNT,
+        ImmutableMap.of(),
+        new CacheCounter(cache::memoryHitCount));
+    registry.register(
+        IMMUTABLE_FILE_CACHE_DISK_HIT_COUNT,
+        ImmutableMap.of(),
+        new CacheCounter(cache::diskHitCount));
+    registry.register(
+        IMMUTABLE_FILE_CACHE_MISS_COUNT, ImmutableMap.of(), new CacheCounter(cache::missCount));
+    registry.register(
+        IMMUTABLE_FILE_CACHE_HIT_RATE, ImmutableMap.of(), (Gauge<Double>) cache::hitRate);
+    registry.register(
+        IMMUTABLE_FILE_CACHE_HIT_BYTES, ImmutableMap.of(), new CacheCounter(cache::hitBytes));
+    registry.register(
+        IMMUTABLE_FILE_CACHE_MISS_BYTES, ImmutableMap.of(), new CacheCounter(cache::missBytes));
+    registry.register(
+        IMMUTABLE_FILE_CACHE_MEMORY_BYTES,
+        ImmutableMap.of(),
+        (Gauge<Long>) cache::memorySizeInBytes);
+    registry.register(
+        IMMUTABLE_FILE_CACHE_DISK_BYTES, ImmutableMap.of(), (Gauge<Long>) cache::diskSizeInBytes);
+  }
+
+  /** A counter reading the totals counted by the cache itself. */
+  private static class CacheCounter extends Counter {
+    private final LongSupplier count;
+
+    private CacheCounter(LongSupplier count) {
+      this.count = count;
+    }
+
+    @Override
+    public void inc(long n) {
+      throw new UnsupportedOperationException("Counted by the immutable file cache");
+    }
+
+    @Override
+    public long getCount() {
+      return count.getAsLong();
+    }
+  }
+}
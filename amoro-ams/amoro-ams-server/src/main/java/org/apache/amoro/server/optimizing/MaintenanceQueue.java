@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.server.optimizing;
+
+import org.apache.amoro.api.OptimizingTaskId;
+import org.apache.amoro.optimizing.TableOptimizing;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Queue of maintenance tasks dispatched to optimizers of a group, which are polled by optimizers
+ * before optimizing tasks.
+ *
+ * <p>Maintenance tasks are not persisted. A task which is not completed in time, for example lost
+ * by failures of optimizers, is timed out, and the dispatcher is responsible to finish the work.
+ * Tasks are lost along with their futures when AMS restarts, so the dispatcher should persist the
+ * work to recover it, as snapshot expiration does with pending cleanups of table runtimes.
+ */
+public class MaintenanceQueue {
+
+  /** Process id of maintenance tasks, which do not belong to any optimizing process. */
+  public static final long PROCESS_ID = -1L;
+
+  private final Queue<MaintenanceTaskRuntime> pendingTasks = new LinkedTransferQueue<>();
+  private final Map<OptimizingTaskId, MaintenanceTaskRuntime> tasks = new ConcurrentHashMap<>();
+  private final AtomicInteger nextTaskId = new AtomicInteger(1);
+  private final ScheduledExecutorService timeoutExecutor;
+  private final long taskTimeout;
+
+  public MaintenanceQueue(ScheduledExecutorService timeoutExecutor, long taskTimeout) {
+    this.timeoutExecutor = timeoutExecutor;
+    this.taskTimeout = taskTimeout;
+  }
+
+  public static boolean isMaintenanceTask(OptimizingTaskId taskId) {
+    return taskId.getProcessId() == PROCESS_ID;
+  }
+
+  /**
+   * Submit a maintenance task.
+   *
+   * @param input input of the task
+   * @param executorFactoryImpl class name of the executor factory to execute the input
+   * @return future of the task output, which completes exceptionally if the task fails or times out
+   */
+  public CompletableFuture<TableOptimizing.OptimizingOutput> submit(
+      TableOptimizing.OptimizingInput input, String executorFactoryImpl) {
+    OptimizingTaskId taskId = new OptimizingTaskId(PROCESS_ID, nextTaskId.getAndIncrement());
+    MaintenanceTaskRuntime task = new MaintenanceTaskRuntime(taskId, input, executorFactoryImpl);
+    CompletableFuture<TableOptimizing.OptimizingOutput> future = task.getFuture();
+    tasks.put(taskId, task);
+    pendingTasks.offer(task);
+    ScheduledFuture<?> timeout =
+        timeoutExecutor.schedule(
+            () ->
+                future.completeExceptionally(
+                    new TimeoutException(
+                        "Maintenance task " + taskId + " is not completed in " + taskTimeout)),
+            taskTimeout,
+            TimeUnit.MILLISECONDS);
+    future.whenComplete(
+        (output, throwable) -> {
+          timeout.cancel(false);
+          pendingTasks.remove(task);
+          tasks.remove(taskId);
+        });
+    return future;
+  }
+
+  public MaintenanceTaskRuntime pollTask() {
+    MaintenanceTaskRuntime task = pendingTasks.poll();
+    // skip tasks which have timed out
+    while (task != null && task.getFuture().isDone()) {
+      task = pendingTasks.poll();
+    }
+    return task;
+  }
+
+  public MaintenanceTaskRuntime getTask(OptimizingTaskId taskId) {
+    return tasks.get(taskId);
+  }
+
+  public int size() {
+    return tasks.size();
+  }
+}
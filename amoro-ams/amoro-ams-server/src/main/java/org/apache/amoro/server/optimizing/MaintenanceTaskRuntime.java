@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.server.optimizing;
+
+import org.apache.amoro.api.OptimizingTask;
+import org.apache.amoro.api.OptimizingTaskId;
+import org.apache.amoro.api.OptimizingTaskResult;
+import org.apache.amoro.optimizing.OptimizingInputProperties;
+import org.apache.amoro.optimizing.TableOptimizing;
+import org.apache.amoro.optimizing.TableReferencedInput;
+import org.apache.amoro.server.exception.TaskRuntimeException;
+import org.apache.amoro.server.resource.OptimizerThread;
+import org.apache.amoro.shade.guava32.com.google.common.base.MoreObjects;
+import org.apache.amoro.utils.SerializationUtil;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runtime of a maintenance task dispatched to optimizers. It is kept in memory only, and the result
+ * is passed to the dispatcher through the future of the task.
+ */
+public class MaintenanceTaskRuntime {
+  private final OptimizingTaskId taskId;
+  private final TableOptimizing.OptimizingInput input;
+  private final String executorFactoryImpl;
+  private final CompletableFuture<TableOptimizing.OptimizingOutput> future =
+      new CompletableFuture<>();
+  private volatile OptimizerThread thread;
+
+  public MaintenanceTaskRuntime(
+      OptimizingTaskId taskId, TableOptimizing.OptimizingInput input, String executorFactoryImpl) {
+    this.taskId = taskId;
+    this.input = input;
+    this.executorFactoryImpl = executorFactoryImpl;
+  }
+
+  public void schedule(OptimizerThread thread) {
+    this.thread = thread;
+  }
+
+  public void ack(OptimizerThread thread) {
+    validThread(thread);
+  }
+
+  public void complete(OptimizerThread thread, OptimizingTaskResult result) {
+    validThread(thread);
+    if (result.getErrorMessage() != null) {
+      future.completeExceptionally(
+          new TaskRuntimeException(
+              "Maintenance task %s failed: %s", taskId, result.getErrorMessage()));
+    } else {
+      future.complete(SerializationUtil.simpleDeserialize(result.getTaskOutput()));
+    }
+  }
+
+  /**
+   * @param tableEmbedded whether to embed the table in the input, for optimizers to fall back to if
+   *     they can not load the table from its catalog
+   */
+  public OptimizingTask getOptimizingTask(boolean tableEmbedded) {
+    OptimizingTask optimizingTask = new OptimizingTask(taskId);
+    TableOptimizing.OptimizingInput shippedInput = input;
+    if (tableEmbedded && input instanceof TableReferencedInput) {
+      // inputs of maintenance tasks are kept in memory along with their tables
+      shippedInput = ((TableReferencedInput) input).withEmbeddedTable(() -> null);
+    }
+    optimizingTask.setTaskInput(SerializationUtil.simpleSerialize(shippedInput));
+    OptimizingInputProperties properties =
+        new OptimizingInputProperties().setExecutorFactoryImpl(executorFactoryImpl);
+    optimizingTask.setProperties(properties.getProperties());
+    return optimizingTask;
+  }
+
+  public OptimizingTaskId getTaskId() {
+    return taskId;
+  }
+
+  public CompletableFuture<TableOptimizing.OptimizingOutput> getFuture() {
+    return future;
+  }
+
+  private void validThread(OptimizerThread thread) {
+    if (this.thread == null) {
+      throw new TaskRuntimeException("Task has not yet been scheduled, taskId:%s", taskId);
+    }
+    if (!this.thread.equals(thread)) {
+      throw new TaskRuntimeException(
+          "The optimizer thread does not match, the thread in the task is %s, and the thread in the request is %s.",
+          this.thread, thread);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("taskId", taskId)
+        .add("input", input)
+        .add("executorFactoryImpl", executorFactoryImpl)
+        .add("thread", thread)
+        .toString();
+  }
+}
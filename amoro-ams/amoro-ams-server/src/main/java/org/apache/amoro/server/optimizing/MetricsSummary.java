@@ -47,6 +47,7 @@ public class MetricsSummary {
   public static final String INPUT_POS_DELETE_FILES = "input-position-delete-files";
   public static final String INPUT_POS_DELETE_SIZE = "input-position-delete-size";
   public static final String INPUT_POS_DELETE_RECORDS = "input-position-delete-records";
+  public static final String INPUT_DELETE_SIZE_SAVED = "input-delete-size(saved)";
   public static final String OUTPUT_DATA_FILES = "output-data-files";
   public static final String OUTPUT_DATA_SIZE = "output-data-size";
   public static final String OUTPUT_DATA_RECORDS = "output-data-records";
@@ -71,6 +72,10 @@ public class MetricsSummary {
 
   private int posDeleteFileCnt = 0;
   private long posDeleteRecordCnt = 0;
+  /** Bytes of delete files saved from reading by splitting tasks with delete locality */
+  private long deleteSizeSaved = 0;
+  /** Duration of executing the task reported by the optimizer, without waiting in the optimizer */
+  private long executeDuration = 0;
 
   /** @deprecated since 0.7.0, will be removed in 0.8.0 */
   @Deprecated private long newFileSize = 0;
@@ -145,6 +150,7 @@ public class MetricsSummary {
               rewritePosDataRecordCnt += metrics.getRewritePosDataRecordCnt();
               eqDeleteRecordCnt += metrics.getEqDeleteRecordCnt();
               posDeleteRecordCnt += metrics.getPosDeleteRecordCnt();
+              deleteSizeSaved += metrics.getDeleteSizeSaved();
               newFileCnt += metrics.getNewFileCnt();
               newFileSize += metrics.getNewFileSize();
             });
@@ -171,6 +177,7 @@ public class MetricsSummary {
         Math.max(positionalDeleteSize, positionDeleteSize),
         humanReadable);
     putIfPositive(summary, INPUT_POS_DELETE_RECORDS, posDeleteRecordCnt);
+    putIfPositive(summary, INPUT_DELETE_SIZE_SAVED, deleteSizeSaved, humanReadable);
     put(summary, OUTPUT_DATA_FILES, newDataFileCnt);
     put(summary, OUTPUT_DATA_SIZE, newDataSize, humanReadable);
     put(summary, OUTPUT_DATA_RECORDS, newDataRecordCnt);
@@ -335,6 +342,22 @@ public class MetricsSummary {
     return posDeleteRecordCnt;
   }
 
+  public long getDeleteSizeSaved() {
+    return deleteSizeSaved;
+  }
+
+  public void setDeleteSizeSaved(long deleteSizeSaved) {
+    this.deleteSizeSaved = deleteSizeSaved;
+  }
+
+  public long getExecuteDuration() {
+    return executeDuration;
+  }
+
+  public void setExecuteDuration(long executeDuration) {
+    this.executeDuration = executeDuration;
+  }
+
   @Override
   public String toString() {
     return MoreObjects.toStringHelper(this)
@@ -352,6 +375,8 @@ public class MetricsSummary {
         .add("positionalDeleteSize", positionalDeleteSize)
         .add("posDeleteFileCnt", posDeleteFileCnt)
         .add("posDeleteRecordCnt", posDeleteRecordCnt)
+        .add("deleteSizeSaved", deleteSizeSaved)
+        .add("executeDuration", executeDuration)
         .add("newFileSize", newFileSize)
         .add("newFileCnt", newFileCnt)
         .add("newDataSize", newDataSize)
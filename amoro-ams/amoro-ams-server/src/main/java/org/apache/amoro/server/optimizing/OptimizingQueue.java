@@ -23,11 +23,16 @@ import org.apache.amoro.api.OptimizerProperties;
 import org.apache.amoro.api.OptimizingTaskId;
 import org.apache.amoro.api.ServerTableIdentifier;
 import org.apache.amoro.api.resource.ResourceGroup;
+import org.apache.amoro.optimizing.ClusteringOrder;
+import org.apache.amoro.optimizing.OptimizingInputProperties;
 import org.apache.amoro.optimizing.RewriteFilesInput;
+import org.apache.amoro.optimizing.RewriteFilesOutput;
 import org.apache.amoro.server.AmoroServiceConstants;
 import org.apache.amoro.server.exception.OptimizingClosedException;
 import org.apache.amoro.server.manager.MetricManager;
+import org.apache.amoro.server.optimizing.plan.ClusteringKeyRanges;
 import org.apache.amoro.server.optimizing.plan.OptimizingPlanner;
+import org.apache.amoro.server.optimizing.plan.PartitionPlanExecutor;
 import org.apache.amoro.server.optimizing.plan.TaskDescriptor;
 import org.apache.amoro.server.persistence.PersistentBase;
 import org.apache.amoro.server.persistence.TaskFilesPersistence;
@@ -39,6 +44,7 @@ import org.apache.amoro.server.table.TableRuntime;
 import org.apache.amoro.server.table.TableRuntimeMeta;
 import org.apache.amoro.shade.guava32.com.google.common.annotations.VisibleForTesting;
 import org.apache.amoro.shade.guava32.com.google.common.base.Preconditions;
+import org.apache.amoro.shade.guava32.com.google.common.base.Suppliers;
 import org.apache.amoro.shade.guava32.com.google.common.collect.Lists;
 import org.apache.amoro.shade.guava32.com.google.common.collect.Maps;
 import org.apache.amoro.table.MixedTable;
@@ -52,6 +58,8 @@ import org.apache.iceberg.util.StructLikeMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -68,6 +76,7 @@ import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public class OptimizingQueue extends PersistentBase {
@@ -80,13 +89,18 @@ public class OptimizingQueue extends PersistentBase {
   private final SchedulingPolicy scheduler;
   private final TableManager tableManager;
   private final Executor planExecutor;
+  private final PartitionPlanExecutor partitionPlanExecutor;
   // Keep all planning table identifiers
   private final Set<ServerTableIdentifier> planningTables = new HashSet<>();
   private final Lock scheduleLock = new ReentrantLock();
+  private volatile boolean disposed = false;
   private final Condition planningCompleted = scheduleLock.newCondition();
   private final int maxPlanningParallelism;
   private final OptimizerGroupMetrics metrics;
+  // tables whose processes are closed once the standby queue is activated
+  private final Set<TableRuntime> pendingClosingTables = new HashSet<>();
   private ResourceGroup optimizerGroup;
+  private volatile boolean standby;
 
   public OptimizingQueue(
       TableManager tableManager,
@@ -95,25 +109,73 @@ public class OptimizingQueue extends PersistentBase {
       Executor planExecutor,
       List<TableRuntimeMeta> tableRuntimeMetaList,
       int maxPlanningParallelism) {
+    this(
+        tableManager,
+        optimizerGroup,
+        quotaProvider,
+        planExecutor,
+        null,
+        tableRuntimeMetaList,
+        maxPlanningParallelism);
+  }
+
+  public OptimizingQueue(
+      TableManager tableManager,
+      ResourceGroup optimizerGroup,
+      QuotaProvider quotaProvider,
+      Executor planExecutor,
+      PartitionPlanExecutor partitionPlanExecutor,
+      List<TableRuntimeMeta> tableRuntimeMetaList,
+      int maxPlanningParallelism) {
+    this(
+        tableManager,
+        optimizerGroup,
+        quotaProvider,
+        planExecutor,
+        partitionPlanExecutor,
+        tableRuntimeMetaList,
+        maxPlanningParallelism,
+        false);
+  }
+
+  /**
+   * @param standby whether the queue is kept by a warm standby, which only keeps tables and
+   *     processes of the optimizer group in memory without changing them, until it is activated
+   */
+  public OptimizingQueue(
+      TableManager tableManager,
+      ResourceGroup optimizerGroup,
+      QuotaProvider quotaProvider,
+      Executor planExecutor,
+      PartitionPlanExecutor partitionPlanExecutor,
+      List<TableRuntimeMeta> tableRuntimeMetaList,
+      int maxPlanningParallelism,
+      boolean standby) {
     Preconditions.checkNotNull(optimizerGroup, "Optimizer group can not be null");
     this.planExecutor = planExecutor;
+    this.partitionPlanExecutor = partitionPlanExecutor;
     this.optimizerGroup = optimizerGroup;
     this.quotaProvider = quotaProvider;
     this.scheduler = new SchedulingPolicy(optimizerGroup);
     this.tableManager = tableManager;
     this.maxPlanningParallelism = maxPlanningParallelism;
+    this.standby = standby;
     this.metrics =
         new OptimizerGroupMetrics(
             optimizerGroup.getName(), MetricManager.getInstance().getGlobalRegistry(), this);
-    this.metrics.register();
+    if (!standby) {
+      this.metrics.register();
+    }
     tableRuntimeMetaList.forEach(this::initTableRuntime);
   }
 
   private void initTableRuntime(TableRuntimeMeta tableRuntimeMeta) {
     TableRuntime tableRuntime = tableRuntimeMeta.getTableRuntime();
+    TableOptimizingProcess recoveredProcess = null;
     if (tableRuntime.getOptimizingStatus().isProcessing()
         && tableRuntimeMeta.getOptimizingProcessId() != 0) {
-      tableRuntime.recover(new TableOptimizingProcess(tableRuntimeMeta));
+      // the process recovers the table runtime by itself unless it is closed
+      recoveredProcess = new TableOptimizingProcess(tableRuntimeMeta);
     }
 
     if (tableRuntime.isOptimizingEnabled()) {
@@ -122,8 +184,13 @@ public class OptimizingQueue extends PersistentBase {
       if (!tableRuntime.getOptimizingStatus().isProcessing()) {
         scheduler.addTable(tableRuntime);
       } else if (tableRuntime.getOptimizingStatus() != OptimizingStatus.COMMITTING) {
-        tableQueue.offer(new TableOptimizingProcess(tableRuntimeMeta));
+        tableQueue.offer(
+            recoveredProcess != null
+                ? recoveredProcess
+                : new TableOptimizingProcess(tableRuntimeMeta));
       }
+    } else if (standby) {
+      pendingClosingTables.add(tableRuntime);
     } else {
       OptimizingProcess process = tableRuntime.getOptimizingProcess();
       if (process != null) {
@@ -132,6 +199,49 @@ public class OptimizingQueue extends PersistentBase {
     }
   }
 
+  public boolean isStandby() {
+    return standby;
+  }
+
+  /**
+   * Reload a table of the standby queue, whose runtime has been reloaded from the database. The
+   * table and its process kept before are dropped, and kept again if the table is still in the
+   * optimizer group of the queue.
+   */
+  public void reloadTable(TableRuntimeMeta tableRuntimeMeta) {
+    Preconditions.checkState(standby, "Only tables of a standby queue can be reloaded");
+    dropTable(tableRuntimeMeta.getTableRuntime());
+    if (optimizerGroup.getName().equals(tableRuntimeMeta.getOptimizerGroup())) {
+      initTableRuntime(tableRuntimeMeta);
+    }
+  }
+
+  /**
+   * Activate the standby queue once its optimizer group is taken over. Only tasks of the processes
+   * kept by the queue are reloaded, since they are changed by the former leader without changing
+   * table runtimes, and processes of tables with optimizing disabled are closed.
+   */
+  public void activate() {
+    Preconditions.checkState(
+        standby, "Optimizing queue of %s is not standby", optimizerGroup.getName());
+    standby = false;
+    tableQueue.forEach(TableOptimizingProcess::reloadTaskRuntimes);
+    pendingClosingTables.stream()
+        .map(TableRuntime::getOptimizingProcess)
+        .filter(Objects::nonNull)
+        .forEach(OptimizingProcess::close);
+    pendingClosingTables.clear();
+    metrics.register();
+  }
+
+  private void dropTable(TableRuntime tableRuntime) {
+    ServerTableIdentifier tableIdentifier = tableRuntime.getTableIdentifier();
+    scheduler.removeTable(tableRuntime);
+    pendingClosingTables.remove(tableRuntime);
+    tableQueue.removeIf(
+        process -> process.tableRuntime.getTableIdentifier().equals(tableIdentifier));
+  }
+
   public String getContainerName() {
     return optimizerGroup.getContainer();
   }
@@ -149,7 +259,11 @@ public class OptimizingQueue extends PersistentBase {
   }
 
   public void releaseTable(TableRuntime tableRuntime) {
-    scheduler.removeTable(tableRuntime);
+    if (standby) {
+      dropTable(tableRuntime);
+    } else {
+      scheduler.removeTable(tableRuntime);
+    }
     LOG.info(
         "Release queue {} with table {}",
         optimizerGroup.getName(),
@@ -231,7 +345,9 @@ public class OptimizingQueue extends PersistentBase {
                 tableRuntime.setLastPlanTime(currentTime);
                 planningTables.remove(tableRuntime.getTableIdentifier());
                 if (process != null) {
-                  tableQueue.offer(process);
+                  if (!process.isPlannedInStreaming()) {
+                    tableQueue.offer(process);
+                  }
                   LOG.info(
                       "Completed planning on table {} with {} tasks with a total cost of {} ms, skipping tables {}",
                       tableRuntime.getTableIdentifier(),
@@ -253,6 +369,7 @@ public class OptimizingQueue extends PersistentBase {
 
   private TableOptimizingProcess planInternal(TableRuntime tableRuntime) {
     tableRuntime.beginPlanning();
+    StreamingPlanning streamingPlanning = null;
     try {
       AmoroTable<?> table = tableManager.loadTable(tableRuntime.getTableIdentifier());
       OptimizingPlanner planner =
@@ -260,7 +377,12 @@ public class OptimizingQueue extends PersistentBase {
               tableRuntime.refresh(table),
               (MixedTable) table.originalTable(),
               getAvailableCore(),
-              maxInputSizePerThread());
+              maxInputSizePerThread(),
+              partitionPlanExecutor);
+      if (streamingPlanningEnabled()) {
+        streamingPlanning = new StreamingPlanning(planner, streamingPlanningBatchSize());
+        return streamingPlanning.plan();
+      }
       if (planner.isNecessary()) {
         return new TableOptimizingProcess(planner);
       } else {
@@ -268,7 +390,11 @@ public class OptimizingQueue extends PersistentBase {
         return null;
       }
     } catch (Throwable throwable) {
-      tableRuntime.planFailed();
+      if (streamingPlanning != null && streamingPlanning.process != null) {
+        streamingPlanning.process.planFailed(throwable);
+      } else {
+        tableRuntime.planFailed();
+      }
       LOG.error("Planning table {} failed", tableRuntime.getTableIdentifier(), throwable);
       throw throwable;
     }
@@ -316,7 +442,14 @@ public class OptimizingQueue extends PersistentBase {
     this.metrics.removeOptimizer(optimizerInstance);
   }
 
+  /**
+   * Dispose the queue when its optimizer group is unloaded. Returns after the commits in progress
+   * are done, and no process of the queue commits afterward, so that the group can be safely taken
+   * over by another node.
+   */
   public void dispose() {
+    disposed = true;
+    tableQueue.forEach(TableOptimizingProcess::awaitCommitting);
     this.metrics.unregister();
   }
 
@@ -325,6 +458,30 @@ public class OptimizingQueue extends PersistentBase {
     return Math.max(quotaProvider.getTotalQuota(optimizerGroup.getName()), 1);
   }
 
+  /** Whether tables are embedded in the inputs of polled tasks, see {@link TaskRuntime}. */
+  public boolean isTableEmbedded() {
+    return CompatiblePropertyUtil.propertyAsBoolean(
+        optimizerGroup.getProperties(),
+        OptimizerProperties.OPTIMIZER_TABLE_EMBEDDED,
+        OptimizerProperties.OPTIMIZER_TABLE_EMBEDDED_DEFAULT);
+  }
+
+  private boolean streamingPlanningEnabled() {
+    return CompatiblePropertyUtil.propertyAsBoolean(
+        optimizerGroup.getProperties(),
+        OptimizerProperties.STREAMING_PLANNING_ENABLED,
+        OptimizerProperties.STREAMING_PLANNING_ENABLED_DEFAULT);
+  }
+
+  private int streamingPlanningBatchSize() {
+    return Math.max(
+        CompatiblePropertyUtil.propertyAsInt(
+            optimizerGroup.getProperties(),
+            OptimizerProperties.STREAMING_PLANNING_BATCH_SIZE,
+            OptimizerProperties.STREAMING_PLANNING_BATCH_SIZE_DEFAULT),
+        1);
+  }
+
   private long maxInputSizePerThread() {
     return CompatiblePropertyUtil.propertyAsLong(
         optimizerGroup.getProperties(),
@@ -337,6 +494,62 @@ public class OptimizingQueue extends PersistentBase {
     return scheduler;
   }
 
+  /**
+   * Planning of a table which publishes tasks in batches once they are planned, so that optimizers
+   * can execute them while the table is still being planned. The process is created with the first
+   * batch, and can be committed only after all tasks are planned.
+   */
+  private class StreamingPlanning {
+    private final OptimizingPlanner planner;
+    private final int batchSize;
+    private final List<TaskDescriptor> pendingTasks = Lists.newArrayList();
+    private TableOptimizingProcess process;
+
+    private StreamingPlanning(OptimizingPlanner planner, int batchSize) {
+      this.planner = planner;
+      this.batchSize = batchSize;
+    }
+
+    private TableOptimizingProcess plan() {
+      planner.planTasks(this::addTasks);
+      if (!pendingTasks.isEmpty()) {
+        publishTasks();
+      }
+      if (process == null) {
+        planner.getTableRuntime().completeEmptyProcess();
+        return null;
+      }
+      process.completePlanning();
+      return process;
+    }
+
+    private void addTasks(List<TaskDescriptor> tasks) {
+      pendingTasks.addAll(tasks);
+      if (pendingTasks.size() >= batchSize) {
+        publishTasks();
+      }
+    }
+
+    private void publishTasks() {
+      boolean firstBatch = process == null;
+      if (firstBatch) {
+        process = new TableOptimizingProcess(planner, pendingTasks, false);
+      } else {
+        process.addTasks(pendingTasks);
+      }
+      pendingTasks.clear();
+      scheduleLock.lock();
+      try {
+        if (firstBatch) {
+          tableQueue.offer(process);
+        }
+        planningCompleted.signalAll();
+      } finally {
+        scheduleLock.unlock();
+      }
+    }
+  }
+
   private class TableOptimizingProcess implements OptimizingProcess, TaskRuntime.TaskOwner {
     private final long processId;
     private final OptimizingType optimizingType;
@@ -344,33 +557,64 @@ public class OptimizingQueue extends PersistentBase {
     private final long planTime;
     private final long targetSnapshotId;
     private final long targetChangeSnapshotId;
-    private final Map<OptimizingTaskId, TaskRuntime> taskMap = Maps.newHashMap();
+    // tasks are added by streaming planning while the process is running
+    private final Map<OptimizingTaskId, TaskRuntime> taskMap = Maps.newConcurrentMap();
     private final Queue<TaskRuntime> taskQueue = new LinkedList<>();
-    private final Lock lock = new ReentrantLock();
+    private final ReentrantLock lock = new ReentrantLock();
     private volatile Status status = OptimizingProcess.Status.RUNNING;
     private volatile String failedReason;
     private long endTime = AmoroServiceConstants.INVALID_TIME;
     private Map<String, Long> fromSequence = Maps.newHashMap();
     private Map<String, Long> toSequence = Maps.newHashMap();
     private boolean hasCommitted = false;
+    private final boolean plannedInStreaming;
+    private volatile boolean fullyPlanned = true;
+    private int nextTaskId = 1;
+    // inputs of a recovered process are loaded batch by batch on access, to serve optimizers sooner
+    private final Map<Integer, Supplier<Map<Integer, RewriteFilesInput>>> taskInputBatches =
+        Maps.newConcurrentMap();
+    private Supplier<Map<Integer, RewriteFilesInput>> processTaskInputs = Collections::emptyMap;
+    // loaded once to embed in recovered inputs, which are persisted without the table
+    private final Supplier<MixedTable> table = Suppliers.memoize(this::loadTable);
 
     public TaskRuntime poll() {
+      TaskRuntime taskRuntime;
       lock.lock();
       try {
-        return taskQueue.poll();
+        taskRuntime = taskQueue.poll();
       } finally {
         lock.unlock();
       }
+      if (taskRuntime != null) {
+        try {
+          taskRuntime.getInput();
+        } catch (OptimizingClosedException e) {
+          return null;
+        }
+      }
+      return taskRuntime;
     }
 
     public TableOptimizingProcess(OptimizingPlanner planner) {
+      this(planner, planner.planTasks(), true);
+    }
+
+    /**
+     * @param tasks all tasks of the process, or the first planned ones if the process is planned in
+     *     streaming
+     * @param fullyPlanned false if more tasks will be added by streaming planning
+     */
+    private TableOptimizingProcess(
+        OptimizingPlanner planner, List<TaskDescriptor> tasks, boolean fullyPlanned) {
       processId = planner.getProcessId();
       tableRuntime = planner.getTableRuntime();
       optimizingType = planner.getOptimizingType();
       planTime = planner.getPlanTime();
       targetSnapshotId = planner.getTargetSnapshotId();
       targetChangeSnapshotId = planner.getTargetChangeSnapshotId();
-      loadTaskRuntimes(planner.planTasks());
+      plannedInStreaming = !fullyPlanned;
+      this.fullyPlanned = fullyPlanned;
+      publishTaskRuntimes(buildTaskRuntimes(tasks));
       fromSequence = planner.getFromSequence();
       toSequence = planner.getToSequence();
       beginAndPersistProcess();
@@ -383,6 +627,7 @@ public class OptimizingQueue extends PersistentBase {
       targetSnapshotId = tableRuntimeMeta.getTargetSnapshotId();
       targetChangeSnapshotId = tableRuntimeMeta.getTargetChangeSnapshotId();
       planTime = tableRuntimeMeta.getPlanTime();
+      plannedInStreaming = false;
       if (tableRuntimeMeta.getFromSequence() != null) {
         fromSequence = tableRuntimeMeta.getFromSequence();
       }
@@ -424,7 +669,10 @@ public class OptimizingQueue extends PersistentBase {
       } finally {
         lock.unlock();
       }
-      releaseResourcesIfNecessary();
+      // if closed under the lock, e.g. on a lost input, the caller cancels tasks after unlocking
+      if (!lock.isHeldByCurrentThread()) {
+        releaseResourcesIfNecessary();
+      }
     }
 
     @Override
@@ -444,13 +692,8 @@ public class OptimizingQueue extends PersistentBase {
           throw new OptimizingClosedException(processId);
         }
         if (taskRuntime.getStatus() == TaskRuntime.Status.SUCCESS) {
-          // the lock of TableOptimizingProcess makes it thread-safe
-          if (allTasksPrepared()
-              && tableRuntime.getOptimizingStatus().isProcessing()
-              && tableRuntime.getOptimizingStatus() != OptimizingStatus.COMMITTING) {
-            tableRuntime.beginCommitting();
-            clearProcess(this);
-          }
+          tableRuntime.getTaskCostModel().addTask(taskRuntime);
+          beginCommittingIfPrepared();
         } else if (taskRuntime.getStatus() == TaskRuntime.Status.FAILED) {
           if (taskRuntime.getRetry() < tableRuntime.getMaxExecuteRetryCount()) {
             LOG.info(
@@ -473,6 +716,83 @@ public class OptimizingQueue extends PersistentBase {
       }
     }
 
+    // the lock of TableOptimizingProcess makes it thread-safe
+    private void beginCommittingIfPrepared() {
+      if (allTasksPrepared()
+          && tableRuntime.getOptimizingStatus().isProcessing()
+          && tableRuntime.getOptimizingStatus() != OptimizingStatus.COMMITTING) {
+        tableRuntime.beginCommitting();
+        clearProcess(this);
+      }
+    }
+
+    /**
+     * Add tasks planned in streaming, which are persisted with their inputs before published to
+     * optimizers.
+     */
+    private void addTasks(List<TaskDescriptor> taskDescriptors) {
+      lock.lock();
+      try {
+        if (status != Status.RUNNING) {
+          throw new OptimizingClosedException(processId);
+        }
+        List<TaskRuntime> taskRuntimes = buildTaskRuntimes(taskDescriptors);
+        doAs(OptimizingMapper.class, mapper -> mapper.insertTaskRuntimes(taskRuntimes));
+        publishTaskRuntimes(taskRuntimes);
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /**
+     * Mark the process planned in streaming as fully planned. The process can be committed only
+     * after that, so it commits all planned tasks together.
+     */
+    private void completePlanning() {
+      lock.lock();
+      try {
+        if (status != Status.RUNNING) {
+          throw new OptimizingClosedException(processId);
+        }
+        doAs(
+            OptimizingMapper.class,
+            mapper ->
+                mapper.updateOptimizingProcess(
+                    tableRuntime.getTableIdentifier().getId(),
+                    processId,
+                    status,
+                    endTime,
+                    getSummary(),
+                    getFailedReason()));
+        fullyPlanned = true;
+        beginCommittingIfPrepared();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /** Fail the process planned in streaming if the planning fails after it begins. */
+    private void planFailed(Throwable throwable) {
+      lock.lock();
+      try {
+        if (status != Status.RUNNING) {
+          return;
+        }
+        clearProcess(this);
+        failedReason = ExceptionUtil.getErrorMessage(throwable, 4000);
+        status = Status.FAILED;
+        endTime = System.currentTimeMillis();
+        persistProcessCompleted(false);
+      } finally {
+        lock.unlock();
+      }
+      releaseResourcesIfNecessary();
+    }
+
+    private boolean isPlannedInStreaming() {
+      return plannedInStreaming;
+    }
+
     // the cleanup of task should be done after unlock to avoid deadlock
     @Override
     public void releaseResourcesIfNecessary() {
@@ -487,6 +807,15 @@ public class OptimizingQueue extends PersistentBase {
       return status == OptimizingProcess.Status.CLOSED;
     }
 
+    @Override
+    public MixedTable getTable() {
+      return table.get();
+    }
+
+    private MixedTable loadTable() {
+      return (MixedTable) tableManager.loadTable(tableRuntime.getTableIdentifier()).originalTable();
+    }
+
     @Override
     public long getPlanTime() {
       return planTime;
@@ -525,7 +854,7 @@ public class OptimizingQueue extends PersistentBase {
      * @return true if tasks is not empty and all Prepared
      */
     private boolean allTasksPrepared() {
-      if (!taskMap.isEmpty()) {
+      if (fullyPlanned && !taskMap.isEmpty()) {
         return taskMap.values().stream().allMatch(t -> t.getStatus() == TaskRuntime.Status.SUCCESS);
       }
       return false;
@@ -554,16 +883,27 @@ public class OptimizingQueue extends PersistentBase {
 
       lock.lock();
       try {
+        if (disposed) {
+          LOG.info(
+              "{} is unloaded from this node, leave the commit to the new owner",
+              tableRuntime.getTableIdentifier());
+          return;
+        }
         if (hasCommitted) {
           LOG.warn("{} has already committed, give up", tableRuntime.getTableIdentifier());
           throw new IllegalStateException("repeat commit, and last error " + failedReason);
         }
         try {
           hasCommitted = true;
-          buildCommit().commit();
+          MixedTable table =
+              (MixedTable)
+                  tableManager.loadTable(tableRuntime.getTableIdentifier()).originalTable();
+          buildCommit(table).commit();
           status = Status.SUCCESS;
           endTime = System.currentTimeMillis();
-          persistProcessCompleted(true);
+          persistProcessCompleted(true, clusteringBaseline(table));
+        } catch (OptimizingClosedException e) {
+          LOG.warn("{} is closed while committing", tableRuntime.getTableIdentifier(), e);
         } catch (Exception e) {
           LOG.error("{} Commit optimizing failed ", tableRuntime.getTableIdentifier(), e);
           status = Status.FAILED;
@@ -578,14 +918,18 @@ public class OptimizingQueue extends PersistentBase {
       }
     }
 
+    /** Wait for the commit in progress, which holds the lock of the process. */
+    private void awaitCommitting() {
+      lock.lock();
+      lock.unlock();
+    }
+
     @Override
     public MetricsSummary getSummary() {
       return new MetricsSummary(taskMap.values());
     }
 
-    private UnKeyedTableCommit buildCommit() {
-      MixedTable table =
-          (MixedTable) tableManager.loadTable(tableRuntime.getTableIdentifier()).originalTable();
+    private UnKeyedTableCommit buildCommit(MixedTable table) {
       if (table.isUnkeyedTable()) {
         return new UnKeyedTableCommit(targetSnapshotId, table, taskMap.values());
       } else {
@@ -598,6 +942,43 @@ public class OptimizingQueue extends PersistentBase {
       }
     }
 
+    /**
+     * Overlapping file count of each partition rewritten by clustering optimizing. The output of
+     * different tasks may overlap, which is only resolved by rewriting them again in one task.
+     */
+    private Map<String, Long> clusteringBaseline(MixedTable table) {
+      Map<String, ClusteringKeyRanges> partitionRanges = Maps.newHashMap();
+      for (TaskRuntime taskRuntime : taskMap.values()) {
+        RewriteFilesOutput output = taskRuntime.getOutput();
+        if (output == null || output.getDataFiles() == null) {
+          continue;
+        }
+        ClusteringOrder order;
+        try {
+          order =
+              OptimizingInputProperties.parse(taskRuntime.getProperties())
+                  .getClusteringOrder(table.schema());
+        } catch (IllegalArgumentException e) {
+          LOG.warn(
+              "{} skip the clustering baseline of partition {}",
+              tableRuntime.getTableIdentifier(),
+              taskRuntime.getPartition(),
+              e);
+          continue;
+        }
+        if (order != null) {
+          ClusteringKeyRanges ranges =
+              partitionRanges.computeIfAbsent(
+                  taskRuntime.getPartition(), partition -> new ClusteringKeyRanges(order));
+          Arrays.stream(output.getDataFiles()).forEach(ranges::add);
+        }
+      }
+      Map<String, Long> baseline = Maps.newHashMap();
+      partitionRanges.forEach(
+          (partition, ranges) -> baseline.put(partition, (long) ranges.overlappingFileCount()));
+      return baseline;
+    }
+
     private StructLikeMap<Long> convertPartitionSequence(
         MixedTable table, Map<String, Long> partitionSequence) {
       PartitionSpec spec = table.spec();
@@ -635,11 +1016,14 @@ public class OptimizingQueue extends PersistentBase {
               doAs(
                   OptimizingMapper.class,
                   mapper -> mapper.insertTaskRuntimes(Lists.newArrayList(taskMap.values()))),
-          () -> TaskFilesPersistence.persistTaskInputs(processId, taskMap.values()),
           () -> tableRuntime.beginProcess(this));
     }
 
     private void persistProcessCompleted(boolean success) {
+      persistProcessCompleted(success, Collections.emptyMap());
+    }
+
+    private void persistProcessCompleted(boolean success, Map<String, Long> clusteringBaseline) {
       doAsTransaction(
           () ->
               doAs(
@@ -652,7 +1036,7 @@ public class OptimizingQueue extends PersistentBase {
                           endTime,
                           getSummary(),
                           getFailedReason())),
-          () -> tableRuntime.completeProcess(success));
+          () -> tableRuntime.completeProcess(success, clusteringBaseline));
     }
 
     /** The cancellation should be invoked outside the process lock to avoid deadlock. */
@@ -666,20 +1050,29 @@ public class OptimizingQueue extends PersistentBase {
               OptimizingMapper.class,
               mapper ->
                   mapper.selectTaskRuntimes(tableRuntime.getTableIdentifier().getId(), processId));
+      taskInputBatches.clear();
+      processTaskInputs = Suppliers.memoize(() -> TaskFilesPersistence.loadTaskInputs(processId));
       try {
-        Map<Integer, RewriteFilesInput> inputs = TaskFilesPersistence.loadTaskInputs(processId);
         taskRuntimes.forEach(
             taskRuntime -> {
               taskRuntime.claimOwnership(this);
-              taskRuntime.setInput(inputs.get(taskRuntime.getTaskId().getTaskId()));
+              int taskId = taskRuntime.getTaskId().getTaskId();
+              taskRuntime.loadInputLazily(() -> loadTaskInput(taskId));
               taskMap.put(taskRuntime.getTaskId(), taskRuntime);
+              // other tasks of a standby queue are handled once they are reloaded on activation
               if (taskRuntime.getStatus() == TaskRuntime.Status.PLANNED) {
                 taskQueue.offer(taskRuntime);
-              } else if (taskRuntime.getStatus() == TaskRuntime.Status.FAILED) {
+              } else if (!standby && taskRuntime.getStatus() == TaskRuntime.Status.SUCCESS) {
+                tableRuntime.getTaskCostModel().addTask(taskRuntime);
+              } else if (!standby && taskRuntime.getStatus() == TaskRuntime.Status.FAILED) {
                 retryTask(taskRuntime);
               }
             });
       } catch (IllegalArgumentException e) {
+        if (standby) {
+          LOG.warn("Load task runtimes of process {} failed on standby", processId, e);
+          return;
+        }
         LOG.warn(
             "Load task inputs failed, close the optimizing process : {}",
             optimizingProcess.getProcessId(),
@@ -688,12 +1081,61 @@ public class OptimizingQueue extends PersistentBase {
       }
     }
 
-    private void loadTaskRuntimes(List<TaskDescriptor> taskDescriptors) {
-      int taskId = 1;
+    /**
+     * Load the input of a task of the recovered process, all lazy loads of task inputs go through
+     * here, whatever the status of the task is. Inputs are loaded along with the other tasks of the
+     * same batch, and are found in the inputs of the process if persisted by earlier versions. The
+     * process is closed if the inputs are not persisted.
+     *
+     * @throws OptimizingClosedException if the inputs are lost and the process is closed
+     */
+    private RewriteFilesInput loadTaskInput(int taskId) {
+      try {
+        int batchSize = streamingPlanningBatchSize();
+        RewriteFilesInput input =
+            taskInputBatches
+                .computeIfAbsent(
+                    (taskId - 1) / batchSize,
+                    batch -> Suppliers.memoize(() -> loadTaskInputBatch(batch, batchSize)))
+                .get()
+                .get(taskId);
+        if (input == null) {
+          input = processTaskInputs.get().get(taskId);
+        }
+        Preconditions.checkArgument(
+            input != null, "Input of task %s of process %s is not persisted", taskId, processId);
+        return input;
+      } catch (IllegalArgumentException e) {
+        LOG.warn("Load task inputs failed, close the optimizing process : {}", processId, e);
+        close();
+        throw new OptimizingClosedException(processId);
+      }
+    }
+
+    private Map<Integer, RewriteFilesInput> loadTaskInputBatch(int batch, int batchSize) {
+      long fromTaskId = (long) batch * batchSize + 1;
+      return TaskFilesPersistence.loadTaskInputs(
+          processId, (int) fromTaskId, (int) Math.min(fromTaskId + batchSize, Integer.MAX_VALUE));
+    }
+
+    /** Reload tasks of the process kept by a standby queue, once the queue is activated. */
+    private void reloadTaskRuntimes() {
+      lock.lock();
+      try {
+        taskMap.clear();
+        taskQueue.clear();
+        loadTaskRuntimes(this);
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private List<TaskRuntime> buildTaskRuntimes(List<TaskDescriptor> taskDescriptors) {
+      List<TaskRuntime> taskRuntimes = Lists.newArrayListWithCapacity(taskDescriptors.size());
       for (TaskDescriptor taskDescriptor : taskDescriptors) {
         TaskRuntime taskRuntime =
             new TaskRuntime(
-                new OptimizingTaskId(processId, taskId++),
+                new OptimizingTaskId(processId, nextTaskId++),
                 taskDescriptor,
                 taskDescriptor.properties());
         LOG.info(
@@ -701,7 +1143,14 @@ public class OptimizingQueue extends PersistentBase {
             tableRuntime.getTableIdentifier(),
             taskRuntime.getTaskId(),
             taskRuntime.getSummary());
-        taskMap.put(taskRuntime.getTaskId(), taskRuntime.claimOwnership(this));
+        taskRuntimes.add(taskRuntime.claimOwnership(this));
+      }
+      return taskRuntimes;
+    }
+
+    private void publishTaskRuntimes(List<TaskRuntime> taskRuntimes) {
+      for (TaskRuntime taskRuntime : taskRuntimes) {
+        taskMap.put(taskRuntime.getTaskId(), taskRuntime);
         taskQueue.offer(taskRuntime);
       }
     }
@@ -22,6 +22,7 @@ public enum OptimizingStatus {
   FULL_OPTIMIZING("full", true),
   MAJOR_OPTIMIZING("major", true),
   MINOR_OPTIMIZING("minor", true),
+  CLUSTER_OPTIMIZING("clustering", true),
   COMMITTING("committing", true),
   PLANNING("planning", false),
   PENDING("pending", false),
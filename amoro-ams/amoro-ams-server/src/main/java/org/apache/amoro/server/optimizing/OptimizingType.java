@@ -21,7 +21,8 @@ package org.apache.amoro.server.optimizing;
 public enum OptimizingType {
   MINOR(OptimizingStatus.MINOR_OPTIMIZING),
   MAJOR(OptimizingStatus.MAJOR_OPTIMIZING),
-  FULL(OptimizingStatus.FULL_OPTIMIZING);
+  FULL(OptimizingStatus.FULL_OPTIMIZING),
+  CLUSTERING(OptimizingStatus.CLUSTER_OPTIMIZING);
 
   private final OptimizingStatus status;
 
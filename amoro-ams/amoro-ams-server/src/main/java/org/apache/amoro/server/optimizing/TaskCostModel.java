@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.server.optimizing;
+
+import org.apache.amoro.shade.guava32.com.google.common.annotations.VisibleForTesting;
+import org.apache.amoro.shade.guava32.com.google.common.base.MoreObjects;
+
+/**
+ * Cost model of optimizing tasks of a table, learned from finished tasks.
+ *
+ * <p>The duration of a task is modeled as {@code dataSeconds * dataSize + deleteSeconds *
+ * deleteSize}, where data size is the size of data files to rewrite or read, and delete size is the
+ * size of delete files to apply. The two coefficients are fitted by least squares over finished
+ * tasks with exponentially decaying weights, so that the model follows the recent throughput of
+ * the table. If the tasks do not tell data and delete files apart, for example no task has delete
+ * files, the delete files are assumed as costly as data files.
+ */
+public class TaskCostModel {
+
+  /** Weight decay of history tasks for each newly finished task. */
+  private static final double DECAY = 0.95;
+
+  /** Tasks shorter than this are dominated by fixed overheads, and are not learned from. */
+  private static final long MIN_TASK_DURATION = 1000;
+
+  /** Least finished tasks to estimate from. */
+  @VisibleForTesting static final int MIN_TASK_COUNT = 5;
+
+  private static final double MB = 1024 * 1024;
+
+  // decayed sums of the normal equations, sizes are in MB and durations in seconds
+  private double sumDataData;
+  private double sumDataDelete;
+  private double sumDeleteDelete;
+  private double sumDataDuration;
+  private double sumDeleteDuration;
+  private int taskCount;
+
+  /** Learn from a finished task, of which the duration is the one of the last successful run. */
+  public void addTask(TaskRuntime taskRuntime) {
+    if (taskRuntime.getStatus() == TaskRuntime.Status.SUCCESS) {
+      addTask(taskRuntime.getMetricsSummary());
+    }
+  }
+
+  /**
+   * Learn from the metrics of a successful task. The duration is the one reported by the optimizer,
+   * which does not include the time the task waits in the optimizer before and after executing.
+   */
+  public void addTask(MetricsSummary summary) {
+    if (summary == null) {
+      return;
+    }
+    addTask(
+        summary.getRewriteDataSize() + summary.getRewritePosDataSize(),
+        summary.getEqualityDeleteSize() + summary.getPositionDeleteSize(),
+        summary.getExecuteDuration());
+  }
+
+  @VisibleForTesting
+  synchronized void addTask(long dataSize, long deleteSize, long duration) {
+    if (duration < MIN_TASK_DURATION || dataSize + deleteSize <= 0) {
+      return;
+    }
+    double data = dataSize / MB;
+    double delete = deleteSize / MB;
+    double seconds = duration / 1000.0;
+    sumDataData = sumDataData * DECAY + data * data;
+    sumDataDelete = sumDataDelete * DECAY + data * delete;
+    sumDeleteDelete = sumDeleteDelete * DECAY + delete * delete;
+    sumDataDuration = sumDataDuration * DECAY + data * seconds;
+    sumDeleteDuration = sumDeleteDuration * DECAY + delete * seconds;
+    taskCount++;
+  }
+
+  /**
+   * Estimate the size of data files a task could rewrite in the target duration.
+   *
+   * @param targetDuration target duration of the task in milliseconds
+   * @param deleteRatio size of delete files to apply per byte of data files
+   * @return the estimated data size in bytes, or -1 if there are not enough finished tasks
+   */
+  public synchronized long estimateTaskSize(long targetDuration, double deleteRatio) {
+    double[] coefficients = coefficients();
+    if (coefficients == null) {
+      return -1;
+    }
+    double secondsPerMb = coefficients[0] + coefficients[1] * Math.max(deleteRatio, 0);
+    return (long) (targetDuration / 1000.0 / secondsPerMb * MB);
+  }
+
+  /**
+   * Returns seconds per MB of data files and of delete files, or null if there are not enough
+   * finished tasks.
+   */
+  private double[] coefficients() {
+    if (taskCount < MIN_TASK_COUNT) {
+      return null;
+    }
+    double det = sumDataData * sumDeleteDelete - sumDataDelete * sumDataDelete;
+    if (det > 1e-6 * sumDataData * sumDeleteDelete) {
+      double dataSeconds =
+          (sumDataDuration * sumDeleteDelete - sumDeleteDuration * sumDataDelete) / det;
+      double deleteSeconds =
+          (sumDeleteDuration * sumDataData - sumDataDuration * sumDataDelete) / det;
+      if (dataSeconds > 0 && deleteSeconds >= 0) {
+        return new double[] {dataSeconds, deleteSeconds};
+      }
+    }
+    // fit by the total size if data and delete files could not be told apart
+    double sumTotalTotal = sumDataData + 2 * sumDataDelete + sumDeleteDelete;
+    double seconds = (sumDataDuration + sumDeleteDuration) / sumTotalTotal;
+    return seconds > 0 ? new double[] {seconds, seconds} : null;
+  }
+
+  @Override
+  public synchronized String toString() {
+    double[] coefficients = coefficients();
+    return MoreObjects.toStringHelper(this)
+        .add("taskCount", taskCount)
+        .add("dataBytesPerSecond", coefficients == null ? null : (long) (MB / coefficients[0]))
+        .add("deleteOverhead", coefficients == null ? null : coefficients[1] / coefficients[0])
+        .toString();
+  }
+}
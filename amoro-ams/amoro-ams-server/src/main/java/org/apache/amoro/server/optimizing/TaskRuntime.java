@@ -22,6 +22,7 @@ import org.apache.amoro.api.OptimizingTask;
 import org.apache.amoro.api.OptimizingTaskId;
 import org.apache.amoro.api.OptimizingTaskResult;
 import org.apache.amoro.api.StateField;
+import org.apache.amoro.optimizing.OptimizingTaskSummary;
 import org.apache.amoro.optimizing.RewriteFilesInput;
 import org.apache.amoro.optimizing.RewriteFilesOutput;
 import org.apache.amoro.server.AmoroServiceConstants;
@@ -37,10 +38,13 @@ import org.apache.amoro.server.resource.OptimizerThread;
 import org.apache.amoro.shade.guava32.com.google.common.base.MoreObjects;
 import org.apache.amoro.shade.guava32.com.google.common.collect.ImmutableMap;
 import org.apache.amoro.shade.guava32.com.google.common.collect.ImmutableSet;
+import org.apache.amoro.table.MixedTable;
 import org.apache.amoro.utils.SerializationUtil;
+import org.apache.iceberg.util.PropertyUtil;
 
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 
 public class TaskRuntime extends StatedPersistentBase {
   private long tableId;
@@ -56,7 +60,8 @@ public class TaskRuntime extends StatedPersistentBase {
   @StateField private int threadId = -1;
   @StateField private String failReason;
   private TaskOwner owner;
-  private RewriteFilesInput input;
+  private volatile RewriteFilesInput input;
+  private volatile Supplier<RewriteFilesInput> inputLoader;
   @StateField private RewriteFilesOutput output;
   @StateField private MetricsSummary summary;
   private Map<String, String> properties;
@@ -69,6 +74,7 @@ public class TaskRuntime extends StatedPersistentBase {
     this.partition = taskDescriptor.getPartition();
     this.input = taskDescriptor.getInput();
     this.summary = new MetricsSummary(input);
+    this.summary.setDeleteSizeSaved(taskDescriptor.getDeleteSizeSaved());
     this.tableId = taskDescriptor.getTableId();
     this.properties = properties;
   }
@@ -95,6 +101,11 @@ public class TaskRuntime extends StatedPersistentBase {
                 OptimizingUtil.getRecordCnt(filesOutput.getDeleteFiles()));
             summary.setNewFileSize(summary.getNewDataSize() + summary.getNewDeleteSize());
             summary.setNewFileCnt(summary.getNewDataFileCnt() + summary.getNewDeleteFileCnt());
+            if (result.getSummary() != null) {
+              summary.setExecuteDuration(
+                  PropertyUtil.propertyAsLong(
+                      result.getSummary(), OptimizingTaskSummary.EXECUTE_DURATION, 0L));
+            }
             endTime = System.currentTimeMillis();
             costTime += endTime - startTime;
             output = filesOutput;
@@ -118,7 +129,9 @@ public class TaskRuntime extends StatedPersistentBase {
           threadId = -1;
           failReason = null;
           output = null;
-          summary = new MetricsSummary(input);
+          long deleteSizeSaved = summary.getDeleteSizeSaved();
+          summary = new MetricsSummary(getInput());
+          summary.setDeleteSizeSaved(deleteSizeSaved);
           // The cost time should not be reset since it is the total cost time of all runs.
           persistTaskRuntime(this);
         });
@@ -175,7 +188,23 @@ public class TaskRuntime extends StatedPersistentBase {
     this.input = input;
   }
 
+  /**
+   * Load the input on the first access, so that optimizing processes are recovered without
+   * deserializing inputs of all their tasks.
+   *
+   * @param inputLoader loader of the input, which may be called by multiple threads
+   */
+  void loadInputLazily(Supplier<RewriteFilesInput> inputLoader) {
+    this.input = null;
+    this.inputLoader = inputLoader;
+  }
+
   public RewriteFilesInput getInput() {
+    Supplier<RewriteFilesInput> loader = inputLoader;
+    if (input == null && loader != null) {
+      setInput(loader.get());
+      inputLoader = null;
+    }
     return input;
   }
 
@@ -207,8 +236,14 @@ public class TaskRuntime extends StatedPersistentBase {
     return threadId;
   }
 
-  public OptimizingTask getOptimizingTask() {
+  /**
+   * @param tableEmbedded whether to embed the table in the input, for optimizers to fall back to if
+   *     they can not load the table from its catalog
+   */
+  public OptimizingTask getOptimizingTask(boolean tableEmbedded) {
     OptimizingTask optimizingTask = new OptimizingTask(taskId);
+    RewriteFilesInput input =
+        tableEmbedded ? getInput().withEmbeddedTable(owner::getTable) : getInput();
     optimizingTask.setTaskInput(SerializationUtil.simpleSerialize(input));
     optimizingTask.setProperties(properties);
     return optimizingTask;
@@ -433,6 +468,9 @@ public class TaskRuntime extends StatedPersistentBase {
   public interface TaskOwner {
     void acceptResult(TaskRuntime taskRuntime);
 
+    /** Returns the table of the task, for inputs recovered without their tables. */
+    MixedTable getTable();
+
     void releaseResourcesIfNecessary();
 
     boolean isClosed();
@@ -25,7 +25,13 @@ import org.apache.amoro.api.config.DataExpirationConfig;
 import org.apache.amoro.api.config.TableConfiguration;
 import org.apache.amoro.io.AuthenticatedFileIO;
 import org.apache.amoro.io.PathInfo;
+import org.apache.amoro.io.StreamingFileDeleter;
 import org.apache.amoro.io.SupportsFileSystemOperations;
+import org.apache.amoro.optimizing.CleanExpiredFilesExecutor;
+import org.apache.amoro.optimizing.CleanExpiredFilesExecutorFactory;
+import org.apache.amoro.optimizing.CleanExpiredFilesInput;
+import org.apache.amoro.optimizing.CleanExpiredFilesOutput;
+import org.apache.amoro.optimizing.TableOptimizing;
 import org.apache.amoro.server.AmoroServiceConstants;
 import org.apache.amoro.server.table.TableRuntime;
 import org.apache.amoro.server.utils.IcebergTableUtil;
@@ -34,8 +40,8 @@ import org.apache.amoro.shade.guava32.com.google.common.base.Strings;
 import org.apache.amoro.shade.guava32.com.google.common.collect.Iterables;
 import org.apache.amoro.shade.guava32.com.google.common.collect.Maps;
 import org.apache.amoro.shade.guava32.com.google.common.collect.Sets;
+import org.apache.amoro.table.MixedTable;
 import org.apache.amoro.utils.TableFileUtil;
-import org.apache.hadoop.fs.Path;
 import org.apache.iceberg.ContentFile;
 import org.apache.iceberg.ContentScanTask;
 import org.apache.iceberg.DataFile;
@@ -43,6 +49,7 @@ import org.apache.iceberg.DeleteFile;
 import org.apache.iceberg.DeleteFiles;
 import org.apache.iceberg.FileContent;
 import org.apache.iceberg.FileScanTask;
+import org.apache.iceberg.HasTableOperations;
 import org.apache.iceberg.ReachableFileUtil;
 import org.apache.iceberg.RewriteFiles;
 import org.apache.iceberg.Schema;
@@ -50,6 +57,8 @@ import org.apache.iceberg.Snapshot;
 import org.apache.iceberg.SnapshotSummary;
 import org.apache.iceberg.StructLike;
 import org.apache.iceberg.Table;
+import org.apache.iceberg.TableMetadata;
+import org.apache.iceberg.TableOperations;
 import org.apache.iceberg.TableScan;
 import org.apache.iceberg.exceptions.ValidationException;
 import org.apache.iceberg.expressions.Expression;
@@ -80,8 +89,8 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.LinkedTransferQueue;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -105,8 +114,15 @@ public class IcebergTableMaintainer implements TableMaintainer {
 
   protected Table table;
 
+  private final MaintenanceTaskDispatcher taskDispatcher;
+
   public IcebergTableMaintainer(Table table) {
+    this(table, null);
+  }
+
+  public IcebergTableMaintainer(Table table, MaintenanceTaskDispatcher taskDispatcher) {
     this.table = table;
+    this.taskDispatcher = taskDispatcher;
   }
 
   @Override
@@ -157,7 +173,7 @@ public class IcebergTableMaintainer implements TableMaintainer {
     if (!expireSnapshotEnabled(tableRuntime)) {
       return;
     }
-    expireSnapshots(mustOlderThan(tableRuntime, System.currentTimeMillis()));
+    expireSnapshots(mustOlderThan(tableRuntime, System.currentTimeMillis()), tableRuntime);
   }
 
   protected boolean expireSnapshotEnabled(TableRuntime tableRuntime) {
@@ -167,59 +183,157 @@ public class IcebergTableMaintainer implements TableMaintainer {
 
   @VisibleForTesting
   void expireSnapshots(long mustOlderThan) {
-    expireSnapshots(mustOlderThan, expireSnapshotNeedToExcludeFiles());
+    expireSnapshots(mustOlderThan, (TableRuntime) null);
   }
 
-  private void expireSnapshots(long olderThan, Set<String> exclude) {
+  /**
+   * @param tableRuntime runtime to persist cleanups of expired files in, which are not persisted if
+   *     it is null
+   */
+  void expireSnapshots(long mustOlderThan, TableRuntime tableRuntime) {
+    expireSnapshots(mustOlderThan, expireSnapshotNeedToExcludeFiles(), tableRuntime);
+  }
+
+  private void expireSnapshots(long olderThan, Set<String> exclude, TableRuntime tableRuntime) {
     LOG.debug("start expire snapshots older than {}, the exclude is {}", olderThan, exclude);
-    final AtomicInteger toDeleteFiles = new AtomicInteger(0);
-    Set<String> parentDirectories = new HashSet<>();
-    Set<String> expiredFiles = new HashSet<>();
+    if (maintainedTable() != null && table instanceof HasTableOperations) {
+      expireSnapshotsAndCleanFiles(olderThan, exclude, tableRuntime);
+      return;
+    }
+    // iceberg collects all the expired files before they are streamed in to be deleted
+    StreamingFileDeleter deleter =
+        new StreamingFileDeleter(
+            fileIO(),
+            exclude,
+            StreamingFileDeleter.DEFAULT_BATCH_SIZE,
+            ThreadPools.getWorkerPool());
+    table
+        .expireSnapshots()
+        .retainLast(1)
+        .expireOlderThan(olderThan)
+        .deleteWith(deleter)
+        .cleanExpiredFiles(true)
+        .commit();
+    deleter.finish();
+
+    runWithCondition(
+        deleter.collectedFileCount() > 0,
+        () ->
+            LOG.info(
+                "To delete {} files in {}, success delete {} files",
+                deleter.collectedFileCount(),
+                getTable().name(),
+                deleter.deletedFileCount()));
+  }
+
+  /**
+   * Expire snapshots by committing the metadata only, and clean files of the expired snapshots
+   * manifest by manifest with {@link CleanExpiredFilesExecutor}. The cleanup is a maintenance task
+   * of optimizers if they are available, which is not waited for, and files are cleaned in AMS if
+   * the task fails.
+   *
+   * <p>The cleanup is persisted in the table runtime until it is completed, as maintenance tasks
+   * are kept in memory only. Cleanups lost when AMS restarted are run again before expiring
+   * snapshots.
+   */
+  private void expireSnapshotsAndCleanFiles(
+      long olderThan, Set<String> exclude, TableRuntime tableRuntime) {
+    TableOperations operations = ((HasTableOperations) table).operations();
+    TableMetadata expiring = operations.refresh();
+    if (tableRuntime != null) {
+      tableRuntime
+          .recoverPendingCleanups(TableFileUtil.getFileDir(expiring.metadataFileLocation()) + "/")
+          .forEach(
+              (expiredMetadataLocation, expiringMetadataLocation) -> {
+                LOG.info(
+                    "Clean files expired by {} of {} again, which are not cleaned before AMS"
+                        + " restarted",
+                    expiredMetadataLocation,
+                    table.name());
+                cleanExpiredFiles(
+                    new CleanExpiredFilesInput(
+                        maintainedTable(),
+                        expiringMetadataLocation,
+                        expiredMetadataLocation,
+                        exclude),
+                    tableRuntime);
+              });
+    }
+
     table
         .expireSnapshots()
         .retainLast(1)
         .expireOlderThan(olderThan)
-        .deleteWith(
-            file -> {
-              if (exclude.isEmpty()) {
-                expiredFiles.add(file);
-              } else {
-                String fileUriPath = TableFileUtil.getUriPath(file);
-                if (!exclude.contains(fileUriPath)
-                    && !exclude.contains(new Path(fileUriPath).getParent().toString())) {
-                  expiredFiles.add(file);
-                }
-              }
-
-              parentDirectories.add(new Path(file).getParent().toString());
-              toDeleteFiles.incrementAndGet();
-            })
-        .cleanExpiredFiles(
-            true) /* enable clean only for collecting the expired files, will delete them later */
+        .cleanExpiredFiles(false)
         .commit();
+    TableMetadata expired = operations.current();
+    if (expiring.snapshots().stream().allMatch(s -> expired.snapshot(s.snapshotId()) != null)) {
+      return;
+    }
 
-    // try to batch delete files
-    int deletedFiles =
-        TableFileUtil.parallelDeleteFiles(fileIO(), expiredFiles, ThreadPools.getWorkerPool());
+    CleanExpiredFilesInput input =
+        new CleanExpiredFilesInput(
+            maintainedTable(),
+            expiring.metadataFileLocation(),
+            expired.metadataFileLocation(),
+            exclude);
+    if (tableRuntime != null) {
+      tableRuntime.addPendingCleanup(
+          expired.metadataFileLocation(), expiring.metadataFileLocation());
+    }
+    cleanExpiredFiles(input, tableRuntime);
+  }
 
-    parentDirectories.forEach(
-        parent -> {
+  private void cleanExpiredFiles(CleanExpiredFilesInput input, TableRuntime tableRuntime) {
+    CompletableFuture<TableOptimizing.OptimizingOutput> future =
+        taskDispatcher() == null
+            ? null
+            : taskDispatcher().dispatch(input, CleanExpiredFilesExecutorFactory.class.getName());
+    if (future == null) {
+      try {
+        logCleanOutput(new CleanExpiredFilesExecutor(input, fileIO()).execute());
+      } finally {
+        completeCleanup(input, tableRuntime);
+      }
+      return;
+    }
+    // do not wait for the task, which may take as long as the timeout of maintenance tasks
+    future.whenComplete(
+        (output, throwable) -> {
           try {
-            TableFileUtil.deleteEmptyDirectory(fileIO(), parent, exclude);
-          } catch (Exception e) {
-            // Ignore exceptions to remove as many directories as possible
-            LOG.warn("Fail to delete empty directory {}", parent, e);
+            if (throwable == null) {
+              logCleanOutput((CleanExpiredFilesOutput) output);
+            } else {
+              LOG.warn(
+                  "Failed to clean expired files of {} by optimizers, clean them in AMS",
+                  table.name(),
+                  throwable);
+              logCleanOutput(new CleanExpiredFilesExecutor(input, fileIO()).execute());
+            }
+          } catch (Throwable t) {
+            LOG.error("Unexpected error when cleaning expired files of {}", table.name(), t);
+          } finally {
+            completeCleanup(input, tableRuntime);
           }
         });
+  }
 
+  /** A failed cleanup is not run again, whose files are left to orphan files cleaning. */
+  private void completeCleanup(CleanExpiredFilesInput input, TableRuntime tableRuntime) {
+    if (tableRuntime != null) {
+      tableRuntime.removePendingCleanup(input.getExpiredMetadataLocation());
+    }
+  }
+
+  private void logCleanOutput(CleanExpiredFilesOutput output) {
     runWithCondition(
-        toDeleteFiles.get() > 0,
+        output.getExpiredFileCount() > 0,
         () ->
             LOG.info(
                 "To delete {} files in {}, success delete {} files",
-                toDeleteFiles.get(),
+                output.getExpiredFileCount(),
                 getTable().name(),
-                deletedFiles));
+                output.getDeletedFileCount()));
   }
 
   @Override
@@ -343,6 +457,16 @@ public class IcebergTableMaintainer implements TableMaintainer {
         IcebergTableUtil.getAllStatisticsFilePath(table));
   }
 
+  /** Dispatcher of maintenance tasks to optimizers, null to maintain the table in AMS. */
+  protected MaintenanceTaskDispatcher taskDispatcher() {
+    return taskDispatcher;
+  }
+
+  /** The table referenced by maintenance tasks, which contains the maintained iceberg table. */
+  protected MixedTable maintainedTable() {
+    return table instanceof MixedTable ? (MixedTable) table : null;
+  }
+
   protected AuthenticatedFileIO fileIO() {
     return (AuthenticatedFileIO) table.io();
   }
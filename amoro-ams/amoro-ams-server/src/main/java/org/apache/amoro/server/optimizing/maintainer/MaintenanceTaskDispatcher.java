@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.server.optimizing.maintainer;
+
+import org.apache.amoro.optimizing.TableOptimizing;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Dispatches maintenance work of a table to optimizers of its group as maintenance tasks, so that
+ * the heavy parts of maintenance such as manifest scanning and bulk deletion do not run in AMS.
+ */
+@FunctionalInterface
+public interface MaintenanceTaskDispatcher {
+
+  /**
+   * Dispatch a maintenance task to optimizers.
+   *
+   * <p>Callers do not wait for the task, and actions depending on the future run in the thread
+   * completing it. So the future should be completed in a thread which may run maintenance work,
+   * as files are cleaned in AMS if the task fails.
+   *
+   * @param input input of the task
+   * @param executorFactoryImpl class name of the executor factory to execute the input
+   * @return future of the task output, which completes exceptionally if the task fails, or null if
+   *     there is no optimizer to execute the task
+   */
+  CompletableFuture<TableOptimizing.OptimizingOutput> dispatch(
+      TableOptimizing.OptimizingInput input, String executorFactoryImpl);
+}
@@ -80,8 +80,15 @@ public class MixedTableMaintainer implements TableMaintainer {
 
   private final BaseTableMaintainer baseMaintainer;
 
+  private final MaintenanceTaskDispatcher taskDispatcher;
+
   public MixedTableMaintainer(MixedTable mixedTable) {
+    this(mixedTable, null);
+  }
+
+  public MixedTableMaintainer(MixedTable mixedTable, MaintenanceTaskDispatcher taskDispatcher) {
     this.mixedTable = mixedTable;
+    this.taskDispatcher = taskDispatcher;
     if (mixedTable.isKeyedTable()) {
       changeMaintainer = new ChangeTableMaintainer(mixedTable.asKeyedTable().changeTable());
       baseMaintainer = new BaseTableMaintainer(mixedTable.asKeyedTable().baseTable());
@@ -285,10 +292,19 @@ public class MixedTableMaintainer implements TableMaintainer {
     }
 
     @Override
-    @VisibleForTesting
-    void expireSnapshots(long mustOlderThan) {
+    protected MaintenanceTaskDispatcher taskDispatcher() {
+      return MixedTableMaintainer.this.taskDispatcher;
+    }
+
+    @Override
+    protected MixedTable maintainedTable() {
+      return mixedTable;
+    }
+
+    @Override
+    void expireSnapshots(long mustOlderThan, TableRuntime tableRuntime) {
       expireFiles(mustOlderThan);
-      super.expireSnapshots(mustOlderThan);
+      super.expireSnapshots(mustOlderThan, tableRuntime);
     }
 
     @Override
@@ -298,7 +314,7 @@ public class MixedTableMaintainer implements TableMaintainer {
       }
       long now = System.currentTimeMillis();
       expireFiles(now - snapshotsKeepTime(tableRuntime));
-      expireSnapshots(mustOlderThan(tableRuntime, now));
+      expireSnapshots(mustOlderThan(tableRuntime, now), tableRuntime);
     }
 
     @Override
@@ -446,6 +462,16 @@ public class MixedTableMaintainer implements TableMaintainer {
       return Sets.union(baseFiles, hiveFiles);
     }
 
+    @Override
+    protected MaintenanceTaskDispatcher taskDispatcher() {
+      return MixedTableMaintainer.this.taskDispatcher;
+    }
+
+    @Override
+    protected MixedTable maintainedTable() {
+      return mixedTable;
+    }
+
     @Override
     protected Set<String> expireSnapshotNeedToExcludeFiles() {
       return hiveFiles;
@@ -59,11 +59,23 @@ public interface TableMaintainer {
   void autoCreateTags(TableRuntime tableRuntime);
 
   static TableMaintainer ofTable(AmoroTable<?> amoroTable) {
+    return ofTable(amoroTable, null);
+  }
+
+  /**
+   * Create the maintainer of the table.
+   *
+   * @param amoroTable the table to maintain
+   * @param taskDispatcher dispatcher of maintenance tasks to optimizers, null to maintain the table
+   *     in AMS
+   */
+  static TableMaintainer ofTable(
+      AmoroTable<?> amoroTable, MaintenanceTaskDispatcher taskDispatcher) {
     TableFormat format = amoroTable.format();
     if (format == TableFormat.MIXED_HIVE || format == TableFormat.MIXED_ICEBERG) {
-      return new MixedTableMaintainer((MixedTable) amoroTable.originalTable());
+      return new MixedTableMaintainer((MixedTable) amoroTable.originalTable(), taskDispatcher);
     } else if (format == TableFormat.ICEBERG) {
-      return new IcebergTableMaintainer((Table) amoroTable.originalTable());
+      return new IcebergTableMaintainer((Table) amoroTable.originalTable(), taskDispatcher);
     } else {
       throw new RuntimeException("Unsupported table type" + amoroTable.originalTable().getClass());
     }
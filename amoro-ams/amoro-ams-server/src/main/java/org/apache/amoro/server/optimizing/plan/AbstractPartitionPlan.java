@@ -37,6 +37,7 @@ import org.apache.iceberg.util.Pair;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -54,6 +55,8 @@ public abstract class AbstractPartitionPlan implements PartitionEvaluator {
   private Long fromSequence = null;
   private Long toSequence = null;
   protected final long planTime;
+  private long maxInputSizePerThread = Long.MAX_VALUE;
+  private Long maxTaskSize;
 
   protected final Map<DataFile, List<ContentFile<?>>> rewriteDataFiles = Maps.newHashMap();
 
@@ -66,6 +69,9 @@ public abstract class AbstractPartitionPlan implements PartitionEvaluator {
 
   protected final Map<DataFile, List<ContentFile<?>>> rewritePosDataFiles = Maps.newHashMap();
 
+  /** All data files, which are only collected if the partition is evaluated for clustering. */
+  protected final Map<DataFile, List<ContentFile<?>>> clusteringCandidateFiles = Maps.newHashMap();
+
   /**
    * Reserved Delete files are Delete files which are related to Data files not optimized in this
    * plan.
@@ -92,10 +98,18 @@ public abstract class AbstractPartitionPlan implements PartitionEvaluator {
   protected CommonPartitionEvaluator evaluator() {
     if (evaluator == null) {
       evaluator = buildEvaluator();
+      if (supportClustering()) {
+        evaluator.enableClustering(tableObject);
+      }
     }
     return evaluator;
   }
 
+  /** Whether data files of the partition could be clustered by clustering optimizing. */
+  protected boolean supportClustering() {
+    return false;
+  }
+
   protected CommonPartitionEvaluator buildEvaluator() {
     return new CommonPartitionEvaluator(tableRuntime, partition, planTime);
   }
@@ -118,6 +132,9 @@ public abstract class AbstractPartitionPlan implements PartitionEvaluator {
   @Override
   public boolean addFile(DataFile dataFile, List<ContentFile<?>> deletes) {
     boolean added = evaluator().addFile(dataFile, deletes);
+    if (evaluator().getClusteringKeyRanges() != null) {
+      clusteringCandidateFiles.put(dataFile, deletes);
+    }
     if (added) {
       if (evaluator().fileShouldRewrite(dataFile, deletes)) {
         rewriteDataFiles.put(dataFile, deletes);
@@ -146,16 +163,55 @@ public abstract class AbstractPartitionPlan implements PartitionEvaluator {
     }
     beforeSplit();
     return filterSplitTasks(taskSplitter.splitTasks(targetTaskCount)).stream()
-        .map(task -> task.buildTask(buildTaskProperties()))
+        .map(task -> task.buildTask(taskProperties()))
         .collect(Collectors.toList());
   }
 
+  private OptimizingInputProperties taskProperties() {
+    OptimizingInputProperties properties = buildTaskProperties();
+    if (getOptimizingType() == OptimizingType.CLUSTERING) {
+      properties.setClustering(config.getClusteringColumns(), config.getClusteringStrategy());
+    }
+    return properties;
+  }
+
   protected void beforeSplit() {}
 
   protected List<SplitTask> filterSplitTasks(List<SplitTask> splitTasks) {
     return splitTasks;
   }
 
+  /** Bound the task size estimated by the cost model of the table. */
+  void setMaxInputSizePerThread(long maxInputSizePerThread) {
+    this.maxInputSizePerThread = maxInputSizePerThread;
+  }
+
+  /**
+   * Max size of data files in a task. If self-optimizing.target-task-duration is set, it is the
+   * size estimated for the target duration by the cost model of the table, considering the delete
+   * files of the partition, bounded by the target size and the max input size per thread. Otherwise
+   * or if the table has not finished enough tasks, it is self-optimizing.max-task-size-bytes.
+   */
+  protected long maxTaskSize() {
+    if (maxTaskSize == null) {
+      maxTaskSize = Math.max(config.getTargetSize(), config.getMaxTaskSize());
+      if (config.getTargetTaskDuration() > 0) {
+        long dataSize = getFragmentFileSize() + getSegmentFileSize();
+        long deleteSize = getEqualityDeleteFileSize() + getPosDeleteFileSize();
+        double deleteRatio = dataSize == 0 ? 0 : (double) deleteSize / dataSize;
+        long estimatedSize =
+            tableRuntime
+                .getTaskCostModel()
+                .estimateTaskSize(config.getTargetTaskDuration(), deleteRatio);
+        if (estimatedSize >= 0) {
+          maxTaskSize =
+              Math.max(config.getTargetSize(), Math.min(estimatedSize, maxInputSizePerThread));
+        }
+      }
+    }
+    return maxTaskSize;
+  }
+
   protected abstract TaskSplitter buildTaskSplitter();
 
   protected abstract OptimizingInputProperties buildTaskProperties();
@@ -248,6 +304,7 @@ public abstract class AbstractPartitionPlan implements PartitionEvaluator {
     private final Set<DataFile> rewriteDataFiles = Sets.newHashSet();
     private final Set<DataFile> rewritePosDataFiles = Sets.newHashSet();
     private final Set<ContentFile<?>> deleteFiles = Sets.newHashSet();
+    private long deleteSizeSaved = 0;
 
     public SplitTask(
         Set<DataFile> rewriteDataFiles,
@@ -270,6 +327,18 @@ public abstract class AbstractPartitionPlan implements PartitionEvaluator {
       return rewritePosDataFiles;
     }
 
+    /**
+     * Bytes of delete files this task avoids reading again, compared to reading a delete file in as
+     * many tasks as the data files reading it, up to the number of tasks.
+     */
+    public long getDeleteSizeSaved() {
+      return deleteSizeSaved;
+    }
+
+    public void setDeleteSizeSaved(long deleteSizeSaved) {
+      this.deleteSizeSaved = deleteSizeSaved;
+    }
+
     public TaskDescriptor buildTask(OptimizingInputProperties properties) {
       Set<ContentFile<?>> readOnlyDeleteFiles = Sets.newHashSet();
       Set<ContentFile<?>> rewriteDeleteFiles = Sets.newHashSet();
@@ -294,7 +363,8 @@ public abstract class AbstractPartitionPlan implements PartitionEvaluator {
           tableRuntime.getTableIdentifier().getId(),
           partitionPath,
           input,
-          properties.getProperties());
+          properties.getProperties(),
+          deleteSizeSaved);
     }
   }
 
@@ -354,37 +424,218 @@ public abstract class AbstractPartitionPlan implements PartitionEvaluator {
       return results;
     }
 
-    private Collection<? extends SplitTask> genSplitTasks(List<FileTask> allDataFiles) {
-      List<List<FileTask>> packed =
-          new BinPacking.ListPacker<FileTask>(
-                  Math.max(config.getTargetSize(), config.getMaxTaskSize()),
-                  Integer.MAX_VALUE,
-                  false)
-              .pack(allDataFiles, f -> f.getFile().fileSizeInBytes());
+    protected Collection<? extends SplitTask> genSplitTasks(List<FileTask> allDataFiles) {
+      return packBySize(allDataFiles).stream()
+          .map(this::buildSplitTask)
+          .collect(Collectors.toList());
+    }
+
+    protected List<List<FileTask>> packBySize(List<FileTask> fileTasks) {
+      return new BinPacking.ListPacker<FileTask>(maxTaskSize(), Integer.MAX_VALUE, false)
+          .pack(fileTasks, f -> f.getFile().fileSizeInBytes());
+    }
+
+    protected SplitTask buildSplitTask(List<FileTask> fileTasks) {
+      Set<DataFile> rewriteDataFiles = Sets.newHashSet();
+      Set<DataFile> rewritePosDataFiles = Sets.newHashSet();
+      Set<ContentFile<?>> deleteFiles = Sets.newHashSet();
+
+      fileTasks.stream()
+          .filter(FileTask::isRewriteDataFile)
+          .forEach(
+              f -> {
+                rewriteDataFiles.add(f.getFile());
+                deleteFiles.addAll(f.getDeleteFiles());
+              });
+      fileTasks.stream()
+          .filter(FileTask::isRewritePosDataFile)
+          .forEach(
+              f -> {
+                rewritePosDataFiles.add(f.getFile());
+                deleteFiles.addAll(f.getDeleteFiles());
+              });
+      return new SplitTask(rewriteDataFiles, rewritePosDataFiles, deleteFiles);
+    }
+  }
 
+  /**
+   * Split tasks by bin-packing, keeping data files which share delete files in the same task as far
+   * as possible, so that the shared delete files are read and indexed by fewer tasks.
+   *
+   * <p>Data files are first clustered into groups connected by shared delete files. Groups larger
+   * than the max task size are cut into chunks after ordering the files by their delete files,
+   * heaviest first, so that files sharing the heaviest delete files stay together. Groups and
+   * chunks are then bin-packed by data size as a whole.
+   */
+  protected class DeleteLocalityTaskSplitter extends BinPackingTaskSplitter {
+
+    @Override
+    protected Collection<? extends SplitTask> genSplitTasks(List<FileTask> allDataFiles) {
+      List<List<FileTask>> packed = Lists.newArrayList();
+      for (List<List<FileTask>> bin :
+          new BinPacking.ListPacker<List<FileTask>>(maxTaskSize(), Integer.MAX_VALUE, false)
+              .pack(clusterByDeleteFiles(allDataFiles), AbstractPartitionPlan::dataSize)) {
+        List<FileTask> fileTasks = Lists.newArrayList();
+        bin.forEach(fileTasks::addAll);
+        packed.add(fileTasks);
+      }
+
+      // the baseline is the plain bin-packing by size of the same files
+      Map<String, Integer> baselineReadTimes = countDeleteFileReads(packBySize(allDataFiles));
+      Map<String, Integer> readTimes = countDeleteFileReads(packed);
       List<SplitTask> results = Lists.newArrayListWithCapacity(packed.size());
       for (List<FileTask> fileTasks : packed) {
-        Set<DataFile> rewriteDataFiles = Sets.newHashSet();
-        Set<DataFile> rewritePosDataFiles = Sets.newHashSet();
-        Set<ContentFile<?>> deleteFiles = Sets.newHashSet();
+        SplitTask splitTask = buildSplitTask(fileTasks);
+        // the saved bytes of a delete file are attributed equally to the tasks reading it
+        double saved = 0;
+        for (ContentFile<?> deleteFile : splitTask.getDeleteFiles()) {
+          String path = deleteFile.path().toString();
+          int times = readTimes.get(path);
+          int savedTimes = baselineReadTimes.getOrDefault(path, 0) - times;
+          saved += (double) savedTimes * deleteFile.fileSizeInBytes() / times;
+        }
+        splitTask.setDeleteSizeSaved(Math.round(saved));
+        results.add(splitTask);
+      }
+      return results;
+    }
 
+    private List<List<FileTask>> clusterByDeleteFiles(List<FileTask> fileTasks) {
+      // union-find of file tasks connected by shared delete files
+      int[] parents = new int[fileTasks.size()];
+      Map<String, Integer> firstReaders = Maps.newHashMap();
+      for (int i = 0; i < fileTasks.size(); i++) {
+        parents[i] = i;
+        for (ContentFile<?> deleteFile : fileTasks.get(i).getDeleteFiles()) {
+          Integer first = firstReaders.putIfAbsent(deleteFile.path().toString(), i);
+          if (first != null) {
+            parents[find(parents, i)] = find(parents, first);
+          }
+        }
+      }
+      Map<Integer, List<FileTask>> groups = Maps.newLinkedHashMap();
+      for (int i = 0; i < fileTasks.size(); i++) {
+        groups.computeIfAbsent(find(parents, i), k -> Lists.newArrayList()).add(fileTasks.get(i));
+      }
+
+      List<List<FileTask>> chunks = Lists.newArrayList();
+      long maxTaskSize = maxTaskSize();
+      for (List<FileTask> group : groups.values()) {
+        if (dataSize(group) <= maxTaskSize) {
+          chunks.add(group);
+          continue;
+        }
+        Map<FileTask, List<String>> localityKeys = Maps.newHashMap();
+        group.forEach(f -> localityKeys.put(f, localityKey(f)));
+        group.sort((f1, f2) -> compareLocalityKeys(localityKeys.get(f1), localityKeys.get(f2)));
+        List<FileTask> chunk = Lists.newArrayList();
+        long chunkSize = 0;
+        for (FileTask fileTask : group) {
+          long fileSize = fileTask.getFile().fileSizeInBytes();
+          if (!chunk.isEmpty() && chunkSize + fileSize > maxTaskSize) {
+            chunks.add(chunk);
+            chunk = Lists.newArrayList();
+            chunkSize = 0;
+          }
+          chunk.add(fileTask);
+          chunkSize += fileSize;
+        }
+        chunks.add(chunk);
+      }
+      return chunks;
+    }
+
+    private int find(int[] parents, int i) {
+      while (parents[i] != i) {
+        parents[i] = parents[parents[i]];
+        i = parents[i];
+      }
+      return i;
+    }
+
+    private List<String> localityKey(FileTask fileTask) {
+      return fileTask.getDeleteFiles().stream()
+          .sorted(
+              Comparator.comparingLong((ContentFile<?> f) -> f.fileSizeInBytes())
+                  .reversed()
+                  .thenComparing(f -> f.path().toString()))
+          .map(f -> f.path().toString())
+          .collect(Collectors.toList());
+    }
+
+    private int compareLocalityKeys(List<String> key1, List<String> key2) {
+      for (int i = 0; i < Math.min(key1.size(), key2.size()); i++) {
+        int result = key1.get(i).compareTo(key2.get(i));
+        if (result != 0) {
+          return result;
+        }
+      }
+      return Integer.compare(key1.size(), key2.size());
+    }
+
+    private Map<String, Integer> countDeleteFileReads(List<List<FileTask>> tasks) {
+      Map<String, Integer> readTimes = Maps.newHashMap();
+      for (List<FileTask> fileTasks : tasks) {
         fileTasks.stream()
-            .filter(FileTask::isRewriteDataFile)
-            .forEach(
-                f -> {
-                  rewriteDataFiles.add(f.getFile());
-                  deleteFiles.addAll(f.getDeleteFiles());
-                });
-        fileTasks.stream()
-            .filter(FileTask::isRewritePosDataFile)
-            .forEach(
-                f -> {
-                  rewritePosDataFiles.add(f.getFile());
-                  deleteFiles.addAll(f.getDeleteFiles());
-                });
-        results.add(new SplitTask(rewriteDataFiles, rewritePosDataFiles, deleteFiles));
+            .flatMap(f -> f.getDeleteFiles().stream())
+            .map(f -> f.path().toString())
+            .distinct()
+            .forEach(path -> readTimes.merge(path, 1, Integer::sum));
+      }
+      return readTimes;
+    }
+  }
+
+  /**
+   * Split tasks of clustering optimizing, other optimizing is split as {@link
+   * DeleteLocalityTaskSplitter} does.
+   *
+   * <p>Data files are rewritten by groups overlapping on the clustering columns, a group larger
+   * than the max task size is cut in the order of lower bounds, so that the sorted output of tasks
+   * overlaps as little as possible. Groups and chunks are then bin-packed by data size as a whole.
+   * Other files to rewrite which overlap with no files are split as before.
+   */
+  protected class ClusteringTaskSplitter extends DeleteLocalityTaskSplitter {
+
+    @Override
+    public List<SplitTask> splitTasks(int targetTaskCount) {
+      if (getOptimizingType() != OptimizingType.CLUSTERING) {
+        return super.splitTasks(targetTaskCount);
       }
+      long maxTaskSize = maxTaskSize();
+      List<List<FileTask>> chunks = Lists.newArrayList();
+      for (List<DataFile> group : evaluator().getClusteringKeyRanges().overlappingGroups()) {
+        List<FileTask> chunk = Lists.newArrayList();
+        long chunkSize = 0;
+        for (DataFile dataFile : group) {
+          rewriteDataFiles.remove(dataFile);
+          undersizedSegmentFiles.remove(dataFile);
+          rewritePosDataFiles.remove(dataFile);
+          if (!chunk.isEmpty() && chunkSize + dataFile.fileSizeInBytes() > maxTaskSize) {
+            chunks.add(chunk);
+            chunk = Lists.newArrayList();
+            chunkSize = 0;
+          }
+          chunk.add(new FileTask(dataFile, clusteringCandidateFiles.get(dataFile), true));
+          chunkSize += dataFile.fileSizeInBytes();
+        }
+        chunks.add(chunk);
+      }
+
+      List<SplitTask> results = Lists.newArrayList();
+      for (List<List<FileTask>> bin :
+          new BinPacking.ListPacker<List<FileTask>>(maxTaskSize, Integer.MAX_VALUE, false)
+              .pack(chunks, AbstractPartitionPlan::dataSize)) {
+        List<FileTask> fileTasks = Lists.newArrayList();
+        bin.forEach(fileTasks::addAll);
+        results.add(buildSplitTask(fileTasks));
+      }
+      results.addAll(super.splitTasks(targetTaskCount));
       return results;
     }
   }
+
+  private static long dataSize(List<FileTask> fileTasks) {
+    return fileTasks.stream().mapToLong(f -> f.getFile().fileSizeInBytes()).sum();
+  }
 }
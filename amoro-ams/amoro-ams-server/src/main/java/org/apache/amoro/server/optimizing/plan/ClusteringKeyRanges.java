@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.server.optimizing.plan;
+
+import org.apache.amoro.optimizing.ClusteringOrder;
+import org.apache.amoro.optimizing.ClusteringStrategy;
+import org.apache.amoro.shade.guava32.com.google.common.collect.Lists;
+import org.apache.amoro.shade.guava32.com.google.common.collect.Maps;
+import org.apache.amoro.shade.guava32.com.google.common.primitives.UnsignedBytes;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.types.Comparators;
+import org.apache.iceberg.types.Conversions;
+import org.apache.iceberg.types.Type;
+import org.apache.iceberg.types.Types;
+
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Key ranges of data files on the clustering columns, collected from the lower and upper bounds of
+ * files, to measure how much data files of a partition overlap with each other.
+ *
+ * <p>Files are compared in the order that clustering optimizing rewrites records in, so that files
+ * rewritten by one task never overlap. For the sort strategy, a file ranges over the values of the
+ * leading clustering column. For the Z-order strategy, a file ranges from the z-value of its lower
+ * bounds to the z-value of its upper bounds. Files touching at a boundary do not overlap, and
+ * files without bounds are ignored.
+ */
+public class ClusteringKeyRanges {
+
+  private final ClusteringOrder order;
+  private final List<Types.NestedField> fields;
+  private final Comparator<Object> comparator;
+  private final List<FileRange> ranges = Lists.newArrayList();
+  private List<List<DataFile>> overlappingGroups;
+
+  /**
+   * @throws IllegalArgumentException if any clustering column is not a top-level primitive column
+   */
+  public ClusteringKeyRanges(Schema schema, List<String> columns, ClusteringStrategy strategy) {
+    this(ClusteringOrder.of(schema, columns, strategy));
+  }
+
+  public ClusteringKeyRanges(ClusteringOrder order) {
+    this.order = order;
+    if (order.strategy() == ClusteringStrategy.ZORDER) {
+      this.fields = order.fields();
+      Comparator<byte[]> zValueComparator = UnsignedBytes.lexicographicalComparator();
+      this.comparator = (v1, v2) -> zValueComparator.compare((byte[]) v1, (byte[]) v2);
+    } else {
+      this.fields = order.fields().subList(0, 1);
+      this.comparator = comparator(fields.get(0).type());
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Comparator<Object> comparator(Type type) {
+    return (Comparator<Object>) Comparators.forType(type.asPrimitiveType());
+  }
+
+  public void add(DataFile file) {
+    Map<Integer, ByteBuffer> lowerBounds = file.lowerBounds();
+    Map<Integer, ByteBuffer> upperBounds = file.upperBounds();
+    if (lowerBounds == null || upperBounds == null) {
+      return;
+    }
+    Object[] lowers = new Object[fields.size()];
+    Object[] uppers = new Object[fields.size()];
+    for (int i = 0; i < fields.size(); i++) {
+      Types.NestedField field = fields.get(i);
+      ByteBuffer lower = lowerBounds.get(field.fieldId());
+      ByteBuffer upper = upperBounds.get(field.fieldId());
+      if (lower == null || upper == null) {
+        return;
+      }
+      lowers[i] = Conversions.fromByteBuffer(field.type(), lower);
+      uppers[i] = Conversions.fromByteBuffer(field.type(), upper);
+    }
+    if (order.strategy() == ClusteringStrategy.ZORDER) {
+      ranges.add(new FileRange(file, order.zValue(lowers), order.zValue(uppers)));
+    } else {
+      ranges.add(new FileRange(file, lowers[0], uppers[0]));
+    }
+    overlappingGroups = null;
+  }
+
+  /** Count of files with bounds of the clustering columns. */
+  public int fileCount() {
+    return ranges.size();
+  }
+
+  public int overlappingFileCount() {
+    return overlappingGroups().stream().mapToInt(List::size).sum();
+  }
+
+  public long overlappingFileSize() {
+    return overlappingGroups().stream()
+        .flatMap(List::stream)
+        .mapToLong(DataFile::fileSizeInBytes)
+        .sum();
+  }
+
+  /** Ratio of files overlapping with any other file, in the files with bounds. */
+  public double overlapRatio() {
+    return ranges.isEmpty() ? 0 : (double) overlappingFileCount() / ranges.size();
+  }
+
+  /**
+   * Groups of files connected by overlapping, files of different groups never overlap. Files of a
+   * group are ordered by their lower bounds in the clustering order.
+   */
+  public List<List<DataFile>> overlappingGroups() {
+    if (overlappingGroups == null) {
+      overlappingGroups = computeOverlappingGroups();
+    }
+    return overlappingGroups;
+  }
+
+  private List<List<DataFile>> computeOverlappingGroups() {
+    ranges.sort((r1, r2) -> comparator.compare(r1.lower, r2.lower));
+
+    int[] parents = new int[ranges.size()];
+    List<Integer> active = Lists.newLinkedList();
+    for (int i = 0; i < ranges.size(); i++) {
+      parents[i] = i;
+      FileRange range = ranges.get(i);
+      Iterator<Integer> iterator = active.iterator();
+      while (iterator.hasNext()) {
+        int j = iterator.next();
+        if (comparator.compare(ranges.get(j).upper, range.lower) <= 0) {
+          // ranges are ordered by lower bounds, so range j overlaps with no later ranges
+          iterator.remove();
+        } else if (comparator.compare(ranges.get(j).lower, range.upper) < 0) {
+          parents[find(parents, j)] = find(parents, i);
+        }
+      }
+      active.add(i);
+    }
+
+    Map<Integer, List<DataFile>> groups = Maps.newLinkedHashMap();
+    for (int i = 0; i < ranges.size(); i++) {
+      groups.computeIfAbsent(find(parents, i), k -> Lists.newArrayList()).add(ranges.get(i).file);
+    }
+    return groups.values().stream().filter(group -> group.size() > 1).collect(Collectors.toList());
+  }
+
+  private static int find(int[] parents, int i) {
+    while (parents[i] != i) {
+      parents[i] = parents[parents[i]];
+      i = parents[i];
+    }
+    return i;
+  }
+
+  private static class FileRange {
+    private final DataFile file;
+    private final Object lower;
+    private final Object upper;
+
+    FileRange(DataFile file, Object lower, Object upper) {
+      this.file = file;
+      this.lower = lower;
+      this.upper = upper;
+    }
+  }
+}
@@ -24,9 +24,12 @@ import org.apache.amoro.server.table.TableRuntime;
 import org.apache.amoro.shade.guava32.com.google.common.base.MoreObjects;
 import org.apache.amoro.shade.guava32.com.google.common.base.Preconditions;
 import org.apache.amoro.shade.guava32.com.google.common.collect.Sets;
+import org.apache.amoro.table.MixedTable;
+import org.apache.amoro.utils.MixedTableUtil;
 import org.apache.iceberg.ContentFile;
 import org.apache.iceberg.DataFile;
 import org.apache.iceberg.FileContent;
+import org.apache.iceberg.PartitionSpec;
 import org.apache.iceberg.StructLike;
 import org.apache.iceberg.util.Pair;
 import org.slf4j.Logger;
@@ -70,6 +73,10 @@ public class CommonPartitionEvaluator implements PartitionEvaluator {
   protected int posDeleteFileCount = 0;
   protected long posDeleteFileSize = 0L;
 
+  // clustering, null if the partition is not evaluated for clustering
+  protected ClusteringKeyRanges clusteringKeyRanges;
+  protected long clusteringBaseline = 0;
+
   private long cost = -1;
   private Boolean necessary = null;
   private OptimizingType optimizingType = null;
@@ -99,6 +106,30 @@ public class CommonPartitionEvaluator implements PartitionEvaluator {
     return partition;
   }
 
+  /**
+   * Evaluate the clustering of data files by the clustering columns declared in table properties,
+   * must be called before adding files.
+   */
+  public void enableClustering(MixedTable table) {
+    if (!config.isClusteringEnabled()) {
+      return;
+    }
+    try {
+      clusteringKeyRanges =
+          new ClusteringKeyRanges(
+              table.schema(), config.getClusteringColumns(), config.getClusteringStrategy());
+      PartitionSpec spec = MixedTableUtil.getMixedTablePartitionSpecById(table, partition.first());
+      clusteringBaseline =
+          tableRuntime.getClusteringBaseline(spec.partitionToPath(partition.second()));
+    } catch (IllegalArgumentException e) {
+      LOG.warn("Skip evaluating clustering of {}: {}", name(), e.getMessage());
+    }
+  }
+
+  public ClusteringKeyRanges getClusteringKeyRanges() {
+    return clusteringKeyRanges;
+  }
+
   protected boolean isFragmentFile(DataFile dataFile) {
     return dataFile.fileSizeInBytes() <= fragmentSize;
   }
@@ -112,6 +143,9 @@ public class CommonPartitionEvaluator implements PartitionEvaluator {
     if (!config.isEnabled()) {
       return false;
     }
+    if (clusteringKeyRanges != null) {
+      clusteringKeyRanges.add(dataFile);
+    }
     if (isFragmentFile(dataFile)) {
       return addFragmentFile(dataFile, deletes);
     } else if (isUndersizedSegmentFile(dataFile)) {
@@ -251,9 +285,9 @@ public class CommonPartitionEvaluator implements PartitionEvaluator {
   public boolean isNecessary() {
     if (necessary == null) {
       if (isFullOptimizing()) {
-        necessary = isFullNecessary();
+        necessary = isFullNecessary() || isClusteringNecessary();
       } else {
-        necessary = isMajorNecessary() || isMinorNecessary();
+        necessary = isClusteringNecessary() || isMajorNecessary() || isMinorNecessary();
       }
       LOG.debug("{} necessary = {}, {}", name(), necessary, this);
     }
@@ -279,6 +313,13 @@ public class CommonPartitionEvaluator implements PartitionEvaluator {
               + posDeleteFileCount
               + equalityDeleteFileCount;
       cost += fileCnt * config.getOpenFileCost();
+      if (isClusteringNecessary()) {
+        // overlapping files are rewritten whatever their sizes are
+        long clusteringCost =
+            clusteringKeyRanges.overlappingFileSize() * 4
+                + clusteringKeyRanges.overlappingFileCount() * config.getOpenFileCost();
+        cost = Math.max(cost, clusteringCost);
+      }
     }
     return cost;
   }
@@ -291,10 +332,15 @@ public class CommonPartitionEvaluator implements PartitionEvaluator {
   @Override
   public OptimizingType getOptimizingType() {
     if (optimizingType == null) {
-      optimizingType =
-          isFullNecessary()
-              ? OptimizingType.FULL
-              : isMajorNecessary() ? OptimizingType.MAJOR : OptimizingType.MINOR;
+      if (isFullNecessary()) {
+        optimizingType = OptimizingType.FULL;
+      } else if (isClusteringNecessary()) {
+        optimizingType = OptimizingType.CLUSTERING;
+      } else if (isMajorNecessary()) {
+        optimizingType = OptimizingType.MAJOR;
+      } else {
+        optimizingType = OptimizingType.MINOR;
+      }
       LOG.debug("{} optimizingType = {} ", name(), optimizingType);
     }
     return optimizingType;
@@ -316,6 +362,24 @@ public class CommonPartitionEvaluator implements PartitionEvaluator {
     return enoughContent() || rewriteSegmentFileCount > 0;
   }
 
+  /**
+   * Data files overlap too much on the clustering columns.
+   *
+   * <p>The ratio of data files overlapping with any other file is greater than
+   * self-optimizing.clustering.trigger.overlap-ratio, not counting the overlapping files left by
+   * the last clustering optimizing, since tasks rewriting a large overlapping group may overlap
+   * with each other, and rewriting them again does not help.
+   */
+  public boolean isClusteringNecessary() {
+    if (clusteringKeyRanges == null || clusteringKeyRanges.overlappingFileCount() <= 1) {
+      return false;
+    }
+    long increasedCount = clusteringKeyRanges.overlappingFileCount() - clusteringBaseline;
+    return increasedCount > 0
+        && (double) increasedCount / clusteringKeyRanges.fileCount()
+            > config.getClusteringOverlapRatio();
+  }
+
   public boolean isMinorNecessary() {
     int smallFileCount = fragmentFileCount + equalityDeleteFileCount;
     return smallFileCount >= config.getMinorLeastFileCount()
@@ -38,9 +38,14 @@ public class IcebergPartitionPlan extends AbstractPartitionPlan {
     super(tableRuntime, table, partition, planTime);
   }
 
+  @Override
+  protected boolean supportClustering() {
+    return true;
+  }
+
   @Override
   protected TaskSplitter buildTaskSplitter() {
-    return new BinPackingTaskSplitter();
+    return new ClusteringTaskSplitter();
   }
 
   @Override
@@ -81,6 +81,12 @@ public class MixedHivePartitionPlan extends MixedIcebergPartitionPlan {
         && !evaluator().anyDeleteExist();
   }
 
+  @Override
+  protected boolean supportClustering() {
+    // clustering is not supported for mixed hive tables yet
+    return false;
+  }
+
   @Override
   protected MixedHivePartitionEvaluator evaluator() {
     return ((MixedHivePartitionEvaluator) super.evaluator());
@@ -89,12 +89,17 @@ public class MixedIcebergPartitionPlan extends AbstractPartitionPlan {
     return tableObject.isKeyedTable();
   }
 
+  @Override
+  protected boolean supportClustering() {
+    return !isKeyedTable();
+  }
+
   @Override
   protected TaskSplitter buildTaskSplitter() {
     if (isKeyedTable()) {
       return new TreeNodeTaskSplitter();
     } else {
-      return new BinPackingTaskSplitter();
+      return new ClusteringTaskSplitter();
     }
   }
 
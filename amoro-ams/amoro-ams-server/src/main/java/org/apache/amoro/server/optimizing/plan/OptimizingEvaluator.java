@@ -47,24 +47,46 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 public class OptimizingEvaluator {
 
   private static final Logger LOG = LoggerFactory.getLogger(OptimizingEvaluator.class);
 
+  private static final int SCAN_BATCH_SIZE = 1000;
+
   protected final MixedTable mixedTable;
   protected final TableRuntime tableRuntime;
   protected final TableSnapshot currentSnapshot;
+
+  protected final PartitionPlanExecutor planExecutor;
   protected boolean isInitialized = false;
 
   protected Map<String, PartitionEvaluator> partitionPlanMap = Maps.newHashMap();
 
   public OptimizingEvaluator(TableRuntime tableRuntime, MixedTable table) {
+    this(tableRuntime, table, null);
+  }
+
+  /**
+   * @param planExecutor executor to evaluate partitions in parallel, or null to evaluate them in
+   *     the calling thread
+   */
+  public OptimizingEvaluator(
+      TableRuntime tableRuntime, MixedTable table, PartitionPlanExecutor planExecutor) {
     this.tableRuntime = tableRuntime;
     this.mixedTable = table;
+    this.planExecutor = planExecutor;
     this.currentSnapshot = IcebergTableUtil.getSnapshot(table, tableRuntime);
   }
 
@@ -105,22 +127,10 @@ public class OptimizingEvaluator {
 
   private void initPartitionPlans(TableFileScanHelper tableFileScanHelper) {
     long startTime = System.currentTimeMillis();
-    long count = 0;
+    long count;
     try (CloseableIterable<TableFileScanHelper.FileScanResult> results =
         tableFileScanHelper.scan()) {
-      for (TableFileScanHelper.FileScanResult fileScanResult : results) {
-        PartitionSpec partitionSpec =
-            MixedTableUtil.getMixedTablePartitionSpecById(
-                mixedTable, fileScanResult.file().specId());
-        StructLike partition = fileScanResult.file().partition();
-        String partitionPath = partitionSpec.partitionToPath(partition);
-        PartitionEvaluator evaluator =
-            partitionPlanMap.computeIfAbsent(
-                partitionPath,
-                ignore -> buildEvaluator(Pair.of(partitionSpec.specId(), partition)));
-        evaluator.addFile(fileScanResult.file(), fileScanResult.deleteFiles());
-        count++;
-      }
+      count = planExecutor == null ? addFiles(results) : addFilesInParallel(results);
     } catch (IOException e) {
       throw new UncheckedIOException(e);
     }
@@ -129,7 +139,188 @@ public class OptimizingEvaluator {
         mixedTable.id(),
         count,
         System.currentTimeMillis() - startTime);
-    partitionPlanMap.values().removeIf(plan -> !plan.isNecessary());
+    List<String> partitions = new ArrayList<>(partitionPlanMap.keySet());
+    List<Boolean> necessary =
+        mapPartitions(
+            partitions,
+            partition -> {
+              PartitionEvaluator evaluator = partitionPlanMap.get(partition);
+              boolean isNecessary = evaluator.isNecessary();
+              if (isNecessary) {
+                // cost is cached by evaluators, compute it here to sort partitions faster
+                evaluator.getCost();
+              }
+              return isNecessary;
+            });
+    for (int i = 0; i < partitions.size(); i++) {
+      if (!necessary.get(i)) {
+        partitionPlanMap.remove(partitions.get(i));
+      }
+    }
+  }
+
+  private long addFiles(Iterable<TableFileScanHelper.FileScanResult> results) {
+    long count = 0;
+    for (TableFileScanHelper.FileScanResult fileScanResult : results) {
+      addFile(partitionPlanMap, partitionPath(fileScanResult), fileScanResult);
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Files are sharded by partition and added to evaluators in batches by the plan executor. Batches
+   * of a shard run one after another in the scanning order, and shards are merged in a fixed
+   * order, so evaluators are the same as the ones built by a single thread.
+   */
+  private long addFilesInParallel(Iterable<TableFileScanHelper.FileScanResult> results) {
+    int shardCount = planExecutor.parallelism();
+    List<Map<String, PartitionEvaluator>> shardPlans = new ArrayList<>(shardCount);
+    List<List<Pair<String, TableFileScanHelper.FileScanResult>>> batches =
+        new ArrayList<>(shardCount);
+    List<CompletableFuture<Void>> shardFutures = new ArrayList<>(shardCount);
+    for (int i = 0; i < shardCount; i++) {
+      shardPlans.add(Maps.newHashMap());
+      batches.add(new ArrayList<>(SCAN_BATCH_SIZE));
+      shardFutures.add(CompletableFuture.completedFuture(null));
+    }
+    // bound the scanned files waiting to be added, as scanning is usually faster than evaluating
+    Semaphore pendingBatches = new Semaphore(shardCount * 2);
+    AtomicReference<RuntimeException> failure = new AtomicReference<>();
+    long count = 0;
+    try {
+      for (TableFileScanHelper.FileScanResult fileScanResult : results) {
+        String partitionPath = partitionPath(fileScanResult);
+        int shard = Math.floorMod(partitionPath.hashCode(), shardCount);
+        List<Pair<String, TableFileScanHelper.FileScanResult>> batch = batches.get(shard);
+        batch.add(Pair.of(partitionPath, fileScanResult));
+        count++;
+        if (batch.size() >= SCAN_BATCH_SIZE) {
+          batches.set(shard, new ArrayList<>(SCAN_BATCH_SIZE));
+          shardFutures.set(
+              shard,
+              submitBatch(
+                  shardFutures.get(shard), shardPlans.get(shard), batch, pendingBatches, failure));
+        }
+        if (failure.get() != null) {
+          break;
+        }
+      }
+      for (int shard = 0; shard < shardCount; shard++) {
+        List<Pair<String, TableFileScanHelper.FileScanResult>> batch = batches.get(shard);
+        if (!batch.isEmpty() && failure.get() == null) {
+          shardFutures.set(
+              shard,
+              submitBatch(
+                  shardFutures.get(shard), shardPlans.get(shard), batch, pendingBatches, failure));
+        }
+      }
+    } finally {
+      // wait for submitted batches even if scanning fails, so that none of them outlives the scan
+      CompletableFuture.allOf(shardFutures.toArray(new CompletableFuture[0])).join();
+    }
+    if (failure.get() != null) {
+      throw failure.get();
+    }
+    shardPlans.forEach(partitionPlanMap::putAll);
+    return count;
+  }
+
+  /**
+   * Submit a batch to run after the previous batch of the same shard. A permit of the pending
+   * batches is acquired first, and released once the batch is added, skipped or rejected by the
+   * executor.
+   *
+   * @return a future completing normally, failures are reported to the failure reference
+   */
+  private CompletableFuture<Void> submitBatch(
+      CompletableFuture<Void> previous,
+      Map<String, PartitionEvaluator> plans,
+      List<Pair<String, TableFileScanHelper.FileScanResult>> batch,
+      Semaphore pendingBatches,
+      AtomicReference<RuntimeException> failure) {
+    try {
+      pendingBatches.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while scanning " + mixedTable.id(), e);
+    }
+    CompletableFuture<Void> future;
+    try {
+      future =
+          previous.thenRunAsync(
+              () -> {
+                if (failure.get() == null) {
+                  batch.forEach(file -> addFile(plans, file.first(), file.second()));
+                }
+              },
+              planExecutor.executor());
+    } catch (RuntimeException e) {
+      pendingBatches.release();
+      throw e;
+    }
+    return future.handle(
+        (ignore, throwable) -> {
+          try {
+            if (throwable != null) {
+              Throwable cause =
+                  throwable instanceof CompletionException && throwable.getCause() != null
+                      ? throwable.getCause()
+                      : throwable;
+              failure.compareAndSet(
+                  null,
+                  cause instanceof RuntimeException
+                      ? (RuntimeException) cause
+                      : new CompletionException(cause));
+            }
+          } finally {
+            pendingBatches.release();
+          }
+          return null;
+        });
+  }
+
+  private String partitionPath(TableFileScanHelper.FileScanResult fileScanResult) {
+    PartitionSpec partitionSpec =
+        MixedTableUtil.getMixedTablePartitionSpecById(mixedTable, fileScanResult.file().specId());
+    return partitionSpec.partitionToPath(fileScanResult.file().partition());
+  }
+
+  private void addFile(
+      Map<String, PartitionEvaluator> plans,
+      String partitionPath,
+      TableFileScanHelper.FileScanResult fileScanResult) {
+    PartitionEvaluator evaluator =
+        plans.computeIfAbsent(
+            partitionPath,
+            ignore ->
+                buildEvaluator(
+                    Pair.of(fileScanResult.file().specId(), fileScanResult.file().partition())));
+    evaluator.addFile(fileScanResult.file(), fileScanResult.deleteFiles());
+  }
+
+  /**
+   * Apply the function to partitions by the plan executor if there is one.
+   *
+   * @return results in the order of the partitions
+   */
+  protected <T, R> List<R> mapPartitions(List<T> partitions, Function<T, R> function) {
+    List<R> results = new ArrayList<>(partitions.size());
+    mapPartitions(partitions, function, results::add);
+    return results;
+  }
+
+  /**
+   * Apply the function to partitions by the plan executor if there is one, and pass results to the
+   * consumer in the order of the partitions once they are ready.
+   */
+  protected <T, R> void mapPartitions(
+      List<T> partitions, Function<T, R> function, Consumer<R> resultConsumer) {
+    if (planExecutor == null) {
+      partitions.forEach(partition -> resultConsumer.accept(function.apply(partition)));
+    } else {
+      planExecutor.map(partitions, function, resultConsumer);
+    }
   }
 
   private Map<String, String> partitionProperties(Pair<Integer, StructLike> partition) {
@@ -138,7 +329,10 @@ public class OptimizingEvaluator {
 
   protected PartitionEvaluator buildEvaluator(Pair<Integer, StructLike> partition) {
     if (TableFormat.ICEBERG == mixedTable.format()) {
-      return new CommonPartitionEvaluator(tableRuntime, partition, System.currentTimeMillis());
+      CommonPartitionEvaluator evaluator =
+          new CommonPartitionEvaluator(tableRuntime, partition, System.currentTimeMillis());
+      evaluator.enableClustering(mixedTable);
+      return evaluator;
     } else {
       Map<String, String> partitionProperties = partitionProperties(partition);
       if (TableTypeUtil.isHive(mixedTable)) {
@@ -151,12 +345,17 @@ public class OptimizingEvaluator {
             System.currentTimeMillis(),
             mixedTable.isKeyedTable());
       } else {
-        return new MixedIcebergPartitionPlan.MixedIcebergPartitionEvaluator(
-            tableRuntime,
-            partition,
-            partitionProperties,
-            System.currentTimeMillis(),
-            mixedTable.isKeyedTable());
+        CommonPartitionEvaluator evaluator =
+            new MixedIcebergPartitionPlan.MixedIcebergPartitionEvaluator(
+                tableRuntime,
+                partition,
+                partitionProperties,
+                System.currentTimeMillis(),
+                mixedTable.isKeyedTable());
+        if (mixedTable.isUnkeyedTable()) {
+          evaluator.enableClustering(mixedTable);
+        }
+        return evaluator;
       }
     }
   }
@@ -38,10 +38,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class OptimizingPlanner extends OptimizingEvaluator {
@@ -64,7 +65,20 @@ public class OptimizingPlanner extends OptimizingEvaluator {
       MixedTable table,
       double availableCore,
       long maxInputSizePerThread) {
-    super(tableRuntime, table);
+    this(tableRuntime, table, availableCore, maxInputSizePerThread, null);
+  }
+
+  /**
+   * @param planExecutor executor to evaluate and plan partitions in parallel, or null to plan them
+   *     in the calling thread
+   */
+  public OptimizingPlanner(
+      TableRuntime tableRuntime,
+      MixedTable table,
+      double availableCore,
+      long maxInputSizePerThread,
+      PartitionPlanExecutor planExecutor) {
+    super(tableRuntime, table, planExecutor);
     this.partitionFilter =
         tableRuntime.getPendingInput() == null
             ? Expressions.alwaysTrue()
@@ -78,8 +92,9 @@ public class OptimizingPlanner extends OptimizingEvaluator {
     this.availableCore = availableCore;
     this.planTime = System.currentTimeMillis();
     this.processId = Math.max(tableRuntime.getNewestProcessId() + 1, planTime);
-    this.partitionPlannerFactory = new PartitionPlannerFactory(mixedTable, tableRuntime, planTime);
     this.maxInputSizePerThread = maxInputSizePerThread;
+    this.partitionPlannerFactory =
+        new PartitionPlannerFactory(mixedTable, tableRuntime, planTime, maxInputSizePerThread);
   }
 
   @Override
@@ -141,16 +156,30 @@ public class OptimizingPlanner extends OptimizingEvaluator {
   }
 
   public List<TaskDescriptor> planTasks() {
-    if (this.tasks != null) {
-      return this.tasks;
+    if (this.tasks == null) {
+      List<TaskDescriptor> tasks = Lists.newArrayList();
+      planTasks(tasks::addAll);
+      this.tasks = tasks;
     }
+    return this.tasks;
+  }
+
+  /**
+   * Plan tasks and pass tasks of each partition to the consumer once the partition is planned, in
+   * the order of partitions. The optimizing type, target snapshots and sequences are available
+   * before the first tasks are passed. Tasks planned in this way are not kept by the planner.
+   *
+   * @param partitionTasksConsumer consumer of the tasks of each planned partition
+   * @return the number of planned tasks
+   */
+  public int planTasks(Consumer<List<TaskDescriptor>> partitionTasksConsumer) {
     long startTime = System.nanoTime();
     if (!isInitialized) {
       initEvaluator();
     }
     if (!super.isNecessary()) {
       LOG.debug("Table {} skip planning", tableRuntime.getTableIdentifier());
-      return cacheAndReturnTasks(Collections.emptyList());
+      return 0;
     }
 
     List<PartitionEvaluator> evaluators = new ArrayList<>(partitionPlanMap.values());
@@ -167,39 +196,50 @@ public class OptimizingPlanner extends OptimizingEvaluator {
         break;
       }
     }
+    optimizingType = optimizingType(evaluators);
 
     double avgThreadCost = actualInputSize / availableCore;
-    List<TaskDescriptor> tasks = Lists.newArrayList();
-    for (AbstractPartitionPlan partitionPlan : actualPartitionPlans) {
-      tasks.addAll(partitionPlan.splitTasks((int) (actualInputSize / avgThreadCost)));
-    }
-    if (!tasks.isEmpty()) {
-      if (evaluators.stream()
-          .anyMatch(evaluator -> evaluator.getOptimizingType() == OptimizingType.FULL)) {
-        optimizingType = OptimizingType.FULL;
-      } else if (evaluators.stream()
-          .anyMatch(evaluator -> evaluator.getOptimizingType() == OptimizingType.MAJOR)) {
-        optimizingType = OptimizingType.MAJOR;
-      } else {
-        optimizingType = OptimizingType.MINOR;
-      }
+    int targetTaskCount = (int) (actualInputSize / avgThreadCost);
+    AtomicInteger taskCount = new AtomicInteger();
+    // tasks are passed in the order of partitions however they are split
+    mapPartitions(
+        actualPartitionPlans,
+        partitionPlan -> partitionPlan.splitTasks(targetTaskCount),
+        partitionTasks -> {
+          if (!partitionTasks.isEmpty()) {
+            taskCount.addAndGet(partitionTasks.size());
+            partitionTasksConsumer.accept(partitionTasks);
+          }
+        });
+    if (taskCount.get() == 0) {
+      optimizingType = null;
     }
     long endTime = System.nanoTime();
     LOG.info(
         "{} finish plan, type = {}, get {} tasks, cost {} ns, {} ms maxInputSize {} actualInputSize {}",
         tableRuntime.getTableIdentifier(),
         getOptimizingType(),
-        tasks.size(),
+        taskCount.get(),
         endTime - startTime,
         (endTime - startTime) / 1_000_000,
         maxInputSize,
         actualInputSize);
-    return cacheAndReturnTasks(tasks);
+    return taskCount.get();
   }
 
-  private List<TaskDescriptor> cacheAndReturnTasks(List<TaskDescriptor> tasks) {
-    this.tasks = tasks;
-    return this.tasks;
+  private OptimizingType optimizingType(List<PartitionEvaluator> evaluators) {
+    if (evaluators.stream()
+        .anyMatch(evaluator -> evaluator.getOptimizingType() == OptimizingType.FULL)) {
+      return OptimizingType.FULL;
+    } else if (evaluators.stream()
+        .anyMatch(evaluator -> evaluator.getOptimizingType() == OptimizingType.CLUSTERING)) {
+      return OptimizingType.CLUSTERING;
+    } else if (evaluators.stream()
+        .anyMatch(evaluator -> evaluator.getOptimizingType() == OptimizingType.MAJOR)) {
+      return OptimizingType.MAJOR;
+    } else {
+      return OptimizingType.MINOR;
+    }
   }
 
   public long getPlanTime() {
@@ -219,12 +259,17 @@ public class OptimizingPlanner extends OptimizingEvaluator {
     private final TableRuntime tableRuntime;
     private final String hiveLocation;
     private final long planTime;
+    private final long maxInputSizePerThread;
 
     public PartitionPlannerFactory(
-        MixedTable mixedTable, TableRuntime tableRuntime, long planTime) {
+        MixedTable mixedTable,
+        TableRuntime tableRuntime,
+        long planTime,
+        long maxInputSizePerThread) {
       this.mixedTable = mixedTable;
       this.tableRuntime = tableRuntime;
       this.planTime = planTime;
+      this.maxInputSizePerThread = maxInputSizePerThread;
       if (TableTypeUtil.isHive(mixedTable)) {
         this.hiveLocation = (((SupportHive) mixedTable).hiveLocation());
       } else {
@@ -233,16 +278,21 @@ public class OptimizingPlanner extends OptimizingEvaluator {
     }
 
     public PartitionEvaluator buildPartitionPlanner(Pair<Integer, StructLike> partition) {
+      AbstractPartitionPlan partitionPlan;
       if (TableFormat.ICEBERG == mixedTable.format()) {
-        return new IcebergPartitionPlan(tableRuntime, mixedTable, partition, planTime);
+        partitionPlan = new IcebergPartitionPlan(tableRuntime, mixedTable, partition, planTime);
       } else {
         if (TableTypeUtil.isHive(mixedTable)) {
-          return new MixedHivePartitionPlan(
-              tableRuntime, mixedTable, partition, hiveLocation, planTime);
+          partitionPlan =
+              new MixedHivePartitionPlan(
+                  tableRuntime, mixedTable, partition, hiveLocation, planTime);
         } else {
-          return new MixedIcebergPartitionPlan(tableRuntime, mixedTable, partition, planTime);
+          partitionPlan =
+              new MixedIcebergPartitionPlan(tableRuntime, mixedTable, partition, planTime);
         }
       }
+      partitionPlan.setMaxInputSizePerThread(maxInputSizePerThread);
+      return partitionPlan;
     }
   }
 }
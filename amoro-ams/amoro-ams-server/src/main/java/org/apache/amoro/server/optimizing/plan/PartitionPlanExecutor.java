@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.server.optimizing.plan;
+
+import org.apache.amoro.shade.guava32.com.google.common.base.Preconditions;
+import org.apache.amoro.shade.guava32.com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A bounded pool shared by all planners of the AMS to evaluate and plan partitions of a table in
+ * parallel. Results are always returned in the order of the inputs, so plans do not depend on how
+ * the work is scheduled.
+ */
+public class PartitionPlanExecutor {
+
+  private final ExecutorService executor;
+  private final int parallelism;
+
+  public PartitionPlanExecutor(int parallelism) {
+    Preconditions.checkArgument(parallelism > 0, "parallelism must be positive");
+    this.parallelism = parallelism;
+    this.executor =
+        Executors.newFixedThreadPool(
+            parallelism,
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("partition-plan-thread-%d")
+                .build());
+  }
+
+  public int parallelism() {
+    return parallelism;
+  }
+
+  ExecutorService executor() {
+    return executor;
+  }
+
+  /**
+   * Apply the function to all items in parallel.
+   *
+   * @return results in the order of the items
+   */
+  public <T, R> List<R> map(List<T> items, Function<T, R> function) {
+    List<R> results = new ArrayList<>(items.size());
+    map(items, function, results::add);
+    return results;
+  }
+
+  /**
+   * Apply the function to all items in parallel, and pass each result to the consumer in the order
+   * of the items once it and all results before it are ready. Items not started yet are skipped if
+   * the function or the consumer fails.
+   */
+  public <T, R> void map(List<T> items, Function<T, R> function, Consumer<R> resultConsumer) {
+    List<CompletableFuture<R>> futures =
+        items.stream()
+            .map(item -> CompletableFuture.supplyAsync(() -> function.apply(item), executor))
+            .collect(Collectors.toList());
+    try {
+      for (CompletableFuture<R> future : futures) {
+        resultConsumer.accept(join(future));
+      }
+    } catch (RuntimeException | Error e) {
+      futures.forEach(future -> future.cancel(false));
+      throw e;
+    }
+  }
+
+  static <R> R join(CompletableFuture<R> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      } else if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+}
@@ -27,13 +27,19 @@ public class TaskDescriptor {
   private final String partition;
   private final RewriteFilesInput input;
   private final Map<String, String> properties;
+  private final long deleteSizeSaved;
 
   TaskDescriptor(
-      long tableId, String partition, RewriteFilesInput input, Map<String, String> properties) {
+      long tableId,
+      String partition,
+      RewriteFilesInput input,
+      Map<String, String> properties,
+      long deleteSizeSaved) {
     this.tableId = tableId;
     this.partition = partition;
     this.input = input;
     this.properties = properties;
+    this.deleteSizeSaved = deleteSizeSaved;
   }
 
   public String getPartition() {
@@ -51,4 +57,9 @@ public class TaskDescriptor {
   public long getTableId() {
     return tableId;
   }
+
+  /** Bytes of delete files saved from reading by splitting tasks with delete locality. */
+  public long getDeleteSizeSaved() {
+    return deleteSizeSaved;
+  }
 }
@@ -23,44 +23,53 @@ import org.apache.amoro.optimizing.RewriteFilesOutput;
 import org.apache.amoro.server.optimizing.TaskRuntime;
 import org.apache.amoro.server.persistence.mapper.OptimizingMapper;
 import org.apache.amoro.server.utils.CompressUtil;
+import org.apache.amoro.shade.guava32.com.google.common.base.Preconditions;
+import org.apache.amoro.shade.guava32.com.google.common.collect.Maps;
 import org.apache.amoro.utils.SerializationUtil;
 
-import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 public class TaskFilesPersistence {
 
   private static final DatabasePersistence persistence = new DatabasePersistence();
 
-  public static void persistTaskInputs(long processId, Collection<TaskRuntime> tasks) {
-    persistence.persistTaskInputs(
-        processId,
-        tasks.stream()
-            .collect(Collectors.toMap(e -> e.getTaskId().getTaskId(), TaskRuntime::getInput)));
+  /**
+   * Load inputs of tasks of a process with ids in [fromTaskId, toTaskId), which are persisted along
+   * with the task runtimes. Tasks without persisted inputs are absent from the result.
+   */
+  public static Map<Integer, RewriteFilesInput> loadTaskInputs(
+      long processId, int fromTaskId, int toTaskId) {
+    List<TaskRuntime> tasks =
+        persistence.getAs(
+            OptimizingMapper.class,
+            mapper -> mapper.selectTaskInputs(processId, fromTaskId, toTaskId));
+    Map<Integer, RewriteFilesInput> inputs = Maps.newHashMap();
+    tasks.stream()
+        .filter(task -> task.getInput() != null)
+        .forEach(task -> inputs.put(task.getTaskId().getTaskId(), task.getInput()));
+    return inputs;
   }
 
+  /** Load inputs of all tasks of a process, persisted with the process by earlier versions. */
   public static Map<Integer, RewriteFilesInput> loadTaskInputs(long processId) {
     List<byte[]> bytes =
         persistence.getAs(
             OptimizingMapper.class, mapper -> mapper.selectProcessInputFiles(processId));
     if (bytes == null) {
       return Collections.emptyMap();
-    } else {
-      return SerializationUtil.simpleDeserialize(CompressUtil.unGzip(bytes.get(0)));
     }
+    Preconditions.checkArgument(
+        !bytes.isEmpty() && bytes.get(0) != null,
+        "Task inputs of process %s are not persisted",
+        processId);
+    return SerializationUtil.simpleDeserialize(CompressUtil.unGzip(bytes.get(0)));
   }
 
   public static RewriteFilesOutput loadTaskOutput(byte[] content) {
     return SerializationUtil.simpleDeserialize(content);
   }
 
-  private static class DatabasePersistence extends PersistentBase {
-
-    public void persistTaskInputs(long processId, Map<Integer, RewriteFilesInput> tasks) {
-      doAs(OptimizingMapper.class, mapper -> mapper.updateProcessInputFiles(processId, tasks));
-    }
-  }
+  private static class DatabasePersistence extends PersistentBase {}
 }
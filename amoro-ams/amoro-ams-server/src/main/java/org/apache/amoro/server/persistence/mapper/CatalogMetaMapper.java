@@ -140,4 +140,11 @@ public interface CatalogMetaMapper {
           + " WHERE catalog_name = #{catalogName}")
   Integer decDatabaseCount(
       @Param("databaseCount") Integer databaseCount, @Param("catalogName") String catalogName);
+
+  @Select("SELECT event_id FROM " + TABLE_NAME + " WHERE catalog_name = #{catalogName}")
+  Long selectEventId(@Param("catalogName") String catalogName);
+
+  @Update(
+      "UPDATE " + TABLE_NAME + " SET event_id = #{eventId} WHERE catalog_name = #{catalogName}")
+  Integer updateEventId(@Param("eventId") Long eventId, @Param("catalogName") String catalogName);
 }
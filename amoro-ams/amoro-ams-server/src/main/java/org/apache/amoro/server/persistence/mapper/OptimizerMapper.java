@@ -49,6 +49,9 @@ public interface OptimizerMapper {
   @Update("UPDATE optimizer SET touch_time = CURRENT_TIMESTAMP WHERE token = #{token}")
   void updateTouchTime(@Param("token") String token);
 
+  @Update("UPDATE optimizer SET thread_count = #{threadCount} WHERE token = #{token}")
+  void updateThreadCount(@Param("token") String token, @Param("threadCount") int threadCount);
+
   @Delete("DELETE FROM optimizer WHERE token = #{token}")
   void deleteOptimizer(@Param("token") String token);
 
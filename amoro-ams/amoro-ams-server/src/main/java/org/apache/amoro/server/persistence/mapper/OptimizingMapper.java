@@ -19,7 +19,6 @@
 package org.apache.amoro.server.persistence.mapper;
 
 import org.apache.amoro.api.ServerTableIdentifier;
-import org.apache.amoro.optimizing.RewriteFilesInput;
 import org.apache.amoro.server.optimizing.MetricsSummary;
 import org.apache.amoro.server.optimizing.OptimizingProcess;
 import org.apache.amoro.server.optimizing.OptimizingProcessMeta;
@@ -127,7 +126,8 @@ public interface OptimizingMapper {
   @Insert({
     "<script>",
     "INSERT INTO task_runtime (process_id, task_id, retry_num, table_id, partition_data, start_time, "
-        + "end_time, status, fail_reason, optimizer_token, thread_id, rewrite_output, metrics_summary, properties) "
+        + "end_time, status, fail_reason, optimizer_token, thread_id, rewrite_input, rewrite_output, "
+        + "metrics_summary, properties) "
         + "VALUES ",
     "<foreach collection='taskRuntimes' item='taskRuntime' index='index' separator=','>",
     "(#{taskRuntime.taskId.processId}, #{taskRuntime.taskId.taskId}, #{taskRuntime.runTimes},"
@@ -136,7 +136,9 @@ public interface OptimizingMapper {
         + " #{taskRuntime.endTime, typeHandler=org.apache.amoro.server.persistence.converter.Long2TsConverter}, "
         + "#{taskRuntime.status}, #{taskRuntime.failReason, jdbcType=VARCHAR},"
         + " #{taskRuntime.token, jdbcType=VARCHAR}, #{taskRuntime.threadId, "
-        + "jdbcType=INTEGER}, #{taskRuntime.output, jdbcType=BLOB, "
+        + "jdbcType=INTEGER}, #{taskRuntime.input, jdbcType=BLOB, "
+        + " typeHandler=org.apache.amoro.server.persistence.converter.Object2ByteArrayConvert},"
+        + " #{taskRuntime.output, jdbcType=BLOB, "
         + " typeHandler=org.apache.amoro.server.persistence.converter.Object2ByteArrayConvert},"
         + " #{taskRuntime.summary, typeHandler=org.apache.amoro.server.persistence.converter.JsonObjectConverter},"
         + "#{taskRuntime.properties, typeHandler=org.apache.amoro.server.persistence.converter.Map2StringConverter})",
@@ -229,13 +231,26 @@ public interface OptimizingMapper {
   void deleteTaskRuntimesBefore(@Param("tableId") long tableId, @Param("time") long time);
 
   /** Optimizing rewrite input and output operations below */
-  @Update(
-      "UPDATE table_optimizing_process SET rewrite_input = #{input, jdbcType=BLOB,"
-          + " typeHandler=org.apache.amoro.server.persistence.converter.Object2ByteArrayConvert}"
-          + " WHERE process_id = #{processId}")
-  void updateProcessInputFiles(
-      @Param("processId") long processId, @Param("input") Map<Integer, RewriteFilesInput> input);
+  @Select(
+      "SELECT process_id, task_id, rewrite_input FROM task_runtime WHERE process_id = #{processId}"
+          + " AND task_id >= #{fromTaskId} AND task_id < #{toTaskId}")
+  @Results({
+    @Result(property = "taskId.processId", column = "process_id"),
+    @Result(property = "taskId.taskId", column = "task_id"),
+    @Result(
+        property = "input",
+        column = "rewrite_input",
+        typeHandler = Object2ByteArrayConvert.class)
+  })
+  List<TaskRuntime> selectTaskInputs(
+      @Param("processId") long processId,
+      @Param("fromTaskId") int fromTaskId,
+      @Param("toTaskId") int toTaskId);
+
+  @Update("UPDATE task_runtime SET rewrite_input = NULL WHERE process_id = #{processId}")
+  void clearTaskInputs(@Param("processId") long processId);
 
+  /** Inputs of all tasks persisted with the process by earlier versions */
   @Select("SELECT rewrite_input FROM table_optimizing_process WHERE process_id = #{processId}")
   @Results({@Result(column = "rewrite_input", jdbcType = JdbcType.BLOB)})
   List<byte[]> selectProcessInputFiles(@Param("processId") long processId);
@@ -31,6 +31,7 @@ import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Result;
+import org.apache.ibatis.annotations.ResultMap;
 import org.apache.ibatis.annotations.Results;
 import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
@@ -329,7 +330,12 @@ public interface TableMetaMapper {
           + " table_config = #{runtime.tableConfiguration,"
           + " typeHandler=org.apache.amoro.server.persistence.converter.JsonObjectConverter},"
           + " pending_input = #{runtime.pendingInput, jdbcType=VARCHAR,"
-          + " typeHandler=org.apache.amoro.server.persistence.converter.JsonObjectConverter}"
+          + " typeHandler=org.apache.amoro.server.persistence.converter.JsonObjectConverter},"
+          + " clustering_baseline = #{runtime.clusteringBaseline, jdbcType=VARCHAR,"
+          + " typeHandler=org.apache.amoro.server.persistence.converter.MapLong2StringConverter},"
+          + " pending_cleanups = #{runtime.pendingCleanups, jdbcType=VARCHAR,"
+          + " typeHandler=org.apache.amoro.server.persistence.converter.Map2StringConverter},"
+          + " runtime_version = runtime_version + 1"
           + " WHERE table_id = #{runtime.tableIdentifier.id}")
   void updateTableRuntime(@Param("runtime") TableRuntime runtime);
 
@@ -367,61 +373,100 @@ public interface TableMetaMapper {
           + ".current_change_snapshotId, a.last_optimized_snapshotId, a.last_optimized_change_snapshotId,"
           + " a.last_major_optimizing_time, a.last_minor_optimizing_time, a.last_full_optimizing_time, a.optimizing_status,"
           + " a.optimizing_status_start_time, a.optimizing_process_id,"
-          + " a.optimizer_group, a.table_config, a.pending_input, b.optimizing_type, b.target_snapshot_id,"
+          + " a.optimizer_group, a.table_config, a.pending_input, a.clustering_baseline,"
+          + " a.pending_cleanups, a.runtime_version, b.optimizing_type, b.target_snapshot_id,"
           + " b.target_change_snapshot_id, b.plan_time, b.from_sequence, b.to_sequence FROM table_runtime a"
           + " INNER JOIN table_identifier i ON a.table_id = i.table_id "
           + " LEFT JOIN table_optimizing_process b ON a.optimizing_process_id = b.process_id")
+  @Results(
+      id = "tableRuntimeMeta",
+      value = {
+        @Result(property = "tableId", column = "table_id"),
+        @Result(property = "catalogName", column = "catalog_name"),
+        @Result(property = "dbName", column = "db_name"),
+        @Result(property = "tableName", column = "table_name"),
+        @Result(property = "format", column = "format"),
+        @Result(property = "currentSnapshotId", column = "current_snapshot_id"),
+        @Result(property = "currentChangeSnapshotId", column = "current_change_snapshotId"),
+        @Result(property = "lastOptimizedSnapshotId", column = "last_optimized_snapshotId"),
+        @Result(
+            property = "lastOptimizedChangeSnapshotId",
+            column = "last_optimized_change_snapshotId"),
+        @Result(
+            property = "lastMajorOptimizingTime",
+            column = "last_major_optimizing_time",
+            typeHandler = Long2TsConverter.class),
+        @Result(
+            property = "lastMinorOptimizingTime",
+            column = "last_minor_optimizing_time",
+            typeHandler = Long2TsConverter.class),
+        @Result(
+            property = "lastFullOptimizingTime",
+            column = "last_full_optimizing_time",
+            typeHandler = Long2TsConverter.class),
+        @Result(property = "tableStatus", column = "optimizing_status"),
+        @Result(
+            property = "currentStatusStartTime",
+            column = "optimizing_status_start_time",
+            typeHandler = Long2TsConverter.class),
+        @Result(property = "optimizingProcessId", column = "optimizing_process_id"),
+        @Result(property = "optimizerGroup", column = "optimizer_group"),
+        @Result(
+            property = "tableConfig",
+            column = "table_config",
+            typeHandler = JsonObjectConverter.class),
+        @Result(
+            property = "pendingInput",
+            column = "pending_input",
+            typeHandler = JsonObjectConverter.class),
+        @Result(
+            property = "clusteringBaseline",
+            column = "clustering_baseline",
+            typeHandler = MapLong2StringConverter.class),
+        @Result(
+            property = "pendingCleanups",
+            column = "pending_cleanups",
+            typeHandler = Map2StringConverter.class),
+        @Result(property = "runtimeVersion", column = "runtime_version"),
+        @Result(property = "optimizingType", column = "optimizing_type"),
+        @Result(property = "targetSnapshotId", column = "target_snapshot_id"),
+        @Result(property = "targetChangeSnapshotId", column = "target_change_napshot_id"),
+        @Result(property = "planTime", column = "plan_time", typeHandler = Long2TsConverter.class),
+        @Result(
+            property = "fromSequence",
+            column = "from_sequence",
+            typeHandler = MapLong2StringConverter.class),
+        @Result(
+            property = "toSequence",
+            column = "to_sequence",
+            typeHandler = MapLong2StringConverter.class)
+      })
+  List<TableRuntimeMeta> selectTableRuntimeMetas();
+
+  @Select(
+      "<script>"
+          + "SELECT a.table_id, a.catalog_name, a.db_name, a.table_name, i.format, a.current_snapshot_id, a"
+          + ".current_change_snapshotId, a.last_optimized_snapshotId, a.last_optimized_change_snapshotId,"
+          + " a.last_major_optimizing_time, a.last_minor_optimizing_time, a.last_full_optimizing_time, a.optimizing_status,"
+          + " a.optimizing_status_start_time, a.optimizing_process_id,"
+          + " a.optimizer_group, a.table_config, a.pending_input, a.clustering_baseline,"
+          + " a.pending_cleanups, a.runtime_version, b.optimizing_type, b.target_snapshot_id,"
+          + " b.target_change_snapshot_id, b.plan_time, b.from_sequence, b.to_sequence FROM table_runtime a"
+          + " INNER JOIN table_identifier i ON a.table_id = i.table_id "
+          + " LEFT JOIN table_optimizing_process b ON a.optimizing_process_id = b.process_id"
+          + " WHERE a.table_id IN"
+          + "<foreach item='item' index='index' collection='tableIds' open='(' separator=',' close=')'>"
+          + "#{item}"
+          + "</foreach>"
+          + "</script>")
+  @ResultMap("tableRuntimeMeta")
+  List<TableRuntimeMeta> selectTableRuntimeMetasByIds(@Param("tableIds") List<Long> tableIds);
+
+  /** Select only table ids and runtime versions, to find runtimes changed since the last sync. */
+  @Select("SELECT table_id, runtime_version FROM table_runtime")
   @Results({
     @Result(property = "tableId", column = "table_id"),
-    @Result(property = "catalogName", column = "catalog_name"),
-    @Result(property = "dbName", column = "db_name"),
-    @Result(property = "tableName", column = "table_name"),
-    @Result(property = "format", column = "format"),
-    @Result(property = "currentSnapshotId", column = "current_snapshot_id"),
-    @Result(property = "currentChangeSnapshotId", column = "current_change_snapshotId"),
-    @Result(property = "lastOptimizedSnapshotId", column = "last_optimized_snapshotId"),
-    @Result(
-        property = "lastOptimizedChangeSnapshotId",
-        column = "last_optimized_change_snapshotId"),
-    @Result(
-        property = "lastMajorOptimizingTime",
-        column = "last_major_optimizing_time",
-        typeHandler = Long2TsConverter.class),
-    @Result(
-        property = "lastMinorOptimizingTime",
-        column = "last_minor_optimizing_time",
-        typeHandler = Long2TsConverter.class),
-    @Result(
-        property = "lastFullOptimizingTime",
-        column = "last_full_optimizing_time",
-        typeHandler = Long2TsConverter.class),
-    @Result(property = "tableStatus", column = "optimizing_status"),
-    @Result(
-        property = "currentStatusStartTime",
-        column = "optimizing_status_start_time",
-        typeHandler = Long2TsConverter.class),
-    @Result(property = "optimizingProcessId", column = "optimizing_process_id"),
-    @Result(property = "optimizerGroup", column = "optimizer_group"),
-    @Result(
-        property = "tableConfig",
-        column = "table_config",
-        typeHandler = JsonObjectConverter.class),
-    @Result(
-        property = "pendingInput",
-        column = "pending_input",
-        typeHandler = JsonObjectConverter.class),
-    @Result(property = "optimizingType", column = "optimizing_type"),
-    @Result(property = "targetSnapshotId", column = "target_snapshot_id"),
-    @Result(property = "targetChangeSnapshotId", column = "target_change_napshot_id"),
-    @Result(property = "planTime", column = "plan_time", typeHandler = Long2TsConverter.class),
-    @Result(
-        property = "fromSequence",
-        column = "from_sequence",
-        typeHandler = MapLong2StringConverter.class),
-    @Result(
-        property = "toSequence",
-        column = "to_sequence",
-        typeHandler = MapLong2StringConverter.class)
+    @Result(property = "runtimeVersion", column = "runtime_version")
   })
-  List<TableRuntimeMeta> selectTableRuntimeMetas();
+  List<TableRuntimeMeta> selectTableRuntimeVersions();
 }
@@ -44,6 +44,12 @@ public class OptimizerInstance extends Resource {
     return this;
   }
 
+  /** Update the thread count reported by an elastic optimizer. */
+  public OptimizerInstance updateThreadCount(int threadCount) {
+    setThreadCount(threadCount);
+    return this;
+  }
+
   public String getToken() {
     return token;
   }
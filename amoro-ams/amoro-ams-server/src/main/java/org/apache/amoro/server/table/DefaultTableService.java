@@ -52,9 +52,14 @@ import org.apache.amoro.shade.guava32.com.google.common.collect.Sets;
 import org.apache.amoro.shade.guava32.com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.amoro.utils.TablePropertyUtil;
 import org.apache.commons.lang.StringUtils;
+import org.apache.hadoop.hive.metastore.api.NotificationEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -70,18 +75,26 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public class DefaultTableService extends StatedPersistentBase implements TableService {
 
   public static final Logger LOG = LoggerFactory.getLogger(DefaultTableService.class);
+  private static final int MAX_NOTIFICATION_EVENTS_PER_POLL = 1000;
+  private static final int MAX_TABLE_RUNTIMES_PER_SELECT = 500;
+  private static final Set<String> TABLE_EVENT_TYPES =
+      Sets.newHashSet("CREATE_TABLE", "ALTER_TABLE", "DROP_TABLE", "DROP_DATABASE");
   private final long externalCatalogRefreshingInterval;
+  private final long externalCatalogFullSyncInterval;
   private final long blockerTimeout;
   private final Map<String, InternalCatalog> internalCatalogMap = new ConcurrentHashMap<>();
   private final Map<String, ExternalCatalog> externalCatalogMap = new ConcurrentHashMap<>();
 
   private final Map<ServerTableIdentifier, TableRuntime> tableRuntimeMap =
       new ConcurrentHashMap<>();
+  private final Map<String, Long> externalCatalogFullSyncTimes = new ConcurrentHashMap<>();
 
   private final ScheduledExecutorService tableExplorerScheduler =
       Executors.newSingleThreadScheduledExecutor(
@@ -91,12 +104,22 @@ public class DefaultTableService extends StatedPersistentBase implements TableSe
               .build());
   private final CompletableFuture<Boolean> initialized = new CompletableFuture<>();
   private final Configurations serverConfiguration;
+  private final Object tableRuntimeLoadingLock = new Object();
   private RuntimeHandlerChain headHandler;
   private ExecutorService tableExplorerExecutors;
+  // table runtimes of optimizer groups not served are synchronized with the database
+  private volatile boolean syncingTableRuntimes = false;
+  private volatile boolean standby = false;
+  // the last synchronized meta of each table, to reload only runtimes changed since then
+  private final Map<Long, TableRuntimeMeta> syncedTableRuntimeMetas = new HashMap<>();
+  private Predicate<String> servedOptimizerGroups = optimizerGroup -> true;
+  private BooleanSupplier exploringEnabled = () -> true;
 
   public DefaultTableService(Configurations configuration) {
     this.externalCatalogRefreshingInterval =
         configuration.getLong(AmoroManagementConf.REFRESH_EXTERNAL_CATALOGS_INTERVAL);
+    this.externalCatalogFullSyncInterval =
+        configuration.getLong(AmoroManagementConf.REFRESH_EXTERNAL_CATALOGS_FULL_SYNC_INTERVAL);
     this.blockerTimeout = configuration.getLong(AmoroManagementConf.BLOCKER_TIMEOUT);
     this.serverConfiguration = configuration;
   }
@@ -345,6 +368,70 @@ public class DefaultTableService extends StatedPersistentBase implements TableSe
     }
   }
 
+  /**
+   * Serve only tables of the given optimizer groups, which are sharded among AMS nodes. Tables of
+   * an optimizer group are loaded and unloaded when the group is taken over and handed over, and
+   * external catalogs are explored only if the exploring is enabled, by the leader.
+   *
+   * @param servedOptimizerGroups optimizer groups served by this node
+   * @param exploringEnabled whether to explore external catalogs
+   */
+  public void enableSharding(
+      Predicate<String> servedOptimizerGroups, BooleanSupplier exploringEnabled) {
+    checkNotStarted();
+    this.syncingTableRuntimes = true;
+    this.servedOptimizerGroups = servedOptimizerGroups;
+    this.exploringEnabled = exploringEnabled;
+  }
+
+  /**
+   * Start as a warm standby, which serves no optimizer group and explores no external catalog, but
+   * keeps table runtimes and optimizing queues in sync with the database until this node becomes
+   * the leader and calls {@link #takeOverStandby(Collection)}.
+   */
+  public void enableWarmStandby() {
+    enableSharding(optimizerGroup -> !standby, () -> !standby);
+    this.standby = true;
+  }
+
+  /**
+   * Take over optimizer groups from the warm standby. Only table runtimes changed since the last
+   * synchronization are reloaded, and optimizing queues kept by the standby are activated instead
+   * of being rebuilt from all table runtimes.
+   *
+   * @param optimizerGroups optimizer groups to take over besides those of the managed tables
+   */
+  public void takeOverStandby(Collection<String> optimizerGroups) {
+    checkStarted();
+    Preconditions.checkState(standby, "AMS is not started as a warm standby");
+    long startTime = System.currentTimeMillis();
+    Map<String, List<TableRuntimeMeta>> tableRuntimeMetasByGroup;
+    synchronized (tableRuntimeLoadingLock) {
+      syncTableRuntimes();
+      standby = false;
+      syncingTableRuntimes = false;
+      tableRuntimeMetasByGroup =
+          syncedTableRuntimeMetas.values().stream()
+              .collect(Collectors.groupingBy(TableRuntimeMeta::getOptimizerGroup));
+      syncedTableRuntimeMetas.clear();
+      optimizerGroups.forEach(
+          optimizerGroup ->
+              tableRuntimeMetasByGroup.putIfAbsent(optimizerGroup, new ArrayList<>()));
+      if (headHandler != null) {
+        tableRuntimeMetasByGroup.forEach(headHandler::fireOptimizerGroupLoaded);
+      }
+    }
+    LOG.info(
+        "Took over {} optimizer groups from the warm standby in {} ms",
+        tableRuntimeMetasByGroup.size(),
+        System.currentTimeMillis() - startTime);
+  }
+
+  @Override
+  public boolean servesOptimizerGroup(String optimizerGroup) {
+    return servedOptimizerGroups.test(optimizerGroup);
+  }
+
   @Override
   public void initialize() {
     checkNotStarted();
@@ -358,10 +445,21 @@ public class DefaultTableService extends StatedPersistentBase implements TableSe
           TableRuntime tableRuntime = tableRuntimeMeta.constructTableRuntime(this);
           tableRuntimeMap.put(tableRuntime.getTableIdentifier(), tableRuntime);
           tableRuntime.registerMetric(MetricManager.getInstance().getGlobalRegistry());
+          if (syncingTableRuntimes) {
+            syncedTableRuntimeMetas.put(tableRuntimeMeta.getTableId(), tableRuntimeMeta);
+          }
         });
 
     if (headHandler != null) {
-      headHandler.initialize(tableRuntimeMetaList);
+      // tables of optimizer groups not served yet are loaded when the groups are taken over
+      headHandler.initialize(
+          tableRuntimeMetaList.stream()
+              .filter(
+                  tableRuntimeMeta -> servesOptimizerGroup(tableRuntimeMeta.getOptimizerGroup()))
+              .collect(Collectors.toList()));
+      if (standby) {
+        headHandler.fireTableRuntimesReloaded(tableRuntimeMetaList);
+      }
     }
     if (tableExplorerExecutors == null) {
       int threadCount =
@@ -382,10 +480,156 @@ public class DefaultTableService extends StatedPersistentBase implements TableSe
                   .build());
     }
     tableExplorerScheduler.scheduleAtFixedRate(
-        this::exploreExternalCatalog, 0, externalCatalogRefreshingInterval, TimeUnit.MILLISECONDS);
+        this::exploreTables, 0, externalCatalogRefreshingInterval, TimeUnit.MILLISECONDS);
     initialized.complete(true);
   }
 
+  /**
+   * Load tables of the optimizer group taken over by this node. Table runtimes are reloaded from
+   * the database, since they may have been changed by the node serving the group before.
+   *
+   * @param optimizerGroup optimizer group name
+   */
+  public void loadOptimizerGroup(String optimizerGroup) {
+    checkStarted();
+    List<TableRuntimeMeta> tableRuntimeMetaList;
+    synchronized (tableRuntimeLoadingLock) {
+      tableRuntimeMetaList =
+          getAs(TableMetaMapper.class, TableMetaMapper::selectTableRuntimeMetas).stream()
+              .filter(
+                  tableRuntimeMeta -> optimizerGroup.equals(tableRuntimeMeta.getOptimizerGroup()))
+              .collect(Collectors.toList());
+      tableRuntimeMetaList.forEach(this::loadTableRuntime);
+      if (headHandler != null) {
+        headHandler.fireOptimizerGroupLoaded(optimizerGroup, tableRuntimeMetaList);
+      }
+    }
+    LOG.info("Loaded {} tables of optimizer group {}", tableRuntimeMetaList.size(), optimizerGroup);
+  }
+
+  /**
+   * Unload tables of the optimizer group handed over to another node. Table runtimes are kept to
+   * serve table service requests, but no more optimized or maintained by this node.
+   *
+   * @param optimizerGroup optimizer group name
+   */
+  public void unloadOptimizerGroup(String optimizerGroup) {
+    checkStarted();
+    synchronized (tableRuntimeLoadingLock) {
+      if (headHandler != null) {
+        headHandler.fireOptimizerGroupUnloaded(optimizerGroup);
+      }
+    }
+    LOG.info("Unloaded tables of optimizer group {}", optimizerGroup);
+  }
+
+  private TableRuntime loadTableRuntime(TableRuntimeMeta tableRuntimeMeta) {
+    ServerTableIdentifier tableIdentifier = tableRuntimeMeta.getTableIdentifier();
+    syncedTableRuntimeMetas.put(tableRuntimeMeta.getTableId(), tableRuntimeMeta);
+    TableRuntime tableRuntime = tableRuntimeMap.get(tableIdentifier);
+    if (tableRuntime != null) {
+      return tableRuntimeMeta.reloadTableRuntime(tableRuntime);
+    }
+    tableRuntime = tableRuntimeMeta.constructTableRuntime(this);
+    tableRuntimeMap.put(tableIdentifier, tableRuntime);
+    tableRuntime.registerMetric(MetricManager.getInstance().getGlobalRegistry());
+    return tableRuntime;
+  }
+
+  private void exploreTables() {
+    if (exploringEnabled.getAsBoolean()) {
+      exploreExternalCatalog();
+    }
+    if (syncingTableRuntimes) {
+      try {
+        syncTableRuntimes();
+      } catch (Throwable t) {
+        LOG.error("Syncing table runtimes error", t);
+      }
+    }
+  }
+
+  /**
+   * Synchronize table runtimes of optimizer groups not served with the database, since tables are
+   * explored by the leader only, and changed by the nodes serving their optimizer groups. Only
+   * versions of runtimes are selected at first, and runtimes changed since the last
+   * synchronization are selected and reloaded then.
+   */
+  @VisibleForTesting
+  void syncTableRuntimes() {
+    synchronized (tableRuntimeLoadingLock) {
+      // tables added after listing the known ones are not disposed
+      Set<ServerTableIdentifier> knownTables = new HashSet<>(tableRuntimeMap.keySet());
+      Set<Long> existedTableIds = new HashSet<>();
+      List<Long> changedTableIds = Lists.newArrayList();
+      for (TableRuntimeMeta version :
+          getAs(TableMetaMapper.class, TableMetaMapper::selectTableRuntimeVersions)) {
+        existedTableIds.add(version.getTableId());
+        TableRuntimeMeta synced = syncedTableRuntimeMetas.get(version.getTableId());
+        // runtimes of tables in served optimizer groups are up-to-date
+        if (synced == null
+            || synced.getRuntimeVersion() != version.getRuntimeVersion()
+                && !servesTable(synced.getTableIdentifier())) {
+          changedTableIds.add(version.getTableId());
+        }
+      }
+      List<TableRuntimeMeta> reloadedTableRuntimeMetas = Lists.newArrayList();
+      for (List<Long> tableIds : Lists.partition(changedTableIds, MAX_TABLE_RUNTIMES_PER_SELECT)) {
+        for (TableRuntimeMeta tableRuntimeMeta :
+            getAs(TableMetaMapper.class, mapper -> mapper.selectTableRuntimeMetasByIds(tableIds))) {
+          if (syncTableRuntime(tableRuntimeMeta)) {
+            reloadedTableRuntimeMetas.add(tableRuntimeMeta);
+          }
+        }
+      }
+      syncedTableRuntimeMetas.keySet().retainAll(existedTableIds);
+      knownTables.stream()
+          .filter(tableIdentifier -> !existedTableIds.contains(tableIdentifier.getId()))
+          .forEach(
+              tableIdentifier ->
+                  Optional.ofNullable(tableRuntimeMap.remove(tableIdentifier))
+                      .ifPresent(
+                          tableRuntime -> {
+                            if (headHandler != null) {
+                              headHandler.fireTableRemoved(tableRuntime);
+                            }
+                            tableRuntime.unregisterMetric();
+                          }));
+      if (standby && headHandler != null && !reloadedTableRuntimeMetas.isEmpty()) {
+        headHandler.fireTableRuntimesReloaded(reloadedTableRuntimeMetas);
+      }
+    }
+  }
+
+  /** Returns true if the table runtime is reloaded from the meta. */
+  private boolean syncTableRuntime(TableRuntimeMeta tableRuntimeMeta) {
+    ServerTableIdentifier tableIdentifier = tableRuntimeMeta.getTableIdentifier();
+    if (servesTable(tableIdentifier)) {
+      syncedTableRuntimeMetas.put(tableRuntimeMeta.getTableId(), tableRuntimeMeta);
+      return false;
+    }
+    String optimizerGroup = tableRuntimeMeta.getOptimizerGroup();
+    TableRuntime tableRuntime = tableRuntimeMap.get(tableIdentifier);
+    // the table is added by the leader, or moved between optimizer groups by another node
+    boolean added =
+        tableRuntime == null || !optimizerGroup.equals(tableRuntime.getOptimizerGroup());
+    try {
+      tableRuntime = loadTableRuntime(tableRuntimeMeta);
+      if (added && headHandler != null && servesOptimizerGroup(optimizerGroup)) {
+        headHandler.fireTableAdded(loadTable(tableIdentifier), tableRuntime);
+      }
+      return true;
+    } catch (Throwable t) {
+      LOG.error("Syncing table runtime of {} error", tableIdentifier, t);
+      return false;
+    }
+  }
+
+  private boolean servesTable(ServerTableIdentifier tableIdentifier) {
+    TableRuntime tableRuntime = tableRuntimeMap.get(tableIdentifier);
+    return tableRuntime != null && servesOptimizerGroup(tableRuntime.getOptimizerGroup());
+  }
+
   private TableRuntime getAndCheckExist(ServerTableIdentifier tableIdentifier) {
     Preconditions.checkArgument(tableIdentifier != null, "tableIdentifier cannot be null");
     TableRuntime tableRuntime = getRuntime(tableIdentifier);
@@ -451,6 +695,13 @@ public class DefaultTableService extends StatedPersistentBase implements TableSe
     LOG.info("Syncing external catalogs: {}", String.join(",", externalCatalogMap.keySet()));
     for (ExternalCatalog externalCatalog : externalCatalogMap.values()) {
       try {
+        if (exploreExternalCatalogIncrementally(externalCatalog)) {
+          continue;
+        }
+        // events happened during listing will be processed again, which is harmless
+        Long eventId =
+            externalCatalog.isNotificationEnabled() ? externalCatalog.currentEventId() : null;
+        long fullSyncStart = System.currentTimeMillis();
         final List<CompletableFuture<Set<TableIdentity>>> tableIdentifiersFutures =
             Lists.newArrayList();
         externalCatalog
@@ -546,6 +797,10 @@ public class DefaultTableService extends StatedPersistentBase implements TableSe
                   }
                 });
         taskFutures.forEach(CompletableFuture::join);
+        if (eventId != null) {
+          externalCatalog.updateProcessedEventId(eventId);
+        }
+        externalCatalogFullSyncTimes.put(externalCatalog.name(), fullSyncStart);
       } catch (Throwable e) {
         LOG.error("TableExplorer error", e);
       }
@@ -568,6 +823,101 @@ public class DefaultTableService extends StatedPersistentBase implements TableSe
     LOG.info("Syncing external catalogs took {} ms.", end - start);
   }
 
+  /**
+   * Discover table changes of the external catalog from the notification events after the
+   * processed event id.
+   *
+   * @return false if the catalog should be fully synchronized instead, because it does not support
+   *     notification, has never been fully synchronized, the full sync interval has been reached or
+   *     some events are missing
+   */
+  @VisibleForTesting
+  boolean exploreExternalCatalogIncrementally(ExternalCatalog externalCatalog) {
+    if (!externalCatalog.isNotificationEnabled()) {
+      return false;
+    }
+    Long eventId = externalCatalog.getProcessedEventId();
+    if (eventId == null) {
+      return false;
+    }
+    // resume from the persisted event id after restarting or failover
+    long lastFullSyncTime =
+        externalCatalogFullSyncTimes.computeIfAbsent(
+            externalCatalog.name(), name -> System.currentTimeMillis());
+    if (System.currentTimeMillis() - lastFullSyncTime >= externalCatalogFullSyncInterval) {
+      return false;
+    }
+
+    try {
+      List<NotificationEvent> events;
+      do {
+        events =
+            externalCatalog.listNotificationEvents(eventId, MAX_NOTIFICATION_EVENTS_PER_POLL);
+        Set<TableIdentity> changedTables = Sets.newLinkedHashSet();
+        for (NotificationEvent event : events) {
+          changedTables.addAll(changedTables(externalCatalog, event));
+          eventId = Math.max(eventId, event.getEventId());
+        }
+        for (TableIdentity tableIdentity : changedTables) {
+          try {
+            syncTableChange(externalCatalog, tableIdentity);
+          } catch (Exception e) {
+            LOG.error("TableExplorer sync table change {} error", tableIdentity, e);
+          }
+        }
+        externalCatalog.updateProcessedEventId(eventId);
+      } while (events.size() >= MAX_NOTIFICATION_EVENTS_PER_POLL);
+      return true;
+    } catch (Exception e) {
+      LOG.warn(
+          "Failed to discover tables of catalog {} from notification events, fallback to full sync",
+          externalCatalog.name(),
+          e);
+      return false;
+    }
+  }
+
+  private Set<TableIdentity> changedTables(
+      ExternalCatalog externalCatalog, NotificationEvent event) {
+    if (!TABLE_EVENT_TYPES.contains(event.getEventType())) {
+      return Collections.emptySet();
+    }
+    if ("DROP_DATABASE".equals(event.getEventType())) {
+      return getAs(
+              TableMetaMapper.class,
+              mapper -> mapper.selectTableIdentifiersByCatalog(externalCatalog.name()))
+          .stream()
+          .filter(identifier -> identifier.getDatabase().equalsIgnoreCase(event.getDbName()))
+          .map(TableIdentity::new)
+          .collect(Collectors.toSet());
+    }
+    // renamed tables are only discovered by the event's table name, the full sync fixes the other
+    return Sets.newHashSet(new TableIdentity(event.getDbName(), event.getTableName(), null));
+  }
+
+  /** Synchronize a changed table, registering or disposing it by its existence in the catalog. */
+  private void syncTableChange(ExternalCatalog externalCatalog, TableIdentity tableIdentity) {
+    String database = tableIdentity.getDatabase();
+    String tableName = tableIdentity.getTableName();
+    boolean exists =
+        externalCatalog.tableIncluded(database, tableName)
+            && externalCatalog.tableExists(database, tableName);
+    ServerTableIdentifier serverTableIdentifier =
+        externalCatalog.getServerTableIdentifier(database, tableName);
+    if (serverTableIdentifier != null) {
+      if (!exists) {
+        disposeTable(serverTableIdentifier);
+      }
+    } else if (exists) {
+      try {
+        AmoroTable<?> table = externalCatalog.loadTable(database, tableName);
+        syncTable(externalCatalog, new TableIdentity(database, tableName, table.format()));
+      } catch (NoSuchTableException e) {
+        // the table is not in a supported format
+      }
+    }
+  }
+
   private void validateTableIdentifier(TableIdentifier tableIdentifier) {
     if (StringUtils.isBlank(tableIdentifier.getTableName())) {
       throw new IllegalMetadataException("table name is blank");
@@ -52,12 +52,7 @@ public abstract class RuntimeHandlerChain {
   }
 
   public final void initialize(List<TableRuntimeMeta> tableRuntimeMetaList) {
-    List<TableRuntimeMeta> supportedtableRuntimeMetaList =
-        tableRuntimeMetaList.stream()
-            .filter(
-                tableRuntimeMeta -> formatSupported(tableRuntimeMeta.getTableRuntime().getFormat()))
-            .collect(Collectors.toList());
-    initHandler(supportedtableRuntimeMetaList);
+    initHandler(supportedTableRuntimeMetas(tableRuntimeMetaList));
     initialized = true;
     if (next != null) {
       next.initialize(tableRuntimeMetaList);
@@ -117,6 +112,56 @@ public abstract class RuntimeHandlerChain {
     }
   }
 
+  /**
+   * Fired when an optimizer group is taken over by this AMS node after initialization, if optimizer
+   * groups are sharded among AMS nodes.
+   */
+  public final void fireOptimizerGroupLoaded(
+      String optimizerGroup, List<TableRuntimeMeta> tableRuntimeMetaList) {
+    if (!initialized) {
+      return;
+    }
+
+    List<TableRuntimeMeta> supportedTableRuntimeMetaList =
+        supportedTableRuntimeMetas(tableRuntimeMetaList);
+    doSilently(() -> handleOptimizerGroupLoaded(optimizerGroup, supportedTableRuntimeMetaList));
+    if (next != null) {
+      next.fireOptimizerGroupLoaded(optimizerGroup, tableRuntimeMetaList);
+    }
+  }
+
+  /**
+   * Fired when an optimizer group is handed over to another AMS node, if optimizer groups are
+   * sharded among AMS nodes.
+   */
+  public final void fireOptimizerGroupUnloaded(String optimizerGroup) {
+    if (!initialized) {
+      return;
+    }
+
+    if (next != null) {
+      next.fireOptimizerGroupUnloaded(optimizerGroup);
+    }
+    doSilently(() -> handleOptimizerGroupUnloaded(optimizerGroup));
+  }
+
+  /**
+   * Fired when runtimes of tables are reloaded from the database by a warm standby, which keeps
+   * states of optimizer groups in sync before taking them over.
+   */
+  public final void fireTableRuntimesReloaded(List<TableRuntimeMeta> tableRuntimeMetaList) {
+    if (!initialized) {
+      return;
+    }
+
+    List<TableRuntimeMeta> supportedTableRuntimeMetaList =
+        supportedTableRuntimeMetas(tableRuntimeMetaList);
+    doSilently(() -> handleTableRuntimesReloaded(supportedTableRuntimeMetaList));
+    if (next != null) {
+      next.fireTableRuntimesReloaded(tableRuntimeMetaList);
+    }
+  }
+
   public final void dispose() {
     if (next != null) {
       next.dispose();
@@ -132,6 +177,14 @@ public abstract class RuntimeHandlerChain {
     }
   }
 
+  private List<TableRuntimeMeta> supportedTableRuntimeMetas(
+      List<TableRuntimeMeta> tableRuntimeMetaList) {
+    return tableRuntimeMetaList.stream()
+        .filter(
+            tableRuntimeMeta -> formatSupported(tableRuntimeMeta.getTableRuntime().getFormat()))
+        .collect(Collectors.toList());
+  }
+
   // Currently, paimon is unsupported
   protected boolean formatSupported(TableFormat format) {
     return format.in(TableFormat.ICEBERG, TableFormat.MIXED_ICEBERG, TableFormat.MIXED_HIVE);
@@ -149,5 +202,12 @@ public abstract class RuntimeHandlerChain {
 
   protected abstract void initHandler(List<TableRuntimeMeta> tableRuntimeMetaList);
 
+  protected void handleOptimizerGroupLoaded(
+      String optimizerGroup, List<TableRuntimeMeta> tableRuntimeMetaList) {}
+
+  protected void handleOptimizerGroupUnloaded(String optimizerGroup) {}
+
+  protected void handleTableRuntimesReloaded(List<TableRuntimeMeta> tableRuntimeMetaList) {}
+
   protected abstract void doDispose();
 }
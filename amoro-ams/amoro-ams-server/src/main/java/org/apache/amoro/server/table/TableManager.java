@@ -36,4 +36,15 @@ public interface TableManager extends TableRuntimeHandler {
   default boolean contains(ServerTableIdentifier tableIdentifier) {
     return getRuntime(tableIdentifier) != null;
   }
+
+  /**
+   * Whether tables of the optimizer group are served by this AMS node, which is always true unless
+   * optimizer groups are sharded among AMS nodes.
+   *
+   * @param optimizerGroup optimizer group name
+   * @return true if the optimizing and maintaining of the tables are run by this node
+   */
+  default boolean servesOptimizerGroup(String optimizerGroup) {
+    return true;
+  }
 }
@@ -132,6 +132,18 @@ public class TableOptimizingMetrics {
           .withTags("catalog", "database", "table")
           .build();
 
+  public static final MetricDefine TABLE_OPTIMIZING_CLUSTERING_TOTAL_COUNT =
+      defineCounter("table_optimizing_clustering_total_count")
+          .withDescription("Count of clustering optimizing process since ams started")
+          .withTags("catalog", "database", "table")
+          .build();
+
+  public static final MetricDefine TABLE_OPTIMIZING_CLUSTERING_FAILED_COUNT =
+      defineCounter("table_optimizing_clustering_failed_count")
+          .withDescription("Count of failed clustering optimizing process since ams started")
+          .withTags("catalog", "database", "table")
+          .build();
+
   // table optimizing process status metrics
   public static final MetricDefine TABLE_OPTIMIZING_STATUS_IN_IDLE =
       defineGauge("table_optimizing_status_in_idle")
@@ -171,6 +183,8 @@ public class TableOptimizingMetrics {
   private final Counter majorFailedCount = new Counter();
   private final Counter fullTotalCount = new Counter();
   private final Counter fullFailedCount = new Counter();
+  private final Counter clusteringTotalCount = new Counter();
+  private final Counter clusteringFailedCount = new Counter();
 
   private final ServerTableIdentifier identifier;
 
@@ -240,6 +254,8 @@ public class TableOptimizingMetrics {
       registerMetric(registry, TABLE_OPTIMIZING_MAJOR_FAILED_COUNT, majorFailedCount);
       registerMetric(registry, TABLE_OPTIMIZING_FULL_TOTAL_COUNT, fullTotalCount);
       registerMetric(registry, TABLE_OPTIMIZING_FULL_FAILED_COUNT, fullFailedCount);
+      registerMetric(registry, TABLE_OPTIMIZING_CLUSTERING_TOTAL_COUNT, clusteringTotalCount);
+      registerMetric(registry, TABLE_OPTIMIZING_CLUSTERING_FAILED_COUNT, clusteringFailedCount);
 
       globalRegistry = registry;
     }
@@ -285,6 +301,10 @@ public class TableOptimizingMetrics {
         totalCounter = fullTotalCount;
         failedCounter = fullFailedCount;
         break;
+      case CLUSTERING:
+        totalCounter = clusteringTotalCount;
+        failedCounter = clusteringFailedCount;
+        break;
     }
     if (totalCounter != null) {
       totalCounter.inc();
@@ -305,6 +325,7 @@ public class TableOptimizingMetrics {
       case FULL_OPTIMIZING:
       case MAJOR_OPTIMIZING:
       case MINOR_OPTIMIZING:
+      case CLUSTER_OPTIMIZING:
         return STATUS_EXECUTING;
       case COMMITTING:
         return STATUS_COMMITTING;
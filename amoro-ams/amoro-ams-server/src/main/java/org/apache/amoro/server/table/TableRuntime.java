@@ -30,8 +30,11 @@ import org.apache.amoro.server.exception.BlockerConflictException;
 import org.apache.amoro.server.exception.ObjectNotExistsException;
 import org.apache.amoro.server.metrics.MetricRegistry;
 import org.apache.amoro.server.optimizing.OptimizingProcess;
+import org.apache.amoro.server.optimizing.OptimizingProcessMeta;
 import org.apache.amoro.server.optimizing.OptimizingStatus;
+import org.apache.amoro.server.optimizing.OptimizingTaskMeta;
 import org.apache.amoro.server.optimizing.OptimizingType;
+import org.apache.amoro.server.optimizing.TaskCostModel;
 import org.apache.amoro.server.optimizing.TaskRuntime;
 import org.apache.amoro.server.optimizing.plan.OptimizingEvaluator;
 import org.apache.amoro.server.persistence.StatedPersistentBase;
@@ -54,11 +57,14 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
@@ -66,10 +72,15 @@ public class TableRuntime extends StatedPersistentBase {
 
   private static final Logger LOG = LoggerFactory.getLogger(TableRuntime.class);
 
+  /** Count of the latest finished optimizing processes to seed the task cost model from. */
+  private static final int TASK_COST_MODEL_SEEDING_PROCESSES = 5;
+
   private final TableRuntimeHandler tableHandler;
   private final ServerTableIdentifier tableIdentifier;
   private final List<TaskRuntime.TaskQuota> taskQuotas =
       Collections.synchronizedList(new ArrayList<>());
+  private final TaskCostModel taskCostModel = new TaskCostModel();
+  private volatile boolean taskCostModelSeeded = false;
 
   // for unKeyedTable or base table
   @StateField private volatile long currentSnapshotId = AmoroServiceConstants.INVALID_SNAPSHOT_ID;
@@ -93,6 +104,12 @@ public class TableRuntime extends StatedPersistentBase {
   @StateField private volatile TableConfiguration tableConfiguration;
   @StateField private volatile long processId;
   @StateField private volatile OptimizingEvaluator.PendingInput pendingInput;
+  // overlapping file count of each partition after the last clustering optimizing
+  @StateField private volatile Map<String, Long> clusteringBaseline = Collections.emptyMap();
+  // expiring metadata location of each expired metadata location, whose files are not cleaned yet
+  @StateField private volatile Map<String, String> pendingCleanups = Collections.emptyMap();
+  // expired metadata locations of pending cleanups running since the table runtime was loaded
+  private final Set<String> runningCleanups = ConcurrentHashMap.newKeySet();
   private volatile long lastPlanTime;
   private final TableOptimizingMetrics optimizingMetrics;
   private final ReentrantLock blockerLock = new ReentrantLock();
@@ -115,13 +132,32 @@ public class TableRuntime extends StatedPersistentBase {
     Preconditions.checkNotNull(tableRuntimeMeta, "TableRuntimeMeta must not be null.");
     Preconditions.checkNotNull(tableHandler, "TableRuntimeHandler must not be null.");
     this.tableHandler = tableHandler;
-    this.tableIdentifier =
-        ServerTableIdentifier.of(
-            tableRuntimeMeta.getTableId(),
-            tableRuntimeMeta.getCatalogName(),
-            tableRuntimeMeta.getDbName(),
-            tableRuntimeMeta.getTableName(),
-            tableRuntimeMeta.getFormat());
+    this.tableIdentifier = tableRuntimeMeta.getTableIdentifier();
+    loadStates(tableRuntimeMeta);
+    optimizingMetrics = new TableOptimizingMetrics(tableIdentifier);
+    optimizingMetrics.statusChanged(optimizingStatus, this.currentStatusStartTime);
+  }
+
+  /**
+   * Reload states from the meta, since they may have been changed by the AMS node serving the
+   * optimizer group of the table before. The optimizing process is recovered by the optimizing
+   * queue later.
+   */
+  void reload(TableRuntimeMeta tableRuntimeMeta) {
+    Preconditions.checkArgument(
+        tableIdentifier.equals(tableRuntimeMeta.getTableIdentifier()),
+        "Can not reload table runtime of %s from %s",
+        tableIdentifier,
+        tableRuntimeMeta.getTableIdentifier());
+    invokeInStateLock(
+        () -> {
+          loadStates(tableRuntimeMeta);
+          this.optimizingProcess = null;
+        });
+    optimizingMetrics.statusChanged(optimizingStatus, currentStatusStartTime);
+  }
+
+  private void loadStates(TableRuntimeMeta tableRuntimeMeta) {
     this.currentSnapshotId = tableRuntimeMeta.getCurrentSnapshotId();
     this.lastOptimizedSnapshotId = tableRuntimeMeta.getLastOptimizedSnapshotId();
     this.lastOptimizedChangeSnapshotId = tableRuntimeMeta.getLastOptimizedChangeSnapshotId();
@@ -138,8 +174,14 @@ public class TableRuntime extends StatedPersistentBase {
             ? OptimizingStatus.PENDING
             : tableRuntimeMeta.getTableStatus();
     this.pendingInput = tableRuntimeMeta.getPendingInput();
-    optimizingMetrics = new TableOptimizingMetrics(tableIdentifier);
-    optimizingMetrics.statusChanged(optimizingStatus, this.currentStatusStartTime);
+    this.clusteringBaseline =
+        tableRuntimeMeta.getClusteringBaseline() == null
+            ? Collections.emptyMap()
+            : tableRuntimeMeta.getClusteringBaseline();
+    this.pendingCleanups =
+        tableRuntimeMeta.getPendingCleanups() == null
+            ? Collections.emptyMap()
+            : tableRuntimeMeta.getPendingCleanups();
   }
 
   public void recover(OptimizingProcess optimizingProcess) {
@@ -154,6 +196,10 @@ public class TableRuntime extends StatedPersistentBase {
     this.optimizingMetrics.register(metricRegistry);
   }
 
+  public void unregisterMetric() {
+    this.optimizingMetrics.unregister();
+  }
+
   public void dispose() {
     invokeInStateLock(
         () -> {
@@ -277,6 +323,14 @@ public class TableRuntime extends StatedPersistentBase {
   }
 
   public void completeProcess(boolean success) {
+    completeProcess(success, Collections.emptyMap());
+  }
+
+  /**
+   * @param clusteringBaseline overlapping file count of partitions rewritten by clustering
+   *     optimizing, which is not caused by new data and should not trigger clustering again
+   */
+  public void completeProcess(boolean success, Map<String, Long> clusteringBaseline) {
     invokeConsistency(
         () -> {
           OptimizingStatus originalStatus = optimizingStatus;
@@ -290,6 +344,14 @@ public class TableRuntime extends StatedPersistentBase {
               lastMajorOptimizingTime = optimizingProcess.getPlanTime();
             } else if (processType == OptimizingType.FULL) {
               lastFullOptimizingTime = optimizingProcess.getPlanTime();
+            } else if (processType == OptimizingType.CLUSTERING) {
+              // clustering rewrites segment files as major optimizing does
+              lastMajorOptimizingTime = optimizingProcess.getPlanTime();
+            }
+            if (!clusteringBaseline.isEmpty()) {
+              Map<String, Long> baseline = new HashMap<>(this.clusteringBaseline);
+              baseline.putAll(clusteringBaseline);
+              this.clusteringBaseline = baseline;
             }
           }
           updateOptimizingStatus(OptimizingStatus.IDLE);
@@ -339,6 +401,114 @@ public class TableRuntime extends StatedPersistentBase {
     return pendingInput;
   }
 
+  public Map<String, Long> getClusteringBaseline() {
+    return clusteringBaseline;
+  }
+
+  /** Overlapping file count of the partition after the last clustering optimizing. */
+  public long getClusteringBaseline(String partitionPath) {
+    return clusteringBaseline.getOrDefault(partitionPath, 0L);
+  }
+
+  public Map<String, String> getPendingCleanups() {
+    return pendingCleanups;
+  }
+
+  /**
+   * Record a running cleanup of files of expired snapshots, which is persisted until it is
+   * completed, so that it is run again after AMS restarts.
+   *
+   * @param expiredMetadataLocation metadata location committed by the snapshot expiration
+   * @param expiringMetadataLocation metadata location before the snapshot expiration
+   */
+  public void addPendingCleanup(String expiredMetadataLocation, String expiringMetadataLocation) {
+    invokeConsistency(
+        () -> {
+          Map<String, String> cleanups = new HashMap<>(pendingCleanups);
+          cleanups.put(expiredMetadataLocation, expiringMetadataLocation);
+          pendingCleanups = cleanups;
+          persistUpdatingRuntime();
+          runningCleanups.add(expiredMetadataLocation);
+        });
+  }
+
+  /** Remove a cleanup of files of expired snapshots once it is completed. */
+  public void removePendingCleanup(String expiredMetadataLocation) {
+    invokeConsistency(
+        () -> {
+          runningCleanups.remove(expiredMetadataLocation);
+          if (pendingCleanups.containsKey(expiredMetadataLocation)) {
+            Map<String, String> cleanups = new HashMap<>(pendingCleanups);
+            cleanups.remove(expiredMetadataLocation);
+            pendingCleanups = cleanups;
+            persistUpdatingRuntime();
+          }
+        });
+  }
+
+  /**
+   * Returns pending cleanups of expired metadata in the directory, which are not running since
+   * the table runtime was loaded, as they were lost when AMS restarted. They are marked as running
+   * to be run again by the caller.
+   */
+  public Map<String, String> recoverPendingCleanups(String metadataDirectory) {
+    Map<String, String> cleanups = new HashMap<>();
+    pendingCleanups.forEach(
+        (expiredMetadataLocation, expiringMetadataLocation) -> {
+          if (expiredMetadataLocation.startsWith(metadataDirectory)
+              && runningCleanups.add(expiredMetadataLocation)) {
+            cleanups.put(expiredMetadataLocation, expiringMetadataLocation);
+          }
+        });
+    return cleanups;
+  }
+
+  /**
+   * Returns the task cost model, which is seeded on first access from successful tasks of the
+   * latest finished processes, so that it does not learn from scratch after AMS restarts.
+   */
+  public TaskCostModel getTaskCostModel() {
+    if (!taskCostModelSeeded) {
+      synchronized (taskCostModel) {
+        if (!taskCostModelSeeded) {
+          seedTaskCostModel();
+          taskCostModelSeeded = true;
+        }
+      }
+    }
+    return taskCostModel;
+  }
+
+  private void seedTaskCostModel() {
+    try {
+      List<Long> processIds =
+          getAs(
+                  OptimizingMapper.class,
+                  mapper ->
+                      mapper.selectOptimizingProcesses(
+                          tableIdentifier.getCatalog(),
+                          tableIdentifier.getDatabase(),
+                          tableIdentifier.getTableName()))
+              .stream()
+              .filter(process -> process.getStatus() != OptimizingProcess.Status.RUNNING)
+              .limit(TASK_COST_MODEL_SEEDING_PROCESSES)
+              .map(OptimizingProcessMeta::getProcessId)
+              .collect(Collectors.toList());
+      if (processIds.isEmpty()) {
+        return;
+      }
+      getAs(OptimizingMapper.class, mapper -> mapper.selectOptimizeTaskMetas(processIds)).stream()
+          .filter(task -> task.getStatus() == TaskRuntime.Status.SUCCESS)
+          // earlier tasks first, since the model decays weights of the learned tasks
+          .sorted(Comparator.comparingLong(OptimizingTaskMeta::getEndTime))
+          .forEach(task -> taskCostModel.addTask(task.getMetricsSummary()));
+      LOG.info(
+          "Seeded task cost model of {} from history tasks: {}", tableIdentifier, taskCostModel);
+    } catch (Throwable t) {
+      LOG.warn("Failed to seed task cost model of {} from history tasks", tableIdentifier, t);
+    }
+  }
+
   private boolean updateConfigInternal(Map<String, String> properties) {
     TableConfiguration newTableConfig = TableConfiguration.parseConfig(properties);
     if (tableConfiguration.equals(newTableConfig)) {
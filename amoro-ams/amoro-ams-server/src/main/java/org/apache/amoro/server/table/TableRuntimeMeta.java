@@ -19,6 +19,7 @@
 package org.apache.amoro.server.table;
 
 import org.apache.amoro.TableFormat;
+import org.apache.amoro.api.ServerTableIdentifier;
 import org.apache.amoro.api.config.TableConfiguration;
 import org.apache.amoro.server.optimizing.OptimizingProcess;
 import org.apache.amoro.server.optimizing.OptimizingStatus;
@@ -45,6 +46,9 @@ public class TableRuntimeMeta {
   private String optimizerGroup;
   private TableConfiguration tableConfig;
   private OptimizingEvaluator.PendingInput pendingInput;
+  private Map<String, Long> clusteringBaseline;
+  private Map<String, String> pendingCleanups;
+  private long runtimeVersion;
   private long optimizingProcessId = 0;
   private OptimizingProcess.Status processStatus;
   private OptimizingType optimizingType;
@@ -68,6 +72,20 @@ public class TableRuntimeMeta {
     return tableRuntime;
   }
 
+  /**
+   * Reload the existing table runtime with this meta, for tables whose optimizer group is taken
+   * over from another AMS node.
+   */
+  public TableRuntime reloadTableRuntime(TableRuntime existing) {
+    existing.reload(this);
+    tableRuntime = existing;
+    return tableRuntime;
+  }
+
+  public ServerTableIdentifier getTableIdentifier() {
+    return ServerTableIdentifier.of(tableId, catalogName, dbName, tableName, format);
+  }
+
   public TableRuntime getTableRuntime() {
     if (tableRuntime == null) {
       throw new IllegalStateException("TableRuntime is not constructed yet.");
@@ -298,4 +316,29 @@ public class TableRuntimeMeta {
   public void setPendingInput(OptimizingEvaluator.PendingInput pendingInput) {
     this.pendingInput = pendingInput;
   }
+
+  public Map<String, Long> getClusteringBaseline() {
+    return clusteringBaseline;
+  }
+
+  public void setClusteringBaseline(Map<String, Long> clusteringBaseline) {
+    this.clusteringBaseline = clusteringBaseline;
+  }
+
+  public Map<String, String> getPendingCleanups() {
+    return pendingCleanups;
+  }
+
+  public void setPendingCleanups(Map<String, String> pendingCleanups) {
+    this.pendingCleanups = pendingCleanups;
+  }
+
+  /** Version of the persisted runtime, which is increased on every update of it. */
+  public long getRuntimeVersion() {
+    return runtimeVersion;
+  }
+
+  public void setRuntimeVersion(long runtimeVersion) {
+    this.runtimeVersion = runtimeVersion;
+  }
 }
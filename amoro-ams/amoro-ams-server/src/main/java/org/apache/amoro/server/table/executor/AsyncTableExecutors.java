@@ -20,8 +20,11 @@ package org.apache.amoro.server.table.executor;
 
 import org.apache.amoro.api.config.Configurations;
 import org.apache.amoro.server.AmoroManagementConf;
+import org.apache.amoro.server.optimizing.maintainer.MaintenanceTaskDispatcher;
 import org.apache.amoro.server.table.TableManager;
 
+import java.util.function.Function;
+
 public class AsyncTableExecutors {
 
   private static final AsyncTableExecutors instance = new AsyncTableExecutors();
@@ -41,10 +44,29 @@ public class AsyncTableExecutors {
   }
 
   public void setup(TableManager tableManager, Configurations conf) {
+    setup(tableManager, null, conf);
+  }
+
+  /**
+   * Set up the executors.
+   *
+   * @param tableManager manager of tables
+   * @param taskDispatchers dispatchers of maintenance tasks by optimizer groups, null to maintain
+   *     tables in AMS only
+   * @param conf configurations of AMS
+   */
+  public void setup(
+      TableManager tableManager,
+      Function<String, MaintenanceTaskDispatcher> taskDispatchers,
+      Configurations conf) {
     if (conf.getBoolean(AmoroManagementConf.EXPIRE_SNAPSHOTS_ENABLED)) {
       this.snapshotsExpiringExecutor =
           new SnapshotsExpiringExecutor(
-              tableManager, conf.getInteger(AmoroManagementConf.EXPIRE_SNAPSHOTS_THREAD_COUNT));
+              tableManager,
+              conf.getInteger(AmoroManagementConf.EXPIRE_SNAPSHOTS_THREAD_COUNT),
+              conf.getBoolean(AmoroManagementConf.EXPIRE_SNAPSHOTS_OFFLOAD_ENABLED)
+                  ? taskDispatchers
+                  : null);
     }
     if (conf.getBoolean(AmoroManagementConf.CLEAN_ORPHAN_FILES_ENABLED)) {
       this.orphanFilesCleaningExecutor =
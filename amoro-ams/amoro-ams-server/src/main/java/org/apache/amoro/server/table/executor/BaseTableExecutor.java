@@ -36,6 +36,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -64,6 +65,17 @@ public abstract class BaseTableExecutor extends RuntimeHandlerChain {
 
   @Override
   protected void initHandler(List<TableRuntimeMeta> tableRuntimeMetaList) {
+    scheduleTables(tableRuntimeMetaList);
+    logger.info("Table executor {} initialized", getClass().getSimpleName());
+  }
+
+  @Override
+  protected void handleOptimizerGroupLoaded(
+      String optimizerGroup, List<TableRuntimeMeta> tableRuntimeMetaList) {
+    scheduleTables(tableRuntimeMetaList);
+  }
+
+  private void scheduleTables(List<TableRuntimeMeta> tableRuntimeMetaList) {
     tableRuntimeMetaList.stream()
         .map(tableRuntimeMeta -> tableRuntimeMeta.getTableRuntime())
         .filter(tableRuntime -> enabled(tableRuntime))
@@ -74,8 +86,6 @@ public abstract class BaseTableExecutor extends RuntimeHandlerChain {
                     () -> executeTask(tableRuntime), getStartDelay(), TimeUnit.MILLISECONDS);
               }
             });
-
-    logger.info("Table executor {} initialized", getClass().getSimpleName());
   }
 
   private void executeTask(TableRuntime tableRuntime) {
@@ -109,7 +119,9 @@ public abstract class BaseTableExecutor extends RuntimeHandlerChain {
   }
 
   private boolean isExecutable(TableRuntime tableRuntime) {
-    return tableManager.contains(tableRuntime.getTableIdentifier()) && enabled(tableRuntime);
+    return tableManager.contains(tableRuntime.getTableIdentifier())
+        && tableManager.servesOptimizerGroup(tableRuntime.getOptimizerGroup())
+        && enabled(tableRuntime);
   }
 
   @Override
@@ -136,6 +148,11 @@ public abstract class BaseTableExecutor extends RuntimeHandlerChain {
     logger.info("dispose thread pool for threads {}", getThreadName());
   }
 
+  /** The pool running the tasks of tables. */
+  protected Executor getExecutor() {
+    return executor;
+  }
+
   protected long getStartDelay() {
     return START_DELAY;
   }
@@ -20,20 +20,39 @@ package org.apache.amoro.server.table.executor;
 
 import org.apache.amoro.AmoroTable;
 import org.apache.amoro.api.config.TableConfiguration;
+import org.apache.amoro.optimizing.TableOptimizing;
+import org.apache.amoro.server.optimizing.maintainer.MaintenanceTaskDispatcher;
 import org.apache.amoro.server.optimizing.maintainer.TableMaintainer;
 import org.apache.amoro.server.table.TableManager;
 import org.apache.amoro.server.table.TableRuntime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
 /** Service for expiring tables periodically. */
 public class SnapshotsExpiringExecutor extends BaseTableExecutor {
   private static final Logger LOG = LoggerFactory.getLogger(SnapshotsExpiringExecutor.class);
 
   private static final long INTERVAL = 60 * 60 * 1000L; // 1 hour
 
+  private final Function<String, MaintenanceTaskDispatcher> taskDispatchers;
+
   public SnapshotsExpiringExecutor(TableManager tableRuntimes, int poolSize) {
+    this(tableRuntimes, poolSize, null);
+  }
+
+  /**
+   * @param taskDispatchers dispatchers of maintenance tasks by optimizer groups, null to clean
+   *     files of expired snapshots in AMS
+   */
+  public SnapshotsExpiringExecutor(
+      TableManager tableRuntimes,
+      int poolSize,
+      Function<String, MaintenanceTaskDispatcher> taskDispatchers) {
     super(tableRuntimes, poolSize);
+    this.taskDispatchers = taskDispatchers;
   }
 
   @Override
@@ -55,10 +74,26 @@ public class SnapshotsExpiringExecutor extends BaseTableExecutor {
   public void execute(TableRuntime tableRuntime) {
     try {
       AmoroTable<?> amoroTable = loadTable(tableRuntime);
-      TableMaintainer tableMaintainer = TableMaintainer.ofTable(amoroTable);
+      MaintenanceTaskDispatcher taskDispatcher =
+          taskDispatchers == null
+              ? null
+              : completeInPool(taskDispatchers.apply(tableRuntime.getOptimizerGroup()));
+      TableMaintainer tableMaintainer = TableMaintainer.ofTable(amoroTable, taskDispatcher);
       tableMaintainer.expireSnapshots(tableRuntime);
     } catch (Throwable t) {
       LOG.error("unexpected expire error of table {} ", tableRuntime.getTableIdentifier(), t);
     }
   }
+
+  /**
+   * Complete maintenance tasks in the pool of this executor instead of the threads of the
+   * optimizing service, as files are cleaned here if a task fails or times out.
+   */
+  private MaintenanceTaskDispatcher completeInPool(MaintenanceTaskDispatcher taskDispatcher) {
+    return (input, executorFactoryImpl) -> {
+      CompletableFuture<TableOptimizing.OptimizingOutput> future =
+          taskDispatcher.dispatch(input, executorFactoryImpl);
+      return future == null ? null : future.thenApplyAsync(Function.identity(), getExecutor());
+    };
+  }
 }
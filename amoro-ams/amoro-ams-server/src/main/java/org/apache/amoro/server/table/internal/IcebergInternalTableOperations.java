@@ -29,9 +29,12 @@ import org.apache.iceberg.TableMetadata;
 import org.apache.iceberg.TableMetadataParser;
 import org.apache.iceberg.TableOperations;
 import org.apache.iceberg.exceptions.CommitFailedException;
+import org.apache.iceberg.exceptions.CommitStateUnknownException;
 import org.apache.iceberg.io.FileIO;
 import org.apache.iceberg.io.LocationProvider;
 import org.apache.iceberg.io.OutputFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.Map;
 import java.util.Objects;
@@ -41,6 +44,8 @@ import java.util.concurrent.atomic.AtomicReference;
 /** Iceberg table operations {@link TableOperations} */
 public class IcebergInternalTableOperations extends PersistentBase implements TableOperations {
 
+  private static final Logger LOG = LoggerFactory.getLogger(IcebergInternalTableOperations.class);
+
   private final ServerTableIdentifier identifier;
 
   private TableMetadata current;
@@ -78,7 +83,9 @@ public class IcebergInternalTableOperations extends PersistentBase implements Ta
     if (StringUtils.isBlank(metadataFileLocation)) {
       return null;
     }
-    this.current = TableMetadataParser.read(io, metadataFileLocation);
+    this.current =
+        InternalTableMetadataCache.load(
+            metadataFileLocation, location -> TableMetadataParser.read(io, location));
     return this.current;
   }
 
@@ -100,15 +107,39 @@ public class IcebergInternalTableOperations extends PersistentBase implements Ta
     String newMetadataFileLocation = InternalTableUtil.genNewMetadataFileLocation(base, metadata);
 
     try {
-      commitTableInternal(tableMetadata, base, metadata, newMetadataFileLocation);
-      org.apache.amoro.server.table.TableMetadata updatedMetadata = doCommit();
+      try {
+        commitTableInternal(tableMetadata, base, metadata, newMetadataFileLocation);
+      } catch (CommitFailedException e) {
+        io.deleteFile(newMetadataFileLocation);
+        throw e;
+      } catch (Exception e) {
+        io.deleteFile(newMetadataFileLocation);
+        throw new CommitFailedException(e, "Failed to commit table metadata");
+      }
+
+      org.apache.amoro.server.table.TableMetadata updatedMetadata;
+      try {
+        updatedMetadata = doCommit();
+      } catch (CommitFailedException e) {
+        // the metadata location is known not to be swapped
+        io.deleteFile(newMetadataFileLocation);
+        throw e;
+      } catch (Exception e) {
+        // the metadata location may have been swapped, keep the new metadata file it refers to
+        throw new CommitStateUnknownException(e);
+      }
       checkCommitSuccess(updatedMetadata, newMetadataFileLocation);
-    } catch (Exception e) {
-      io.deleteFile(newMetadataFileLocation);
+      InternalTableMetadataCache.invalidate(base.metadataFileLocation());
     } finally {
       this.tableMetadata = null;
+      try {
+        refresh();
+      } catch (RuntimeException e) {
+        // do not hide the commit result, the metadata is refreshed again on the next access
+        LOG.warn("Failed to refresh table metadata of {} after commit", identifier, e);
+        this.current = null;
+      }
     }
-    refresh();
   }
 
   @Override
@@ -190,8 +221,10 @@ public class IcebergInternalTableOperations extends PersistentBase implements Ta
       String metadataFileLocation) {
     String metaLocationInDatabase = tableMetadataLocation(updatedTableMetadata);
     if (!Objects.equals(metaLocationInDatabase, metadataFileLocation)) {
-      throw new CommitFailedException(
-          "commit conflict, some other commit happened during this commit. ");
+      // the location is swapped by this commit but changed again, the new file may be referred
+      throw new CommitStateUnknownException(
+          new IllegalStateException(
+              "commit conflict, some other commit happened during this commit. "));
     }
   }
 }
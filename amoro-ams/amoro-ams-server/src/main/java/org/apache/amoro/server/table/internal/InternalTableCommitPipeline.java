@@ -0,0 +1,278 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.server.table.internal;
+
+import org.apache.amoro.server.utils.InternalTableUtil;
+import org.apache.amoro.shade.guava32.com.google.common.annotations.VisibleForTesting;
+import org.apache.amoro.shade.guava32.com.google.common.collect.Lists;
+import org.apache.iceberg.AppendSnapshotRebaser;
+import org.apache.iceberg.FileFormat;
+import org.apache.iceberg.MetadataUpdate;
+import org.apache.iceberg.Snapshot;
+import org.apache.iceberg.SnapshotRef;
+import org.apache.iceberg.SnapshotRefType;
+import org.apache.iceberg.TableMetadata;
+import org.apache.iceberg.TableOperations;
+import org.apache.iceberg.UpdateRequirement;
+import org.apache.iceberg.exceptions.CommitFailedException;
+import org.apache.iceberg.exceptions.CommitStateUnknownException;
+import org.apache.iceberg.rest.requests.UpdateTableRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Commit pipeline of internal tables, coalescing concurrent commits of a table into a single
+ * metadata version.
+ *
+ * <p>Incoming commits are queued per table, and the first committer acquiring the table lock
+ * commits all queued requests on behalf of the others. Requests are applied on the latest metadata
+ * in order. Appends whose branch was moved by an earlier commit are rebased on the branch head by
+ * {@link AppendSnapshotRebaser} instead of failing, other conflicting requests fail as before.
+ */
+public class InternalTableCommitPipeline {
+
+  private static final Logger LOG = LoggerFactory.getLogger(InternalTableCommitPipeline.class);
+
+  private static final int MAX_COMMIT_ATTEMPTS = 3;
+
+  private final Map<String, TableCommitQueue> queues = new ConcurrentHashMap<>();
+
+  /**
+   * Commit the request to the table.
+   *
+   * @param table unique name of the table
+   * @param ops operations of the table, used if this request leads the commit
+   * @param request the request to commit
+   * @return the committed metadata containing the request
+   */
+  public TableMetadata commit(String table, TableOperations ops, UpdateTableRequest request) {
+    TableCommitQueue queue = acquireQueue(table);
+    PendingCommit pending = new PendingCommit(request);
+    try {
+      queue.pending.add(pending);
+      queue.lock.lock();
+      try {
+        if (!pending.result.isDone()) {
+          List<PendingCommit> batch = Lists.newArrayList();
+          PendingCommit next;
+          while ((next = queue.pending.poll()) != null) {
+            batch.add(next);
+          }
+          try {
+            commitBatch(ops, batch);
+          } catch (Throwable t) {
+            LOG.error("Failed to commit {} requests to table {}", batch.size(), table, t);
+            batch.forEach(p -> p.result.completeExceptionally(t));
+          }
+        }
+      } finally {
+        queue.lock.unlock();
+      }
+    } finally {
+      releaseQueue(table);
+    }
+
+    try {
+      return pending.result.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CommitFailedException(e, "Interrupted while committing");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new CommitFailedException(e.getCause(), "Failed to commit");
+    }
+  }
+
+  @VisibleForTesting
+  int queuedTables() {
+    return queues.size();
+  }
+
+  /**
+   * Get the commit queue of the table and register the caller as its user, so the queue is not
+   * evicted before the caller's request is taken.
+   */
+  private TableCommitQueue acquireQueue(String table) {
+    return queues.compute(
+        table,
+        (k, queue) -> {
+          TableCommitQueue acquired = queue == null ? new TableCommitQueue() : queue;
+          acquired.users++;
+          return acquired;
+        });
+  }
+
+  /** Unregister the caller from the commit queue of the table, evicting the queue if unused. */
+  private void releaseQueue(String table) {
+    queues.computeIfPresent(table, (k, queue) -> --queue.users == 0 ? null : queue);
+  }
+
+  private void commitBatch(TableOperations ops, List<PendingCommit> batch) {
+    for (int attempt = 1; ; attempt++) {
+      TableMetadata base = ops.refresh();
+      if (base == null) {
+        CommitFailedException lost = new CommitFailedException("table metadata lost.");
+        batch.forEach(p -> p.result.completeExceptionally(lost));
+        return;
+      }
+
+      TableMetadata working = base;
+      List<PendingCommit> applied = Lists.newArrayList();
+      List<String> manifestLists = Lists.newArrayList();
+      for (PendingCommit pending : batch) {
+        try {
+          working = apply(ops, working, pending.request, manifestLists);
+          applied.add(pending);
+        } catch (RuntimeException e) {
+          pending.result.completeExceptionally(e);
+        }
+      }
+      if (applied.isEmpty()) {
+        return;
+      }
+
+      try {
+        if (working != base) {
+          ops.commit(base, working);
+        }
+        TableMetadata committed = ops.current();
+        if (applied.size() > 1) {
+          LOG.debug(
+              "Coalesced {} commits into {}", applied.size(), committed.metadataFileLocation());
+        }
+        applied.forEach(p -> p.result.complete(committed));
+        return;
+      } catch (CommitFailedException e) {
+        manifestLists.forEach(ops.io()::deleteFile);
+        if (attempt >= MAX_COMMIT_ATTEMPTS) {
+          applied.forEach(p -> p.result.completeExceptionally(e));
+          return;
+        }
+        LOG.warn("Failed to commit {} coalesced requests, retrying", applied.size(), e);
+        batch = applied;
+      } catch (RuntimeException e) {
+        // the metadata may have been committed, keep the rebased manifest lists it may refer to
+        CommitStateUnknownException unknown =
+            e instanceof CommitStateUnknownException
+                ? (CommitStateUnknownException) e
+                : new CommitStateUnknownException(e);
+        applied.forEach(p -> p.result.completeExceptionally(unknown));
+        return;
+      }
+    }
+  }
+
+  private TableMetadata apply(
+      TableOperations ops,
+      TableMetadata working,
+      UpdateTableRequest request,
+      List<String> manifestLists) {
+    try {
+      request.requirements().forEach(r -> r.validate(working));
+    } catch (CommitFailedException e) {
+      return rebaseAppend(ops, working, request, manifestLists, e);
+    }
+    TableMetadata.Builder builder = TableMetadata.buildFrom(working);
+    request.updates().forEach(u -> u.applyTo(builder));
+    return builder.build();
+  }
+
+  /**
+   * Rebase the request if it is a single append to a branch, which conflicts with the working
+   * metadata only because the branch has moved.
+   */
+  private TableMetadata rebaseAppend(
+      TableOperations ops,
+      TableMetadata working,
+      UpdateTableRequest request,
+      List<String> manifestLists,
+      CommitFailedException conflict) {
+    List<MetadataUpdate> updates = request.updates();
+    if (updates.size() != 2
+        || !(updates.get(0) instanceof MetadataUpdate.AddSnapshot)
+        || !(updates.get(1) instanceof MetadataUpdate.SetSnapshotRef)) {
+      throw conflict;
+    }
+    Snapshot snapshot = ((MetadataUpdate.AddSnapshot) updates.get(0)).snapshot();
+    MetadataUpdate.SetSnapshotRef setRef = (MetadataUpdate.SetSnapshotRef) updates.get(1);
+    if (setRef.snapshotId() != snapshot.snapshotId() || setRef.type() != SnapshotRefType.BRANCH) {
+      throw conflict;
+    }
+
+    for (UpdateRequirement requirement : request.requirements()) {
+      if (requirement instanceof UpdateRequirement.AssertRefSnapshotId) {
+        UpdateRequirement.AssertRefSnapshotId assertRef =
+            (UpdateRequirement.AssertRefSnapshotId) requirement;
+        if (!setRef.name().equals(assertRef.refName())
+            || !Objects.equals(assertRef.snapshotId(), snapshot.parentId())) {
+          throw conflict;
+        }
+      } else {
+        requirement.validate(working);
+      }
+    }
+    SnapshotRef ref = working.ref(setRef.name());
+    if (ref == null && snapshot.parentId() != null) {
+      throw conflict;
+    }
+
+    String manifestList =
+        InternalTableUtil.genMetadataFileLocation(
+            working,
+            FileFormat.AVRO.addExtension(
+                String.format("snap-%d-rebased-%s", snapshot.snapshotId(), UUID.randomUUID())));
+    manifestLists.add(manifestList);
+    Snapshot rebased =
+        AppendSnapshotRebaser.rebase(ops.io(), working, snapshot, setRef.name(), manifestList);
+
+    TableMetadata.Builder builder = TableMetadata.buildFrom(working);
+    builder.addSnapshot(rebased);
+    setRef.applyTo(builder);
+    return builder.build();
+  }
+
+  private static class TableCommitQueue {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Queue<PendingCommit> pending = new ConcurrentLinkedQueue<>();
+    // guarded by the queues map, which computes each table atomically
+    private int users;
+  }
+
+  private static class PendingCommit {
+    private final UpdateTableRequest request;
+    private final CompletableFuture<TableMetadata> result = new CompletableFuture<>();
+
+    private PendingCommit(UpdateTableRequest request) {
+      this.request = request;
+    }
+  }
+}
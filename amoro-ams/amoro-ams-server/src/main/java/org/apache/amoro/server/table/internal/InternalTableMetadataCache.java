@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.server.table.internal;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.apache.amoro.shade.guava32.com.google.common.annotations.VisibleForTesting;
+import org.apache.iceberg.TableMetadata;
+
+import java.util.function.Function;
+
+/**
+ * Process-wide cache of parsed iceberg {@link TableMetadata} of internal tables.
+ *
+ * <p>Entries are keyed by the metadata file location. Every commit writes a new metadata file, so a
+ * location identifies a single version of a table and cached entries never need to be refreshed,
+ * only dropped once the version is replaced.
+ */
+public class InternalTableMetadataCache {
+
+  private static final int DEFAULT_MAX_SIZE = 1000;
+
+  private static volatile Cache<String, TableMetadata> cache = newCache(DEFAULT_MAX_SIZE);
+
+  private InternalTableMetadataCache() {}
+
+  /**
+   * Reset the cache with the max number of entries.
+   *
+   * @param maxSize max number of cached metadata, 0 to disable the cache
+   */
+  public static void initialize(int maxSize) {
+    cache = maxSize > 0 ? newCache(maxSize) : null;
+  }
+
+  /** Returns the metadata of the location from the cache, parse it with the loader if absent. */
+  public static TableMetadata load(
+      String metadataFileLocation, Function<String, TableMetadata> loader) {
+    Cache<String, TableMetadata> current = cache;
+    if (current == null) {
+      return loader.apply(metadataFileLocation);
+    }
+    return current.get(metadataFileLocation, loader);
+  }
+
+  /** Drop the metadata of a replaced version. */
+  public static void invalidate(String metadataFileLocation) {
+    Cache<String, TableMetadata> current = cache;
+    if (current != null && metadataFileLocation != null) {
+      current.invalidate(metadataFileLocation);
+    }
+  }
+
+  @VisibleForTesting
+  static long size() {
+    Cache<String, TableMetadata> current = cache;
+    if (current == null) {
+      return 0;
+    }
+    current.cleanUp();
+    return current.estimatedSize();
+  }
+
+  private static Cache<String, TableMetadata> newCache(int maxSize) {
+    return Caffeine.newBuilder().maximumSize(maxSize).build();
+  }
+}
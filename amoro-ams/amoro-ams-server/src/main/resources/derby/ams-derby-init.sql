@@ -22,6 +22,7 @@ CREATE TABLE catalog_metadata (
     catalog_properties     CLOB(64m),
     database_count         INT NOT NULL DEFAULT 0,
     table_count            INT NOT NULL DEFAULT 0,
+    event_id               BIGINT,
     PRIMARY KEY (catalog_id),
     CONSTRAINT catalog_name_index UNIQUE (catalog_name)
 );
@@ -118,6 +119,9 @@ CREATE TABLE table_runtime (
     table_config                CLOB(64m),
     optimizing_config           CLOB(64m),
     pending_input               CLOB(64m),
+    clustering_baseline         CLOB(64m),
+    pending_cleanups            CLOB(64m),
+    runtime_version             BIGINT NOT NULL DEFAULT 0,
     CONSTRAINT table_runtime_pk PRIMARY KEY (table_id),
     CONSTRAINT table_runtime_table_name_idx UNIQUE (catalog_name, db_name, table_name)
 );
@@ -156,6 +160,7 @@ CREATE TABLE task_runtime (
     fail_reason     VARCHAR(4096),
     optimizer_token VARCHAR(50),
     thread_id       INT,
+    rewrite_input   BLOB,
     rewrite_output  BLOB,
     metrics_summary CLOB,
     properties      CLOB,
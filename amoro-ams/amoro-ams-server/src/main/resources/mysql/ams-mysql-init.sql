@@ -23,6 +23,7 @@ CREATE TABLE `catalog_metadata`
     `catalog_properties`     mediumtext COMMENT 'catalog properties',
     `database_count`         int(11) NOT NULL default 0,
     `table_count`            int(11) NOT NULL default 0,
+    `event_id`               bigint(20) DEFAULT NULL COMMENT 'last processed metastore notification event id',
     PRIMARY KEY (`catalog_id`),
     UNIQUE KEY `catalog_name_index` (`catalog_name`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT 'catalog metadata';
@@ -129,6 +130,9 @@ CREATE TABLE `table_runtime`
     `table_config`                  mediumtext,
     `optimizing_config`             mediumtext,
     `pending_input`                 mediumtext,
+    `clustering_baseline`           mediumtext COMMENT 'Overlapping file count of each partition after the last clustering',
+    `pending_cleanups`              mediumtext COMMENT 'Metadata locations of expired snapshots whose files are not cleaned yet',
+    `runtime_version`               bigint(20) NOT NULL DEFAULT 0 COMMENT 'Version increased on every update of the runtime',
     PRIMARY KEY (`table_id`),
     UNIQUE KEY `table_index` (`catalog_name`,`db_name`,`table_name`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT 'Optimize running information of each table';
@@ -170,6 +174,7 @@ CREATE TABLE `task_runtime`
     `fail_reason`               varchar(4096) DEFAULT NULL COMMENT 'Error message after task failed',
     `optimizer_token`           varchar(50) DEFAULT NULL COMMENT 'Job type',
     `thread_id`                 int(11) DEFAULT NULL COMMENT 'Job id',
+    `rewrite_input`             longblob DEFAULT NULL COMMENT 'rewrite files input',
     `rewrite_output`            longblob DEFAULT NULL COMMENT 'rewrite files output',
     `metrics_summary`           text COMMENT 'metrics summary',
     `properties`                mediumtext COMMENT 'task properties',
@@ -21,3 +21,8 @@ ALTER TABLE table_optimizing_process CHANGE COLUMN table_name table_name varchar
 ALTER TABLE table_metadata CHANGE COLUMN table_name table_name varchar(256) NOT NULL;
 ALTER TABLE table_runtime CHANGE COLUMN table_name table_name varchar(256) NOT NULL;
 ALTER TABLE table_blocker CHANGE COLUMN table_name table_name varchar(256) NOT NULL;
+ALTER TABLE catalog_metadata ADD COLUMN event_id bigint(20) DEFAULT NULL COMMENT 'last processed metastore notification event id';
+ALTER TABLE table_runtime ADD COLUMN clustering_baseline mediumtext COMMENT 'Overlapping file count of each partition after the last clustering';
+ALTER TABLE table_runtime ADD COLUMN pending_cleanups mediumtext COMMENT 'Metadata locations of expired snapshots whose files are not cleaned yet';
+ALTER TABLE table_runtime ADD COLUMN runtime_version bigint(20) NOT NULL DEFAULT 0 COMMENT 'Version increased on every update of the runtime';
+ALTER TABLE task_runtime ADD COLUMN rewrite_input longblob DEFAULT NULL COMMENT 'rewrite files input';
@@ -22,7 +22,8 @@ CREATE TABLE catalog_metadata
     auth_configs text,
     catalog_properties text,
     database_count integer NOT NULL DEFAULT 0,
-    table_count integer NOT NULL DEFAULT 0
+    table_count integer NOT NULL DEFAULT 0,
+    event_id bigint
 );
 CREATE UNIQUE INDEX catalog_name_index ON catalog_metadata (catalog_name);
 
@@ -33,6 +34,7 @@ COMMENT ON COLUMN catalog_metadata.catalog_metastore IS 'Catalog type like hms/a
 COMMENT ON COLUMN catalog_metadata.storage_configs IS 'Base64 code of storage configurations';
 COMMENT ON COLUMN catalog_metadata.auth_configs IS 'Base64 code of authentication configurations';
 COMMENT ON COLUMN catalog_metadata.catalog_properties IS 'Catalog properties';
+COMMENT ON COLUMN catalog_metadata.event_id IS 'Last processed metastore notification event ID';
 
 CREATE TABLE database_metadata
 (
@@ -189,6 +191,9 @@ CREATE TABLE table_runtime
     table_config TEXT,
     optimizing_config TEXT,
     pending_input TEXT,
+    clustering_baseline TEXT,
+    pending_cleanups TEXT,
+    runtime_version BIGINT NOT NULL DEFAULT 0,
     PRIMARY KEY (table_id),
     UNIQUE (catalog_name, db_name, table_name)
 );
@@ -211,6 +216,9 @@ COMMENT ON COLUMN table_runtime.optimizer_group IS 'Optimizer group';
 COMMENT ON COLUMN table_runtime.table_config IS 'Table-specific configuration';
 COMMENT ON COLUMN table_runtime.optimizing_config IS 'Optimizing configuration';
 COMMENT ON COLUMN table_runtime.pending_input IS 'Pending input data';
+COMMENT ON COLUMN table_runtime.clustering_baseline IS 'Overlapping file count of each partition after the last clustering';
+COMMENT ON COLUMN table_runtime.pending_cleanups IS 'Metadata locations of expired snapshots whose files are not cleaned yet';
+COMMENT ON COLUMN table_runtime.runtime_version IS 'Version increased on every update of the runtime';
 
 CREATE TABLE table_optimizing_process
 (
@@ -267,6 +275,7 @@ CREATE TABLE task_runtime
     fail_reason VARCHAR(4096),
     optimizer_token VARCHAR(50),
     thread_id INT,
+    rewrite_input BYTEA,
     rewrite_output BYTEA,
     metrics_summary TEXT,
     properties TEXT,
@@ -288,6 +297,7 @@ COMMENT ON COLUMN task_runtime.status IS 'Optimize Status: PLANNED, SCHEDULED, A
 COMMENT ON COLUMN task_runtime.fail_reason IS 'Error message after task failure';
 COMMENT ON COLUMN task_runtime.optimizer_token IS 'Job type';
 COMMENT ON COLUMN task_runtime.thread_id IS 'Job ID';
+COMMENT ON COLUMN task_runtime.rewrite_input IS 'Rewrite files input';
 COMMENT ON COLUMN task_runtime.rewrite_output IS 'Rewrite files output';
 COMMENT ON COLUMN task_runtime.metrics_summary IS 'Metrics summary';
 COMMENT ON COLUMN task_runtime.properties IS 'Task properties';
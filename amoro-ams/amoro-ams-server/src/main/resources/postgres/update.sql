@@ -21,3 +21,13 @@ ALTER TABLE table_optimizing_process ALTER COLUMN table_name TYPE varchar(256) N
 ALTER TABLE table_metadata ALTER COLUMN table_name TYPE varchar(256) NOT NULL;
 ALTER TABLE table_runtime ALTER COLUMN table_name TYPE varchar(256) NOT NULL;
 ALTER TABLE table_blocker ALTER COLUMN table_name TYPE varchar(256) NOT NULL;
+ALTER TABLE catalog_metadata ADD COLUMN event_id bigint;
+COMMENT ON COLUMN catalog_metadata.event_id IS 'Last processed metastore notification event ID';
+ALTER TABLE table_runtime ADD COLUMN clustering_baseline TEXT;
+COMMENT ON COLUMN table_runtime.clustering_baseline IS 'Overlapping file count of each partition after the last clustering';
+ALTER TABLE table_runtime ADD COLUMN pending_cleanups TEXT;
+COMMENT ON COLUMN table_runtime.pending_cleanups IS 'Metadata locations of expired snapshots whose files are not cleaned yet';
+ALTER TABLE table_runtime ADD COLUMN runtime_version BIGINT NOT NULL DEFAULT 0;
+COMMENT ON COLUMN table_runtime.runtime_version IS 'Version increased on every update of the runtime';
+ALTER TABLE task_runtime ADD COLUMN rewrite_input BYTEA;
+COMMENT ON COLUMN task_runtime.rewrite_input IS 'Rewrite files input';
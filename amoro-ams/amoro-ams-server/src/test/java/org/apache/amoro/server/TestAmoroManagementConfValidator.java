@@ -86,6 +86,31 @@ public class TestAmoroManagementConfValidator {
 
     configurations.setString(AmoroManagementConf.HA_ZOOKEEPER_ADDRESS, "127.0.0.1:2181");
     AmoroManagementConfValidator.validateConfig(configurations);
+
+    configurations.setBoolean(AmoroManagementConf.HA_SHARDING_ENABLED, true);
+    configurations.setInteger(AmoroManagementConf.HA_SHARDING_VIRTUAL_NODES, 0);
+    Assert.assertThrows(
+        IllegalArgumentException.class,
+        () -> AmoroManagementConfValidator.validateConfig(configurations));
+
+    configurations.setInteger(AmoroManagementConf.HA_SHARDING_VIRTUAL_NODES, 16);
+    AmoroManagementConfValidator.validateConfig(configurations);
+
+    // sharding requires the high availability mode
+    configurations.setBoolean(AmoroManagementConf.HA_ENABLE, false);
+    Assert.assertThrows(
+        IllegalArgumentException.class,
+        () -> AmoroManagementConfValidator.validateConfig(configurations));
+
+    // so does the warm standby
+    configurations.setBoolean(AmoroManagementConf.HA_SHARDING_ENABLED, false);
+    configurations.setBoolean(AmoroManagementConf.HA_WARM_STANDBY_ENABLED, true);
+    Assert.assertThrows(
+        IllegalArgumentException.class,
+        () -> AmoroManagementConfValidator.validateConfig(configurations));
+
+    configurations.setBoolean(AmoroManagementConf.HA_ENABLE, true);
+    AmoroManagementConfValidator.validateConfig(configurations);
   }
 
   @Test
@@ -29,13 +29,23 @@ import org.apache.amoro.api.OptimizingTaskResult;
 import org.apache.amoro.catalog.BasicCatalogTestHelper;
 import org.apache.amoro.catalog.CatalogTestHelper;
 import org.apache.amoro.io.MixedDataTestHelpers;
+import org.apache.amoro.optimizing.CleanExpiredFilesExecutorFactory;
+import org.apache.amoro.optimizing.CleanExpiredFilesInput;
+import org.apache.amoro.optimizing.CleanExpiredFilesOutput;
+import org.apache.amoro.optimizing.OptimizingInputProperties;
+import org.apache.amoro.optimizing.RewriteFilesInput;
 import org.apache.amoro.optimizing.RewriteFilesOutput;
 import org.apache.amoro.optimizing.TableOptimizing;
 import org.apache.amoro.server.exception.IllegalTaskStateException;
 import org.apache.amoro.server.exception.PluginRetryAuthException;
+import org.apache.amoro.server.exception.TaskNotFoundException;
+import org.apache.amoro.server.exception.TaskRuntimeException;
+import org.apache.amoro.server.optimizing.MaintenanceQueue;
 import org.apache.amoro.server.optimizing.OptimizingProcess;
 import org.apache.amoro.server.optimizing.OptimizingStatus;
 import org.apache.amoro.server.optimizing.TaskRuntime;
+import org.apache.amoro.server.persistence.PersistentBase;
+import org.apache.amoro.server.persistence.mapper.OptimizingMapper;
 import org.apache.amoro.server.resource.OptimizerInstance;
 import org.apache.amoro.server.table.AMSTableTestBase;
 import org.apache.amoro.server.table.TableRuntime;
@@ -56,8 +66,10 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RunWith(Parameterized.class)
 public class TestDefaultOptimizingService extends AMSTableTestBase {
@@ -221,6 +233,23 @@ public class TestDefaultOptimizingService extends AMSTableTestBase {
     Assertions.assertTrue(optimizer.getTouchTime() > oldTouchTime);
   }
 
+  @Test
+  public void testUpdateThreadCount() {
+    OptimizerRegisterInfo registerInfo = buildRegisterInfo();
+    registerInfo.setThreadCount(4);
+    registerInfo.getProperties().put(OptimizerProperties.OPTIMIZER_REGISTERED_TOKEN, token);
+    Assertions.assertEquals(token, optimizingService().authenticate(registerInfo));
+    Assertions.assertEquals(1, optimizingService().listOptimizers().size());
+    Assertions.assertEquals(4, optimizingService().listOptimizers().get(0).getThreadCount());
+    Assertions.assertEquals(4, optimizingService().getTotalQuota(defaultResourceGroup().getName()));
+
+    // register a new optimizer if the token has expired
+    registerInfo.getProperties().put(OptimizerProperties.OPTIMIZER_REGISTERED_TOKEN, "expired");
+    String newToken = optimizingService().authenticate(registerInfo);
+    Assertions.assertNotEquals(token, newToken);
+    Assertions.assertEquals(2, optimizingService().listOptimizers().size());
+  }
+
   @Test
   public void testTouchTimeout() throws InterruptedException {
     OptimizingTask task = optimizingService().pollTask(token, THREAD_ID);
@@ -286,6 +315,40 @@ public class TestDefaultOptimizingService extends AMSTableTestBase {
     assertTaskCompleted(taskRuntime);
   }
 
+  @Test
+  public void testReloadTaskInputLazily() {
+    OptimizingTask task = optimizingService().pollTask(token, THREAD_ID);
+    Assertions.assertNotNull(task);
+    RewriteFilesInput input = SerializationUtil.simpleDeserialize(task.getTaskInput());
+
+    reload();
+    // the input of a recovered task is loaded on the first access
+    TaskRuntime taskRuntime =
+        optimizingService().listTasks(defaultResourceGroup().getName()).get(0);
+    Assertions.assertEquals(
+        input.rewrittenDataFiles().length, taskRuntime.getInput().rewrittenDataFiles().length);
+    Assertions.assertSame(taskRuntime.getInput(), taskRuntime.getInput());
+  }
+
+  @Test
+  public void testCloseProcessWithLostInputs() {
+    OptimizingTask task = optimizingService().pollTask(token, THREAD_ID);
+    Assertions.assertNotNull(task);
+    optimizingService().ackTask(token, THREAD_ID, task.getTaskId());
+    new TaskInputsCleaner().clear(task.getTaskId().getProcessId());
+
+    reload();
+    // no task is planned, the lost inputs are found by the retry of the acked task
+    assertTaskStatus(TaskRuntime.Status.ACKED);
+    optimizingService()
+        .completeTask(token, buildOptimizingTaskFailResult(task.getTaskId(), "error"));
+
+    TableRuntime tableRuntime = tableService().getRuntime(serverTableIdentifier());
+    Assertions.assertNull(tableRuntime.getOptimizingProcess());
+    Assertions.assertEquals(
+        0, optimizingService().listTasks(defaultResourceGroup().getName()).size());
+  }
+
   @Test
   public void testReloadAckTask() {
     // 1.poll task
@@ -344,6 +407,66 @@ public class TestDefaultOptimizingService extends AMSTableTestBase {
     assertTaskStatus(TaskRuntime.Status.PLANNED);
   }
 
+  @Test
+  public void testPollAckAndCompleteMaintenanceTask() {
+    CompletableFuture<TableOptimizing.OptimizingOutput> future = dispatchMaintenanceTask();
+    Assertions.assertNotNull(future);
+
+    // maintenance tasks are polled before optimizing tasks
+    OptimizingTask task = optimizingService().pollTask(token, THREAD_ID);
+    Assertions.assertNotNull(task);
+    Assertions.assertEquals(MaintenanceQueue.PROCESS_ID, task.getTaskId().getProcessId());
+    Assertions.assertEquals(
+        CleanExpiredFilesExecutorFactory.class.getName(),
+        OptimizingInputProperties.parse(task.getProperties()).getExecutorFactoryImpl());
+    Assertions.assertThrows(
+        TaskRuntimeException.class,
+        () -> optimizingService().ackTask(token, THREAD_ID + 1, task.getTaskId()));
+    optimizingService().ackTask(token, THREAD_ID, task.getTaskId());
+    Assertions.assertFalse(future.isDone());
+
+    OptimizingTaskResult taskResult = new OptimizingTaskResult(task.getTaskId(), THREAD_ID);
+    CleanExpiredFilesOutput output = new CleanExpiredFilesOutput(2, 2, 0);
+    taskResult.setTaskOutput(SerializationUtil.simpleSerialize(output));
+    optimizingService().completeTask(token, taskResult);
+    Assertions.assertTrue(future.isDone());
+    Assertions.assertEquals(2, ((CleanExpiredFilesOutput) future.join()).getDeletedFileCount());
+    Assertions.assertThrows(
+        TaskNotFoundException.class,
+        () -> optimizingService().ackTask(token, THREAD_ID, task.getTaskId()));
+
+    // then optimizing tasks are polled
+    Assertions.assertNotNull(optimizingService().pollTask(token, THREAD_ID));
+    assertTaskStatus(TaskRuntime.Status.SCHEDULED);
+  }
+
+  @Test
+  public void testFailMaintenanceTask() {
+    CompletableFuture<TableOptimizing.OptimizingOutput> future = dispatchMaintenanceTask();
+    OptimizingTask task = optimizingService().pollTask(token, THREAD_ID);
+    Assertions.assertEquals(MaintenanceQueue.PROCESS_ID, task.getTaskId().getProcessId());
+    optimizingService().ackTask(token, THREAD_ID, task.getTaskId());
+
+    OptimizingTaskResult taskResult = new OptimizingTaskResult(task.getTaskId(), THREAD_ID);
+    taskResult.setErrorMessage("error");
+    optimizingService().completeTask(token, taskResult);
+    Assertions.assertTrue(future.isCompletedExceptionally());
+    // the failed task is not polled again
+    OptimizingTask nextTask = optimizingService().pollTask(token, THREAD_ID);
+    Assertions.assertNotEquals(MaintenanceQueue.PROCESS_ID, nextTask.getTaskId().getProcessId());
+  }
+
+  private CompletableFuture<TableOptimizing.OptimizingOutput> dispatchMaintenanceTask() {
+    MixedTable mixedTable =
+        (MixedTable) tableService().loadTable(serverTableIdentifier()).originalTable();
+    CleanExpiredFilesInput input =
+        new CleanExpiredFilesInput(
+            mixedTable, "expiring.metadata.json", "expired.metadata.json", Collections.emptySet());
+    return optimizingService()
+        .getMaintenanceTaskDispatcher(defaultResourceGroup().getName())
+        .dispatch(input, CleanExpiredFilesExecutorFactory.class.getName());
+  }
+
   private OptimizerRegisterInfo buildRegisterInfo() {
     OptimizerRegisterInfo registerInfo = new OptimizerRegisterInfo();
     Map<String, String> registerProperties = Maps.newHashMap();
@@ -408,6 +531,13 @@ public class TestDefaultOptimizingService extends AMSTableTestBase {
     toucher = new Toucher();
   }
 
+  private static class TaskInputsCleaner extends PersistentBase {
+
+    private void clear(long processId) {
+      doAs(OptimizingMapper.class, mapper -> mapper.clearTaskInputs(processId));
+    }
+  }
+
   private class TableRuntimeRefresher extends TableRuntimeRefreshExecutor {
 
     public TableRuntimeRefresher() {
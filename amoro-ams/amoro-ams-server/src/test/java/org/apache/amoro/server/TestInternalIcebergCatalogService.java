@@ -31,6 +31,7 @@ import org.apache.amoro.table.MixedTable;
 import org.apache.iceberg.AppendFiles;
 import org.apache.iceberg.DataFile;
 import org.apache.iceberg.FileScanTask;
+import org.apache.iceberg.Snapshot;
 import org.apache.iceberg.Table;
 import org.apache.iceberg.Transaction;
 import org.apache.iceberg.UpdateProperties;
@@ -50,6 +51,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -169,6 +172,32 @@ public class TestInternalIcebergCatalogService extends RestCatalogServiceTestBas
       Assertions.assertEquals(files.length, tasks.size());
     }
 
+    @Test
+    public void testConcurrentAppendsRebased() throws IOException {
+      Table tbl = nsCatalog.createTable(identifier, schema);
+      Table staleTbl = nsCatalog.loadTable(identifier);
+      DataFile[] files = IcebergDataTestHelpers.insert(tbl, newRecords).dataFiles();
+      DataFile[] staleFiles = IcebergDataTestHelpers.insert(staleTbl, newRecords).dataFiles();
+
+      AppendFiles appendFiles = tbl.newFastAppend();
+      Arrays.stream(files).forEach(appendFiles::appendFile);
+      appendFiles.commit();
+      long firstSnapshotId = tbl.currentSnapshot().snapshotId();
+
+      // the stale table commits on an outdated base and is rebased by the server
+      AppendFiles staleAppend = staleTbl.newFastAppend();
+      Arrays.stream(staleFiles).forEach(staleAppend::appendFile);
+      staleAppend.commit();
+
+      Table loadedTable = nsCatalog.loadTable(identifier);
+      Snapshot current = loadedTable.currentSnapshot();
+      Assertions.assertEquals(firstSnapshotId, current.parentId());
+      Assertions.assertTrue(current.manifestListLocation().contains("rebased"));
+      List<FileScanTask> tasks =
+          Streams.stream(loadedTable.newScan().planFiles()).collect(Collectors.toList());
+      Assertions.assertEquals(files.length + staleFiles.length, tasks.size());
+    }
+
     @Test
     public void testTableTransaction() throws IOException {
       Table tbl = nsCatalog.createTable(identifier, schema, spec);
@@ -199,6 +228,41 @@ public class TestInternalIcebergCatalogService extends RestCatalogServiceTestBas
       Assertions.assertEquals(files.length, tasks.size());
     }
 
+    @Test
+    public void testConditionalLoadTable() throws IOException {
+      Table tbl = nsCatalog.createTable(identifier, schema);
+
+      HttpURLConnection connection = loadTableConnection(null);
+      Assertions.assertEquals(HttpURLConnection.HTTP_OK, connection.getResponseCode());
+      String etag = connection.getHeaderField("ETag");
+      Assertions.assertNotNull(etag);
+      connection.disconnect();
+
+      connection = loadTableConnection(etag);
+      Assertions.assertEquals(HttpURLConnection.HTTP_NOT_MODIFIED, connection.getResponseCode());
+      Assertions.assertEquals(etag, connection.getHeaderField("ETag"));
+      connection.disconnect();
+
+      tbl.updateProperties().set("k1", "v1").commit();
+      connection = loadTableConnection(etag);
+      Assertions.assertEquals(HttpURLConnection.HTTP_OK, connection.getResponseCode());
+      Assertions.assertNotEquals(etag, connection.getHeaderField("ETag"));
+      connection.disconnect();
+    }
+
+    private HttpURLConnection loadTableConnection(String ifNoneMatch) throws IOException {
+      URL url =
+          new URL(
+              String.format(
+                  "%s%s/v1/catalogs/%s/namespaces/%s/tables/%s",
+                  ams.getHttpUrl(), restCatalogUri, catalogName(), database, table));
+      HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+      if (ifNoneMatch != null) {
+        connection.setRequestProperty("If-None-Match", ifNoneMatch);
+      }
+      return connection;
+    }
+
     @Test
     public void testServerCatalogLoadTable() throws IOException {
       Table tbl = nsCatalog.createTable(identifier, schema, spec);
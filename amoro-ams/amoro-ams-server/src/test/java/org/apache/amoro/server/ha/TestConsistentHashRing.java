@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.server.ha;
+
+import org.apache.amoro.shade.guava32.com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class TestConsistentHashRing {
+
+  private static final List<String> KEYS =
+      IntStream.range(0, 3000).mapToObj(i -> "group-" + i).collect(Collectors.toList());
+
+  @Test
+  public void testEmptyRing() {
+    Assert.assertNull(new ConsistentHashRing(Lists.newArrayList(), 16).ownerOf("group"));
+  }
+
+  @Test
+  public void testBalance() {
+    List<String> nodes = Lists.newArrayList("ams-1:1261", "ams-2:1261", "ams-3:1261");
+    ConsistentHashRing ring = new ConsistentHashRing(nodes, 64);
+    Map<String, Integer> counts = new HashMap<>();
+    KEYS.forEach(key -> counts.merge(ring.ownerOf(key), 1, Integer::sum));
+
+    Assert.assertEquals(nodes.size(), counts.size());
+    counts.values().forEach(count -> Assert.assertTrue(count > KEYS.size() * 0.15));
+  }
+
+  @Test
+  public void testMembershipChange() {
+    ConsistentHashRing ring =
+        new ConsistentHashRing(Lists.newArrayList("ams-1:1261", "ams-2:1261", "ams-3:1261"), 64);
+    ConsistentHashRing leftRing =
+        new ConsistentHashRing(Lists.newArrayList("ams-1:1261", "ams-2:1261"), 64);
+    ConsistentHashRing joinedRing =
+        new ConsistentHashRing(
+            Lists.newArrayList("ams-1:1261", "ams-2:1261", "ams-3:1261", "ams-4:1261"), 64);
+
+    for (String key : KEYS) {
+      String owner = ring.ownerOf(key);
+      // only keys of the left node are moved
+      if (!owner.equals("ams-3:1261")) {
+        Assert.assertEquals(owner, leftRing.ownerOf(key));
+      }
+      // keys are moved to the joined node only
+      String newOwner = joinedRing.ownerOf(key);
+      Assert.assertTrue(newOwner.equals(owner) || newOwner.equals("ams-4:1261"));
+    }
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.server.ha;
+
+import org.apache.amoro.client.AmsServerInfo;
+import org.apache.amoro.properties.AmsHAProperties;
+import org.apache.amoro.shade.zookeeper3.org.apache.curator.framework.CuratorFramework;
+import org.apache.amoro.shade.zookeeper3.org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.amoro.shade.zookeeper3.org.apache.curator.retry.ExponentialBackoffRetry;
+import org.apache.amoro.utils.JacksonUtil;
+import org.apache.curator.test.TestingServer;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class TestShardManager {
+
+  private static final String CLUSTER = "test-sharding";
+  private static final List<String> GROUPS =
+      IntStream.range(0, 10).mapToObj(i -> "group-" + i).collect(Collectors.toList());
+  private static TestingServer server;
+
+  @BeforeClass
+  public static void startServer() throws Exception {
+    server = new TestingServer(true);
+  }
+
+  @AfterClass
+  public static void stopServer() throws Exception {
+    server.close();
+  }
+
+  @Test
+  public void testShardOptimizerGroups() throws Exception {
+    CuratorFramework client1 = newClient();
+    CuratorFramework client2 = newClient();
+    Set<String> served1 = ConcurrentHashMap.newKeySet();
+    Set<String> served2 = ConcurrentHashMap.newKeySet();
+    ShardManager manager1 = new ShardManager(client1, CLUSTER, serverInfo("ams-1"), 16, 200L);
+    ShardManager manager2 = new ShardManager(client2, CLUSTER, serverInfo("ams-2"), 16, 200L);
+    try {
+      manager1.start(() -> GROUPS, served1::add, served1::remove);
+      waitUntil(() -> served1.size() == GROUPS.size());
+
+      manager2.start(() -> GROUPS, served2::add, served2::remove);
+      ConsistentHashRing ring =
+          new ConsistentHashRing(Arrays.asList("ams-1:1261", "ams-2:1261"), 16);
+      Set<String> expected2 =
+          GROUPS.stream()
+              .filter(group -> ring.ownerOf(group).equals("ams-2:1261"))
+              .collect(Collectors.toSet());
+      waitUntil(
+          () ->
+              served2.equals(expected2)
+                  && served1.size() + served2.size() == GROUPS.size()
+                  && served1.stream().noneMatch(served2::contains));
+      for (String group : GROUPS) {
+        Assert.assertEquals(served2.contains(group), manager2.serves(group));
+        Assert.assertEquals(served1.contains(group), manager1.serves(group));
+        // optimizers are routed to the serving node
+        String owner = served2.contains(group) ? "ams-2" : "ams-1";
+        byte[] data =
+            client1
+                .getData()
+                .forPath(AmsHAProperties.getOptimizingServiceShardPath(CLUSTER, group));
+        Assert.assertEquals(
+            owner,
+            JacksonUtil.parseObject(new String(data, StandardCharsets.UTF_8), AmsServerInfo.class)
+                .getHost());
+      }
+
+      manager2.stop();
+      Assert.assertTrue(served2.isEmpty());
+      waitUntil(() -> served1.size() == GROUPS.size());
+    } finally {
+      manager1.stop();
+      manager2.stop();
+      client1.close();
+      client2.close();
+    }
+    Assert.assertTrue(served1.isEmpty());
+  }
+
+  @Test
+  public void testUnloadOnSuspension() throws Exception {
+    try (TestingServer suspendingServer = new TestingServer(true)) {
+      CuratorFramework client = newClient(suspendingServer);
+      Set<String> served = ConcurrentHashMap.newKeySet();
+      ShardManager manager = new ShardManager(client, CLUSTER, serverInfo("ams-1"), 16, 200L);
+      try {
+        manager.start(() -> GROUPS, served::add, served::remove);
+        waitUntil(() -> served.size() == GROUPS.size());
+
+        // stop serving all groups as soon as the connection is suspended
+        suspendingServer.stop();
+        waitUntil(served::isEmpty);
+        Assert.assertTrue(GROUPS.stream().noneMatch(manager::serves));
+
+        // take the groups back once reconnected
+        suspendingServer.restart();
+        waitUntil(() -> served.size() == GROUPS.size());
+        Assert.assertTrue(GROUPS.stream().allMatch(manager::serves));
+      } finally {
+        manager.stop();
+        client.close();
+      }
+    }
+  }
+
+  private static CuratorFramework newClient() {
+    return newClient(server);
+  }
+
+  private static CuratorFramework newClient(TestingServer zkServer) {
+    CuratorFramework client =
+        CuratorFrameworkFactory.builder()
+            .connectString(zkServer.getConnectString())
+            .sessionTimeoutMs(5000)
+            .connectionTimeoutMs(5000)
+            .retryPolicy(new ExponentialBackoffRetry(1000, 3))
+            .build();
+    client.start();
+    return client;
+  }
+
+  private static AmsServerInfo serverInfo(String host) {
+    AmsServerInfo serverInfo = new AmsServerInfo();
+    serverInfo.setHost(host);
+    serverInfo.setThriftBindPort(1261);
+    return serverInfo;
+  }
+
+  private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 10000;
+    while (!condition.getAsBoolean()) {
+      Assert.assertTrue("Timed out waiting for rebalancing", System.currentTimeMillis() < deadline);
+      Thread.sleep(50);
+    }
+  }
+}
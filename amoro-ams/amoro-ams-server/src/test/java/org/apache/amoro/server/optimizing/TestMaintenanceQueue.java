@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.server.optimizing;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.apache.amoro.optimizing.BaseOptimizingInput;
+import org.apache.amoro.optimizing.TableOptimizing;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class TestMaintenanceQueue {
+
+  private static final long TASK_TIMEOUT = 60_000L;
+
+  private final List<Runnable> timeouts = new ArrayList<>();
+  private final List<ScheduledFuture<?>> timeoutFutures = new ArrayList<>();
+  private MaintenanceQueue queue;
+
+  @Before
+  public void setUp() {
+    // run timeouts by hand instead of waiting for them
+    ScheduledExecutorService timeoutExecutor = mock(ScheduledExecutorService.class);
+    when(timeoutExecutor.schedule(any(Runnable.class), eq(TASK_TIMEOUT), eq(TimeUnit.MILLISECONDS)))
+        .thenAnswer(
+            invocation -> {
+              ScheduledFuture<?> timeoutFuture = mock(ScheduledFuture.class);
+              timeouts.add(invocation.getArgument(0));
+              timeoutFutures.add(timeoutFuture);
+              return timeoutFuture;
+            });
+    queue = new MaintenanceQueue(timeoutExecutor, TASK_TIMEOUT);
+  }
+
+  @Test
+  public void testPollTask() {
+    CompletableFuture<TableOptimizing.OptimizingOutput> future = queue.submit(new TestInput(), "");
+    MaintenanceTaskRuntime task = queue.pollTask();
+    Assert.assertNotNull(task);
+    Assert.assertTrue(MaintenanceQueue.isMaintenanceTask(task.getTaskId()));
+    Assert.assertSame(task, queue.getTask(task.getTaskId()));
+    Assert.assertNull(queue.pollTask());
+
+    task.getFuture().complete(null);
+    Assert.assertTrue(future.isDone());
+    Assert.assertNull(queue.getTask(task.getTaskId()));
+    Assert.assertEquals(0, queue.size());
+    verify(timeoutFutures.get(0)).cancel(false);
+  }
+
+  @Test
+  public void testTimeoutPendingTask() {
+    CompletableFuture<TableOptimizing.OptimizingOutput> future = queue.submit(new TestInput(), "");
+    timeouts.get(0).run();
+
+    assertTimeout(future);
+    // the timed out task is never polled
+    Assert.assertNull(queue.pollTask());
+    Assert.assertEquals(0, queue.size());
+  }
+
+  @Test
+  public void testTimeoutScheduledTask() {
+    CompletableFuture<TableOptimizing.OptimizingOutput> future = queue.submit(new TestInput(), "");
+    queue.submit(new TestInput(), "");
+    MaintenanceTaskRuntime task = queue.pollTask();
+    timeouts.get(0).run();
+
+    assertTimeout(future);
+    Assert.assertNull(queue.getTask(task.getTaskId()));
+    // other tasks are not affected
+    Assert.assertEquals(1, queue.size());
+    Assert.assertNotNull(queue.pollTask());
+  }
+
+  private static void assertTimeout(CompletableFuture<TableOptimizing.OptimizingOutput> future) {
+    Assert.assertTrue(future.isCompletedExceptionally());
+    try {
+      future.join();
+      Assert.fail("The task should time out");
+    } catch (CompletionException e) {
+      Assert.assertTrue(e.getCause() instanceof TimeoutException);
+    }
+  }
+
+  private static class TestInput extends BaseOptimizingInput {}
+}
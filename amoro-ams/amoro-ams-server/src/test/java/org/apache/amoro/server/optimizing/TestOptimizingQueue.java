@@ -31,6 +31,7 @@ import static org.apache.amoro.server.optimizing.OptimizerGroupMetrics.OPTIMIZER
 import org.apache.amoro.BasicTableTestHelper;
 import org.apache.amoro.TableFormat;
 import org.apache.amoro.TableTestHelper;
+import org.apache.amoro.api.OptimizerProperties;
 import org.apache.amoro.api.OptimizerRegisterInfo;
 import org.apache.amoro.api.OptimizingTaskId;
 import org.apache.amoro.api.OptimizingTaskResult;
@@ -45,6 +46,7 @@ import org.apache.amoro.optimizing.RewriteFilesOutput;
 import org.apache.amoro.optimizing.TableOptimizing;
 import org.apache.amoro.server.manager.MetricManager;
 import org.apache.amoro.server.metrics.MetricRegistry;
+import org.apache.amoro.server.persistence.TaskFilesPersistence;
 import org.apache.amoro.server.resource.OptimizerInstance;
 import org.apache.amoro.server.resource.OptimizerThread;
 import org.apache.amoro.server.resource.QuotaProvider;
@@ -103,6 +105,10 @@ public class TestOptimizingQueue extends AMSTableTestBase {
     return new ResourceGroup.Builder("test", "local").build();
   }
 
+  private static ResourceGroup standbyResourceGroup() {
+    return new ResourceGroup.Builder("standby", "local").build();
+  }
+
   protected OptimizingQueue buildOptimizingGroupService(TableRuntimeMeta tableRuntimeMeta) {
     return new OptimizingQueue(
         tableService(),
@@ -230,6 +236,130 @@ public class TestOptimizingQueue extends AMSTableTestBase {
     queue.dispose();
   }
 
+  @Test
+  public void testNotCommitAfterDisposed() {
+    TableRuntimeMeta tableRuntimeMeta = initTableWithFiles();
+    OptimizingQueue queue = buildOptimizingGroupService(tableRuntimeMeta);
+    TaskRuntime task = queue.pollTask(MAX_POLLING_TIME);
+    task.schedule(optimizerThread);
+    task.ack(optimizerThread);
+    task.complete(
+        optimizerThread,
+        buildOptimizingTaskResult(task.getTaskId(), optimizerThread.getThreadId()));
+
+    // the optimizer group is handed over, the commit is left to the new owner
+    OptimizingProcess optimizingProcess = tableRuntimeMeta.getTableRuntime().getOptimizingProcess();
+    queue.dispose();
+    optimizingProcess.commit();
+    Assert.assertEquals(OptimizingProcess.Status.RUNNING, optimizingProcess.getStatus());
+    Assert.assertSame(optimizingProcess, tableRuntimeMeta.getTableRuntime().getOptimizingProcess());
+  }
+
+  @Test
+  public void testCommitTaskPlannedInStreaming() throws InterruptedException {
+    TableRuntimeMeta tableRuntimeMeta = initTableWithFiles();
+    ResourceGroup resourceGroup =
+        new ResourceGroup.Builder("test", "local")
+            .addProperty(OptimizerProperties.STREAMING_PLANNING_ENABLED, "true")
+            .addProperty(OptimizerProperties.STREAMING_PLANNING_BATCH_SIZE, "1")
+            .build();
+    OptimizingQueue queue =
+        new OptimizingQueue(
+            tableService(),
+            resourceGroup,
+            quotaProvider,
+            planExecutor,
+            Collections.singletonList(tableRuntimeMeta),
+            1);
+
+    TaskRuntime task = queue.pollTask(MAX_POLLING_TIME);
+    Assert.assertNotNull(task);
+    // inputs are persisted along with the batch of the task
+    Assert.assertTrue(
+        TaskFilesPersistence.loadTaskInputs(
+                task.getTaskId().getProcessId(), 1, task.getTaskId().getTaskId() + 1)
+            .containsKey(task.getTaskId().getTaskId()));
+    task.schedule(optimizerThread);
+    task.ack(optimizerThread);
+    task.complete(
+        optimizerThread,
+        buildOptimizingTaskResult(task.getTaskId(), optimizerThread.getThreadId()));
+    Assert.assertEquals(TaskRuntime.Status.SUCCESS, task.getStatus());
+
+    // the process begins committing once it is fully planned
+    TableRuntime tableRuntime = tableRuntimeMeta.getTableRuntime();
+    long deadline = System.currentTimeMillis() + MAX_POLLING_TIME;
+    while (tableRuntime.getOptimizingStatus() != OptimizingStatus.COMMITTING
+        && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    Assert.assertEquals(OptimizingStatus.COMMITTING, tableRuntime.getOptimizingStatus());
+
+    OptimizingProcess optimizingProcess = tableRuntime.getOptimizingProcess();
+    optimizingProcess.commit();
+    Assert.assertEquals(OptimizingProcess.Status.SUCCESS, optimizingProcess.getStatus());
+    Assert.assertEquals(0, queue.collectTasks().size());
+    queue.dispose();
+  }
+
+  @Test
+  public void testActivateStandbyQueue() {
+    TableRuntimeMeta tableRuntimeMeta = initTableWithFiles();
+    OptimizingQueue queue = buildOptimizingGroupService(tableRuntimeMeta);
+    TaskRuntime task = queue.pollTask(MAX_POLLING_TIME);
+    Assert.assertNotNull(task);
+    task.schedule(optimizerThread);
+    task.ack(optimizerThread);
+
+    // the standby keeps the process planned by the leader without changing it
+    TableRuntime tableRuntime = tableRuntimeMeta.getTableRuntime();
+    TableRuntimeMeta standbyMeta =
+        buildTableRuntimeMeta(
+            tableRuntime.getOptimizingStatus(),
+            standbyResourceGroup(),
+            tableRuntime.getOptimizingProcess().getProcessId());
+    OptimizingQueue standbyQueue = buildStandbyQueue(standbyMeta);
+    Assert.assertTrue(standbyQueue.isStandby());
+    Assert.assertEquals(
+        1, standbyQueue.collectTasks(t -> t.getStatus() == TaskRuntime.Status.ACKED).size());
+
+    // the task is failed and reset by the leader after the standby loaded it
+    task.complete(
+        optimizerThread,
+        buildOptimizingTaskFailed(task.getTaskId(), optimizerThread.getThreadId()));
+    Assert.assertEquals(TaskRuntime.Status.PLANNED, task.getStatus());
+    queue.dispose();
+
+    standbyQueue.activate();
+    Assert.assertFalse(standbyQueue.isStandby());
+    TaskRuntime recoveredTask = standbyQueue.pollTask(0);
+    Assert.assertNotNull(recoveredTask);
+    Assert.assertEquals(task.getTaskId(), recoveredTask.getTaskId());
+    Assert.assertEquals(TaskRuntime.Status.PLANNED, recoveredTask.getStatus());
+    standbyQueue.dispose();
+  }
+
+  @Test
+  public void testReloadTableOfStandbyQueue() {
+    TableRuntimeMeta tableRuntimeMeta =
+        buildTableRuntimeMeta(OptimizingStatus.IDLE, standbyResourceGroup());
+    OptimizingQueue standbyQueue = buildStandbyQueue(tableRuntimeMeta);
+    Assert.assertTrue(standbyQueue.containsTable(serverTableIdentifier()));
+
+    // the table is moved to another optimizer group by the leader
+    TableRuntimeMeta movedMeta =
+        buildTableRuntimeMeta(
+            OptimizingStatus.IDLE, new ResourceGroup.Builder("other", "local").build());
+    standbyQueue.reloadTable(movedMeta);
+    Assert.assertFalse(standbyQueue.containsTable(serverTableIdentifier()));
+
+    standbyQueue.reloadTable(tableRuntimeMeta);
+    Assert.assertTrue(standbyQueue.containsTable(serverTableIdentifier()));
+    standbyQueue.activate();
+    Assert.assertThrows(IllegalStateException.class, () -> standbyQueue.reloadTable(movedMeta));
+    standbyQueue.dispose();
+  }
+
   @Test
   public void testCollectingTasks() {
     TableRuntimeMeta tableRuntimeMeta = initTableWithFiles();
@@ -358,8 +488,25 @@ public class TestOptimizingQueue extends AMSTableTestBase {
     return tableRuntimeMeta;
   }
 
+  private OptimizingQueue buildStandbyQueue(TableRuntimeMeta tableRuntimeMeta) {
+    return new OptimizingQueue(
+        tableService(),
+        standbyResourceGroup(),
+        quotaProvider,
+        planExecutor,
+        null,
+        Collections.singletonList(tableRuntimeMeta),
+        1,
+        true);
+  }
+
   private TableRuntimeMeta buildTableRuntimeMeta(
       OptimizingStatus status, ResourceGroup resourceGroup) {
+    return buildTableRuntimeMeta(status, resourceGroup, 0);
+  }
+
+  private TableRuntimeMeta buildTableRuntimeMeta(
+      OptimizingStatus status, ResourceGroup resourceGroup, long processId) {
     MixedTable mixedTable =
         (MixedTable) tableService().loadTable(serverTableIdentifier()).originalTable();
     TableRuntimeMeta tableRuntimeMeta = new TableRuntimeMeta();
@@ -371,6 +518,7 @@ public class TestOptimizingQueue extends AMSTableTestBase {
     tableRuntimeMeta.setTableStatus(status);
     tableRuntimeMeta.setTableConfig(TableConfiguration.parseConfig(mixedTable.properties()));
     tableRuntimeMeta.setOptimizerGroup(resourceGroup.getName());
+    tableRuntimeMeta.setOptimizingProcessId(processId);
     tableRuntimeMeta.constructTableRuntime(tableService());
     return tableRuntimeMeta;
   }
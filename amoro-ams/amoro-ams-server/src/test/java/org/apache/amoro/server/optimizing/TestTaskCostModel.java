@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.server.optimizing;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestTaskCostModel {
+
+  private static final long MB = 1024 * 1024;
+
+  @Test
+  public void testNotEnoughTasks() {
+    TaskCostModel model = new TaskCostModel();
+    for (int i = 0; i < TaskCostModel.MIN_TASK_COUNT - 1; i++) {
+      model.addTask(100 * MB, 0, 10_000);
+    }
+    // too short to learn from
+    model.addTask(100 * MB, 0, 10);
+    Assert.assertEquals(-1, model.estimateTaskSize(60_000, 0));
+
+    model.addTask(100 * MB, 0, 10_000);
+    Assert.assertEquals(600 * MB, model.estimateTaskSize(60_000, 0), MB);
+  }
+
+  @Test
+  public void testLearnDeleteOverhead() {
+    TaskCostModel model = new TaskCostModel();
+    // 10 MB/s for data files and 2 MB/s for delete files
+    for (int i = 1; i <= 10; i++) {
+      long dataSize = i * 64 * MB;
+      long deleteSize = (i % 3) * 16 * MB;
+      model.addTask(dataSize, deleteSize, dataSize * 100 / MB + deleteSize * 500 / MB);
+    }
+    Assert.assertEquals(600 * MB, model.estimateTaskSize(60_000, 0), MB);
+    // a MB of data files takes 0.1s, and its 0.5 MB of delete files take 0.25s
+    Assert.assertEquals(60 / 0.35 * MB, model.estimateTaskSize(60_000, 0.5), MB);
+  }
+
+  @Test
+  public void testDeleteFilesNotToldApart() {
+    TaskCostModel model = new TaskCostModel();
+    for (int i = 1; i <= 10; i++) {
+      model.addTask(i * 64 * MB, 0, i * 6_400);
+    }
+    // delete files are assumed as costly as data files
+    Assert.assertEquals(600 * MB, model.estimateTaskSize(60_000, 0), MB);
+    Assert.assertEquals(300 * MB, model.estimateTaskSize(60_000, 1), MB);
+  }
+}
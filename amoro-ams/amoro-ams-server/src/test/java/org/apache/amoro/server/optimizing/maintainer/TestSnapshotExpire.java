@@ -29,6 +29,9 @@ import org.apache.amoro.api.config.TableConfiguration;
 import org.apache.amoro.catalog.BasicCatalogTestHelper;
 import org.apache.amoro.catalog.CatalogTestHelper;
 import org.apache.amoro.data.ChangeAction;
+import org.apache.amoro.optimizing.CleanExpiredFilesExecutorFactory;
+import org.apache.amoro.optimizing.CleanExpiredFilesInput;
+import org.apache.amoro.optimizing.TableOptimizing;
 import org.apache.amoro.server.dashboard.utils.AmsUtil;
 import org.apache.amoro.server.optimizing.OptimizingProcess;
 import org.apache.amoro.server.optimizing.OptimizingStatus;
@@ -41,6 +44,7 @@ import org.apache.amoro.table.KeyedTable;
 import org.apache.amoro.table.TableProperties;
 import org.apache.amoro.table.UnkeyedTable;
 import org.apache.amoro.utils.MixedTableUtil;
+import org.apache.amoro.utils.SerializationUtil;
 import org.apache.amoro.utils.StatisticsFileUtil;
 import org.apache.iceberg.AppendFiles;
 import org.apache.iceberg.ContentFile;
@@ -59,9 +63,13 @@ import org.junit.runners.Parameterized;
 import org.mockito.Mockito;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 @RunWith(Parameterized.class)
@@ -340,6 +348,142 @@ public class TestSnapshotExpire extends ExecutorTestBase {
     newDataFiles.forEach(file -> Assert.assertTrue(table.io().exists(file.path().toString())));
   }
 
+  @Test
+  public void testExpireTableFilesByOptimizers() {
+    UnkeyedTable table =
+        isKeyedTable()
+            ? getMixedTable().asKeyedTable().baseTable()
+            : getMixedTable().asUnkeyedTable();
+    table.updateProperties().set(TableProperties.BASE_SNAPSHOT_KEEP_MINUTES, "0").commit();
+    List<DataFile> dataFiles = writeAndCommitBaseStore(table);
+    DeleteFiles deleteFiles = table.newDelete();
+    dataFiles.forEach(deleteFiles::deleteFile);
+    deleteFiles.commit();
+    List<DataFile> newDataFiles = writeAndCommitBaseStore(table);
+
+    // execute the task as optimizers do, with the serialized input
+    List<CleanExpiredFilesInput> dispatched = new ArrayList<>();
+    MaintenanceTaskDispatcher taskDispatcher =
+        (input, executorFactoryImpl) -> {
+          Assert.assertEquals(
+              CleanExpiredFilesExecutorFactory.class.getName(), executorFactoryImpl);
+          CleanExpiredFilesInput cleanInput =
+              SerializationUtil.simpleDeserialize(SerializationUtil.simpleSerialize(input));
+          cleanInput.resolveTable(reference -> getMixedTable());
+          dispatched.add(cleanInput);
+          return CompletableFuture.completedFuture(
+              new CleanExpiredFilesExecutorFactory().createExecutor(cleanInput).execute());
+        };
+    new MixedTableMaintainer(getMixedTable(), taskDispatcher)
+        .expireSnapshots(System.currentTimeMillis());
+
+    Assert.assertEquals(1, dispatched.size());
+    Assert.assertEquals(1, Iterables.size(table.snapshots()));
+    dataFiles.forEach(file -> Assert.assertFalse(table.io().exists(file.path().toString())));
+    newDataFiles.forEach(file -> Assert.assertTrue(table.io().exists(file.path().toString())));
+  }
+
+  @Test
+  public void testExpireTableFilesByOptimizersFailed() {
+    UnkeyedTable table =
+        isKeyedTable()
+            ? getMixedTable().asKeyedTable().baseTable()
+            : getMixedTable().asUnkeyedTable();
+    table.updateProperties().set(TableProperties.BASE_SNAPSHOT_KEEP_MINUTES, "0").commit();
+    List<DataFile> dataFiles = writeAndCommitBaseStore(table);
+    DeleteFiles deleteFiles = table.newDelete();
+    dataFiles.forEach(deleteFiles::deleteFile);
+    deleteFiles.commit();
+    writeAndCommitBaseStore(table);
+
+    // files are cleaned by AMS if the task fails
+    MaintenanceTaskDispatcher taskDispatcher =
+        (input, executorFactoryImpl) -> {
+          CompletableFuture<TableOptimizing.OptimizingOutput> future = new CompletableFuture<>();
+          future.completeExceptionally(new IllegalStateException("Task failed"));
+          return future;
+        };
+    new MixedTableMaintainer(getMixedTable(), taskDispatcher)
+        .expireSnapshots(System.currentTimeMillis());
+
+    Assert.assertEquals(1, Iterables.size(table.snapshots()));
+    dataFiles.forEach(file -> Assert.assertFalse(table.io().exists(file.path().toString())));
+  }
+
+  @Test
+  public void testExpireTableFilesWithoutWaitingOptimizers() {
+    UnkeyedTable table =
+        isKeyedTable()
+            ? getMixedTable().asKeyedTable().baseTable()
+            : getMixedTable().asUnkeyedTable();
+    table.updateProperties().set(TableProperties.BASE_SNAPSHOT_KEEP_MINUTES, "0").commit();
+    List<DataFile> dataFiles = writeAndCommitBaseStore(table);
+    DeleteFiles deleteFiles = table.newDelete();
+    dataFiles.forEach(deleteFiles::deleteFile);
+    deleteFiles.commit();
+    writeAndCommitBaseStore(table);
+
+    CompletableFuture<TableOptimizing.OptimizingOutput> future = new CompletableFuture<>();
+    new MixedTableMaintainer(getMixedTable(), (input, executorFactoryImpl) -> future)
+        .expireSnapshots(System.currentTimeMillis());
+
+    // snapshots are expired at once, and files are cleaned once the task completes
+    Assert.assertEquals(1, Iterables.size(table.snapshots()));
+    dataFiles.forEach(file -> Assert.assertTrue(table.io().exists(file.path().toString())));
+    future.completeExceptionally(new TimeoutException("Task timed out"));
+    dataFiles.forEach(file -> Assert.assertFalse(table.io().exists(file.path().toString())));
+  }
+
+  @Test
+  public void testCleanExpiredFilesAfterRestart() {
+    getMixedTable()
+        .updateProperties()
+        .set(TableProperties.BASE_SNAPSHOT_KEEP_MINUTES, "0")
+        .commit();
+    UnkeyedTable table =
+        isKeyedTable()
+            ? getMixedTable().asKeyedTable().baseTable()
+            : getMixedTable().asUnkeyedTable();
+    List<DataFile> dataFiles = writeAndCommitBaseStore(table);
+    DeleteFiles deleteFiles = table.newDelete();
+    dataFiles.forEach(deleteFiles::deleteFile);
+    deleteFiles.commit();
+    writeAndCommitBaseStore(table);
+
+    Map<String, String> pendingCleanups = new HashMap<>();
+    TableRuntime tableRuntime = Mockito.mock(TableRuntime.class);
+    Mockito.when(tableRuntime.getOptimizingStatus()).thenReturn(OptimizingStatus.IDLE);
+    Mockito.when(tableRuntime.getTableConfiguration())
+        .thenReturn(TableConfiguration.parseConfig(getMixedTable().properties()));
+    Mockito.doAnswer(
+            invocation ->
+                pendingCleanups.put(invocation.getArgument(0), invocation.getArgument(1)))
+        .when(tableRuntime)
+        .addPendingCleanup(Mockito.anyString(), Mockito.anyString());
+    Mockito.doAnswer(invocation -> pendingCleanups.remove(invocation.getArgument(0)))
+        .when(tableRuntime)
+        .removePendingCleanup(Mockito.anyString());
+
+    // the task is lost as AMS restarts before it completes
+    MaintenanceTaskDispatcher taskDispatcher =
+        (input, executorFactoryImpl) -> new CompletableFuture<>();
+    new MixedTableMaintainer(getMixedTable(), taskDispatcher).expireSnapshots(tableRuntime);
+    Assert.assertEquals(1, Iterables.size(table.snapshots()));
+    Assert.assertEquals(1, pendingCleanups.size());
+    dataFiles.forEach(file -> Assert.assertTrue(table.io().exists(file.path().toString())));
+
+    // the pending cleanup is recovered from the persisted runtime and run again
+    Mockito.when(tableRuntime.recoverPendingCleanups(Mockito.anyString()))
+        .thenAnswer(
+            invocation ->
+                pendingCleanups.entrySet().stream()
+                    .filter(entry -> entry.getKey().startsWith(invocation.getArgument(0)))
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+    new MixedTableMaintainer(getMixedTable()).expireSnapshots(tableRuntime);
+    Assert.assertTrue(pendingCleanups.isEmpty());
+    dataFiles.forEach(file -> Assert.assertFalse(table.io().exists(file.path().toString())));
+  }
+
   @Test
   public void testExpireTableFilesRepeatedly() {
     Assume.assumeTrue(isKeyedTable());
@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.server.optimizing.plan;
+
+import org.apache.amoro.TableFormat;
+import org.apache.amoro.api.OptimizerProperties;
+import org.apache.amoro.api.ServerTableIdentifier;
+import org.apache.amoro.api.config.OptimizingConfig;
+import org.apache.amoro.api.config.TableConfiguration;
+import org.apache.amoro.formats.iceberg.IcebergTable;
+import org.apache.amoro.server.table.TableRuntime;
+import org.apache.amoro.shade.guava32.com.google.common.collect.Maps;
+import org.apache.amoro.table.MixedTable;
+import org.apache.amoro.table.TableIdentifier;
+import org.apache.amoro.table.TableMetaStore;
+import org.apache.commons.io.FileUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.iceberg.AppendFiles;
+import org.apache.iceberg.DataFiles;
+import org.apache.iceberg.FileFormat;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.Table;
+import org.apache.iceberg.hadoop.HadoopTables;
+import org.apache.iceberg.types.Types;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@link OptimizingPlanner#planTasks()} on a synthetic iceberg table with many
+ * partitions of small files, planning with different numbers of partition plan threads. A thread
+ * count of 0 plans in the calling thread.
+ *
+ * <p>Run it by the main method from the test classpath.
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OptimizingPlannerBenchmark {
+
+  private static final int PARTITION_COUNT = 2000;
+  private static final int FILES_PER_PARTITION = 20;
+  private static final long FILE_SIZE = 1024 * 1024;
+
+  private static final Schema SCHEMA =
+      new Schema(
+          Types.NestedField.required(1, "id", Types.IntegerType.get()),
+          Types.NestedField.required(2, "pt", Types.IntegerType.get()));
+
+  @Param({"0", "1", "2", "4", "8", "16"})
+  private int threadCount;
+
+  private File tableDir;
+  private MixedTable table;
+  private TableRuntime tableRuntime;
+  private PartitionPlanExecutor planExecutor;
+
+  @Setup
+  public void setupTable() throws IOException {
+    tableDir = Files.createTempDirectory("planner-benchmark").toFile();
+    PartitionSpec spec = PartitionSpec.builderFor(SCHEMA).identity("pt").build();
+    Table icebergTable =
+        new HadoopTables(new Configuration())
+            .create(SCHEMA, spec, Maps.newHashMap(), tableDir.getAbsolutePath());
+    AppendFiles append = icebergTable.newFastAppend();
+    for (int partition = 0; partition < PARTITION_COUNT; partition++) {
+      for (int i = 0; i < FILES_PER_PARTITION; i++) {
+        append.appendFile(
+            DataFiles.builder(spec)
+                .withPath(String.format("%s/data/pt=%d/%d.parquet", tableDir, partition, i))
+                .withFormat(FileFormat.PARQUET)
+                .withPartitionPath("pt=" + partition)
+                .withFileSizeInBytes(FILE_SIZE)
+                .withRecordCount(100)
+                .build());
+      }
+    }
+    append.commit();
+
+    table =
+        (MixedTable)
+            IcebergTable.newIcebergTable(
+                    TableIdentifier.of("catalog", "db", "benchmark"),
+                    icebergTable,
+                    TableMetaStore.EMPTY,
+                    Maps.newHashMap())
+                .originalTable();
+    long snapshotId = icebergTable.currentSnapshot().snapshotId();
+    OptimizingConfig optimizingConfig =
+        TableConfiguration.parseConfig(icebergTable.properties()).getOptimizingConfig();
+    // stub only, to not record invocations from the planning threads
+    tableRuntime = Mockito.mock(TableRuntime.class, Mockito.withSettings().stubOnly());
+    Mockito.when(tableRuntime.getCurrentSnapshotId()).thenReturn(snapshotId);
+    Mockito.when(tableRuntime.getNewestProcessId()).thenReturn(1L);
+    Mockito.when(tableRuntime.getPendingInput()).thenReturn(null);
+    Mockito.when(tableRuntime.getOptimizingConfig()).thenReturn(optimizingConfig);
+    Mockito.when(tableRuntime.getTableIdentifier())
+        .thenReturn(
+            ServerTableIdentifier.of(1L, "catalog", "db", "benchmark", TableFormat.ICEBERG));
+
+    planExecutor = threadCount > 0 ? new PartitionPlanExecutor(threadCount) : null;
+  }
+
+  @TearDown
+  public void cleanTable() throws IOException {
+    if (planExecutor != null) {
+      planExecutor.shutdown();
+    }
+    FileUtils.deleteDirectory(tableDir);
+  }
+
+  @Benchmark
+  public List<TaskDescriptor> planTasks() {
+    // enough cores to plan all the partitions
+    return new OptimizingPlanner(
+            tableRuntime,
+            table,
+            PARTITION_COUNT,
+            OptimizerProperties.MAX_INPUT_FILE_SIZE_PER_THREAD_DEFAULT,
+            planExecutor)
+        .planTasks();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder().include(OptimizingPlannerBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.server.optimizing.plan;
+
+import org.apache.amoro.optimizing.ClusteringStrategy;
+import org.apache.amoro.shade.guava32.com.google.common.collect.ImmutableMap;
+import org.apache.amoro.shade.guava32.com.google.common.collect.Lists;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.DataFiles;
+import org.apache.iceberg.FileFormat;
+import org.apache.iceberg.Metrics;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.types.Conversions;
+import org.apache.iceberg.types.Types;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class TestClusteringKeyRanges {
+
+  private static final Schema SCHEMA =
+      new Schema(
+          Types.NestedField.required(1, "id", Types.IntegerType.get()),
+          Types.NestedField.optional(2, "name", Types.StringType.get()));
+
+  @Test
+  public void testSortOverlappingGroups() {
+    ClusteringKeyRanges ranges =
+        new ClusteringKeyRanges(SCHEMA, Lists.newArrayList("id", "name"), ClusteringStrategy.SORT);
+    DataFile file1 = dataFile("file1", 0, 10, "a", "b");
+    DataFile file2 = dataFile("file2", 5, 15, "c", "d");
+    DataFile file3 = dataFile("file3", 20, 30, "a", "z");
+    // touching file3 at the boundary value, which is not overlapping
+    DataFile file4 = dataFile("file4", 30, 40, "a", "z");
+    DataFile file5 = dataFile("file5", 8, 9, "a", "z");
+    ranges.add(file3);
+    ranges.add(file2);
+    ranges.add(file4);
+    ranges.add(file1);
+    ranges.add(file5);
+
+    List<List<DataFile>> groups = ranges.overlappingGroups();
+    Assert.assertEquals(1, groups.size());
+    Assert.assertEquals(Lists.newArrayList(file1, file2, file5), groups.get(0));
+    Assert.assertEquals(3, ranges.overlappingFileCount());
+    Assert.assertEquals(0.6, ranges.overlapRatio(), 0.0001);
+  }
+
+  @Test
+  public void testZOrderOverlappingGroups() {
+    ClusteringKeyRanges ranges =
+        new ClusteringKeyRanges(
+            SCHEMA, Lists.newArrayList("id", "name"), ClusteringStrategy.ZORDER);
+    DataFile file1 = dataFile("file1", 0, 10, "a", "b");
+    DataFile file2 = dataFile("file2", 5, 15, "c", "d");
+    DataFile file3 = dataFile("file3", 5, 15, "a", "a");
+    ranges.add(file2);
+    ranges.add(file3);
+    ranges.add(file1);
+
+    // file2 overlaps with others on id, but its z-values are greater than theirs for the higher
+    // bits of name, so that it is not rewritten together with them
+    List<List<DataFile>> groups = ranges.overlappingGroups();
+    Assert.assertEquals(1, groups.size());
+    Assert.assertEquals(Lists.newArrayList(file1, file3), groups.get(0));
+    Assert.assertEquals(2, ranges.overlappingFileCount());
+  }
+
+  @Test
+  public void testZOrderFilesOverlappingOnAllColumns() {
+    ClusteringKeyRanges ranges =
+        new ClusteringKeyRanges(
+            SCHEMA, Lists.newArrayList("id", "name"), ClusteringStrategy.ZORDER);
+    // overlapping on every column means sharing some z-values
+    DataFile file1 = dataFile("file1", 0, 10, "a", "c");
+    DataFile file2 = dataFile("file2", 5, 15, "b", "d");
+    ranges.add(file1);
+    ranges.add(file2);
+    Assert.assertEquals(2, ranges.overlappingFileCount());
+  }
+
+  @Test
+  public void testIgnoreFilesWithoutBounds() {
+    ClusteringKeyRanges ranges =
+        new ClusteringKeyRanges(SCHEMA, Lists.newArrayList("id"), ClusteringStrategy.SORT);
+    ranges.add(
+        DataFiles.builder(PartitionSpec.unpartitioned())
+            .withPath("/data/file-without-bounds.parquet")
+            .withFormat(FileFormat.PARQUET)
+            .withFileSizeInBytes(100)
+            .withRecordCount(10)
+            .build());
+    Assert.assertEquals(0, ranges.fileCount());
+    Assert.assertEquals(0, ranges.overlapRatio(), 0.0001);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownColumn() {
+    new ClusteringKeyRanges(SCHEMA, Lists.newArrayList("unknown"), ClusteringStrategy.SORT);
+  }
+
+  private static DataFile dataFile(
+      String name, int lowerId, int upperId, String lowerName, String upperName) {
+    Metrics metrics =
+        new Metrics(
+            10L,
+            null,
+            null,
+            null,
+            null,
+            ImmutableMap.of(
+                1,
+                Conversions.toByteBuffer(Types.IntegerType.get(), lowerId),
+                2,
+                Conversions.toByteBuffer(Types.StringType.get(), lowerName)),
+            ImmutableMap.of(
+                1,
+                Conversions.toByteBuffer(Types.IntegerType.get(), upperId),
+                2,
+                Conversions.toByteBuffer(Types.StringType.get(), upperName)));
+    return DataFiles.builder(PartitionSpec.unpartitioned())
+        .withPath("/data/" + name + ".parquet")
+        .withFormat(FileFormat.PARQUET)
+        .withFileSizeInBytes(100)
+        .withMetrics(metrics)
+        .build();
+  }
+}
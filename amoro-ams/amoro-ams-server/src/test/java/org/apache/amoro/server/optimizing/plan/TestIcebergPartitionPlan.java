@@ -23,16 +23,35 @@ import org.apache.amoro.TableFormat;
 import org.apache.amoro.TableTestHelper;
 import org.apache.amoro.catalog.BasicCatalogTestHelper;
 import org.apache.amoro.catalog.CatalogTestHelper;
+import org.apache.amoro.optimizing.ClusteringStrategy;
 import org.apache.amoro.optimizing.IcebergRewriteExecutorFactory;
 import org.apache.amoro.optimizing.OptimizingInputProperties;
+import org.apache.amoro.server.optimizing.OptimizingType;
 import org.apache.amoro.server.optimizing.scan.IcebergTableFileScanHelper;
 import org.apache.amoro.server.optimizing.scan.TableFileScanHelper;
 import org.apache.amoro.server.utils.IcebergTableUtil;
+import org.apache.amoro.shade.guava32.com.google.common.collect.ImmutableMap;
+import org.apache.amoro.shade.guava32.com.google.common.collect.Lists;
 import org.apache.amoro.shade.guava32.com.google.common.collect.Maps;
+import org.apache.amoro.table.TableProperties;
+import org.apache.iceberg.ContentFile;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.DataFiles;
+import org.apache.iceberg.DeleteFile;
+import org.apache.iceberg.FileFormat;
+import org.apache.iceberg.FileMetadata;
+import org.apache.iceberg.Metrics;
+import org.apache.iceberg.types.Conversions;
+import org.apache.iceberg.types.Types;
+import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
+import org.mockito.Mockito;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 @RunWith(Parameterized.class)
@@ -70,6 +89,137 @@ public class TestIcebergPartitionPlan extends TestUnkeyedPartitionPlan {
     testOnlyOneFragmentFileBase();
   }
 
+  @Test
+  public void testSplitTasksWithDeleteLocality() {
+    getMixedTable()
+        .updateProperties()
+        .set(TableProperties.SELF_OPTIMIZING_TARGET_SIZE, "100")
+        .set(TableProperties.SELF_OPTIMIZING_MAX_TASK_SIZE, "100")
+        .commit();
+    AbstractPartitionPlan plan = getAndCheckPartitionPlan();
+    DeleteFile delete1 = equalityDeleteFile("delete-1.parquet");
+    DeleteFile delete2 = equalityDeleteFile("delete-2.parquet");
+    // every two data files share the same delete file, while only two data files fit in a task
+    for (int i = 0; i < 4; i++) {
+      plan.rewriteDataFiles.put(
+          dataFile("data-" + i + ".parquet"),
+          Lists.<ContentFile<?>>newArrayList(i % 2 == 0 ? delete1 : delete2));
+    }
+
+    // delete files read by tasks of the plain bin-packing by size on the same files
+    long baselineDeleteSize = 0;
+    for (AbstractPartitionPlan.SplitTask splitTask :
+        plan.new BinPackingTaskSplitter().splitTasks(0)) {
+      baselineDeleteSize += deleteSize(splitTask.getDeleteFiles());
+    }
+
+    List<TaskDescriptor> tasks = plan.splitTasks(0);
+    Assert.assertEquals(2, tasks.size());
+    long deleteSizeSaved = 0;
+    for (TaskDescriptor task : tasks) {
+      Assert.assertEquals(2, task.getInput().rewrittenDataFiles().length);
+      Assert.assertEquals(1, task.getInput().rewrittenDeleteFiles().length);
+      deleteSizeSaved += task.getDeleteSizeSaved();
+    }
+    // each delete file is read by 1 task, the saved size is the difference from the baseline
+    Assert.assertEquals(baselineDeleteSize - 2000, deleteSizeSaved);
+  }
+
+  private static long deleteSize(Collection<ContentFile<?>> deleteFiles) {
+    return deleteFiles.stream().mapToLong(ContentFile::fileSizeInBytes).sum();
+  }
+
+  @Test
+  public void testClusteringNotNecessaryAfterRewrite() {
+    getMixedTable()
+        .updateProperties()
+        .set(TableProperties.SELF_OPTIMIZING_TARGET_SIZE, "100")
+        .set(TableProperties.SELF_OPTIMIZING_MAX_TASK_SIZE, "200")
+        .set(TableProperties.SELF_OPTIMIZING_CLUSTERING_COLUMNS, "id")
+        .commit();
+    AbstractPartitionPlan plan = getAndCheckPartitionPlan();
+    plan.addFile(clusteringDataFile("data-0.parquet", 0, 10), Collections.emptyList());
+    plan.addFile(clusteringDataFile("data-1.parquet", 5, 15), Collections.emptyList());
+    plan.addFile(clusteringDataFile("data-2.parquet", 10, 20), Collections.emptyList());
+    plan.addFile(clusteringDataFile("data-3.parquet", 15, 25), Collections.emptyList());
+    Assert.assertTrue(plan.isNecessary());
+    Assert.assertEquals(OptimizingType.CLUSTERING, plan.getOptimizingType());
+    // the overlapping group is larger than the max task size, so it is rewritten by two tasks
+    Assert.assertEquals(2, plan.splitTasks(0).size());
+
+    // the sorted output of the two tasks overlaps on [10, 15]
+    List<DataFile> rewrittenFiles =
+        Lists.newArrayList(
+            clusteringDataFile("rewritten-0.parquet", 0, 7),
+            clusteringDataFile("rewritten-1.parquet", 7, 15),
+            clusteringDataFile("rewritten-2.parquet", 10, 18),
+            clusteringDataFile("rewritten-3.parquet", 18, 25));
+    ClusteringKeyRanges rewrittenRanges =
+        new ClusteringKeyRanges(
+            getMixedTable().schema(), Lists.newArrayList("id"), ClusteringStrategy.SORT);
+    rewrittenFiles.forEach(rewrittenRanges::add);
+    Assert.assertEquals(2, rewrittenRanges.overlappingFileCount());
+    Mockito.when(tableRuntime.getClusteringBaseline(getPartitionPath()))
+        .thenReturn((long) rewrittenRanges.overlappingFileCount());
+
+    plan = getAndCheckPartitionPlan();
+    for (DataFile dataFile : rewrittenFiles) {
+      plan.addFile(dataFile, Collections.emptyList());
+    }
+    Assert.assertFalse(plan.isNecessary());
+
+    // new data overlapping with the rewritten files triggers clustering again
+    plan = getAndCheckPartitionPlan();
+    for (DataFile dataFile : rewrittenFiles) {
+      plan.addFile(dataFile, Collections.emptyList());
+    }
+    plan.addFile(clusteringDataFile("data-4.parquet", 0, 25), Collections.emptyList());
+    plan.addFile(clusteringDataFile("data-5.parquet", 3, 20), Collections.emptyList());
+    Assert.assertTrue(plan.isNecessary());
+    Assert.assertEquals(OptimizingType.CLUSTERING, plan.getOptimizingType());
+  }
+
+  private DataFile clusteringDataFile(String name, int lowerId, int upperId) {
+    int idFieldId = getMixedTable().schema().findField("id").fieldId();
+    Metrics metrics =
+        new Metrics(
+            10L,
+            null,
+            null,
+            null,
+            null,
+            ImmutableMap.of(idFieldId, Conversions.toByteBuffer(Types.IntegerType.get(), lowerId)),
+            ImmutableMap.of(idFieldId, Conversions.toByteBuffer(Types.IntegerType.get(), upperId)));
+    return DataFiles.builder(getMixedTable().spec())
+        .withPath(getMixedTable().location() + "/data/" + name)
+        .withFormat(FileFormat.PARQUET)
+        .withFileSizeInBytes(100)
+        .withMetrics(metrics)
+        .withPartition(getPartition().second())
+        .build();
+  }
+
+  private DataFile dataFile(String name) {
+    return DataFiles.builder(getMixedTable().spec())
+        .withPath(getMixedTable().location() + "/data/" + name)
+        .withFormat(FileFormat.PARQUET)
+        .withFileSizeInBytes(40)
+        .withRecordCount(1)
+        .withPartition(getPartition().second())
+        .build();
+  }
+
+  private DeleteFile equalityDeleteFile(String name) {
+    return FileMetadata.deleteFileBuilder(getMixedTable().spec())
+        .ofEqualityDeletes(getMixedTable().schema().columns().get(0).fieldId())
+        .withPath(getMixedTable().location() + "/data/" + name)
+        .withFormat(FileFormat.PARQUET)
+        .withFileSizeInBytes(1000)
+        .withRecordCount(1)
+        .withPartition(getPartition().second())
+        .build();
+  }
+
   @Override
   protected AbstractPartitionPlan getPartitionPlan() {
     return new IcebergPartitionPlan(
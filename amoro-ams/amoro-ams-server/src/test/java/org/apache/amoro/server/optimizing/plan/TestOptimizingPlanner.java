@@ -24,14 +24,17 @@ import org.apache.amoro.TableTestHelper;
 import org.apache.amoro.api.OptimizerProperties;
 import org.apache.amoro.catalog.BasicCatalogTestHelper;
 import org.apache.amoro.catalog.CatalogTestHelper;
+import org.apache.amoro.server.optimizing.OptimizingTestHelpers;
 import org.apache.amoro.server.optimizing.OptimizingType;
 import org.apache.amoro.server.optimizing.scan.TableFileScanHelper;
 import org.apache.iceberg.DataFile;
+import org.apache.iceberg.data.Record;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -93,6 +96,54 @@ public class TestOptimizingPlanner extends TestOptimizingEvaluator {
         Collections.emptyList());
   }
 
+  @Test
+  public void testParallelPlanning() {
+    closeFullOptimizingInterval();
+    // fragment files of several partitions if the table is partitioned
+    for (int day = 1; day <= 4; day++) {
+      for (int i = 0; i < 2; i++) {
+        int from = day * 10 + i * 4;
+        List<Record> newRecords =
+            OptimizingTestHelpers.generateRecord(
+                tableTestHelper(), from, from + 3, "2022-01-0" + day + "T12:00:00");
+        long transactionId = beginTransaction();
+        OptimizingTestHelpers.appendBase(
+            getMixedTable(),
+            tableTestHelper().writeBaseStore(getMixedTable(), transactionId, newRecords, false));
+      }
+    }
+
+    List<String> serialTasks = describeTasks(buildOptimizingEvaluator().planTasks());
+    PartitionPlanExecutor planExecutor = new PartitionPlanExecutor(3);
+    try {
+      OptimizingPlanner parallelPlanner =
+          new OptimizingPlanner(
+              getTableRuntime(),
+              getMixedTable(),
+              1,
+              OptimizerProperties.MAX_INPUT_FILE_SIZE_PER_THREAD_DEFAULT,
+              planExecutor);
+      Assert.assertFalse(serialTasks.isEmpty());
+      Assert.assertEquals(serialTasks, describeTasks(parallelPlanner.planTasks()));
+    } finally {
+      planExecutor.shutdown();
+    }
+  }
+
+  private static List<String> describeTasks(List<TaskDescriptor> taskDescriptors) {
+    return taskDescriptors.stream()
+        .map(
+            task ->
+                task.getPartition()
+                    + ": "
+                    + Arrays.stream(task.getInput().rewrittenDataFiles())
+                        .map(file -> file.path().toString())
+                        .sorted()
+                        .collect(Collectors.toList()))
+        .sorted()
+        .collect(Collectors.toList());
+  }
+
   @Override
   protected OptimizingPlanner buildOptimizingEvaluator() {
     return new OptimizingPlanner(
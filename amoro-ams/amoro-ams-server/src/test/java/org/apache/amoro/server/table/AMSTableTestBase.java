@@ -172,25 +172,30 @@ public class AMSTableTestBase extends TableServiceTestBase {
       TableMetadata tableMetadata = tableMetadata();
       tableService().createTable(catalogMeta.getCatalogName(), tableMetadata);
     } else {
-      switch (catalogTestHelper.tableFormat()) {
-        case ICEBERG:
-          createIcebergTable();
-          break;
-        case MIXED_ICEBERG:
-          createMixedIcebergTable();
-          break;
-        case MIXED_HIVE:
-          createMixedHiveTable();
-          break;
-        default:
-          throw new IllegalStateException("un-support format");
-      }
+      createExternalTable();
       tableService().exploreExternalCatalog();
     }
 
     serverTableIdentifier = tableService().listManagedTables().get(0);
   }
 
+  /** Create the table in the external catalog only, without synchronizing it to AMS. */
+  protected void createExternalTable() {
+    switch (catalogTestHelper.tableFormat()) {
+      case ICEBERG:
+        createIcebergTable();
+        break;
+      case MIXED_ICEBERG:
+        createMixedIcebergTable();
+        break;
+      case MIXED_HIVE:
+        createMixedHiveTable();
+        break;
+      default:
+        throw new IllegalStateException("un-support format");
+    }
+  }
+
   private void createMixedHiveTable() {
     // only create mixed hive table here !
     catalogMeta.putToCatalogProperties(
@@ -239,13 +244,18 @@ public class AMSTableTestBase extends TableServiceTestBase {
       mixedTables.dropTableByMeta(tableMeta, true);
       tableService().dropTableMetadata(tableMeta.getTableIdentifier(), true);
     } else {
-      String database = tableTestHelper.id().getDatabase();
-      String table = tableTestHelper.id().getTableName();
-      externalCatalog.dropTable(database, table, true);
+      dropExternalTable();
       tableService().exploreExternalCatalog();
     }
   }
 
+  /** Drop the table from the external catalog only, without synchronizing it to AMS. */
+  protected void dropExternalTable() {
+    String database = tableTestHelper.id().getDatabase();
+    String table = tableTestHelper.id().getTableName();
+    externalCatalog.dropTable(database, table, true);
+  }
+
   protected CatalogTestHelper catalogTestHelper() {
     return catalogTestHelper;
   }
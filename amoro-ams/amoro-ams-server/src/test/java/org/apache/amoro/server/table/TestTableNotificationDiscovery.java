@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.server.table;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import org.apache.amoro.TableFormat;
+import org.apache.amoro.TableTestHelper;
+import org.apache.amoro.hive.catalog.HiveCatalogTestHelper;
+import org.apache.amoro.hive.catalog.HiveTableTestHelper;
+import org.apache.amoro.server.catalog.ExternalCatalog;
+import org.apache.amoro.shade.guava32.com.google.common.collect.Lists;
+import org.apache.hadoop.hive.metastore.api.NotificationEvent;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+public class TestTableNotificationDiscovery extends AMSTableTestBase {
+
+  public TestTableNotificationDiscovery() {
+    super(
+        new HiveCatalogTestHelper(TableFormat.MIXED_HIVE, TEST_HMS.getHiveConf()),
+        new HiveTableTestHelper(true, true));
+  }
+
+  @Test
+  public void testApplyEvents() {
+    ExternalCatalog catalog = notificationCatalog();
+    // the catalog has never been fully synchronized
+    Assert.assertFalse(tableService().exploreExternalCatalogIncrementally(catalog));
+
+    catalog.updateProcessedEventId(10L);
+    createExternalTable();
+    mockEvents(catalog, 10L, event(11L, "CREATE_TABLE"), event(12L, "ALTER_PARTITION"));
+    Assert.assertTrue(tableService().exploreExternalCatalogIncrementally(catalog));
+    Assert.assertEquals(1, tableService().listManagedTables().size());
+    Assert.assertEquals(
+        TableTestHelper.TEST_TABLE_NAME,
+        tableService().listManagedTables().get(0).getTableName());
+    Assert.assertEquals(12L, (long) catalog.getProcessedEventId());
+
+    dropExternalTable();
+    mockEvents(catalog, 12L, event(13L, "DROP_TABLE"));
+    Assert.assertTrue(tableService().exploreExternalCatalogIncrementally(catalog));
+    Assert.assertTrue(tableService().listManagedTables().isEmpty());
+    Assert.assertEquals(13L, (long) catalog.getProcessedEventId());
+  }
+
+  @Test
+  public void testFallbackToFullSync() {
+    ExternalCatalog catalog = notificationCatalog();
+    catalog.updateProcessedEventId(10L);
+    createExternalTable();
+    // events after the cursor have been cleaned by the metastore
+    doThrow(new IllegalStateException("Notification events between 10 and 20 are missing"))
+        .when(catalog)
+        .listNotificationEvents(eq(10L), anyInt());
+
+    Assert.assertFalse(tableService().exploreExternalCatalogIncrementally(catalog));
+    Assert.assertTrue(tableService().listManagedTables().isEmpty());
+    Assert.assertEquals(10L, (long) catalog.getProcessedEventId());
+
+    dropExternalTable();
+  }
+
+  @Test
+  public void testResumeFromPersistedEventId() {
+    notificationCatalog().updateProcessedEventId(10L);
+
+    disposeTableService();
+    initTableService();
+
+    ExternalCatalog catalog = notificationCatalog();
+    Assert.assertEquals(10L, (long) catalog.getProcessedEventId());
+    mockEvents(catalog, 10L);
+    Assert.assertTrue(tableService().exploreExternalCatalogIncrementally(catalog));
+    verify(catalog).listNotificationEvents(eq(10L), anyInt());
+    verify(catalog, never()).currentEventId();
+  }
+
+  /** The test metastore does not record events, so the notification methods are stubbed. */
+  private ExternalCatalog notificationCatalog() {
+    ExternalCatalog catalog =
+        spy((ExternalCatalog) tableService().getServerCatalog(catalogMeta().getCatalogName()));
+    doReturn(true).when(catalog).isNotificationEnabled();
+    doReturn(Collections.emptyList()).when(catalog).listNotificationEvents(anyLong(), anyInt());
+    return catalog;
+  }
+
+  private static void mockEvents(
+      ExternalCatalog catalog, long lastEventId, NotificationEvent... events) {
+    List<NotificationEvent> eventList = Lists.newArrayList(events);
+    doReturn(eventList).when(catalog).listNotificationEvents(eq(lastEventId), anyInt());
+  }
+
+  private static NotificationEvent event(long eventId, String eventType) {
+    NotificationEvent event = new NotificationEvent(eventId, 0, eventType, "");
+    event.setDbName(TableTestHelper.TEST_DB_NAME);
+    event.setTableName(TableTestHelper.TEST_TABLE_NAME);
+    return event;
+  }
+}
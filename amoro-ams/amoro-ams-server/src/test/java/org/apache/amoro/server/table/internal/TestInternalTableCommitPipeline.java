@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.server.table.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.apache.amoro.shade.guava32.com.google.common.collect.ImmutableMap;
+import org.apache.iceberg.MetadataUpdate;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.SortOrder;
+import org.apache.iceberg.TableMetadata;
+import org.apache.iceberg.TableOperations;
+import org.apache.iceberg.exceptions.CommitFailedException;
+import org.apache.iceberg.exceptions.CommitStateUnknownException;
+import org.apache.iceberg.rest.requests.UpdateTableRequest;
+import org.apache.iceberg.types.Types;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+public class TestInternalTableCommitPipeline {
+
+  private static final String TABLE = "catalog.db.table";
+
+  private final InternalTableCommitPipeline pipeline = new InternalTableCommitPipeline();
+  private final TableOperations ops = mock(TableOperations.class);
+  private TableMetadata base;
+
+  @BeforeEach
+  public void setUp() {
+    Schema schema = new Schema(Types.NestedField.required(1, "id", Types.IntegerType.get()));
+    base =
+        TableMetadata.newTableMetadata(
+            schema,
+            PartitionSpec.unpartitioned(),
+            SortOrder.unsorted(),
+            "file:/tmp/table",
+            Collections.emptyMap());
+  }
+
+  @Test
+  public void testCommit() {
+    TableMetadata committed = mock(TableMetadata.class);
+    when(ops.refresh()).thenReturn(base);
+    when(ops.current()).thenReturn(committed);
+
+    assertSame(committed, pipeline.commit(TABLE, ops, setProperty()));
+    verify(ops).commit(any(), any());
+    assertEquals(0, pipeline.queuedTables());
+  }
+
+  @Test
+  public void testFailToRefresh() {
+    when(ops.refresh()).thenThrow(new IllegalStateException("refresh failed"));
+
+    assertThrows(IllegalStateException.class, () -> pipeline.commit(TABLE, ops, setProperty()));
+    assertEquals(0, pipeline.queuedTables());
+  }
+
+  @Test
+  public void testRetryConflictingCommit() {
+    when(ops.refresh()).thenReturn(base);
+    doThrow(new CommitFailedException("conflict")).when(ops).commit(any(), any());
+
+    assertThrows(CommitFailedException.class, () -> pipeline.commit(TABLE, ops, setProperty()));
+    verify(ops, times(3)).commit(any(), any());
+    assertEquals(0, pipeline.queuedTables());
+  }
+
+  @Test
+  public void testUnknownCommitState() {
+    when(ops.refresh()).thenReturn(base);
+    doThrow(new IllegalStateException("connection lost")).when(ops).commit(any(), any());
+
+    assertThrows(
+        CommitStateUnknownException.class, () -> pipeline.commit(TABLE, ops, setProperty()));
+    verify(ops, times(1)).commit(any(), any());
+    assertEquals(0, pipeline.queuedTables());
+  }
+
+  private static UpdateTableRequest setProperty() {
+    return new UpdateTableRequest(
+        Collections.emptyList(),
+        Collections.singletonList(new MetadataUpdate.SetProperties(ImmutableMap.of("k", "v"))));
+  }
+}
@@ -30,8 +30,12 @@ import javax.security.auth.Subject;
 import javax.security.auth.login.LoginContext;
 import javax.security.auth.login.LoginException;
 
+import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.Locale;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -39,6 +43,7 @@ import java.util.regex.Pattern;
 public class AmsThriftUrl {
   public static final String PARAM_SOCKET_TIMEOUT = "socketTimeout";
   public static final int DEFAULT_SOCKET_TIMEOUT = 5000;
+  public static final String PARAM_OPTIMIZER_GROUP = "optimizerGroup";
   public static final String ZOOKEEPER_FLAG = "zookeeper";
   public static final String THRIFT_FLAG = "thrift";
   public static final String THRIFT_URL_FORMAT = "thrift://%s:%d/%s%s";
@@ -83,6 +88,33 @@ public class AmsThriftUrl {
     }
   }
 
+  /**
+   * Append the optimizer group to a zookeeper url, so that the optimizing service is resolved to
+   * the AMS node serving the group if optimizer groups are sharded among AMS nodes, or to the
+   * leader otherwise.
+   *
+   * @param url - ams url
+   * @param optimizerGroup - optimizer group name
+   * @return the url with the optimizer group, or the original url if it is not a zookeeper url
+   */
+  public static String withOptimizerGroup(String url, String optimizerGroup) {
+    if (url == null
+        || optimizerGroup == null
+        || !url.startsWith(ZOOKEEPER_FLAG)
+        || url.contains(PARAM_OPTIMIZER_GROUP + "=")) {
+      return url;
+    }
+    try {
+      return url
+          + (url.contains("?") ? "&" : "?")
+          + PARAM_OPTIMIZER_GROUP
+          + "="
+          + URLEncoder.encode(optimizerGroup, StandardCharsets.UTF_8.name());
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
   private static AmsThriftUrl parserThriftUrl(String url) {
     int socketTimeout = DEFAULT_SOCKET_TIMEOUT;
     try {
@@ -134,7 +166,15 @@ public class AmsThriftUrl {
       int retryCount = 0;
       while (retryCount < MAX_RETRIES) {
         try {
-          AmsServerInfo serverInfo = findAmsServerInfo(serviceName, zkServerAddress, cluster);
+          String optimizerGroup = null;
+          for (String paramExpression : query.replace("?", "").split("&")) {
+            String[] paramSplit = paramExpression.split("=");
+            if (paramSplit.length == 2 && paramSplit[0].equals(PARAM_OPTIMIZER_GROUP)) {
+              optimizerGroup = URLDecoder.decode(paramSplit[1], StandardCharsets.UTF_8.name());
+            }
+          }
+          AmsServerInfo serverInfo =
+              findAmsServerInfo(serviceName, zkServerAddress, cluster, optimizerGroup);
           url =
               String.format(
                   THRIFT_URL_FORMAT,
@@ -191,7 +231,8 @@ public class AmsThriftUrl {
   }
 
   private static AmsServerInfo findAmsServerInfo(
-      String serviceName, String zkServerAddress, String cluster) throws Exception {
+      String serviceName, String zkServerAddress, String cluster, String optimizerGroup)
+      throws Exception {
     switch (serviceName) {
       case Constants.THRIFT_TABLE_SERVICE_NAME:
         return JacksonUtil.parseObject(
@@ -199,10 +240,16 @@ public class AmsThriftUrl {
                 .getData(AmsHAProperties.getTableServiceMasterPath(cluster)),
             AmsServerInfo.class);
       case Constants.THRIFT_OPTIMIZING_SERVICE_NAME:
-        return JacksonUtil.parseObject(
-            ZookeeperService.getInstance(zkServerAddress)
-                .getData(AmsHAProperties.getOptimizingServiceMasterPath(cluster)),
-            AmsServerInfo.class);
+        ZookeeperService zookeeperService = ZookeeperService.getInstance(zkServerAddress);
+        String path = AmsHAProperties.getOptimizingServiceMasterPath(cluster);
+        if (optimizerGroup != null) {
+          // the node serving the optimizer group if optimizer groups are sharded
+          String shardPath = AmsHAProperties.getOptimizingServiceShardPath(cluster, optimizerGroup);
+          if (zookeeperService.exist(shardPath)) {
+            path = shardPath;
+          }
+        }
+        return JacksonUtil.parseObject(zookeeperService.getData(path), AmsServerInfo.class);
       default:
         throw new RuntimeException(String.format("invalid service name %s", serviceName));
     }
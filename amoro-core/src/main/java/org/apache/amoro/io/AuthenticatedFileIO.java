@@ -24,6 +24,7 @@ import org.apache.iceberg.io.SupportsBulkOperations;
 import org.apache.iceberg.io.SupportsPrefixOperations;
 
 import java.util.concurrent.Callable;
+import java.util.function.Consumer;
 
 /** extension from {@link FileIO}, adding more operations for mixed-format tables. */
 public interface AuthenticatedFileIO extends FileIO {
@@ -37,6 +38,22 @@ public interface AuthenticatedFileIO extends FileIO {
    */
   <T> T doAs(Callable<T> callable);
 
+  /**
+   * Run the given action for each item with login user, authenticating once for the whole batch
+   * instead of once for each file operation.
+   *
+   * @param items the items to run the action for
+   * @param action the action to run
+   * @param <T> the type of the items
+   */
+  default <T> void doAsBatch(Iterable<T> items, Consumer<T> action) {
+    doAs(
+        () -> {
+          items.forEach(action);
+          return null;
+        });
+  }
+
   /**
    * Check if a path exists.
    *
@@ -66,10 +66,16 @@ public class AuthenticatedFileIOs {
 
   public static AuthenticatedFileIO buildAdaptIcebergFileIO(
       TableMetaStore tableMetaStore, FileIO io) {
+    if (io instanceof CachingFileIO) {
+      return (CachingFileIO) io;
+    }
+    AuthenticatedFileIO fileIO;
     if (io instanceof HadoopFileIO) {
-      return buildHadoopFileIO(tableMetaStore);
+      fileIO = buildHadoopFileIO(tableMetaStore);
     } else {
-      return new AuthenticatedFileIOAdapter(io);
+      fileIO = new AuthenticatedFileIOAdapter(io);
     }
+    ImmutableFileCache cache = ImmutableFileCache.get();
+    return cache == null ? fileIO : CachingFileIO.wrap(fileIO, cache);
   }
 }
@@ -21,12 +21,17 @@ package org.apache.amoro.io;
 import org.apache.amoro.shade.guava32.com.google.common.annotations.VisibleForTesting;
 import org.apache.amoro.shade.guava32.com.google.common.base.Preconditions;
 import org.apache.amoro.shade.guava32.com.google.common.collect.Lists;
+import org.apache.amoro.shade.guava32.com.google.common.collect.Maps;
 import org.apache.amoro.table.TableIdentifier;
 import org.apache.amoro.utils.TableFileUtil;
+import org.apache.iceberg.io.BulkDeletionFailureException;
 import org.apache.iceberg.io.FileInfo;
+import org.apache.iceberg.util.Tasks;
+import org.apache.iceberg.util.ThreadPools;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.UncheckedIOException;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -34,12 +39,27 @@ import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /** Basic implementation of {@link TableTrashManager}. */
 class BasicTableTrashManager implements TableTrashManager {
   private static final Logger LOG = LoggerFactory.getLogger(BasicTableTrashManager.class);
   private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+  /** Max concurrent file system operations of all trash managers in jvm. */
+  private static final int TRASH_WORKER_THREADS =
+      Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+  /** Max count of files listed in memory to be deleted in parallel when cleaning trash. */
+  private static final int CLEAN_BATCH_SIZE = 1000;
+
+  private static volatile ExecutorService trashWorkerPool;
+
   private final TableIdentifier tableIdentifier;
   private final AuthenticatedHadoopFileIO fileIO;
   private final String tableRootLocation;
@@ -123,6 +143,70 @@ class BasicTableTrashManager implements TableTrashManager {
     }
   }
 
+  /**
+   * Move files to trash in a batch. Files are grouped by their directories in trash, each directory
+   * is created once for the batch, then files are renamed in parallel.
+   */
+  @Override
+  public void moveFilesToTrash(Iterable<String> paths) {
+    long deleteTime = System.currentTimeMillis();
+    Map<String, Map<String, String>> filesByTargetDir = Maps.newHashMap();
+    for (String path : paths) {
+      String targetFileLocation =
+          generateFileLocationInTrash(
+              getRelativeFileLocation(this.tableRootLocation, path),
+              this.trashLocation,
+              deleteTime);
+      filesByTargetDir
+          .computeIfAbsent(TableFileUtil.getFileDir(targetFileLocation), dir -> Maps.newHashMap())
+          .put(path, targetFileLocation);
+    }
+
+    AtomicInteger failedFileCnt = new AtomicInteger(0);
+    Queue<Map.Entry<String, String>> filesToMove = new ConcurrentLinkedQueue<>();
+    Tasks.foreach(filesByTargetDir.entrySet())
+        .executeWith(trashWorkerPool())
+        .noRetry()
+        .suppressFailureWhenFinished()
+        .onFailure(
+            (dir, e) -> {
+              failedFileCnt.addAndGet(dir.getValue().size());
+              LOG.error("{} failed to create trash directory {}", tableIdentifier, dir.getKey(), e);
+            })
+        .run(
+            dir -> {
+              fileIO.makeDirectories(dir.getKey());
+              filesToMove.addAll(dir.getValue().entrySet());
+            });
+    Tasks.foreach(filesToMove)
+        .executeWith(trashWorkerPool())
+        .noRetry()
+        .suppressFailureWhenFinished()
+        .onFailure(
+            (file, e) -> {
+              failedFileCnt.incrementAndGet();
+              LOG.error("{} failed to move file to trash, {}", tableIdentifier, file.getKey(), e);
+            })
+        .run(file -> renameToTrash(file.getKey(), file.getValue()));
+
+    if (failedFileCnt.get() > 0) {
+      throw new BulkDeletionFailureException(failedFileCnt.get());
+    }
+  }
+
+  /** Rename the file to trash, replacing the file already in trash with the same location. */
+  private void renameToTrash(String path, String targetFileLocation) {
+    try {
+      fileIO.rename(path, targetFileLocation);
+    } catch (UncheckedIOException e) {
+      if (!fileIO.exists(targetFileLocation)) {
+        throw e;
+      }
+      fileIO.deleteFile(targetFileLocation);
+      fileIO.rename(path, targetFileLocation);
+    }
+  }
+
   @Override
   public boolean fileExistInTrash(String path) {
     return findFileFromTrash(path).isPresent();
@@ -151,6 +235,7 @@ class BasicTableTrashManager implements TableTrashManager {
     }
     Iterable<PathInfo> datePaths = fileIO.listDirectory(this.trashLocation);
 
+    List<String> expiredDatePaths = Lists.newArrayList();
     for (FileInfo datePath : datePaths) {
       String dateName = TableFileUtil.getFileName(datePath.location());
       LocalDate localDate;
@@ -161,12 +246,7 @@ class BasicTableTrashManager implements TableTrashManager {
         continue;
       }
       if (localDate.isBefore(expirationDate)) {
-        fileIO.deletePrefix(datePath.location());
-        LOG.info(
-            "{} delete files in trash for date {} success, {}",
-            tableIdentifier,
-            localDate,
-            datePath.location());
+        expiredDatePaths.add(datePath.location());
       } else {
         LOG.info(
             "{} should not delete files in trash for date {},  {}",
@@ -175,6 +255,48 @@ class BasicTableTrashManager implements TableTrashManager {
             datePath.location());
       }
     }
+
+    // delete files of expired dates in parallel batches, then the date directories along with the
+    // files failed to delete
+    for (String datePath : expiredDatePaths) {
+      // files are listed lazily, which should be authenticated
+      fileIO.doAs(
+          () -> {
+            List<String> batch = Lists.newArrayListWithCapacity(CLEAN_BATCH_SIZE);
+            for (FileInfo file : fileIO.listPrefix(datePath)) {
+              batch.add(file.location());
+              if (batch.size() >= CLEAN_BATCH_SIZE) {
+                deleteFilesInTrash(batch);
+                batch.clear();
+              }
+            }
+            deleteFilesInTrash(batch);
+            return null;
+          });
+      fileIO.deletePrefix(datePath);
+      LOG.info("{} delete files in trash success, {}", tableIdentifier, datePath);
+    }
+  }
+
+  private void deleteFilesInTrash(List<String> files) {
+    Tasks.foreach(files)
+        .executeWith(trashWorkerPool())
+        .noRetry()
+        .suppressFailureWhenFinished()
+        .onFailure(
+            (file, e) -> LOG.warn("{} failed to delete file in trash {}", tableIdentifier, file, e))
+        .run(fileIO::deleteFile);
+  }
+
+  private static ExecutorService trashWorkerPool() {
+    if (trashWorkerPool == null) {
+      synchronized (BasicTableTrashManager.class) {
+        if (trashWorkerPool == null) {
+          trashWorkerPool = ThreadPools.newWorkerPool("table-trash-worker", TRASH_WORKER_THREADS);
+        }
+      }
+    }
+    return trashWorkerPool;
   }
 
   private Optional<String> findFileFromTrash(String path) {
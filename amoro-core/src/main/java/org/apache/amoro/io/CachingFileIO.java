@@ -0,0 +1,269 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.io;
+
+import org.apache.iceberg.io.BulkDeletionFailureException;
+import org.apache.iceberg.io.FileInfo;
+import org.apache.iceberg.io.InputFile;
+import org.apache.iceberg.io.OutputFile;
+import org.apache.iceberg.io.SeekableInputStream;
+import org.apache.iceberg.io.SupportsBulkOperations;
+import org.apache.iceberg.io.SupportsPrefixOperations;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * A decorator of {@link AuthenticatedFileIO}, serving reads of immutable metadata files from the
+ * {@link ImmutableFileCache}. All other operations are delegated to the wrapped file io.
+ *
+ * <p>Bulk and prefix operations of the wrapped file io are passed through, as callers like iceberg
+ * check for them by the type of the file io. Files are deleted one by one if the wrapped file io
+ * does not support bulk operations.
+ */
+public class CachingFileIO implements AuthenticatedFileIO, SupportsBulkOperations {
+
+  private final AuthenticatedFileIO io;
+  private final ImmutableFileCache cache;
+
+  private CachingFileIO(AuthenticatedFileIO io, ImmutableFileCache cache) {
+    this.io = io;
+    this.cache = cache;
+  }
+
+  /** Wrap the file io, which implements {@link SupportsPrefixOperations} if the file io does. */
+  public static CachingFileIO wrap(AuthenticatedFileIO io, ImmutableFileCache cache) {
+    return io.supportPrefixOperations()
+        ? new PrefixCachingFileIO(io, cache)
+        : new CachingFileIO(io, cache);
+  }
+
+  @Override
+  public <T> T doAs(Callable<T> callable) {
+    return io.doAs(callable);
+  }
+
+  @Override
+  public boolean exists(String path) {
+    return io.exists(path);
+  }
+
+  @Override
+  public boolean supportPrefixOperations() {
+    return io.supportPrefixOperations();
+  }
+
+  @Override
+  public SupportsPrefixOperations asPrefixFileIO() {
+    return io.asPrefixFileIO();
+  }
+
+  @Override
+  public boolean supportBulkOperations() {
+    return io.supportBulkOperations();
+  }
+
+  @Override
+  public SupportsBulkOperations asBulkFileIO() {
+    return io.asBulkFileIO();
+  }
+
+  @Override
+  public boolean supportFileSystemOperations() {
+    return io.supportFileSystemOperations();
+  }
+
+  @Override
+  public SupportsFileSystemOperations asFileSystemIO() {
+    return io.asFileSystemIO();
+  }
+
+  @Override
+  public boolean supportsFileRecycle() {
+    return io.supportsFileRecycle();
+  }
+
+  @Override
+  public SupportFileRecycleOperations asFileRecycleIO() {
+    return io.asFileRecycleIO();
+  }
+
+  @Override
+  public InputFile newInputFile(String path) {
+    InputFile file = io.newInputFile(path);
+    return ImmutableFileCache.isImmutable(path) ? new CachedInputFile(file) : file;
+  }
+
+  @Override
+  public InputFile newInputFile(String path, long length) {
+    InputFile file = io.newInputFile(path, length);
+    return ImmutableFileCache.isImmutable(path) ? new CachedInputFile(file) : file;
+  }
+
+  @Override
+  public OutputFile newOutputFile(String path) {
+    return io.newOutputFile(path);
+  }
+
+  @Override
+  public void deleteFile(String path) {
+    io.deleteFile(path);
+  }
+
+  @Override
+  public void deleteFile(InputFile file) {
+    if (file instanceof CachedInputFile) {
+      io.deleteFile(((CachedInputFile) file).file);
+    } else {
+      io.deleteFile(file);
+    }
+  }
+
+  @Override
+  public void deleteFile(OutputFile file) {
+    io.deleteFile(file);
+  }
+
+  @Override
+  public void deleteFiles(Iterable<String> pathsToDelete) throws BulkDeletionFailureException {
+    if (io.supportBulkOperations()) {
+      io.asBulkFileIO().deleteFiles(pathsToDelete);
+    } else {
+      pathsToDelete.forEach(io::deleteFile);
+    }
+  }
+
+  @Override
+  public Map<String, String> properties() {
+    return io.properties();
+  }
+
+  @Override
+  public void initialize(Map<String, String> properties) {
+    io.initialize(properties);
+  }
+
+  @Override
+  public void close() {
+    io.close();
+  }
+
+  private static class PrefixCachingFileIO extends CachingFileIO
+      implements SupportsPrefixOperations {
+
+    private PrefixCachingFileIO(AuthenticatedFileIO io, ImmutableFileCache cache) {
+      super(io, cache);
+    }
+
+    @Override
+    public Iterable<FileInfo> listPrefix(String prefix) {
+      return asPrefixFileIO().listPrefix(prefix);
+    }
+
+    @Override
+    public void deletePrefix(String prefix) {
+      asPrefixFileIO().deletePrefix(prefix);
+    }
+  }
+
+  private class CachedInputFile implements InputFile {
+    private final InputFile file;
+
+    private CachedInputFile(InputFile file) {
+      this.file = file;
+    }
+
+    @Override
+    public long getLength() {
+      long length = cache.cachedLength(file.location());
+      return length >= 0 ? length : file.getLength();
+    }
+
+    @Override
+    public SeekableInputStream newStream() {
+      byte[] content = cache.content(file);
+      return content == null ? file.newStream() : new ByteArraySeekableInputStream(content);
+    }
+
+    @Override
+    public String location() {
+      return file.location();
+    }
+
+    @Override
+    public boolean exists() {
+      return file.exists();
+    }
+  }
+
+  private static class ByteArraySeekableInputStream extends SeekableInputStream {
+    private final byte[] content;
+    private int pos = 0;
+
+    private ByteArraySeekableInputStream(byte[] content) {
+      this.content = content;
+    }
+
+    @Override
+    public long getPos() {
+      return pos;
+    }
+
+    @Override
+    public void seek(long newPos) throws IOException {
+      if (newPos < 0 || newPos > content.length) {
+        throw new EOFException("Cannot seek to position " + newPos + " of " + content.length);
+      }
+      this.pos = (int) newPos;
+    }
+
+    @Override
+    public int read() {
+      return pos < content.length ? content[pos++] & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int off, int len) {
+      if (len == 0) {
+        return 0;
+      }
+      if (pos >= content.length) {
+        return -1;
+      }
+      int read = Math.min(len, content.length - pos);
+      System.arraycopy(content, pos, bytes, off, read);
+      pos += read;
+      return read;
+    }
+
+    @Override
+    public long skip(long n) {
+      long skipped = Math.max(0, Math.min(n, content.length - pos));
+      pos += (int) skipped;
+      return skipped;
+    }
+
+    @Override
+    public int available() {
+      return content.length - pos;
+    }
+  }
+}
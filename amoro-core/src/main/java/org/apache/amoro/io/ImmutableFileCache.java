@@ -0,0 +1,322 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.io;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.apache.amoro.shade.guava32.com.google.common.annotations.VisibleForTesting;
+import org.apache.iceberg.io.InputFile;
+import org.apache.iceberg.io.SeekableInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Process-wide cache of the content of files which are immutable by construction, sharing in jvm.
+ *
+ * <p>Manifests, manifest lists and Puffin statistics files are never rewritten once committed, but
+ * are read again and again by evaluating, planning, expiring and the dashboard. The content is
+ * cached by the file path in an on-heap tier bounded by bytes, and optionally in a local-disk tier
+ * bounded by bytes, which still serves files evicted from the on-heap tier.
+ *
+ * <p>The cache is disabled until {@link #initialize(long, long, String, long)} is called with a
+ * positive size, AMS enables it from its configurations.
+ */
+public class ImmutableFileCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ImmutableFileCache.class);
+
+  private static final String METADATA_DIRECTORY = "metadata";
+  private static final String DISK_CACHE_DIRECTORY = "amoro-immutable-file-cache";
+
+  private static volatile ImmutableFileCache instance;
+
+  private final long maxFileSizeInBytes;
+  private final Cache<String, byte[]> memoryCache;
+  private final Path diskDirectory;
+  private final Cache<String, File> diskCache;
+
+  private final LongAdder memoryHits = new LongAdder();
+  private final LongAdder diskHits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder hitBytes = new LongAdder();
+  private final LongAdder missBytes = new LongAdder();
+
+  private ImmutableFileCache(
+      long maxMemorySizeInBytes,
+      long maxFileSizeInBytes,
+      Path diskDirectory,
+      long maxDiskSizeInBytes) {
+    this.maxFileSizeInBytes = maxFileSizeInBytes;
+    this.memoryCache =
+        Caffeine.newBuilder()
+            .maximumWeight(maxMemorySizeInBytes)
+            .weigher((String path, byte[] content) -> content.length)
+            .build();
+    this.diskDirectory = diskDirectory;
+    this.diskCache =
+        diskDirectory == null
+            ? null
+            : Caffeine.newBuilder()
+                .maximumWeight(maxDiskSizeInBytes)
+                .weigher(
+                    (String path, File file) -> (int) Math.min(Integer.MAX_VALUE, file.length()))
+                .removalListener(
+                    (String path, File file, RemovalCause cause) -> {
+                      if (file != null && !file.delete() && file.exists()) {
+                        LOG.warn("Failed to delete cached file {}", file);
+                      }
+                    })
+                .build();
+  }
+
+  /**
+   * Enable the cache, only the first call with a positive memory size takes effect.
+   *
+   * @param maxMemorySizeInBytes the max size of the on-heap tier, not positive to keep the cache
+   *     disabled
+   * @param maxFileSizeInBytes files larger than it are never cached
+   * @param diskDirectory directory of the local-disk tier, null or empty to disable the tier
+   * @param maxDiskSizeInBytes the max size of the local-disk tier, not positive to disable the tier
+   */
+  public static void initialize(
+      long maxMemorySizeInBytes,
+      long maxFileSizeInBytes,
+      String diskDirectory,
+      long maxDiskSizeInBytes) {
+    if (maxMemorySizeInBytes <= 0 || instance != null) {
+      return;
+    }
+    synchronized (ImmutableFileCache.class) {
+      if (instance == null) {
+        Path diskCacheDirectory = null;
+        if (diskDirectory != null && !diskDirectory.isEmpty() && maxDiskSizeInBytes > 0) {
+          diskCacheDirectory = prepareDiskDirectory(diskDirectory);
+        }
+        instance =
+            new ImmutableFileCache(
+                maxMemorySizeInBytes, maxFileSizeInBytes, diskCacheDirectory, maxDiskSizeInBytes);
+        LOG.info(
+            "Initialized immutable file cache with max memory size {} bytes, disk directory {}",
+            maxMemorySizeInBytes,
+            diskCacheDirectory);
+      }
+    }
+  }
+
+  /** Returns the cache sharing in jvm, or null if it is not enabled. */
+  public static ImmutableFileCache get() {
+    return instance;
+  }
+
+  @VisibleForTesting
+  static void reset() {
+    synchronized (ImmutableFileCache.class) {
+      if (instance != null) {
+        instance.invalidateAll();
+      }
+      instance = null;
+    }
+  }
+
+  /**
+   * Returns true if the file is immutable by construction, i.e. an avro manifest or manifest list,
+   * or a Puffin statistics file, under the metadata directory of a table.
+   */
+  public static boolean isImmutable(String path) {
+    if (path == null) {
+      return false;
+    }
+    int nameIndex = path.lastIndexOf('/');
+    if (nameIndex <= 0) {
+      return false;
+    }
+    int parentIndex = path.lastIndexOf('/', nameIndex - 1);
+    if (!METADATA_DIRECTORY.equals(path.substring(parentIndex + 1, nameIndex))) {
+      return false;
+    }
+    String name = path.substring(nameIndex + 1);
+    return name.endsWith(".avro") || name.endsWith(".stats") || name.endsWith(".puffin");
+  }
+
+  /**
+   * Returns the content of the file from the cache, read it if absent.
+   *
+   * @param file the immutable file
+   * @return the content, or null if the file is too large to be cached
+   */
+  byte[] content(InputFile file) {
+    String path = file.location();
+    byte[] content = memoryCache.getIfPresent(path);
+    if (content != null) {
+      memoryHits.increment();
+      hitBytes.add(content.length);
+      return content;
+    }
+    return memoryCache.get(path, p -> load(file));
+  }
+
+  /** Returns the length of the file if it is cached in the on-heap tier, or -1. */
+  long cachedLength(String path) {
+    byte[] content = memoryCache.getIfPresent(path);
+    return content == null ? -1 : content.length;
+  }
+
+  private byte[] load(InputFile file) {
+    String path = file.location();
+    byte[] content = loadFromDisk(path);
+    if (content != null) {
+      diskHits.increment();
+      hitBytes.add(content.length);
+      return content;
+    }
+
+    long length = file.getLength();
+    if (length > maxFileSizeInBytes || length > Integer.MAX_VALUE) {
+      return null;
+    }
+    content = new byte[(int) length];
+    try (SeekableInputStream stream = file.newStream()) {
+      new DataInputStream(stream).readFully(content);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read file: " + path, e);
+    }
+    misses.increment();
+    missBytes.add(content.length);
+    saveToDisk(path, content);
+    return content;
+  }
+
+  private byte[] loadFromDisk(String path) {
+    if (diskCache == null) {
+      return null;
+    }
+    File file = diskCache.getIfPresent(path);
+    if (file == null) {
+      return null;
+    }
+    try {
+      return Files.readAllBytes(file.toPath());
+    } catch (IOException e) {
+      LOG.warn("Failed to read cached file {} of {}", file, path, e);
+      diskCache.invalidate(path);
+      return null;
+    }
+  }
+
+  private void saveToDisk(String path, byte[] content) {
+    if (diskCache == null) {
+      return;
+    }
+    Path target = diskDirectory.resolve(UUID.randomUUID().toString());
+    Path temp = diskDirectory.resolve(target.getFileName() + ".tmp");
+    try {
+      Files.write(temp, content);
+      Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+      diskCache.put(path, target.toFile());
+    } catch (IOException e) {
+      LOG.warn("Failed to cache file {} to local disk", path, e);
+      temp.toFile().delete();
+    }
+  }
+
+  private static Path prepareDiskDirectory(String diskDirectory) {
+    Path directory = Paths.get(diskDirectory, DISK_CACHE_DIRECTORY);
+    try {
+      if (Files.exists(directory)) {
+        // files cached by previous processes are not tracked anymore
+        try (Stream<Path> files = Files.list(directory)) {
+          files.forEach(file -> file.toFile().delete());
+        }
+      }
+      return Files.createDirectories(directory);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to prepare cache directory: " + directory, e);
+    }
+  }
+
+  /** Returns the number of reads served by the on-heap tier. */
+  public long memoryHitCount() {
+    return memoryHits.sum();
+  }
+
+  /** Returns the number of reads served by the local-disk tier. */
+  public long diskHitCount() {
+    return diskHits.sum();
+  }
+
+  /** Returns the number of reads served by the underlying file system. */
+  public long missCount() {
+    return misses.sum();
+  }
+
+  /** Returns the ratio of reads served by the cache, or 0 if there are no reads. */
+  public double hitRate() {
+    long hits = memoryHitCount() + diskHitCount();
+    long total = hits + missCount();
+    return total == 0 ? 0D : (double) hits / total;
+  }
+
+  /** Returns the bytes served by the cache. */
+  public long hitBytes() {
+    return hitBytes.sum();
+  }
+
+  /** Returns the bytes read from the underlying file system. */
+  public long missBytes() {
+    return missBytes.sum();
+  }
+
+  public long memorySizeInBytes() {
+    return weightedSize(memoryCache);
+  }
+
+  public long diskSizeInBytes() {
+    return diskCache == null ? 0L : weightedSize(diskCache);
+  }
+
+  public void invalidateAll() {
+    memoryCache.invalidateAll();
+    if (diskCache != null) {
+      diskCache.invalidateAll();
+    }
+  }
+
+  @VisibleForTesting
+  void invalidateMemory() {
+    memoryCache.invalidateAll();
+  }
+
+  private static long weightedSize(Cache<?, ?> cache) {
+    cache.cleanUp();
+    return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L);
+  }
+}
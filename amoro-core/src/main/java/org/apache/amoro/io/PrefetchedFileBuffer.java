@@ -0,0 +1,279 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.io;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.apache.amoro.shade.guava32.com.google.common.annotations.VisibleForTesting;
+import org.apache.iceberg.io.InputFile;
+import org.apache.iceberg.io.SeekableInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Process-wide buffer of input files prefetched for optimizing tasks which are going to be
+ * executed, sharing in jvm.
+ *
+ * <p>A file is prefetched entirely, or only the tail of it, which contains the footer of columnar
+ * formats, so that readers of the task do not wait on the first round trips to the file system.
+ * The buffer is bounded by bytes, and the prefetched range of a file is at most a quarter of the
+ * buffer.
+ *
+ * <p>The buffer is disabled until {@link #initialize(long)} is called with a positive size,
+ * optimizers enable it in the pipelined execution mode.
+ */
+public class PrefetchedFileBuffer {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PrefetchedFileBuffer.class);
+
+  private static volatile PrefetchedFileBuffer instance;
+
+  private final long maxFileSizeInBytes;
+  private final Cache<String, PrefetchedFile> files;
+
+  private PrefetchedFileBuffer(long maxSizeInBytes) {
+    this.maxFileSizeInBytes = Math.min(maxSizeInBytes / 4, Integer.MAX_VALUE);
+    this.files =
+        Caffeine.newBuilder()
+            .maximumWeight(maxSizeInBytes)
+            .weigher((String path, PrefetchedFile file) -> file.content.length)
+            .build();
+  }
+
+  /**
+   * Enable the buffer, only the first call with a positive size takes effect.
+   *
+   * @param maxSizeInBytes the max size of the buffer, not positive to keep the buffer disabled
+   */
+  public static void initialize(long maxSizeInBytes) {
+    if (maxSizeInBytes <= 0 || instance != null) {
+      return;
+    }
+    synchronized (PrefetchedFileBuffer.class) {
+      if (instance == null) {
+        instance = new PrefetchedFileBuffer(maxSizeInBytes);
+        LOG.info("Initialized prefetched file buffer with max size {} bytes", maxSizeInBytes);
+      }
+    }
+  }
+
+  /** Returns the buffer sharing in jvm, or null if it is not enabled. */
+  public static PrefetchedFileBuffer get() {
+    return instance;
+  }
+
+  @VisibleForTesting
+  static void reset() {
+    synchronized (PrefetchedFileBuffer.class) {
+      if (instance != null) {
+        instance.files.invalidateAll();
+      }
+      instance = null;
+    }
+  }
+
+  /**
+   * Prefetch the tail of the file into the buffer, it does nothing if the file is prefetched.
+   *
+   * @param io file io to read the file
+   * @param path path of the file
+   * @param length length of the file
+   * @param tailLength length of the tail to prefetch, the whole file is prefetched if it is not
+   *     shorter than the file
+   */
+  public void prefetch(AuthenticatedFileIO io, String path, long length, long tailLength) {
+    if (files.getIfPresent(path) != null) {
+      return;
+    }
+    long offset = Math.max(length - Math.min(tailLength, maxFileSizeInBytes), 0);
+    byte[] content = new byte[(int) (length - offset)];
+    io.doAs(
+        () -> {
+          try (SeekableInputStream stream = io.newInputFile(path, length).newStream()) {
+            stream.seek(offset);
+            new DataInputStream(stream).readFully(content);
+          } catch (IOException e) {
+            throw new UncheckedIOException("Failed to prefetch file: " + path, e);
+          }
+          return null;
+        });
+    files.put(path, new PrefetchedFile(length, offset, content));
+  }
+
+  /** Returns true if the file or the tail of it is prefetched. */
+  public boolean isPrefetched(String path) {
+    return files.getIfPresent(path) != null;
+  }
+
+  public long sizeInBytes() {
+    return files.asMap().values().stream().mapToLong(file -> file.content.length).sum();
+  }
+
+  /** A file prefetched from the offset to the end. */
+  private static class PrefetchedFile {
+    private final long length;
+    private final long offset;
+    private final byte[] content;
+
+    private PrefetchedFile(long length, long offset, byte[] content) {
+      this.length = length;
+      this.offset = offset;
+      this.content = content;
+    }
+  }
+
+  /** Returns the input file which serves reads of the prefetched range from the buffer. */
+  InputFile wrap(InputFile file) {
+    PrefetchedFile prefetched = files.getIfPresent(file.location());
+    return prefetched == null ? file : new PrefetchedInputFile(file, prefetched);
+  }
+
+  private static class PrefetchedInputFile implements InputFile {
+    private final InputFile file;
+    private final PrefetchedFile prefetched;
+
+    private PrefetchedInputFile(InputFile file, PrefetchedFile prefetched) {
+      this.file = file;
+      this.prefetched = prefetched;
+    }
+
+    @Override
+    public long getLength() {
+      return prefetched.length;
+    }
+
+    @Override
+    public SeekableInputStream newStream() {
+      return new PrefetchedInputStream(file, prefetched);
+    }
+
+    @Override
+    public String location() {
+      return file.location();
+    }
+
+    @Override
+    public boolean exists() {
+      return true;
+    }
+  }
+
+  /**
+   * A stream serving the prefetched range from the buffer, and opening the file lazily to read the
+   * range before it.
+   */
+  private static class PrefetchedInputStream extends SeekableInputStream {
+    private final InputFile file;
+    private final PrefetchedFile prefetched;
+    private SeekableInputStream stream;
+    private long pos = 0;
+
+    private PrefetchedInputStream(InputFile file, PrefetchedFile prefetched) {
+      this.file = file;
+      this.prefetched = prefetched;
+    }
+
+    @Override
+    public long getPos() {
+      return pos;
+    }
+
+    @Override
+    public void seek(long newPos) throws IOException {
+      if (newPos < 0 || newPos > prefetched.length) {
+        throw new IOException("Cannot seek to position " + newPos + " of " + prefetched.length);
+      }
+      this.pos = newPos;
+    }
+
+    @Override
+    public int read() throws IOException {
+      if (pos >= prefetched.length) {
+        return -1;
+      }
+      if (pos >= prefetched.offset) {
+        return prefetched.content[(int) (pos++ - prefetched.offset)] & 0xFF;
+      }
+      int read = fileStream().read();
+      if (read >= 0) {
+        pos++;
+      }
+      return read;
+    }
+
+    @Override
+    public int read(byte[] bytes, int off, int len) throws IOException {
+      if (len == 0) {
+        return 0;
+      }
+      if (pos >= prefetched.length) {
+        return -1;
+      }
+      int read;
+      if (pos >= prefetched.offset) {
+        read = (int) Math.min(len, prefetched.length - pos);
+        System.arraycopy(prefetched.content, (int) (pos - prefetched.offset), bytes, off, read);
+      } else {
+        // do not read across the prefetched range
+        read = fileStream().read(bytes, off, (int) Math.min(len, prefetched.offset - pos));
+        if (read < 0) {
+          return read;
+        }
+      }
+      pos += read;
+      return read;
+    }
+
+    @Override
+    public long skip(long n) {
+      long skipped = Math.max(0, Math.min(n, prefetched.length - pos));
+      pos += skipped;
+      return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+      if (pos >= prefetched.offset) {
+        return (int) (prefetched.length - pos);
+      }
+      return stream == null ? 0 : stream.available();
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (stream != null) {
+        stream.close();
+      }
+    }
+
+    private SeekableInputStream fileStream() throws IOException {
+      if (stream == null) {
+        stream = file.newStream();
+      }
+      if (stream.getPos() != pos) {
+        stream.seek(pos);
+      }
+      return stream;
+    }
+  }
+}
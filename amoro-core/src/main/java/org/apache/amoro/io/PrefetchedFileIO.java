@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.io;
+
+import org.apache.iceberg.io.InputFile;
+import org.apache.iceberg.io.OutputFile;
+import org.apache.iceberg.io.SupportsBulkOperations;
+import org.apache.iceberg.io.SupportsPrefixOperations;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * A decorator of {@link AuthenticatedFileIO}, serving reads of the files prefetched for optimizing
+ * tasks from the {@link PrefetchedFileBuffer}. All other operations are delegated to the wrapped
+ * file io.
+ */
+public class PrefetchedFileIO implements AuthenticatedFileIO {
+
+  private final AuthenticatedFileIO io;
+  private final PrefetchedFileBuffer buffer;
+
+  public PrefetchedFileIO(AuthenticatedFileIO io, PrefetchedFileBuffer buffer) {
+    this.io = io;
+    this.buffer = buffer;
+  }
+
+  @Override
+  public <T> T doAs(Callable<T> callable) {
+    return io.doAs(callable);
+  }
+
+  @Override
+  public boolean exists(String path) {
+    return io.exists(path);
+  }
+
+  @Override
+  public boolean supportPrefixOperations() {
+    return io.supportPrefixOperations();
+  }
+
+  @Override
+  public SupportsPrefixOperations asPrefixFileIO() {
+    return io.asPrefixFileIO();
+  }
+
+  @Override
+  public boolean supportBulkOperations() {
+    return io.supportBulkOperations();
+  }
+
+  @Override
+  public SupportsBulkOperations asBulkFileIO() {
+    return io.asBulkFileIO();
+  }
+
+  @Override
+  public boolean supportFileSystemOperations() {
+    return io.supportFileSystemOperations();
+  }
+
+  @Override
+  public SupportsFileSystemOperations asFileSystemIO() {
+    return io.asFileSystemIO();
+  }
+
+  @Override
+  public boolean supportsFileRecycle() {
+    return io.supportsFileRecycle();
+  }
+
+  @Override
+  public SupportFileRecycleOperations asFileRecycleIO() {
+    return io.asFileRecycleIO();
+  }
+
+  @Override
+  public InputFile newInputFile(String path) {
+    return buffer.wrap(io.newInputFile(path));
+  }
+
+  @Override
+  public InputFile newInputFile(String path, long length) {
+    return buffer.wrap(io.newInputFile(path, length));
+  }
+
+  @Override
+  public OutputFile newOutputFile(String path) {
+    return io.newOutputFile(path);
+  }
+
+  @Override
+  public void deleteFile(String path) {
+    io.deleteFile(path);
+  }
+
+  @Override
+  public void deleteFile(InputFile file) {
+    io.deleteFile(file.location());
+  }
+
+  @Override
+  public void deleteFile(OutputFile file) {
+    io.deleteFile(file);
+  }
+
+  @Override
+  public Map<String, String> properties() {
+    return io.properties();
+  }
+
+  @Override
+  public void initialize(Map<String, String> properties) {
+    io.initialize(properties);
+  }
+
+  @Override
+  public void close() {
+    io.close();
+  }
+}
@@ -20,7 +20,9 @@ package org.apache.amoro.io;
 
 import org.apache.amoro.shade.guava32.com.google.common.annotations.VisibleForTesting;
 import org.apache.amoro.shade.guava32.com.google.common.base.Strings;
+import org.apache.amoro.shade.guava32.com.google.common.collect.Lists;
 import org.apache.amoro.table.TableMetaStore;
+import org.apache.iceberg.io.BulkDeletionFailureException;
 import org.apache.iceberg.io.InputFile;
 import org.apache.iceberg.io.OutputFile;
 import org.slf4j.Logger;
@@ -28,6 +30,7 @@ import org.slf4j.LoggerFactory;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.regex.Pattern;
 
 /** Implementation of {@link AuthenticatedFileIO} with deleted files recovery support. */
@@ -78,6 +81,43 @@ public class RecoverableHadoopFileIO extends AuthenticatedHadoopFileIO
     }
   }
 
+  /**
+   * Delete files in a batch, files matching the trash file pattern are moved to trash together by
+   * {@link TableTrashManager#moveFilesToTrash(Iterable)}.
+   */
+  @Override
+  public void deleteFiles(Iterable<String> pathsToDelete) throws BulkDeletionFailureException {
+    List<String> filesToTrash = Lists.newArrayList();
+    List<String> filesToDelete = Lists.newArrayList();
+    for (String path : pathsToDelete) {
+      if (matchTrashFilePattern(path)) {
+        filesToTrash.add(path);
+      } else {
+        filesToDelete.add(path);
+      }
+    }
+
+    int failedFileCnt = 0;
+    if (!filesToDelete.isEmpty()) {
+      try {
+        super.deleteFiles(filesToDelete);
+      } catch (BulkDeletionFailureException e) {
+        failedFileCnt += e.numberFailedObjects();
+      }
+    }
+    if (!filesToTrash.isEmpty()) {
+      try {
+        trashManager.moveFilesToTrash(filesToTrash);
+        LOG.debug("Move {} files to table trash", filesToTrash.size());
+      } catch (BulkDeletionFailureException e) {
+        failedFileCnt += e.numberFailedObjects();
+      }
+    }
+    if (failedFileCnt > 0) {
+      throw new BulkDeletionFailureException(failedFileCnt);
+    }
+  }
+
   @VisibleForTesting
   protected boolean matchTrashFilePattern(String path) {
     return pattern.matcher(path).matches();
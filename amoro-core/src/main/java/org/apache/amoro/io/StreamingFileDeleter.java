@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.io;
+
+import org.apache.amoro.shade.guava32.com.google.common.base.Preconditions;
+import org.apache.amoro.shade.guava32.com.google.common.collect.Sets;
+import org.apache.amoro.utils.TableFileUtil;
+import org.apache.hadoop.fs.Path;
+import org.apache.iceberg.util.Tasks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+
+/**
+ * Deleter of files which are streamed in, like the expired files of snapshot expiration.
+ *
+ * <p>Files are deleted in batches of bounded size as soon as a batch is full, by bulk deletion if
+ * supported, so that the files to delete are never held in memory all together. Only the distinct
+ * parent directories are kept, and the empty ones are deleted in parallel by {@link #finish()}.
+ */
+public class StreamingFileDeleter implements Consumer<String> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(StreamingFileDeleter.class);
+
+  public static final int DEFAULT_BATCH_SIZE = 1000;
+
+  private final AuthenticatedFileIO io;
+  private final Set<String> excludedPaths;
+  private final int batchSize;
+  private final ExecutorService workPool;
+
+  private final Set<String> batch = Sets.newHashSet();
+  private final Set<String> parentDirectories = Sets.newHashSet();
+  private int collectedFileCount = 0;
+  private int deletedFileCount = 0;
+  private boolean finished = false;
+
+  /**
+   * @param io mixed-format file io
+   * @param excludedPaths uri paths of files or parent directories which should not be deleted
+   * @param batchSize max count of files deleted in a batch
+   * @param workPool executor pool to delete files and directories in parallel
+   */
+  public StreamingFileDeleter(
+      AuthenticatedFileIO io, Set<String> excludedPaths, int batchSize, ExecutorService workPool) {
+    Preconditions.checkArgument(batchSize > 0, "Batch size must be positive: %s", batchSize);
+    this.io = io;
+    this.excludedPaths = excludedPaths;
+    this.batchSize = batchSize;
+    this.workPool = workPool;
+  }
+
+  /** Collect a file to delete, the current batch is deleted if it is full. */
+  @Override
+  public synchronized void accept(String file) {
+    Preconditions.checkState(!finished, "File deleter is already finished");
+    collectedFileCount++;
+    parentDirectories.add(new Path(file).getParent().toString());
+    if (isExcluded(file)) {
+      return;
+    }
+    batch.add(file);
+    if (batch.size() >= batchSize) {
+      deleteBatch();
+    }
+  }
+
+  /** Delete the remaining files, and then the parent directories which become empty. */
+  public synchronized void finish() {
+    if (finished) {
+      return;
+    }
+    finished = true;
+    deleteBatch();
+    if (io.supportFileSystemOperations()) {
+      deleteEmptyDirectories();
+    }
+    parentDirectories.clear();
+  }
+
+  /** Count of files collected, including the excluded ones. */
+  public synchronized int collectedFileCount() {
+    return collectedFileCount;
+  }
+
+  public synchronized int deletedFileCount() {
+    return deletedFileCount;
+  }
+
+  private void deleteBatch() {
+    if (!batch.isEmpty()) {
+      deletedFileCount += TableFileUtil.parallelDeleteFiles(io, batch, workPool);
+      batch.clear();
+    }
+  }
+
+  /**
+   * Empty directories are deleted level by level, directories of a level are deleted in parallel,
+   * and parents of the deleted ones are checked in the next level.
+   */
+  private void deleteEmptyDirectories() {
+    Set<String> directories = parentDirectories;
+    while (!directories.isEmpty()) {
+      Set<String> parents = Sets.newConcurrentHashSet();
+      Tasks.foreach(directories)
+          .executeWith(workPool)
+          .noRetry()
+          .suppressFailureWhenFinished()
+          .onFailure(
+              // Ignore exceptions to remove as many directories as possible
+              (directory, e) -> LOG.warn("Fail to delete empty directory {}", directory, e))
+          .run(
+              directory -> {
+                if (deleteIfEmpty(directory)) {
+                  parents.add(new Path(directory).getParent().toString());
+                }
+              });
+      directories = parents;
+    }
+  }
+
+  private boolean deleteIfEmpty(String directory) {
+    if (!io.exists(directory)) {
+      LOG.debug("The target directory {} does not exist or has been deleted", directory);
+      return false;
+    }
+    String parent = new Path(directory).getParent().toString();
+    if (!io.asFileSystemIO().isDirectory(directory)
+        || excludedPaths.contains(directory)
+        || excludedPaths.contains(parent)
+        || !io.asFileSystemIO().isEmptyDirectory(directory)) {
+      return false;
+    }
+    io.asFileSystemIO().deletePrefix(directory);
+    LOG.debug("success delete empty directory {}", directory);
+    return true;
+  }
+
+  private boolean isExcluded(String file) {
+    if (excludedPaths.isEmpty()) {
+      return false;
+    }
+    String fileUriPath = TableFileUtil.getUriPath(file);
+    return excludedPaths.contains(fileUriPath)
+        || excludedPaths.contains(new Path(fileUriPath).getParent().toString());
+  }
+}
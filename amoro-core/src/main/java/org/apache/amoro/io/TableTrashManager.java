@@ -19,6 +19,7 @@
 package org.apache.amoro.io;
 
 import org.apache.amoro.table.TableIdentifier;
+import org.apache.iceberg.io.BulkDeletionFailureException;
 
 import java.io.Serializable;
 import java.time.LocalDate;
@@ -41,6 +42,26 @@ public interface TableTrashManager extends Serializable {
    */
   void moveFileToTrash(String path);
 
+  /**
+   * Move files to trash in a batch, not support directory.
+   *
+   * @param paths the file paths
+   * @throws BulkDeletionFailureException - if failed to move some of the files to trash
+   */
+  default void moveFilesToTrash(Iterable<String> paths) {
+    int failed = 0;
+    for (String path : paths) {
+      try {
+        moveFileToTrash(path);
+      } catch (RuntimeException e) {
+        failed++;
+      }
+    }
+    if (failed > 0) {
+      throw new BulkDeletionFailureException(failed);
+    }
+  }
+
   /**
    * If a file exist in trash, not support directory.
    *
@@ -0,0 +1,272 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.io.reader;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.apache.amoro.shade.guava32.com.google.common.base.MoreObjects;
+import org.apache.amoro.shade.guava32.com.google.common.base.Preconditions;
+import org.apache.amoro.shade.guava32.com.google.common.collect.Lists;
+import org.apache.amoro.utils.map.SizeEstimator;
+import org.apache.amoro.utils.map.StructLikeWrapperSizeEstimator;
+import org.apache.iceberg.data.Record;
+import org.apache.iceberg.io.CloseableIterator;
+import org.apache.iceberg.types.Types;
+import org.apache.iceberg.util.StructLikeWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide, memory-bounded cache of decoded delete files, sharing in jvm.
+ *
+ * <p>Change-store equality delete files and position delete files of a keyed table are usually
+ * referenced by many {@link org.apache.amoro.scan.NodeFileScanTask}s of the same partition. Without
+ * the cache every {@link MixedDeleteFilter} reads and decodes them again. Entries are keyed by the
+ * delete file path and size, and weighted by the estimated heap size of the decoded content,
+ * including variable-length values of equality delete records.
+ *
+ * <p>An equality delete file decoded larger than a quarter of the cache is not cached, so that it
+ * is read by each filter into its own delete index, which spills to disk when it is too large.
+ *
+ * <p>The cache is disabled until {@link #initialize(long)} is called with a positive size, engines
+ * enable it from their own configurations.
+ */
+public class DeleteIndexCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(DeleteIndexCache.class);
+
+  /** Estimated heap size of a boxed position in a {@link java.util.HashSet}. */
+  private static final long POSITION_SIZE = 48L;
+
+  /** Estimated heap size of an equality delete record excluding its field values. */
+  private static final long RECORD_OVERHEAD_SIZE = 64L;
+
+  /** Estimated heap size of a field reference of an equality delete record. */
+  private static final long FIELD_SIZE = 8L;
+
+  private static final long ENTRY_OVERHEAD_SIZE = 128L;
+
+  /** Equality delete files decoded larger than this fraction of the cache are not cached. */
+  private static final int MAX_ENTRY_FRACTION = 4;
+
+  private static final SizeEstimator<StructLikeWrapper> VALUE_SIZE_ESTIMATOR =
+      new StructLikeWrapperSizeEstimator();
+
+  private static volatile DeleteIndexCache instance;
+
+  private final Cache<Key, Entry> cache;
+  private final long maxSizeInBytes;
+  private final long maxEntrySizeInBytes;
+
+  private DeleteIndexCache(long maxSizeInBytes) {
+    this.maxSizeInBytes = maxSizeInBytes;
+    this.maxEntrySizeInBytes = maxSizeInBytes / MAX_ENTRY_FRACTION;
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumWeight(maxSizeInBytes)
+            .weigher((Key key, Entry entry) -> (int) Math.min(Integer.MAX_VALUE, entry.sizeInBytes))
+            .recordStats()
+            .build();
+  }
+
+  /**
+   * Enable the cache with the given max size in bytes, only the first call with a positive size
+   * takes effect.
+   *
+   * @param maxSizeInBytes the max estimated heap size of all cached delete files, not positive to
+   *     keep the cache disabled
+   */
+  public static void initialize(long maxSizeInBytes) {
+    if (maxSizeInBytes <= 0 || instance != null) {
+      return;
+    }
+    synchronized (DeleteIndexCache.class) {
+      if (instance == null) {
+        instance = new DeleteIndexCache(maxSizeInBytes);
+        LOG.info("Initialized delete index cache with max size {} bytes", maxSizeInBytes);
+      }
+    }
+  }
+
+  /** Returns the cache sharing in jvm, or null if it is not enabled. */
+  public static DeleteIndexCache get() {
+    return instance;
+  }
+
+  /**
+   * Get the decoded positions of a position delete file, grouped by data file path.
+   *
+   * @param path path of the delete file
+   * @param fileSizeInBytes size of the delete file
+   * @param loader to read the delete file when it is not cached
+   */
+  public Map<String, Set<Long>> positionDeletes(
+      String path, long fileSizeInBytes, Supplier<Map<String, Set<Long>>> loader) {
+    Entry entry =
+        cache.get(
+            new Key(path, fileSizeInBytes, null),
+            key -> {
+              Map<String, Set<Long>> positions = loader.get();
+              long size = ENTRY_OVERHEAD_SIZE;
+              for (Map.Entry<String, Set<Long>> filePositions : positions.entrySet()) {
+                size += ENTRY_OVERHEAD_SIZE + 2L * filePositions.getKey().length();
+                size += positionsSizeInBytes(filePositions.getValue().size());
+              }
+              return new Entry(Collections.unmodifiableMap(positions), size);
+            });
+    return entry.value();
+  }
+
+  /**
+   * Get the decoded records of an equality delete file. Records are shared by all readers and must
+   * not be modified.
+   *
+   * @param path path of the delete file
+   * @param fileSizeInBytes size of the delete file
+   * @param deleteSchema schema the records are projected to
+   * @param loader to open the records of the delete file when it is not cached, the records must be
+   *     copied
+   * @return the decoded records, or null if the delete file is too large to cache
+   */
+  public List<Record> equalityDeletes(
+      String path,
+      long fileSizeInBytes,
+      Types.StructType deleteSchema,
+      Supplier<CloseableIterator<Record>> loader) {
+    Entry entry =
+        cache.get(
+            new Key(path, fileSizeInBytes, deleteSchema),
+            key -> loadEqualityDeletes(key, deleteSchema, loader.get()));
+    return entry == null ? null : entry.value();
+  }
+
+  private Entry loadEqualityDeletes(
+      Key key, Types.StructType deleteSchema, CloseableIterator<Record> deletes) {
+    StructLikeWrapper wrapper = StructLikeWrapper.forType(deleteSchema);
+    List<Record> records = Lists.newArrayList();
+    long size = ENTRY_OVERHEAD_SIZE;
+    try (CloseableIterator<Record> closeable = deletes) {
+      while (closeable.hasNext()) {
+        Record record = closeable.next();
+        size += recordSizeInBytes(wrapper.set(record));
+        if (size > maxEntrySizeInBytes) {
+          LOG.info("Skip caching {} decoded larger than {} bytes", key, maxEntrySizeInBytes);
+          return null;
+        }
+        records.add(record);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return new Entry(Collections.unmodifiableList(records), size);
+  }
+
+  /** Returns the estimated heap size of positions held in {@link java.util.HashSet}s. */
+  static long positionsSizeInBytes(long positions) {
+    return POSITION_SIZE * positions;
+  }
+
+  /** Returns the estimated heap size of a record, including its variable-length values. */
+  static long recordSizeInBytes(StructLikeWrapper record) {
+    return RECORD_OVERHEAD_SIZE
+        + FIELD_SIZE * record.get().size()
+        + VALUE_SIZE_ESTIMATOR.sizeEstimate(record);
+  }
+
+  public long maxSizeInBytes() {
+    return maxSizeInBytes;
+  }
+
+  public long estimatedSizeInBytes() {
+    return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L);
+  }
+
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  private static class Key {
+    private final String path;
+    private final long fileSizeInBytes;
+    private final Types.StructType deleteSchema;
+
+    Key(String path, long fileSizeInBytes, Types.StructType deleteSchema) {
+      Preconditions.checkNotNull(path, "path must not be null");
+      this.path = path;
+      this.fileSizeInBytes = fileSizeInBytes;
+      this.deleteSchema = deleteSchema;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return fileSizeInBytes == key.fileSizeInBytes
+          && path.equals(key.path)
+          && Objects.equals(deleteSchema, key.deleteSchema);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(path, fileSizeInBytes, deleteSchema);
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("path", path)
+          .add("fileSizeInBytes", fileSizeInBytes)
+          .toString();
+    }
+  }
+
+  private static class Entry {
+    private final Object value;
+    private final long sizeInBytes;
+
+    Entry(Object value, long sizeInBytes) {
+      this.value = value;
+      this.sizeInBytes = sizeInBytes;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T value() {
+      return (T) value;
+    }
+  }
+}
@@ -54,9 +54,11 @@ import org.apache.iceberg.parquet.Parquet;
 import org.apache.iceberg.types.TypeUtil;
 import org.apache.iceberg.types.Types;
 import org.apache.iceberg.util.Filter;
+import org.apache.iceberg.util.StructLikeWrapper;
 import org.apache.iceberg.util.StructProjection;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -106,6 +108,7 @@ public abstract class MixedDeleteFilter<T> {
 
   private String currentDataPath;
   private Set<Long> currentPosSet;
+  private long deleteIndexSizeInBytes;
 
   private StructLikeCollections structLikeCollections = StructLikeCollections.DEFAULT;
 
@@ -188,6 +191,14 @@ public abstract class MixedDeleteFilter<T> {
     return requiredSchema;
   }
 
+  /**
+   * Returns the estimated heap size of the delete index owned by this filter. Decoded delete files
+   * shared with other filters in {@link DeleteIndexCache} are not included.
+   */
+  public long deleteIndexSizeInBytes() {
+    return deleteIndexSizeInBytes;
+  }
+
   /** Wrap the data as a {@link StructLike}. */
   protected abstract StructLike asStructLike(T record);
 
@@ -248,12 +259,11 @@ public abstract class MixedDeleteFilter<T> {
     StructProjection deletePKProjectRow = StructProjection.create(deleteSchema, pkSchema);
     StructProjection dataPKProjectRow = StructProjection.create(requiredSchema, pkSchema);
 
+    // copy the delete records because they will be held in a map
     Iterable<CloseableIterable<Record>> deleteRecords =
-        Iterables.transform(eqDeletes, this::openDeletes);
+        Iterables.transform(eqDeletes, this::openCopiedDeletes);
 
-    // copy the delete records because they will be held in a map
-    CloseableIterable<Record> records =
-        CloseableIterable.transform(CloseableIterable.concat(deleteRecords), Record::copy);
+    CloseableIterable<Record> records = CloseableIterable.concat(deleteRecords);
     if (deleteNodeFilter != null) {
       records = deleteNodeFilter.filter(records);
     }
@@ -265,6 +275,7 @@ public abstract class MixedDeleteFilter<T> {
 
     StructLikeBaseMap<ChangedLsn> structLikeMap =
         structLikeCollections.createStructLikeMap(pkSchema.asStruct());
+    StructLikeWrapper pkWrapper = StructLikeWrapper.forType(pkSchema.asStruct());
     // init map
     try (CloseableIterable<StructLike> deletes = structLikeIterable) {
       Iterator<StructLike> it =
@@ -278,6 +289,9 @@ public abstract class MixedDeleteFilter<T> {
         if (old == null || old.compareTo(deleteLsn) <= 0) {
           structLikeMap.put(deletePK, deleteLsn);
         }
+        if (old == null) {
+          deleteIndexSizeInBytes += DeleteIndexCache.recordSizeInBytes(pkWrapper.set(deletePK));
+        }
       }
     } catch (IOException e) {
       throw new RuntimeException(e);
@@ -317,6 +331,29 @@ public abstract class MixedDeleteFilter<T> {
     return remainingRowsFilter.filter(records);
   }
 
+  private CloseableIterable<Record> openCopiedDeletes(PrimaryKeyedFile deleteFile) {
+    DeleteIndexCache cache = DeleteIndexCache.get();
+    if (cache == null) {
+      return CloseableIterable.transform(openDeletes(deleteFile), Record::copy);
+    }
+    String path = deleteFile.path().toString();
+    List<Record> records =
+        cache.equalityDeletes(
+            path,
+            deleteFile.fileSizeInBytes(),
+            deleteSchema.asStruct(),
+            () -> open(CloseableIterable.transform(openDeletes(deleteFile), Record::copy)));
+    if (records == null) {
+      // too large to cache, read into the delete index of this filter which may spill
+      return CloseableIterable.transform(openDeletes(deleteFile), Record::copy);
+    }
+    return CloseableIterable.withNoopClose(records);
+  }
+
+  private CloseableIterator<Record> open(CloseableIterable<Record> iterable) {
+    return getFileIO() == null ? iterable.iterator() : getFileIO().doAs(iterable::iterator);
+  }
+
   private CloseableIterable<Record> openDeletes(PrimaryKeyedFile deleteFile) {
     InputFile input = getInputFile(deleteFile.path().toString());
     Map<Integer, Object> idToConstant = new HashMap<>();
@@ -367,21 +404,16 @@ public abstract class MixedDeleteFilter<T> {
 
     // if there are fewer deletes than a reasonable number to keep in memory, use a set
     if (positionMap == null) {
-      positionMap = new HashMap<>();
-      List<CloseableIterable<Record>> deletes = Lists.transform(posDeletes, this::openPosDeletes);
-      CloseableIterator<Record> iterator = CloseableIterable.concat(deletes).iterator();
-      while (iterator.hasNext()) {
-        Record deleteRecord = iterator.next();
-        String path = FILENAME_ACCESSOR.get(deleteRecord).toString();
-        if (!pathSets.contains(path)) {
-          continue;
+      DeleteIndexCache cache = DeleteIndexCache.get();
+      if (cache == null) {
+        positionMap = new HashMap<>();
+        List<CloseableIterable<Record>> deletes = Lists.transform(posDeletes, this::openPosDeletes);
+        readPositions(CloseableIterable.concat(deletes), pathSets::contains, positionMap);
+        for (Set<Long> posSet : positionMap.values()) {
+          deleteIndexSizeInBytes += DeleteIndexCache.positionsSizeInBytes(posSet.size());
         }
-        Set<Long> posSet = positionMap.get(path);
-        if (posSet == null) {
-          posSet = new HashSet<>();
-          positionMap.put(path, posSet);
-        }
-        posSet.add((Long) POSITION_ACCESSOR.get(deleteRecord));
+      } else {
+        positionMap = cachedPositionMap(cache);
       }
     }
 
@@ -403,6 +435,69 @@ public abstract class MixedDeleteFilter<T> {
     };
   }
 
+  private Map<String, Set<Long>> cachedPositionMap(DeleteIndexCache cache) {
+    Map<String, Set<Long>> positions = new HashMap<>();
+    Set<String> mergedPaths = new HashSet<>();
+    for (DeleteFile deleteFile : posDeletes) {
+      String path = deleteFile.path().toString();
+      Map<String, Set<Long>> filePositions =
+          cache.positionDeletes(
+              path,
+              deleteFile.fileSizeInBytes(),
+              () -> {
+                Map<String, Set<Long>> decoded = new HashMap<>();
+                readPositions(openPosDeletes(deleteFile), dataPath -> true, decoded);
+                return decoded;
+              });
+      for (String dataPath : pathSets) {
+        Set<Long> posSet = filePositions.get(dataPath);
+        if (posSet == null) {
+          continue;
+        }
+        Set<Long> merged = positions.get(dataPath);
+        if (merged == null) {
+          // the cached set is shared by all filters, copy it only when merging
+          positions.put(dataPath, posSet);
+        } else {
+          if (mergedPaths.add(dataPath)) {
+            merged = new HashSet<>(merged);
+            positions.put(dataPath, merged);
+          }
+          merged.addAll(posSet);
+        }
+      }
+    }
+    // only the merged sets are owned by this filter
+    for (String dataPath : mergedPaths) {
+      long mergedPositions = positions.get(dataPath).size();
+      deleteIndexSizeInBytes += DeleteIndexCache.positionsSizeInBytes(mergedPositions);
+    }
+    return positions;
+  }
+
+  private void readPositions(
+      CloseableIterable<Record> deletes,
+      Predicate<String> pathFilter,
+      Map<String, Set<Long>> positions) {
+    try (CloseableIterator<Record> iterator = deletes.iterator()) {
+      while (iterator.hasNext()) {
+        Record deleteRecord = iterator.next();
+        String path = FILENAME_ACCESSOR.get(deleteRecord).toString();
+        if (!pathFilter.test(path)) {
+          continue;
+        }
+        Set<Long> posSet = positions.get(path);
+        if (posSet == null) {
+          posSet = new HashSet<>();
+          positions.put(path, posSet);
+        }
+        posSet.add((Long) POSITION_ACCESSOR.get(deleteRecord));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
   private CloseableIterable<T> apply(CloseableIterable<T> records, Predicate<T> predicate) {
     Filter<T> filter =
         new Filter<T>() {
@@ -64,6 +64,9 @@ import java.util.Map;
 public abstract class AbstractRewriteFilesExecutor
     implements OptimizingExecutor<RewriteFilesOutput> {
 
+  /** Max size of rows buffered by a clustering task, if not limited by the task properties. */
+  public static final long DEFAULT_CLUSTERING_MAX_SIZE_IN_MEMORY = 128L * 1024 * 1024;
+
   private static final Logger LOG = LoggerFactory.getLogger(AbstractRewriteFilesExecutor.class);
 
   protected final RewriteFilesInput input;
@@ -76,6 +79,12 @@ public abstract class AbstractRewriteFilesExecutor
 
   protected StructLikeCollections structLikeCollections;
 
+  protected ClusteringOrder clusteringOrder;
+
+  protected long clusteringMaxSizeInMemory = DEFAULT_CLUSTERING_MAX_SIZE_IN_MEMORY;
+
+  protected String clusteringSpillDirectory = System.getProperty("java.io.tmpdir");
+
   public AbstractRewriteFilesExecutor(
       RewriteFilesInput input, MixedTable table, StructLikeCollections structLikeCollections) {
     this.input = input;
@@ -85,6 +94,30 @@ public abstract class AbstractRewriteFilesExecutor
     dataReader = dataReader();
   }
 
+  /**
+   * Cluster the rewritten data files by the given order, rows are written in the order instead of
+   * the reading order if set.
+   */
+  public void setClusteringOrder(ClusteringOrder clusteringOrder) {
+    this.clusteringOrder = clusteringOrder;
+  }
+
+  /**
+   * Limit rows of a clustering task buffered in memory, sorted runs of rows are spilled to local
+   * files beyond the limit and merged at last.
+   *
+   * @param maxSizeInMemory max estimated size in bytes of buffered rows, or null for the default
+   * @param spillDirectory local directory of spilled runs, or null for the temporary directory
+   */
+  public void setClusteringSpill(Long maxSizeInMemory, String spillDirectory) {
+    if (maxSizeInMemory != null && maxSizeInMemory > 0) {
+      this.clusteringMaxSizeInMemory = maxSizeInMemory;
+    }
+    if (spillDirectory != null) {
+      this.clusteringSpillDirectory = spillDirectory;
+    }
+  }
+
   protected abstract OptimizingDataReader dataReader();
 
   protected abstract FileWriter<PositionDelete<Record>, DeleteWriteResult> posWriter();
@@ -147,9 +180,13 @@ public abstract class AbstractRewriteFilesExecutor
     TaskWriter<Record> writer = dataWriter();
 
     try (CloseableIterator<Record> records = dataReader.readData().iterator()) {
-      while (records.hasNext()) {
-        Record record = records.next();
-        writer.write(record);
+      if (clusteringOrder != null) {
+        writeClustered(records, writer);
+      } else {
+        while (records.hasNext()) {
+          Record record = records.next();
+          writer.write(record);
+        }
       }
     } finally {
       writer.close();
@@ -160,6 +197,34 @@ public abstract class AbstractRewriteFilesExecutor
     return result;
   }
 
+  /**
+   * Rows of a clustering task are sorted by a spillable sorter, so that the rolled data files cover
+   * disjoint ranges of the clustering columns without buffering all rows in memory.
+   */
+  private void writeClustered(CloseableIterator<Record> records, TaskWriter<Record> writer)
+      throws Exception {
+    long startTime = System.currentTimeMillis();
+    try (SpillableRecordSorter sorter =
+        new SpillableRecordSorter(
+            clusteringOrder, clusteringMaxSizeInMemory, clusteringSpillDirectory)) {
+      while (records.hasNext()) {
+        sorter.add(records.next().copy());
+      }
+      try (CloseableIterator<Record> sorted = sorter.sorted()) {
+        while (sorted.hasNext()) {
+          writer.write(sorted.next());
+        }
+      }
+      LOG.info(
+          "Clustered {} records by {} {} with {} spilled runs in {} ms",
+          sorter.recordCount(),
+          clusteringOrder.strategy().getName(),
+          clusteringOrder.fields(),
+          sorter.spilledRunCount(),
+          System.currentTimeMillis() - startTime);
+    }
+  }
+
   protected FileFormat dataFileFormat() {
     String formatAsString =
         table.properties().getOrDefault(DEFAULT_FILE_FORMAT, DEFAULT_FILE_FORMAT_DEFAULT);
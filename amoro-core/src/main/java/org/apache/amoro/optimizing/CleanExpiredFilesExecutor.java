@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.optimizing;
+
+import org.apache.amoro.io.AuthenticatedFileIO;
+import org.apache.amoro.io.StreamingFileDeleter;
+import org.apache.amoro.shade.guava32.com.google.common.annotations.VisibleForTesting;
+import org.apache.amoro.shade.guava32.com.google.common.base.Preconditions;
+import org.apache.amoro.shade.guava32.com.google.common.collect.Lists;
+import org.apache.amoro.shade.guava32.com.google.common.collect.Maps;
+import org.apache.amoro.shade.guava32.com.google.common.collect.Sets;
+import org.apache.iceberg.DeleteFile;
+import org.apache.iceberg.ManifestContent;
+import org.apache.iceberg.ManifestFile;
+import org.apache.iceberg.ManifestFiles;
+import org.apache.iceberg.ManifestReader;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Snapshot;
+import org.apache.iceberg.StatisticsFile;
+import org.apache.iceberg.TableMetadata;
+import org.apache.iceberg.TableMetadataParser;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.util.ThreadPools;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Executor which deletes files of snapshots expired by AMS. Like the reachable file cleanup of
+ * iceberg, the files to delete are the manifest lists of the expired snapshots, the manifests which
+ * are not referenced by retained snapshots, and the content files in those manifests which are not
+ * live in any retained manifest.
+ *
+ * <p>Unlike iceberg, the expired files are never collected all together. Content files are read
+ * manifest by manifest, and checked against the retained manifests in batches of bounded size,
+ * which are deleted as soon as they are checked. Manifests and manifest lists are deleted at last,
+ * so that the cleanup can run again if it fails halfway.
+ */
+public class CleanExpiredFilesExecutor implements OptimizingExecutor<CleanExpiredFilesOutput> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CleanExpiredFilesExecutor.class);
+
+  /** Max count of expired content files checked against the retained manifests at a time. */
+  public static final int DEFAULT_CHECKING_BATCH_SIZE = 100_000;
+
+  private final CleanExpiredFilesInput input;
+  private final AuthenticatedFileIO io;
+  private final int checkingBatchSize;
+
+  public CleanExpiredFilesExecutor(CleanExpiredFilesInput input, AuthenticatedFileIO io) {
+    this(input, io, DEFAULT_CHECKING_BATCH_SIZE);
+  }
+
+  @VisibleForTesting
+  CleanExpiredFilesExecutor(
+      CleanExpiredFilesInput input, AuthenticatedFileIO io, int checkingBatchSize) {
+    Preconditions.checkArgument(
+        checkingBatchSize > 0, "Checking batch size must be positive: %s", checkingBatchSize);
+    this.input = input;
+    this.io = io;
+    this.checkingBatchSize = checkingBatchSize;
+  }
+
+  @Override
+  public CleanExpiredFilesOutput execute() {
+    long startTime = System.currentTimeMillis();
+    StreamingFileDeleter deleter =
+        new StreamingFileDeleter(
+            io,
+            input.getExcludedPaths(),
+            StreamingFileDeleter.DEFAULT_BATCH_SIZE,
+            ThreadPools.getWorkerPool());
+    io.doAs(
+        () -> {
+          deleteExpiredFiles(deleter);
+          return null;
+        });
+    deleter.finish();
+    int expiredFiles = deleter.collectedFileCount();
+    int deletedFiles = deleter.deletedFileCount();
+    LOG.info(
+        "Expired {} files of {}, success delete {} files",
+        expiredFiles,
+        input.getTableReference().getIdentifier(),
+        deletedFiles);
+    return new CleanExpiredFilesOutput(
+        expiredFiles, deletedFiles, System.currentTimeMillis() - startTime);
+  }
+
+  private void deleteExpiredFiles(Consumer<String> deleter) {
+    TableMetadata expiring = TableMetadataParser.read(io, input.getExpiringMetadataLocation());
+    TableMetadata expired = TableMetadataParser.read(io, input.getExpiredMetadataLocation());
+    Set<Long> retainedSnapshotIds =
+        expired.snapshots().stream().map(Snapshot::snapshotId).collect(Collectors.toSet());
+
+    Map<String, ManifestFile> retainedManifests = Maps.newHashMap();
+    for (Snapshot snapshot : expired.snapshots()) {
+      for (ManifestFile manifest : snapshot.allManifests(io)) {
+        retainedManifests.put(manifest.path(), manifest);
+      }
+    }
+
+    List<String> expiredManifestLists = Lists.newArrayList();
+    Map<String, ManifestFile> expiredManifests = Maps.newHashMap();
+    for (Snapshot snapshot : expiring.snapshots()) {
+      if (retainedSnapshotIds.contains(snapshot.snapshotId())) {
+        continue;
+      }
+      if (snapshot.manifestListLocation() != null) {
+        expiredManifestLists.add(snapshot.manifestListLocation());
+      }
+      for (ManifestFile manifest : snapshot.allManifests(io)) {
+        if (!retainedManifests.containsKey(manifest.path())) {
+          expiredManifests.put(manifest.path(), manifest);
+        }
+      }
+    }
+
+    Set<String> checkingFiles = Sets.newHashSet();
+    for (ManifestFile manifest : expiredManifests.values()) {
+      readLivePaths(
+          manifest,
+          expiring.specsById(),
+          path -> {
+            checkingFiles.add(path);
+            if (checkingFiles.size() >= checkingBatchSize) {
+              deleteUnreachableFiles(checkingFiles, retainedManifests.values(), expired, deleter);
+            }
+          });
+    }
+    deleteUnreachableFiles(checkingFiles, retainedManifests.values(), expired, deleter);
+
+    expiredManifests.keySet().forEach(deleter);
+    expiredManifestLists.forEach(deleter);
+    Set<String> retainedStatisticsFiles =
+        expired.statisticsFiles().stream().map(StatisticsFile::path).collect(Collectors.toSet());
+    expiring.statisticsFiles().stream()
+        .map(StatisticsFile::path)
+        .filter(path -> !retainedStatisticsFiles.contains(path))
+        .forEach(deleter);
+  }
+
+  /** Delete the checking content files which are not live in any retained manifest. */
+  private void deleteUnreachableFiles(
+      Set<String> checkingFiles,
+      Collection<ManifestFile> retainedManifests,
+      TableMetadata expired,
+      Consumer<String> deleter) {
+    for (ManifestFile manifest : retainedManifests) {
+      if (checkingFiles.isEmpty()) {
+        break;
+      }
+      readLivePaths(manifest, expired.specsById(), checkingFiles::remove);
+    }
+    checkingFiles.forEach(deleter);
+    checkingFiles.clear();
+  }
+
+  private void readLivePaths(
+      ManifestFile manifest, Map<Integer, PartitionSpec> specsById, Consumer<String> consumer) {
+    try {
+      if (manifest.content() == ManifestContent.DATA) {
+        try (CloseableIterable<String> paths = ManifestFiles.readPaths(manifest, io)) {
+          paths.forEach(consumer);
+        }
+      } else {
+        try (ManifestReader<DeleteFile> reader =
+            ManifestFiles.readDeleteManifest(manifest, io, specsById)) {
+          reader.forEach(file -> consumer.accept(file.path().toString()));
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read manifest: " + manifest.path(), e);
+    }
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.optimizing;
+
+import org.apache.amoro.shade.guava32.com.google.common.base.MoreObjects;
+import org.apache.amoro.shade.guava32.com.google.common.base.Preconditions;
+import org.apache.amoro.shade.guava32.com.google.common.collect.Sets;
+import org.apache.amoro.table.MixedTable;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Input of the maintenance task which cleans files of expired snapshots. Snapshots are expired by
+ * AMS which only commits the metadata, and the files which are only reachable from the expired
+ * snapshots are found by comparing the table metadata before and after the expiration.
+ */
+public class CleanExpiredFilesInput extends BaseOptimizingInput implements TableReferencedInput {
+  private static final long serialVersionUID = 2617424398217617341L;
+
+  private final TableReference tableReference;
+  private final String expiringMetadataLocation;
+  private final String expiredMetadataLocation;
+  private final Set<String> excludedPaths;
+  // serialized as null unless embedded, optimizers resolve the table by the reference
+  private MixedTable table;
+  private final transient boolean tableEmbedded;
+  private transient boolean tableResolved;
+
+  /**
+   * @param table table of the expired snapshots, the table itself for iceberg tables or the
+   *     mixed-format table containing the expired store
+   * @param expiringMetadataLocation metadata file location of the store before expiration
+   * @param expiredMetadataLocation metadata file location of the store after expiration
+   * @param excludedPaths uri paths of files and directories which should not be deleted
+   */
+  public CleanExpiredFilesInput(
+      MixedTable table,
+      String expiringMetadataLocation,
+      String expiredMetadataLocation,
+      Set<String> excludedPaths) {
+    this.table = table;
+    this.tableReference = TableReference.of(table);
+    this.expiringMetadataLocation = expiringMetadataLocation;
+    this.expiredMetadataLocation = expiredMetadataLocation;
+    this.excludedPaths = Sets.newHashSet(excludedPaths);
+    this.tableEmbedded = false;
+  }
+
+  private CleanExpiredFilesInput(CleanExpiredFilesInput input, MixedTable table) {
+    this.table = table;
+    this.tableReference = input.tableReference;
+    this.expiringMetadataLocation = input.expiringMetadataLocation;
+    this.expiredMetadataLocation = input.expiredMetadataLocation;
+    this.excludedPaths = input.excludedPaths;
+    this.tableEmbedded = true;
+    options(input.getOptions());
+  }
+
+  public String getExpiringMetadataLocation() {
+    return expiringMetadataLocation;
+  }
+
+  public String getExpiredMetadataLocation() {
+    return expiredMetadataLocation;
+  }
+
+  public Set<String> getExcludedPaths() {
+    return excludedPaths;
+  }
+
+  public MixedTable getTable() {
+    Preconditions.checkState(table != null, "Table of %s is not resolved", tableReference);
+    return table;
+  }
+
+  @Override
+  public TableReference getTableReference() {
+    return tableReference;
+  }
+
+  @Override
+  public void resolveTable(Function<TableReference, MixedTable> resolver) {
+    if (!tableResolved) {
+      table = tableReference.resolve(resolver, table);
+      tableResolved = true;
+    }
+  }
+
+  @Override
+  public CleanExpiredFilesInput withEmbeddedTable(Supplier<MixedTable> tableLoader) {
+    return new CleanExpiredFilesInput(this, table != null ? table : tableLoader.get());
+  }
+
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    ObjectOutputStream.PutField fields = out.putFields();
+    fields.put("tableReference", tableReference);
+    fields.put("expiringMetadataLocation", expiringMetadataLocation);
+    fields.put("expiredMetadataLocation", expiredMetadataLocation);
+    fields.put("excludedPaths", excludedPaths);
+    fields.put("table", tableEmbedded ? table : null);
+    out.writeFields();
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("expiringMetadataLocation", expiringMetadataLocation)
+        .add("expiredMetadataLocation", expiredMetadataLocation)
+        .add("excludedPathsSize", excludedPaths.size())
+        .add("table", tableReference.getIdentifier())
+        .addValue(super.toString())
+        .toString();
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.optimizing;
+
+import org.apache.amoro.shade.guava32.com.google.common.base.MoreObjects;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class CleanExpiredFilesOutput implements TableOptimizing.OptimizingOutput {
+  public static final String EXPIRED_FILE_CNT = "expired_file_cnt";
+
+  public static final String DELETED_FILE_CNT = "deleted_file_cnt";
+
+  private final int expiredFileCount;
+  private final int deletedFileCount;
+  private final long executeDuration;
+
+  public CleanExpiredFilesOutput(int expiredFileCount, int deletedFileCount, long executeDuration) {
+    this.expiredFileCount = expiredFileCount;
+    this.deletedFileCount = deletedFileCount;
+    this.executeDuration = executeDuration;
+  }
+
+  public int getExpiredFileCount() {
+    return expiredFileCount;
+  }
+
+  public int getDeletedFileCount() {
+    return deletedFileCount;
+  }
+
+  @Override
+  public Map<String, String> summary() {
+    Map<String, String> summary = new HashMap<>();
+    summary.put(EXPIRED_FILE_CNT, String.valueOf(expiredFileCount));
+    summary.put(DELETED_FILE_CNT, String.valueOf(deletedFileCount));
+    summary.put(OptimizingTaskSummary.EXECUTE_DURATION, String.valueOf(executeDuration));
+    return summary;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("expiredFileCount", expiredFileCount)
+        .add("deletedFileCount", deletedFileCount)
+        .add("executeDuration", executeDuration)
+        .toString();
+  }
+}
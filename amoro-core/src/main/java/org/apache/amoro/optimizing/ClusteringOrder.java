@@ -0,0 +1,236 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.optimizing;
+
+import org.apache.amoro.shade.guava32.com.google.common.base.Preconditions;
+import org.apache.amoro.shade.guava32.com.google.common.collect.Lists;
+import org.apache.amoro.shade.guava32.com.google.common.primitives.UnsignedBytes;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.data.Record;
+import org.apache.iceberg.types.Comparators;
+import org.apache.iceberg.types.Type;
+import org.apache.iceberg.types.Types;
+import org.apache.iceberg.util.DateTimeUtil;
+import org.apache.iceberg.util.ZOrderByteUtils;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The order in which clustering optimizing rewrites records, so that the rewritten data files cover
+ * narrow ranges of the clustering columns and their column statistics can skip most files.
+ */
+public class ClusteringOrder {
+
+  private final List<Types.NestedField> fields;
+  private final ClusteringStrategy strategy;
+
+  private ClusteringOrder(List<Types.NestedField> fields, ClusteringStrategy strategy) {
+    this.fields = fields;
+    this.strategy = strategy;
+  }
+
+  /**
+   * Build the clustering order of the given top-level primitive columns.
+   *
+   * @param schema schema of records to cluster
+   * @param columns names of clustering columns
+   * @param strategy clustering strategy
+   */
+  public static ClusteringOrder of(
+      Schema schema, List<String> columns, ClusteringStrategy strategy) {
+    Preconditions.checkArgument(!columns.isEmpty(), "Clustering columns are empty");
+    List<Types.NestedField> fields = Lists.newArrayListWithCapacity(columns.size());
+    for (String column : columns) {
+      Types.NestedField field = schema.asStruct().field(column);
+      Preconditions.checkArgument(
+          field != null && field.type().isPrimitiveType(),
+          "Clustering column %s is not a top-level primitive column",
+          column);
+      fields.add(field);
+    }
+    return new ClusteringOrder(fields, strategy);
+  }
+
+  public List<Types.NestedField> fields() {
+    return fields;
+  }
+
+  public ClusteringStrategy strategy() {
+    return strategy;
+  }
+
+  /** Sort records in place by the clustering order. */
+  public void sort(List<Record> records) {
+    if (strategy == ClusteringStrategy.ZORDER) {
+      sortByZValue(records);
+    } else {
+      records.sort(lexicographicalComparator());
+    }
+  }
+
+  /** Comparator of records by the clustering order, which merges runs of sorted records. */
+  public Comparator<Record> comparator() {
+    if (strategy == ClusteringStrategy.ZORDER) {
+      Comparator<byte[]> zValueComparator = UnsignedBytes.lexicographicalComparator();
+      return (r1, r2) -> zValueComparator.compare(zValue(values(r1)), zValue(values(r2)));
+    }
+    return lexicographicalComparator();
+  }
+
+  private Object[] values(Record record) {
+    Object[] values = new Object[fields.size()];
+    for (int i = 0; i < fields.size(); i++) {
+      values[i] = record.getField(fields.get(i).name());
+    }
+    return values;
+  }
+
+  private Comparator<Record> lexicographicalComparator() {
+    Comparator<Record> comparator = null;
+    for (Types.NestedField field : fields) {
+      Comparator<Record> fieldComparator =
+          Comparator.comparing(
+              record -> record.getField(field.name()),
+              Comparator.nullsFirst(valueComparator(field.type())));
+      comparator = comparator == null ? fieldComparator : comparator.thenComparing(fieldComparator);
+    }
+    return comparator;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Comparator<Object> valueComparator(Type type) {
+    switch (type.typeId()) {
+      case STRING:
+        return (v1, v2) ->
+            Comparators.charSequences().compare((CharSequence) v1, (CharSequence) v2);
+      case FIXED:
+        return (v1, v2) ->
+            Comparators.unsignedBytes()
+                .compare(ByteBuffer.wrap((byte[]) v1), ByteBuffer.wrap((byte[]) v2));
+      case BINARY:
+        return (v1, v2) -> Comparators.unsignedBytes().compare((ByteBuffer) v1, (ByteBuffer) v2);
+      default:
+        // values of the generic data model are comparable for the other primitive types
+        return (v1, v2) -> ((Comparable<Object>) v1).compareTo(v2);
+    }
+  }
+
+  /**
+   * Z-value of values of the clustering columns, z-values are compared in unsigned lexicographical
+   * order. Since the Z-order is monotonic on each column, the z-values of a box of values are
+   * bounded by the z-values of its lower and upper corners.
+   *
+   * @param values values of the clustering columns in the generic or internal data model
+   */
+  public byte[] zValue(Object[] values) {
+    return zValue(
+        values,
+        ByteBuffer.allocate(ZOrderByteUtils.PRIMITIVE_BUFFER_SIZE),
+        StandardCharsets.UTF_8.newEncoder());
+  }
+
+  private byte[] zValue(Object[] values, ByteBuffer reuse, CharsetEncoder encoder) {
+    byte[][] columnBytes = new byte[values.length][];
+    for (int i = 0; i < values.length; i++) {
+      columnBytes[i] = orderedBytes(values[i], reuse, encoder).array().clone();
+    }
+    return ZOrderByteUtils.interleaveBits(
+        columnBytes, values.length * ZOrderByteUtils.PRIMITIVE_BUFFER_SIZE);
+  }
+
+  private void sortByZValue(List<Record> records) {
+    CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    ByteBuffer reuse = ByteBuffer.allocate(ZOrderByteUtils.PRIMITIVE_BUFFER_SIZE);
+    Object[] values = new Object[fields.size()];
+    List<ZValueRecord> zValueRecords = Lists.newArrayListWithCapacity(records.size());
+    for (Record record : records) {
+      for (int i = 0; i < fields.size(); i++) {
+        values[i] = record.getField(fields.get(i).name());
+      }
+      zValueRecords.add(new ZValueRecord(zValue(values, reuse, encoder), record));
+    }
+
+    Comparator<byte[]> zValueComparator = UnsignedBytes.lexicographicalComparator();
+    zValueRecords.sort((r1, r2) -> zValueComparator.compare(r1.zValue, r2.zValue));
+    for (int i = 0; i < zValueRecords.size(); i++) {
+      records.set(i, zValueRecords.get(i).record);
+    }
+  }
+
+  /**
+   * Map a value to 8 bytes whose unsigned lexicographical order is consistent with the order of
+   * values, nulls first.
+   */
+  private static ByteBuffer orderedBytes(Object value, ByteBuffer reuse, CharsetEncoder encoder) {
+    int size = ZOrderByteUtils.PRIMITIVE_BUFFER_SIZE;
+    if (value == null) {
+      return ZOrderByteUtils.byteTruncateOrFill(new byte[0], size, reuse);
+    } else if (value instanceof Integer) {
+      return ZOrderByteUtils.intToOrderedBytes((Integer) value, reuse);
+    } else if (value instanceof Long) {
+      return ZOrderByteUtils.longToOrderedBytes((Long) value, reuse);
+    } else if (value instanceof Boolean) {
+      return ZOrderByteUtils.longToOrderedBytes((Boolean) value ? 1 : 0, reuse);
+    } else if (value instanceof Float) {
+      return ZOrderByteUtils.floatToOrderedBytes((Float) value, reuse);
+    } else if (value instanceof Double) {
+      return ZOrderByteUtils.doubleToOrderedBytes((Double) value, reuse);
+    } else if (value instanceof BigDecimal) {
+      return ZOrderByteUtils.doubleToOrderedBytes(((BigDecimal) value).doubleValue(), reuse);
+    } else if (value instanceof LocalDate) {
+      return ZOrderByteUtils.longToOrderedBytes(((LocalDate) value).toEpochDay(), reuse);
+    } else if (value instanceof LocalTime) {
+      return ZOrderByteUtils.longToOrderedBytes(((LocalTime) value).toNanoOfDay(), reuse);
+    } else if (value instanceof LocalDateTime) {
+      return ZOrderByteUtils.longToOrderedBytes(
+          DateTimeUtil.microsFromTimestamp((LocalDateTime) value), reuse);
+    } else if (value instanceof OffsetDateTime) {
+      return ZOrderByteUtils.longToOrderedBytes(
+          DateTimeUtil.microsFromTimestamptz((OffsetDateTime) value), reuse);
+    } else if (value instanceof ByteBuffer) {
+      ByteBuffer buffer = ((ByteBuffer) value).duplicate();
+      byte[] bytes = new byte[buffer.remaining()];
+      buffer.get(bytes);
+      return ZOrderByteUtils.byteTruncateOrFill(bytes, size, reuse);
+    } else if (value instanceof byte[]) {
+      return ZOrderByteUtils.byteTruncateOrFill((byte[]) value, size, reuse);
+    } else {
+      return ZOrderByteUtils.stringToOrderedBytes(value.toString(), size, reuse, encoder);
+    }
+  }
+
+  private static class ZValueRecord {
+    private final byte[] zValue;
+    private final Record record;
+
+    ZValueRecord(byte[] zValue, Record record) {
+      this.zValue = zValue;
+      this.record = record;
+    }
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.optimizing;
+
+import org.apache.amoro.shade.guava32.com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/** The order in which clustering optimizing rewrites the rows of data files. */
+public enum ClusteringStrategy {
+  /** Lexicographical order of the clustering columns. */
+  SORT("sort"),
+  /** Z-order of the clustering columns, which clusters all columns evenly. */
+  ZORDER("zorder");
+
+  private final String name;
+
+  ClusteringStrategy(String name) {
+    this.name = name;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public static ClusteringStrategy fromName(String name) {
+    Preconditions.checkArgument(name != null, "Clustering strategy is null");
+    String lowerName = name.toLowerCase(Locale.ROOT);
+    return Arrays.stream(values())
+        .filter(strategy -> strategy.name.equals(lowerName))
+        .findFirst()
+        .orElseThrow(() -> new IllegalArgumentException("Unknown clustering strategy: " + name));
+  }
+}
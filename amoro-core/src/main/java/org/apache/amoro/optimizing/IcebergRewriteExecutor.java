@@ -18,6 +18,8 @@
 
 package org.apache.amoro.optimizing;
 
+import org.apache.amoro.io.PrefetchedFileBuffer;
+import org.apache.amoro.io.PrefetchedFileIO;
 import org.apache.amoro.io.reader.GenericCombinedIcebergDataReader;
 import org.apache.amoro.io.writer.GenericIcebergPartitionedFanoutWriter;
 import org.apache.amoro.io.writer.IcebergFanoutPosDeleteWriter;
@@ -60,8 +62,10 @@ public class IcebergRewriteExecutor extends AbstractRewriteFilesExecutor {
 
   @Override
   protected OptimizingDataReader dataReader() {
+    // serve the input files prefetched for the task in the pipelined execution mode
+    PrefetchedFileBuffer buffer = PrefetchedFileBuffer.get();
     return new GenericCombinedIcebergDataReader(
-        io,
+        buffer == null ? io : new PrefetchedFileIO(io, buffer),
         table.schema(),
         table.spec(),
         table.asUnkeyedTable().encryption(),
@@ -34,7 +34,12 @@ public class IcebergRewriteExecutorFactory implements OptimizingExecutorFactory<
   @Override
   public OptimizingExecutor createExecutor(RewriteFilesInput input) {
     OptimizingInputProperties optimizingConfig = OptimizingInputProperties.parse(properties);
-    return new IcebergRewriteExecutor(
-        input, input.getTable(), optimizingConfig.getStructLikeCollections());
+    IcebergRewriteExecutor executor =
+        new IcebergRewriteExecutor(
+            input, input.getTable(), optimizingConfig.getStructLikeCollections());
+    executor.setClusteringOrder(optimizingConfig.getClusteringOrder(input.getTable().schema()));
+    executor.setClusteringSpill(
+        optimizingConfig.getMaxSizeInMemory(), optimizingConfig.getSpillMapPath());
+    return executor;
   }
 }
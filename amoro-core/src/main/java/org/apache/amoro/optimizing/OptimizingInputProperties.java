@@ -21,8 +21,11 @@ package org.apache.amoro.optimizing;
 import org.apache.amoro.shade.guava32.com.google.common.collect.Maps;
 import org.apache.amoro.utils.map.StructLikeCollections;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.iceberg.Schema;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class OptimizingInputProperties {
@@ -39,6 +42,12 @@ public class OptimizingInputProperties {
 
   public static final String TASK_EXECUTOR_FACTORY_IMPL = "task-executor-factory-impl";
 
+  public static final String TABLE_SERVICE_URL = "table-service-url";
+
+  public static final String CLUSTERING_COLUMNS = "clustering-columns";
+
+  public static final String CLUSTERING_STRATEGY = "clustering-strategy";
+
   private final Map<String, String> properties;
 
   private OptimizingInputProperties(Map<String, String> properties) {
@@ -78,6 +87,18 @@ public class OptimizingInputProperties {
     return this;
   }
 
+  public OptimizingInputProperties setTableServiceUrl(String tableServiceUrl) {
+    properties.put(TABLE_SERVICE_URL, tableServiceUrl);
+    return this;
+  }
+
+  public OptimizingInputProperties setClustering(
+      List<String> columns, ClusteringStrategy strategy) {
+    properties.put(CLUSTERING_COLUMNS, String.join(",", columns));
+    properties.put(CLUSTERING_STRATEGY, strategy.getName());
+    return this;
+  }
+
   public OptimizingInputProperties needMoveFile2HiveLocation() {
     properties.put(MOVE_FILE_TO_HIVE_LOCATION, "true");
     return this;
@@ -95,6 +116,16 @@ public class OptimizingInputProperties {
     return new StructLikeCollections(enableSpillMap, maxInMemory, spillMapPath);
   }
 
+  /** Returns the max size in bytes of data kept in memory by a task, or null if not limited. */
+  public Long getMaxSizeInMemory() {
+    String maxInMemoryStr = properties.get(MAX_IN_MEMORY_SIZE_IN_BYTES);
+    return maxInMemoryStr == null ? null : Long.parseLong(maxInMemoryStr);
+  }
+
+  public String getSpillMapPath() {
+    return properties.get(SPILL_MAP_PATH);
+  }
+
   public String getOutputDir() {
     return properties.get(OUTPUT_DIR);
   }
@@ -103,6 +134,31 @@ public class OptimizingInputProperties {
     return properties.get(TASK_EXECUTOR_FACTORY_IMPL);
   }
 
+  public String getTableServiceUrl() {
+    return properties.get(TABLE_SERVICE_URL);
+  }
+
+  /** Whether the task clusters data files, whose rows are sorted before they are written. */
+  public boolean isClustering() {
+    return StringUtils.isNotBlank(properties.get(CLUSTERING_COLUMNS));
+  }
+
+  /**
+   * Returns the order to rewrite records by, or null if the task does not cluster data files.
+   *
+   * @param schema schema of the table
+   */
+  public ClusteringOrder getClusteringOrder(Schema schema) {
+    String columns = properties.get(CLUSTERING_COLUMNS);
+    if (StringUtils.isBlank(columns)) {
+      return null;
+    }
+    return ClusteringOrder.of(
+        schema,
+        Arrays.asList(StringUtils.split(columns, ',')),
+        ClusteringStrategy.fromName(properties.get(CLUSTERING_STRATEGY)));
+  }
+
   public boolean getMoveFile2HiveLocation() {
     String s = properties.get(MOVE_FILE_TO_HIVE_LOCATION);
     if (StringUtils.isBlank(s)) {
@@ -18,27 +18,45 @@
 
 package org.apache.amoro.optimizing;
 
+import org.apache.amoro.TableFormat;
 import org.apache.amoro.data.DefaultKeyedFile;
 import org.apache.amoro.data.PrimaryKeyedFile;
 import org.apache.amoro.shade.guava32.com.google.common.base.MoreObjects;
+import org.apache.amoro.shade.guava32.com.google.common.base.Preconditions;
 import org.apache.amoro.table.MixedTable;
 import org.apache.amoro.utils.ContentFiles;
 import org.apache.iceberg.ContentFile;
 import org.apache.iceberg.DataFile;
 import org.apache.iceberg.DeleteFile;
+import org.apache.iceberg.FileContent;
+import org.apache.iceberg.MetadataColumns;
+import org.apache.iceberg.types.Comparators;
+import org.apache.iceberg.types.Conversions;
+import org.apache.iceberg.types.Types;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
-public class RewriteFilesInput extends BaseOptimizingInput {
+public class RewriteFilesInput extends BaseOptimizingInput implements TableReferencedInput {
   private static final long serialVersionUID = -696610318564333923L;
   private final DataFile[] rewrittenDataFiles;
   private final DataFile[] rePosDeletedDataFiles;
   private final ContentFile<?>[] readOnlyDeleteFiles;
   private final ContentFile<?>[] rewrittenDeleteFiles;
-  private final MixedTable table;
+  // serialized as null unless embedded, optimizers resolve the table by the reference
+  private MixedTable table;
+  private final TableReference tableReference;
+  private final transient boolean tableEmbedded;
+  private transient boolean tableResolved;
 
   public RewriteFilesInput(
       DataFile[] rewrittenDataFiles,
@@ -51,6 +69,33 @@ public class RewriteFilesInput extends BaseOptimizingInput {
     this.readOnlyDeleteFiles = readOnlyDeleteFiles;
     this.rewrittenDeleteFiles = rewrittenDeleteFiles;
     this.table = table;
+    this.tableReference = TableReference.of(table);
+    this.tableEmbedded = false;
+  }
+
+  private RewriteFilesInput(
+      DataFile[] rewrittenDataFiles,
+      ContentFile<?>[] readOnlyDeleteFiles,
+      MixedTable table,
+      TableReference tableReference) {
+    this.rewrittenDataFiles = rewrittenDataFiles;
+    this.rePosDeletedDataFiles = new DataFile[0];
+    this.readOnlyDeleteFiles = readOnlyDeleteFiles;
+    this.rewrittenDeleteFiles = new ContentFile<?>[0];
+    this.table = table;
+    this.tableReference = tableReference;
+    this.tableEmbedded = false;
+  }
+
+  private RewriteFilesInput(RewriteFilesInput input, MixedTable table) {
+    this.rewrittenDataFiles = input.rewrittenDataFiles;
+    this.rePosDeletedDataFiles = input.rePosDeletedDataFiles;
+    this.readOnlyDeleteFiles = input.readOnlyDeleteFiles;
+    this.rewrittenDeleteFiles = input.rewrittenDeleteFiles;
+    this.table = table;
+    this.tableReference = input.getTableReference();
+    this.tableEmbedded = true;
+    options(input.getOptions());
   }
 
   public DataFile[] rewrittenDataFiles() {
@@ -149,9 +194,115 @@ public class RewriteFilesInput extends BaseOptimizingInput {
   }
 
   public MixedTable getTable() {
+    Preconditions.checkState(table != null, "Table of %s is not resolved", getTableReference());
     return table;
   }
 
+  @Override
+  public TableReference getTableReference() {
+    // inputs serialized by earlier versions carry the table instead of the reference
+    return tableReference != null ? tableReference : TableReference.of(table);
+  }
+
+  @Override
+  public void resolveTable(Function<TableReference, MixedTable> resolver) {
+    // inputs serialized by earlier versions carry only the table
+    if (!tableResolved && tableReference != null) {
+      table = tableReference.resolve(resolver, table);
+      tableResolved = true;
+    }
+  }
+
+  @Override
+  public RewriteFilesInput withEmbeddedTable(Supplier<MixedTable> tableLoader) {
+    return new RewriteFilesInput(this, table != null ? table : tableLoader.get());
+  }
+
+  /**
+   * Returns an input which rewrites only a part of the rewritten data files of this input. The
+   * delete files which may apply to the part are applied as read-only ones, so the outputs of the
+   * inputs split from this one together make up the output of this one. Inputs with re-pos-deleted
+   * data files can not be split.
+   *
+   * <p>Position delete files are skipped if the bounds of their referenced paths do not cover any
+   * data file of the part. Equality delete files of iceberg tables are skipped if they are not
+   * newer than all data files of the part.
+   *
+   * @param dataFiles part of the rewritten data files
+   */
+  public RewriteFilesInput split(DataFile[] dataFiles) {
+    Preconditions.checkState(
+        rePosDeletedDataFiles == null || rePosDeletedDataFiles.length == 0,
+        "Can not split input with re-pos-deleted data files");
+    Long minDataSequenceNumber = minDataSequenceNumber(dataFiles);
+    ContentFile<?>[] deleteFiles =
+        Arrays.stream(deleteFiles())
+            .filter(deleteFile -> mayApply(deleteFile, dataFiles, minDataSequenceNumber))
+            .toArray(ContentFile<?>[]::new);
+    RewriteFilesInput input =
+        new RewriteFilesInput(dataFiles, deleteFiles, table, getTableReference());
+    input.options(getOptions());
+    return input;
+  }
+
+  private boolean mayApply(
+      ContentFile<?> deleteFile, DataFile[] dataFiles, Long minDataSequenceNumber) {
+    if (deleteFile.content() == FileContent.POSITION_DELETES) {
+      return mayReference(deleteFile, dataFiles);
+    } else if (deleteFile.content() == FileContent.EQUALITY_DELETES
+        && getTableReference().getFormat() == TableFormat.ICEBERG) {
+      // equality deletes apply to data files with smaller data sequence numbers
+      return minDataSequenceNumber == null
+          || deleteFile.dataSequenceNumber() == null
+          || deleteFile.dataSequenceNumber() > minDataSequenceNumber;
+    }
+    return true;
+  }
+
+  private static boolean mayReference(ContentFile<?> posDeleteFile, DataFile[] dataFiles) {
+    int pathFieldId = MetadataColumns.DELETE_FILE_PATH.fieldId();
+    Map<Integer, ByteBuffer> lowerBounds = posDeleteFile.lowerBounds();
+    Map<Integer, ByteBuffer> upperBounds = posDeleteFile.upperBounds();
+    if (lowerBounds == null
+        || upperBounds == null
+        || !lowerBounds.containsKey(pathFieldId)
+        || !upperBounds.containsKey(pathFieldId)) {
+      return true;
+    }
+    CharSequence lowerPath =
+        Conversions.fromByteBuffer(Types.StringType.get(), lowerBounds.get(pathFieldId));
+    CharSequence upperPath =
+        Conversions.fromByteBuffer(Types.StringType.get(), upperBounds.get(pathFieldId));
+    Comparator<CharSequence> comparator = Comparators.charSequences();
+    return Arrays.stream(dataFiles)
+        .anyMatch(
+            dataFile ->
+                comparator.compare(lowerPath, dataFile.path()) <= 0
+                    && comparator.compare(dataFile.path(), upperPath) <= 0);
+  }
+
+  private static Long minDataSequenceNumber(DataFile[] dataFiles) {
+    long min = Long.MAX_VALUE;
+    for (DataFile dataFile : dataFiles) {
+      if (dataFile.dataSequenceNumber() == null) {
+        return null;
+      }
+      min = Math.min(min, dataFile.dataSequenceNumber());
+    }
+    return min;
+  }
+
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    ObjectOutputStream.PutField fields = out.putFields();
+    fields.put("rewrittenDataFiles", rewrittenDataFiles);
+    fields.put("rePosDeletedDataFiles", rePosDeletedDataFiles);
+    fields.put("readOnlyDeleteFiles", readOnlyDeleteFiles);
+    fields.put("rewrittenDeleteFiles", rewrittenDeleteFiles);
+    fields.put("table", tableEmbedded ? table : null);
+    fields.put("tableReference", getTableReference());
+    out.writeFields();
+  }
+
   @Override
   public String toString() {
     return MoreObjects.toStringHelper(this)
@@ -159,7 +310,7 @@ public class RewriteFilesInput extends BaseOptimizingInput {
         .add("rePosDeletedDataFilesSize", rePosDeletedDataFiles.length)
         .add("readOnlyDeleteFilesSize", readOnlyDeleteFiles.length)
         .add("rewrittenDeleteFilesSize", rewrittenDeleteFiles.length)
-        .add("table", table.name())
+        .add("table", getTableReference().getIdentifier())
         .addValue(super.toString())
         .toString();
   }
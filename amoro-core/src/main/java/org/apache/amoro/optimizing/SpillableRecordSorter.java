@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.optimizing;
+
+import org.apache.amoro.shade.guava32.com.google.common.base.Preconditions;
+import org.apache.amoro.shade.guava32.com.google.common.collect.Lists;
+import org.apache.amoro.utils.map.SizeEstimator;
+import org.apache.amoro.utils.map.StructLikeWrapperSizeEstimator;
+import org.apache.iceberg.Files;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.avro.Avro;
+import org.apache.iceberg.data.Record;
+import org.apache.iceberg.data.avro.DataReader;
+import org.apache.iceberg.data.avro.DataWriter;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.io.CloseableIterator;
+import org.apache.iceberg.io.FileAppender;
+import org.apache.iceberg.util.SortedMerge;
+import org.apache.iceberg.util.StructLikeWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Sorter of records by a clustering order, which keeps records of bounded size in memory.
+ *
+ * <p>Records beyond the size are sorted and spilled to a local avro file as a run, and the runs
+ * are merged with the records left in memory when the sorted records are read. Spilled runs are
+ * deleted when the sorter is closed.
+ */
+class SpillableRecordSorter implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SpillableRecordSorter.class);
+
+  private final ClusteringOrder clusteringOrder;
+  private final long maxSizeInMemory;
+  private final File spillDirectory;
+  private final SizeEstimator<StructLikeWrapper> sizeEstimator =
+      new StructLikeWrapperSizeEstimator();
+  private final List<Record> buffer = Lists.newArrayList();
+  private final List<File> runs = Lists.newArrayList();
+  private CloseableIterable<Record> merged;
+  private Schema schema;
+  private StructLikeWrapper sizeWrapper;
+  private long sizeInMemory = 0;
+  private long recordCount = 0;
+
+  /**
+   * @param clusteringOrder order to sort records by
+   * @param maxSizeInMemory max estimated size in bytes of records kept in memory
+   * @param spillDirectory local directory of spilled runs
+   */
+  SpillableRecordSorter(
+      ClusteringOrder clusteringOrder, long maxSizeInMemory, String spillDirectory) {
+    Preconditions.checkArgument(
+        maxSizeInMemory > 0, "Max size in memory must be positive: %s", maxSizeInMemory);
+    this.clusteringOrder = clusteringOrder;
+    this.maxSizeInMemory = maxSizeInMemory;
+    this.spillDirectory = new File(spillDirectory);
+  }
+
+  /** Add a record to sort, which should not be reused by the caller. */
+  void add(Record record) throws IOException {
+    Preconditions.checkState(merged == null, "Sorted records are already read");
+    if (schema == null) {
+      schema = new Schema(record.struct().fields());
+      sizeWrapper = StructLikeWrapper.forType(schema.asStruct());
+    }
+    buffer.add(record);
+    recordCount++;
+    sizeInMemory += sizeEstimator.sizeEstimate(sizeWrapper.set(record));
+    if (sizeInMemory >= maxSizeInMemory) {
+      spill();
+    }
+  }
+
+  /** Returns the added records in the clustering order, closed along with the sorter. */
+  CloseableIterator<Record> sorted() {
+    Preconditions.checkState(merged == null, "Sorted records are already read");
+    clusteringOrder.sort(buffer);
+    if (runs.isEmpty()) {
+      merged = CloseableIterable.withNoopClose(buffer);
+    } else {
+      List<CloseableIterable<Record>> iterables = Lists.newArrayList();
+      iterables.add(CloseableIterable.withNoopClose(buffer));
+      for (File run : runs) {
+        iterables.add(
+            Avro.read(Files.localInput(run))
+                .project(schema)
+                .createReaderFunc(avroSchema -> DataReader.create(schema, avroSchema))
+                .build());
+      }
+      merged = new SortedMerge<>(clusteringOrder.comparator(), iterables);
+    }
+    return merged.iterator();
+  }
+
+  long recordCount() {
+    return recordCount;
+  }
+
+  int spilledRunCount() {
+    return runs.size();
+  }
+
+  private void spill() throws IOException {
+    clusteringOrder.sort(buffer);
+    if (!spillDirectory.exists() && !spillDirectory.mkdirs()) {
+      throw new IOException("Failed to create spill directory " + spillDirectory);
+    }
+    File run = File.createTempFile("clustering-run-", ".avro", spillDirectory);
+    runs.add(run);
+    try (FileAppender<Record> appender =
+        Avro.write(Files.localOutput(run))
+            .schema(schema)
+            .createWriterFunc(DataWriter::create)
+            .overwrite()
+            .build()) {
+      appender.addAll(buffer);
+    }
+    LOG.debug("Spilled {} sorted records of {} bytes to {}", buffer.size(), sizeInMemory, run);
+    buffer.clear();
+    sizeInMemory = 0;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      if (merged != null) {
+        merged.close();
+      }
+    } finally {
+      buffer.clear();
+      for (File run : runs) {
+        if (!run.delete()) {
+          LOG.warn("Failed to delete spilled run {}", run);
+        }
+      }
+      runs.clear();
+    }
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.optimizing;
+
+import org.apache.amoro.TableFormat;
+import org.apache.amoro.shade.guava32.com.google.common.base.MoreObjects;
+import org.apache.amoro.table.MixedTable;
+import org.apache.amoro.table.TableIdentifier;
+import org.apache.iceberg.Snapshot;
+import org.apache.iceberg.Table;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Serializable;
+import java.util.function.Function;
+
+/**
+ * A compact reference of the table to optimize, shipped with optimizing inputs instead of the table
+ * itself. It records the snapshots the task is planned on, so that the table resolved by optimizers
+ * can be validated to be not older than the planning.
+ */
+public class TableReference implements Serializable {
+  private static final long serialVersionUID = 4185384395218093460L;
+  private static final Logger LOG = LoggerFactory.getLogger(TableReference.class);
+
+  public static final long NO_SNAPSHOT_ID = -1L;
+
+  private final TableIdentifier identifier;
+  private final TableFormat format;
+  private final String location;
+  private final long snapshotId;
+  private final long changeSnapshotId;
+
+  private TableReference(
+      TableIdentifier identifier,
+      TableFormat format,
+      String location,
+      long snapshotId,
+      long changeSnapshotId) {
+    this.identifier = identifier;
+    this.format = format;
+    this.location = location;
+    this.snapshotId = snapshotId;
+    this.changeSnapshotId = changeSnapshotId;
+  }
+
+  public static TableReference of(MixedTable table) {
+    if (table.isKeyedTable()) {
+      return new TableReference(
+          table.id(),
+          table.format(),
+          table.location(),
+          currentSnapshotId(table.asKeyedTable().baseTable()),
+          currentSnapshotId(table.asKeyedTable().changeTable()));
+    } else {
+      return new TableReference(
+          table.id(),
+          table.format(),
+          table.location(),
+          currentSnapshotId(table.asUnkeyedTable()),
+          NO_SNAPSHOT_ID);
+    }
+  }
+
+  public TableIdentifier getIdentifier() {
+    return identifier;
+  }
+
+  public TableFormat getFormat() {
+    return format;
+  }
+
+  public String getLocation() {
+    return location;
+  }
+
+  /** Snapshot id of the table, or the base store for keyed tables. */
+  public long getSnapshotId() {
+    return snapshotId;
+  }
+
+  /** Snapshot id of the change store for keyed tables. */
+  public long getChangeSnapshotId() {
+    return changeSnapshotId;
+  }
+
+  /**
+   * Returns true if the table is the referenced one and contains the snapshots the task is planned
+   * on, which means the table is not older than the planning.
+   */
+  public boolean isSatisfiedBy(MixedTable table) {
+    if (!identifier.equals(table.id()) || !location.equals(table.location())) {
+      return false;
+    }
+    if (table.isKeyedTable()) {
+      return containsSnapshot(table.asKeyedTable().baseTable(), snapshotId)
+          && containsSnapshot(table.asKeyedTable().changeTable(), changeSnapshotId);
+    } else {
+      return containsSnapshot(table.asUnkeyedTable(), snapshotId);
+    }
+  }
+
+  /**
+   * Resolve the referenced table, falling back to the table shipped with the input if the table can
+   * not be resolved, e.g. the catalog is not reachable from the optimizer.
+   *
+   * @param resolver function to resolve the table by the reference
+   * @param shippedTable table shipped with the input, or null if the input ships only the reference
+   * @return the resolved table, or the shipped one if the resolution fails
+   */
+  public MixedTable resolve(
+      Function<TableReference, MixedTable> resolver, MixedTable shippedTable) {
+    try {
+      return resolver.apply(this);
+    } catch (RuntimeException e) {
+      if (shippedTable == null) {
+        throw e;
+      }
+      LOG.warn("Failed to resolve table {}, use the table shipped with the input", identifier, e);
+      return shippedTable;
+    }
+  }
+
+  private static long currentSnapshotId(Table table) {
+    Snapshot snapshot = table.currentSnapshot();
+    return snapshot == null ? NO_SNAPSHOT_ID : snapshot.snapshotId();
+  }
+
+  private static boolean containsSnapshot(Table table, long snapshotId) {
+    return snapshotId == NO_SNAPSHOT_ID || table.snapshot(snapshotId) != null;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("identifier", identifier)
+        .add("format", format)
+        .add("location", location)
+        .add("snapshotId", snapshotId)
+        .add("changeSnapshotId", changeSnapshotId)
+        .toString();
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.optimizing;
+
+import org.apache.amoro.table.MixedTable;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * An optimizing input which references its table by {@link TableReference} instead of carrying the
+ * table, the table is resolved by optimizers before the input is executed. The table may also be
+ * embedded in the input, as a fallback for optimizers which can not reach the catalog.
+ */
+public interface TableReferencedInput extends TableOptimizing.OptimizingInput {
+
+  /** Returns the reference of the table. */
+  TableReference getTableReference();
+
+  /**
+   * Resolve the table by the reference. The table embedded in the input, if any, is used only if
+   * the table can not be resolved.
+   *
+   * @param resolver function to resolve the table by the reference
+   */
+  void resolveTable(Function<TableReference, MixedTable> resolver);
+
+  /**
+   * Returns a copy of this input which ships the table along with the reference, for optimizers
+   * which can not load the table from its catalog.
+   *
+   * @param tableLoader loader of the table if this input does not hold it
+   */
+  TableReferencedInput withEmbeddedTable(Supplier<MixedTable> tableLoader);
+}
@@ -20,11 +20,17 @@ package org.apache.amoro.properties;
 
 import org.apache.amoro.shade.guava32.com.google.common.base.Strings;
 
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+
 public class AmsHAProperties {
   private static final String ROOT_PATH = "/arctic/ams";
   private static final String LEADER_PATH = "/leader";
   private static final String TABLE_SERVICE_MASTER_PATH = "/master";
   private static final String OPTIMIZING_SERVICE_MASTER_PATH = "/optimizing-service-master";
+  private static final String MEMBERS_PATH = "/members";
+  private static final String OPTIMIZING_SERVICE_SHARDS_PATH = "/optimizing-service-shards";
   private static final String NAMESPACE_DEFAULT = "default";
 
   private static String getBasePath(String namespace) {
@@ -45,4 +51,23 @@ public class AmsHAProperties {
   public static String getLeaderPath(String namespace) {
     return getBasePath(namespace) + LEADER_PATH;
   }
+
+  public static String getMembersPath(String namespace) {
+    return getBasePath(namespace) + MEMBERS_PATH;
+  }
+
+  public static String getOptimizingServiceShardsPath(String namespace) {
+    return getBasePath(namespace) + OPTIMIZING_SERVICE_SHARDS_PATH;
+  }
+
+  /** Path of the AMS node serving the optimizer group, if optimizer groups are sharded. */
+  public static String getOptimizingServiceShardPath(String namespace, String optimizerGroup) {
+    try {
+      return getOptimizingServiceShardsPath(namespace)
+          + "/"
+          + URLEncoder.encode(optimizerGroup, StandardCharsets.UTF_8.name());
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
 }
@@ -53,6 +53,12 @@ public class CatalogMetaProperties {
 
   public static final String KEY_TABLE_FILTER = "table-filter";
 
+  // Discover tables of hive catalogs from the HMS notification log, requires DbNotificationListener
+  public static final String TABLE_DISCOVERY_NOTIFICATION_ENABLED =
+      "table-discovery.notification.enabled";
+
+  public static final boolean TABLE_DISCOVERY_NOTIFICATION_ENABLED_DEFAULT = false;
+
   public static final String CATALOG_TYPE_HADOOP = "hadoop";
   public static final String CATALOG_TYPE_HIVE = "hive";
   public static final String CATALOG_TYPE_AMS = "ams";
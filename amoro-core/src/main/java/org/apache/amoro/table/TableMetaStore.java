@@ -18,6 +18,9 @@
 
 package org.apache.amoro.table;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
 import org.apache.amoro.shade.guava32.com.google.common.annotations.VisibleForTesting;
 import org.apache.amoro.shade.guava32.com.google.common.base.Charsets;
 import org.apache.amoro.shade.guava32.com.google.common.base.Preconditions;
@@ -25,6 +28,7 @@ import org.apache.amoro.shade.guava32.com.google.common.base.Strings;
 import org.apache.amoro.shade.guava32.com.google.common.collect.Maps;
 import org.apache.amoro.shade.guava32.com.google.common.hash.Hashing;
 import org.apache.amoro.shade.guava32.com.google.common.io.ByteStreams;
+import org.apache.amoro.shade.guava32.com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -56,15 +60,29 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 /** Stores hadoop config files for {@link MixedTable} */
 public class TableMetaStore implements Serializable {
   private static final Logger LOG = LoggerFactory.getLogger(TableMetaStore.class);
 
+  /** Runtime contexts not loaded by any new meta store for this time are evicted. */
+  private static final long RUNTIME_CONTEXT_EXPIRE_MINUTES = 60;
+
   // Share runtime context with same configuration as context is expensive to construct
-  private static final ConcurrentHashMap<TableMetaStore, RuntimeContext> RUNTIME_CONTEXT_CACHE =
-      new ConcurrentHashMap<>();
+  private static final Cache<TableMetaStore, RuntimeContext> RUNTIME_CONTEXT_CACHE =
+      Caffeine.newBuilder()
+          .expireAfterAccess(RUNTIME_CONTEXT_EXPIRE_MINUTES, TimeUnit.MINUTES)
+          .removalListener(
+              (TableMetaStore metaStore, RuntimeContext context, RemovalCause cause) -> {
+                if (context != null) {
+                  context.cancelRelogin();
+                }
+              })
+          .build();
 
   public static final TableMetaStore EMPTY =
       TableMetaStore.builder().withConfiguration(new Configuration()).buildForTest();
@@ -87,6 +105,17 @@ public class TableMetaStore implements Serializable {
   private static final String HADOOP_USER_PROPERTY = "HADOOP_USER_NAME";
   private static final String KRB5_CONF_PROPERTY = "java.security.krb5.conf";
 
+  /**
+   * Interval to check the kerberos ticket in background, the ticket is renewed once it reaches 80%
+   * of its lifetime.
+   */
+  private static final long RELOGIN_CHECK_INTERVAL_SECONDS = 60;
+
+  /** The runtime context whose ugi the current thread is running as. */
+  private static final ThreadLocal<RuntimeContext> AUTHENTICATED_CONTEXT = new ThreadLocal<>();
+
+  private static volatile ScheduledExecutorService reloginExecutor;
+
   private static Field UGI_PRINCIPLE_FIELD;
   private static Field UGI_KEYTAB_FIELD;
   private static boolean UGI_REFLECT;
@@ -123,7 +152,7 @@ public class TableMetaStore implements Serializable {
   private final String krbPrincipal;
   private final boolean disableAuth;
 
-  private transient RuntimeContext runtimeContext;
+  private transient volatile RuntimeContext runtimeContext;
   private transient String authInformation;
 
   public static Builder builder() {
@@ -197,16 +226,25 @@ public class TableMetaStore implements Serializable {
     return getRuntimeContext().getConfiguration();
   }
 
-  public synchronized UserGroupInformation getUGI() {
-    return getRuntimeContext().getUGI();
+  public UserGroupInformation getUGI() {
+    return getRuntimeContext().currentUGI();
   }
 
+  /**
+   * Run the callable as the ugi. Calls nested in another doAs of the same context, e.g. file
+   * operations in a batch, run directly without authenticating again.
+   */
   public <T> T doAs(Callable<T> callable) {
     // if disableAuth, use process ugi to execute
     if (disableAuth) {
       return call(callable);
     }
-    return Objects.requireNonNull(getUGI()).doAs((PrivilegedAction<T>) () -> call(callable));
+    RuntimeContext context = getRuntimeContext();
+    if (AUTHENTICATED_CONTEXT.get() == context) {
+      return call(callable);
+    }
+    return Objects.requireNonNull(context.currentUGI())
+        .doAs((PrivilegedAction<T>) () -> callAs(context, callable));
   }
 
   /**
@@ -226,7 +264,21 @@ public class TableMetaStore implements Serializable {
         proxyUser,
         proxyUgi,
         getUGI());
-    return proxyUgi.doAs((PrivilegedAction<T>) () -> call(callable));
+    return proxyUgi.doAs((PrivilegedAction<T>) () -> callAs(null, callable));
+  }
+
+  private <T> T callAs(RuntimeContext context, Callable<T> callable) {
+    RuntimeContext outer = AUTHENTICATED_CONTEXT.get();
+    AUTHENTICATED_CONTEXT.set(context);
+    try {
+      return call(callable);
+    } finally {
+      if (outer == null) {
+        AUTHENTICATED_CONTEXT.remove();
+      } else {
+        AUTHENTICATED_CONTEXT.set(outer);
+      }
+    }
   }
 
   private <T> T call(Callable<T> callable) {
@@ -246,8 +298,7 @@ public class TableMetaStore implements Serializable {
 
   private RuntimeContext getRuntimeContext() {
     if (runtimeContext == null) {
-      RUNTIME_CONTEXT_CACHE.putIfAbsent(this, new RuntimeContext());
-      runtimeContext = RUNTIME_CONTEXT_CACHE.get(this);
+      runtimeContext = RUNTIME_CONTEXT_CACHE.get(this, metaStore -> new RuntimeContext());
     }
     return runtimeContext;
   }
@@ -303,9 +354,26 @@ public class TableMetaStore implements Serializable {
     return authInformation();
   }
 
+  private static ScheduledExecutorService reloginExecutor() {
+    if (reloginExecutor == null) {
+      synchronized (TableMetaStore.class) {
+        if (reloginExecutor == null) {
+          reloginExecutor =
+              Executors.newSingleThreadScheduledExecutor(
+                  new ThreadFactoryBuilder()
+                      .setDaemon(true)
+                      .setNameFormat("table-meta-store-relogin-%d")
+                      .build());
+        }
+      }
+    }
+    return reloginExecutor;
+  }
+
   class RuntimeContext {
     private Configuration configuration;
-    private UserGroupInformation ugi;
+    private volatile UserGroupInformation ugi;
+    private volatile ScheduledFuture<?> reloginTask;
     private Path confCachePath;
 
     Configuration getConfiguration() {
@@ -340,7 +408,52 @@ public class TableMetaStore implements Serializable {
       }
     }
 
-    public UserGroupInformation getUGI() {
+    /**
+     * Returns the ugi without locking once it is built. Kerberos tickets are checked and renewed
+     * before expiry in background, instead of by every caller.
+     */
+    UserGroupInformation currentUGI() {
+      UserGroupInformation current = ugi;
+      if (current != null
+          && (reloginTask != null || !TableMetaStore.AUTH_METHOD_KERBEROS.equals(authMethod))) {
+        return current;
+      }
+      synchronized (this) {
+        current = getUGI();
+        if (TableMetaStore.AUTH_METHOD_KERBEROS.equals(authMethod) && reloginTask == null) {
+          reloginTask =
+              reloginExecutor()
+                  .scheduleWithFixedDelay(
+                      this::relogin,
+                      RELOGIN_CHECK_INTERVAL_SECONDS,
+                      RELOGIN_CHECK_INTERVAL_SECONDS,
+                      TimeUnit.SECONDS);
+          // share the context again if it was evicted while still in use
+          RUNTIME_CONTEXT_CACHE.asMap().putIfAbsent(TableMetaStore.this, this);
+        }
+        return current;
+      }
+    }
+
+    /** Stop renewing the kerberos ticket in background, once the context is evicted. */
+    synchronized void cancelRelogin() {
+      if (reloginTask != null) {
+        reloginTask.cancel(false);
+        reloginTask = null;
+      }
+    }
+
+    private void relogin() {
+      try {
+        synchronized (this) {
+          getUGI();
+        }
+      } catch (Throwable t) {
+        LOG.warn("Failed to check and re-login ugi {}", authInformation(), t);
+      }
+    }
+
+    synchronized UserGroupInformation getUGI() {
       if (ugi == null) {
         try {
           if (TableMetaStore.AUTH_METHOD_SIMPLE.equals(authMethod)) {
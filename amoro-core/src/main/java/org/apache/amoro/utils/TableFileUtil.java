@@ -122,7 +122,8 @@ public class TableFileUtil {
                 })
             .run(io::deleteFile);
       } else {
-        files.forEach(
+        io.doAsBatch(
+            files,
             f -> {
               try {
                 io.deleteFile(f);
@@ -0,0 +1,269 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.iceberg;
+
+import org.apache.amoro.shade.guava32.com.google.common.collect.Lists;
+import org.apache.amoro.shade.guava32.com.google.common.collect.Maps;
+import org.apache.amoro.shade.guava32.com.google.common.collect.Sets;
+import org.apache.iceberg.exceptions.CommitFailedException;
+import org.apache.iceberg.exceptions.RuntimeIOException;
+import org.apache.iceberg.io.FileAppender;
+import org.apache.iceberg.io.FileIO;
+import org.apache.iceberg.io.OutputFile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rebase an append-only snapshot on a newer parent, as {@link FastAppend} would do when retrying a
+ * commit, but without the writer.
+ *
+ * <p>The manifests added by the snapshot are kept as they are and only a new manifest list is
+ * written, with the manifests of the new parent and a newly assigned sequence number. The snapshot
+ * id is kept, so writers could still find their snapshot in the committed metadata.
+ */
+public class AppendSnapshotRebaser {
+
+  private static final String[] TOTAL_PROPERTIES = {
+    SnapshotSummary.TOTAL_DATA_FILES_PROP,
+    SnapshotSummary.TOTAL_DELETE_FILES_PROP,
+    SnapshotSummary.TOTAL_RECORDS_PROP,
+    SnapshotSummary.TOTAL_FILE_SIZE_PROP,
+    SnapshotSummary.TOTAL_POS_DELETES_PROP,
+    SnapshotSummary.TOTAL_EQ_DELETES_PROP
+  };
+
+  private AppendSnapshotRebaser() {}
+
+  /**
+   * Rebase the snapshot on the current snapshot of the branch in the target metadata.
+   *
+   * @param io file io of the table
+   * @param target the metadata the snapshot will be committed to
+   * @param snapshot the append snapshot, its parent must be in the target metadata
+   * @param branch the branch the snapshot is committed to
+   * @param manifestListLocation location of the new manifest list
+   * @return the rebased snapshot
+   * @throws CommitFailedException if the snapshot is not a rebasable append
+   */
+  public static Snapshot rebase(
+      FileIO io,
+      TableMetadata target,
+      Snapshot snapshot,
+      String branch,
+      String manifestListLocation) {
+    if (!DataOperations.APPEND.equals(snapshot.operation())) {
+      throw new CommitFailedException(
+          "Cannot rebase snapshot %s with operation %s",
+          snapshot.snapshotId(), snapshot.operation());
+    }
+    Snapshot oldParent = snapshot.parentId() == null ? null : target.snapshot(snapshot.parentId());
+    if (snapshot.parentId() != null && oldParent == null) {
+      throw new CommitFailedException(
+          "Cannot rebase snapshot %s, parent snapshot %s is expired",
+          snapshot.snapshotId(), snapshot.parentId());
+    }
+    SnapshotRef ref = target.ref(branch);
+    Snapshot newParent = ref == null ? null : target.snapshot(ref.snapshotId());
+
+    List<ManifestFile> addedManifests = Lists.newArrayList();
+    Set<String> inheritedManifests = Sets.newHashSet();
+    for (ManifestFile manifest : snapshot.allManifests(io)) {
+      if (Long.valueOf(snapshot.snapshotId()).equals(manifest.snapshotId())) {
+        if (manifest.content() != ManifestContent.DATA
+            || manifest.hasExistingFiles()
+            || manifest.hasDeletedFiles()) {
+          throw new CommitFailedException(
+              "Cannot rebase snapshot %s, manifest %s is not append-only",
+              snapshot.snapshotId(), manifest.path());
+        }
+        addedManifests.add(new UnassignedSequenceManifest(manifest));
+      } else {
+        inheritedManifests.add(manifest.path());
+      }
+    }
+    if (!inheritedManifests.equals(manifestPaths(io, oldParent))) {
+      throw new CommitFailedException(
+          "Cannot rebase snapshot %s, it rewrites manifests of its parent", snapshot.snapshotId());
+    }
+
+    long sequenceNumber = target.nextSequenceNumber();
+    Long parentId = newParent == null ? null : newParent.snapshotId();
+    OutputFile manifestList = io.newOutputFile(manifestListLocation);
+    try (FileAppender<ManifestFile> writer =
+        ManifestLists.write(
+            target.formatVersion(),
+            manifestList,
+            snapshot.snapshotId(),
+            parentId,
+            sequenceNumber)) {
+      writer.addAll(addedManifests);
+      if (newParent != null) {
+        writer.addAll(newParent.allManifests(io));
+      }
+    } catch (IOException e) {
+      throw new RuntimeIOException(e, "Failed to write manifest list file");
+    }
+
+    return new BaseSnapshot(
+        sequenceNumber,
+        snapshot.snapshotId(),
+        parentId,
+        Math.max(snapshot.timestampMillis(), System.currentTimeMillis()),
+        snapshot.operation(),
+        rebaseSummary(snapshot.summary(), oldParent, newParent),
+        snapshot.schemaId(),
+        manifestList.location());
+  }
+
+  private static Set<String> manifestPaths(FileIO io, Snapshot snapshot) {
+    if (snapshot == null) {
+      return Collections.emptySet();
+    }
+    Set<String> paths = Sets.newHashSet();
+    snapshot.allManifests(io).forEach(manifest -> paths.add(manifest.path()));
+    return paths;
+  }
+
+  /** Move the totals of the summary from the old parent to the new parent. */
+  private static Map<String, String> rebaseSummary(
+      Map<String, String> summary, Snapshot oldParent, Snapshot newParent) {
+    Map<String, String> rebased = Maps.newHashMap(summary);
+    for (String property : TOTAL_PROPERTIES) {
+      Long total = total(summary, property);
+      Long oldParentTotal = parentTotal(oldParent, property);
+      Long newParentTotal = parentTotal(newParent, property);
+      if (total == null || oldParentTotal == null || newParentTotal == null) {
+        rebased.remove(property);
+      } else {
+        rebased.put(property, String.valueOf(newParentTotal + total - oldParentTotal));
+      }
+    }
+    return rebased;
+  }
+
+  private static Long parentTotal(Snapshot parent, String property) {
+    return parent == null ? Long.valueOf(0L) : total(parent.summary(), property);
+  }
+
+  private static Long total(Map<String, String> summary, String property) {
+    String value = summary == null ? null : summary.get(property);
+    if (value == null) {
+      return null;
+    }
+    try {
+      return Long.parseLong(value);
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  /** An added manifest whose sequence numbers are reassigned by the manifest list writer. */
+  private static class UnassignedSequenceManifest implements ManifestFile {
+    private final ManifestFile wrapped;
+
+    private UnassignedSequenceManifest(ManifestFile wrapped) {
+      this.wrapped = wrapped;
+    }
+
+    @Override
+    public String path() {
+      return wrapped.path();
+    }
+
+    @Override
+    public long length() {
+      return wrapped.length();
+    }
+
+    @Override
+    public int partitionSpecId() {
+      return wrapped.partitionSpecId();
+    }
+
+    @Override
+    public ManifestContent content() {
+      return wrapped.content();
+    }
+
+    @Override
+    public long sequenceNumber() {
+      return ManifestWriter.UNASSIGNED_SEQ;
+    }
+
+    @Override
+    public long minSequenceNumber() {
+      return ManifestWriter.UNASSIGNED_SEQ;
+    }
+
+    @Override
+    public Long snapshotId() {
+      return wrapped.snapshotId();
+    }
+
+    @Override
+    public Integer addedFilesCount() {
+      return wrapped.addedFilesCount();
+    }
+
+    @Override
+    public Long addedRowsCount() {
+      return wrapped.addedRowsCount();
+    }
+
+    @Override
+    public Integer existingFilesCount() {
+      return wrapped.existingFilesCount();
+    }
+
+    @Override
+    public Long existingRowsCount() {
+      return wrapped.existingRowsCount();
+    }
+
+    @Override
+    public Integer deletedFilesCount() {
+      return wrapped.deletedFilesCount();
+    }
+
+    @Override
+    public Long deletedRowsCount() {
+      return wrapped.deletedRowsCount();
+    }
+
+    @Override
+    public List<PartitionFieldSummary> partitions() {
+      return wrapped.partitions();
+    }
+
+    @Override
+    public ByteBuffer keyMetadata() {
+      return wrapped.keyMetadata();
+    }
+
+    @Override
+    public ManifestFile copy() {
+      return new UnassignedSequenceManifest(wrapped.copy());
+    }
+  }
+}
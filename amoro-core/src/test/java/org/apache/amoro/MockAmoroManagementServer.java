@@ -408,7 +408,9 @@ public class MockAmoroManagementServer implements Runnable {
     private final Map<String, OptimizerRegisterInfo> registeredOptimizers =
         new ConcurrentHashMap<>();
     private final Queue<OptimizingTask> pendingTasks = new ArrayBlockingQueue<>(100);
-    private final Map<String, Map<Integer, OptimizingTaskId>> executingTasks =
+    // executing tasks and their threads of each optimizer, a thread may acknowledge its next task
+    // while executing one
+    private final Map<String, Map<OptimizingTaskId, Integer>> executingTasks =
         new ConcurrentHashMap<>();
     private final Map<String, List<OptimizingTaskResult>> completedTasks =
         new ConcurrentHashMap<>();
@@ -435,21 +437,20 @@ public class MockAmoroManagementServer implements Runnable {
       if (!executingTasks.containsKey(authToken)) {
         executingTasks.putIfAbsent(authToken, new ConcurrentHashMap<>());
       }
-      Map<Integer, OptimizingTaskId> executingTasksMap = executingTasks.get(authToken);
-      if (executingTasksMap.containsKey(threadId)) {
+      Map<OptimizingTaskId, Integer> executingTasksMap = executingTasks.get(authToken);
+      if (executingTasksMap.containsKey(taskId)) {
         throw new AmoroException(
             ErrorCodes.TASK_RUNTIME_ERROR_CODE,
             "DuplicateTask",
-            String.format(
-                "Optimizer:%s" + " thread:%d is executing another task", authToken, threadId));
+            String.format("Optimizer:%s" + " task:%s is acknowledged again", authToken, taskId));
       }
-      executingTasksMap.put(threadId, taskId);
+      executingTasksMap.put(taskId, threadId);
     }
 
     @Override
     public void completeTask(String authToken, OptimizingTaskResult taskResult) throws TException {
       checkToken(authToken);
-      executingTasks.get(authToken).remove(taskResult.getThreadId());
+      executingTasks.get(authToken).remove(taskResult.getTaskId());
       if (!completedTasks.containsKey(authToken)) {
         completedTasks.putIfAbsent(authToken, new CopyOnWriteArrayList<>());
       }
@@ -476,7 +477,7 @@ public class MockAmoroManagementServer implements Runnable {
       return pendingTasks;
     }
 
-    public Map<String, Map<Integer, OptimizingTaskId>> getExecutingTasks() {
+    public Map<String, Map<OptimizingTaskId, Integer>> getExecutingTasks() {
       return executingTasks;
     }
 
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.io;
+
+import org.apache.amoro.shade.guava32.com.google.common.collect.Lists;
+import org.apache.amoro.table.TableMetaStore;
+import org.apache.hadoop.conf.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@link AuthenticatedHadoopFileIO#newInputFile(String)} throughput with many threads
+ * sharing the same {@link TableMetaStore}.
+ *
+ * <p>Run it by the main method from the test classpath.
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(16)
+public class AuthenticatedHadoopFileIOBenchmark {
+
+  private static final int BATCH_SIZE = 100;
+
+  private AuthenticatedHadoopFileIO io;
+  private List<String> paths;
+
+  @Setup
+  public void setupFileIO() {
+    TableMetaStore metaStore =
+        TableMetaStore.builder()
+            .withSimpleAuth("amoro")
+            .withConfiguration(new Configuration())
+            .buildForTest();
+    io = AuthenticatedFileIOs.buildHadoopFileIO(metaStore);
+    paths = Lists.newArrayList();
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      paths.add("file:/tmp/amoro/benchmark/metadata/" + i + "-m0.avro");
+    }
+  }
+
+  @Benchmark
+  public void newInputFile(Blackhole blackhole) {
+    for (String path : paths) {
+      blackhole.consume(io.newInputFile(path));
+    }
+  }
+
+  @Benchmark
+  public void newInputFileInBatch(Blackhole blackhole) {
+    io.doAsBatch(paths, path -> blackhole.consume(io.newInputFile(path)));
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder()
+                .include(AuthenticatedHadoopFileIOBenchmark.class.getSimpleName())
+                .build())
+        .run();
+  }
+}
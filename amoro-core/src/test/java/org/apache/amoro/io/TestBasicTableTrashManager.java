@@ -28,6 +28,7 @@ import org.apache.amoro.catalog.TableTestBase;
 import org.apache.amoro.table.MixedTable;
 import org.apache.amoro.table.TableProperties;
 import org.apache.amoro.utils.TableFileUtil;
+import org.apache.iceberg.io.BulkDeletionFailureException;
 import org.apache.iceberg.io.FileIO;
 import org.apache.iceberg.io.OutputFile;
 import org.junit.Assert;
@@ -41,6 +42,8 @@ import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collections;
 
 @RunWith(Parameterized.class)
 public class TestBasicTableTrashManager extends TableTestBase {
@@ -125,6 +128,32 @@ public class TestBasicTableTrashManager extends TableTestBase {
     Assert.assertTrue(tableTrashManager.fileExistInTrash(path));
   }
 
+  @Test
+  public void testMoveFilesToTrash() throws IOException {
+    String tableRootLocation = getMixedTable().location();
+    TableTrashManager tableTrashManager = build();
+
+    FileIO io = getMixedTable().io();
+    String path1 = createFile(io, fullLocation(tableRootLocation, "base/test/test1.parquet"));
+    String path2 = createFile(io, fullLocation(tableRootLocation, "base/test/test2.parquet"));
+    String path3 = createFile(io, fullLocation(tableRootLocation, "change/test/test3.parquet"));
+
+    tableTrashManager.moveFilesToTrash(Arrays.asList(path1, path2, path3));
+    for (String path : Arrays.asList(path1, path2, path3)) {
+      Assert.assertFalse(io.exists(path));
+      Assert.assertTrue(tableTrashManager.fileExistInTrash(path));
+    }
+
+    createFile(io, path1);
+    tableTrashManager.moveFilesToTrash(Collections.singletonList(path1));
+    Assert.assertFalse(io.exists(path1));
+    Assert.assertTrue(tableTrashManager.fileExistInTrash(path1));
+
+    Assert.assertThrows(
+        BulkDeletionFailureException.class,
+        () -> tableTrashManager.moveFilesToTrash(Collections.singletonList(path2)));
+  }
+
   @Test
   public void testDeleteDirectory() throws IOException {
     String tableRootLocation = getMixedTable().location();
@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.io;
+
+import org.apache.amoro.shade.guava32.com.google.common.collect.Iterables;
+import org.apache.amoro.shade.guava32.com.google.common.collect.Lists;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.iceberg.hadoop.HadoopFileIO;
+import org.apache.iceberg.inmemory.InMemoryFileIO;
+import org.apache.iceberg.io.InputFile;
+import org.apache.iceberg.io.SeekableInputStream;
+import org.apache.iceberg.io.SupportsBulkOperations;
+import org.apache.iceberg.io.SupportsPrefixOperations;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+public class TestCachingFileIO {
+
+  private static final String MANIFEST = "/warehouse/db/table/metadata/abc-m0.avro";
+  private static final String DATA_FILE = "/warehouse/db/table/data/00000-0-abc.parquet";
+
+  @Rule public TemporaryFolder temp = new TemporaryFolder();
+
+  private InMemoryFileIO fileIO;
+
+  @Before
+  public void setupFileIO() {
+    fileIO = new InMemoryFileIO();
+    fileIO.addFile(MANIFEST, "manifest".getBytes(StandardCharsets.UTF_8));
+    fileIO.addFile(DATA_FILE, "data".getBytes(StandardCharsets.UTF_8));
+  }
+
+  @After
+  public void resetCache() {
+    ImmutableFileCache.reset();
+  }
+
+  @Test
+  public void testIsImmutable() {
+    Assert.assertTrue(ImmutableFileCache.isImmutable(MANIFEST));
+    Assert.assertTrue(ImmutableFileCache.isImmutable("s3://bucket/t/metadata/snap-1-1-abc.avro"));
+    Assert.assertTrue(ImmutableFileCache.isImmutable("hdfs://ns/t/metadata/1-abc.stats"));
+    Assert.assertFalse(ImmutableFileCache.isImmutable("hdfs://ns/t/metadata/v1.metadata.json"));
+    Assert.assertFalse(ImmutableFileCache.isImmutable("hdfs://ns/t/data/abc.avro"));
+    Assert.assertFalse(ImmutableFileCache.isImmutable(DATA_FILE));
+  }
+
+  @Test
+  public void testNotCachedWhenDisabled() {
+    AuthenticatedFileIO io = AuthenticatedFileIOs.buildAdaptIcebergFileIO(null, fileIO);
+    Assert.assertFalse(io instanceof CachingFileIO);
+  }
+
+  @Test
+  public void testCacheImmutableFiles() throws IOException {
+    ImmutableFileCache.initialize(1024, 1024, null, 0);
+    ImmutableFileCache cache = ImmutableFileCache.get();
+    AuthenticatedFileIO io = AuthenticatedFileIOs.buildAdaptIcebergFileIO(null, fileIO);
+    Assert.assertTrue(io instanceof CachingFileIO);
+
+    Assert.assertEquals("manifest", read(io.newInputFile(MANIFEST)));
+    Assert.assertEquals("manifest", read(io.newInputFile(MANIFEST, 8)));
+    Assert.assertEquals(1, cache.missCount());
+    Assert.assertEquals(1, cache.memoryHitCount());
+    Assert.assertEquals(8, cache.hitBytes());
+    Assert.assertEquals(0.5D, cache.hitRate(), 0.0001D);
+
+    Assert.assertEquals("data", read(io.newInputFile(DATA_FILE)));
+    Assert.assertEquals(1, cache.missCount());
+    Assert.assertEquals(8, cache.memorySizeInBytes());
+
+    // cached content is still served after the file is deleted
+    fileIO.deleteFile(MANIFEST);
+    Assert.assertEquals("manifest", read(io.newInputFile(MANIFEST)));
+    Assert.assertFalse(io.exists(MANIFEST));
+  }
+
+  @Test
+  public void testSkipLargeFiles() throws IOException {
+    ImmutableFileCache.initialize(1024, 4, null, 0);
+    ImmutableFileCache cache = ImmutableFileCache.get();
+    AuthenticatedFileIO io = AuthenticatedFileIOs.buildAdaptIcebergFileIO(null, fileIO);
+
+    Assert.assertEquals("manifest", read(io.newInputFile(MANIFEST)));
+    Assert.assertEquals("manifest", read(io.newInputFile(MANIFEST)));
+    Assert.assertEquals(0, cache.memorySizeInBytes());
+    Assert.assertEquals(0, cache.memoryHitCount());
+  }
+
+  @Test
+  public void testDiskTier() throws IOException {
+    ImmutableFileCache.initialize(1024, 1024, temp.newFolder().getPath(), 1024);
+    ImmutableFileCache cache = ImmutableFileCache.get();
+    AuthenticatedFileIO io = AuthenticatedFileIOs.buildAdaptIcebergFileIO(null, fileIO);
+
+    Assert.assertEquals("manifest", read(io.newInputFile(MANIFEST)));
+    Assert.assertEquals(8, cache.diskSizeInBytes());
+
+    // drop the on-heap tier only, as an eviction does
+    cache.invalidateMemory();
+    Assert.assertEquals("manifest", read(io.newInputFile(MANIFEST)));
+    Assert.assertEquals(1, cache.diskHitCount());
+    Assert.assertEquals(1, cache.missCount());
+  }
+
+  @Test
+  public void testPassThroughFileOperations() throws IOException {
+    ImmutableFileCache.initialize(1024, 1024, null, 0);
+    AuthenticatedFileIO io =
+        CachingFileIO.wrap(
+            new AuthenticatedFileIOAdapter(new HadoopFileIO(new Configuration())),
+            ImmutableFileCache.get());
+    Assert.assertTrue(io instanceof SupportsPrefixOperations);
+    Assert.assertTrue(io instanceof SupportsBulkOperations);
+    File directory = temp.newFolder();
+    File file = new File(directory, "file");
+    Assert.assertTrue(file.createNewFile());
+    Assert.assertEquals(
+        1, Iterables.size(((SupportsPrefixOperations) io).listPrefix(directory.getPath())));
+    ((SupportsBulkOperations) io).deleteFiles(Lists.newArrayList(file.getPath()));
+    Assert.assertFalse(file.exists());
+
+    // files are deleted one by one if the wrapped file io does not support bulk operations
+    io = AuthenticatedFileIOs.buildAdaptIcebergFileIO(null, fileIO);
+    Assert.assertFalse(io instanceof SupportsPrefixOperations);
+    ((SupportsBulkOperations) io).deleteFiles(Lists.newArrayList(MANIFEST, DATA_FILE));
+    Assert.assertFalse(io.exists(MANIFEST));
+    Assert.assertFalse(io.exists(DATA_FILE));
+  }
+
+  private static String read(InputFile file) throws IOException {
+    byte[] bytes = new byte[(int) file.getLength()];
+    try (SeekableInputStream stream = file.newStream()) {
+      new DataInputStream(stream).readFully(bytes);
+    }
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.io;
+
+import org.apache.iceberg.inmemory.InMemoryFileIO;
+import org.apache.iceberg.io.InputFile;
+import org.apache.iceberg.io.SeekableInputStream;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+public class TestPrefetchedFileIO {
+
+  private static final String DATA_FILE = "/warehouse/db/prefetch/data/00000-0-abc.parquet";
+  private static final String DELETE_FILE = "/warehouse/db/prefetch/data/00000-1-abc.parquet";
+
+  private InMemoryFileIO fileIO;
+  private AuthenticatedFileIO io;
+
+  @Before
+  public void setupFileIO() {
+    fileIO = new InMemoryFileIO();
+    fileIO.addFile(DATA_FILE, "0123456789".getBytes(StandardCharsets.UTF_8));
+    fileIO.addFile(DELETE_FILE, "delete".getBytes(StandardCharsets.UTF_8));
+    io = new AuthenticatedFileIOAdapter(fileIO);
+  }
+
+  @After
+  public void resetBuffer() {
+    PrefetchedFileBuffer.reset();
+  }
+
+  @Test
+  public void testDisabled() {
+    PrefetchedFileBuffer.initialize(0);
+    Assert.assertNull(PrefetchedFileBuffer.get());
+  }
+
+  @Test
+  public void testPrefetchWholeFile() throws IOException {
+    PrefetchedFileBuffer.initialize(1024);
+    PrefetchedFileBuffer buffer = PrefetchedFileBuffer.get();
+    buffer.prefetch(io, DELETE_FILE, 6, 1024);
+    Assert.assertTrue(buffer.isPrefetched(DELETE_FILE));
+    Assert.assertEquals(6, buffer.sizeInBytes());
+
+    // prefetched content is served without reading the file
+    fileIO.addFile(DELETE_FILE, "DELETE".getBytes(StandardCharsets.UTF_8));
+    AuthenticatedFileIO prefetchedIO = new PrefetchedFileIO(io, buffer);
+    Assert.assertEquals("delete", read(prefetchedIO.newInputFile(DELETE_FILE), 0));
+    Assert.assertEquals("lete", read(prefetchedIO.newInputFile(DELETE_FILE, 6), 2));
+  }
+
+  @Test
+  public void testPrefetchTail() throws IOException {
+    PrefetchedFileBuffer.initialize(1024);
+    PrefetchedFileBuffer buffer = PrefetchedFileBuffer.get();
+    buffer.prefetch(io, DATA_FILE, 10, 4);
+    Assert.assertEquals(4, buffer.sizeInBytes());
+
+    AuthenticatedFileIO prefetchedIO = new PrefetchedFileIO(io, buffer);
+    Assert.assertEquals("0123456789", read(prefetchedIO.newInputFile(DATA_FILE), 0));
+    Assert.assertEquals("456789", read(prefetchedIO.newInputFile(DATA_FILE), 4));
+
+    // the tail is served without reading the file
+    fileIO.addFile(DATA_FILE, "abcdefghij".getBytes(StandardCharsets.UTF_8));
+    Assert.assertEquals("6789", read(prefetchedIO.newInputFile(DATA_FILE), 6));
+    Assert.assertEquals("abcdef6789", read(prefetchedIO.newInputFile(DATA_FILE), 0));
+  }
+
+  @Test
+  public void testNotPrefetched() throws IOException {
+    PrefetchedFileBuffer.initialize(1024);
+    AuthenticatedFileIO prefetchedIO = new PrefetchedFileIO(io, PrefetchedFileBuffer.get());
+    Assert.assertFalse(PrefetchedFileBuffer.get().isPrefetched(DATA_FILE));
+    Assert.assertEquals("0123456789", read(prefetchedIO.newInputFile(DATA_FILE), 0));
+  }
+
+  private static String read(InputFile file, long pos) throws IOException {
+    byte[] bytes = new byte[(int) (file.getLength() - pos)];
+    try (SeekableInputStream stream = file.newStream()) {
+      stream.seek(pos);
+      new DataInputStream(stream).readFully(bytes);
+    }
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
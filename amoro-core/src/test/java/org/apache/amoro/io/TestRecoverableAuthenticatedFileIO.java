@@ -22,6 +22,7 @@ import org.apache.amoro.BasicTableTestHelper;
 import org.apache.amoro.TableFormat;
 import org.apache.amoro.catalog.BasicCatalogTestHelper;
 import org.apache.amoro.catalog.TableTestBase;
+import org.apache.amoro.shade.guava32.com.google.common.collect.Lists;
 import org.apache.amoro.shade.guava32.com.google.common.collect.Streams;
 import org.apache.amoro.table.MixedTable;
 import org.apache.amoro.table.TableProperties;
@@ -140,6 +141,18 @@ public class TestRecoverableAuthenticatedFileIO extends TableTestBase {
     Assert.assertTrue(trashManager.fileExistInTrash(file1));
   }
 
+  @Test
+  public void deleteFiles() throws IOException {
+    createFile(file1);
+    createFile(file2);
+    createFile(file3);
+    recoverableHadoopFileIO.deleteFiles(Lists.newArrayList(file1, file2, file3));
+    for (String file : Lists.newArrayList(file1, file2, file3)) {
+      Assert.assertFalse(authenticatedFileIO.exists(file));
+      Assert.assertTrue(trashManager.fileExistInTrash(file));
+    }
+  }
+
   @Test
   public void trashFilePattern() {
     Assert.assertTrue(recoverableHadoopFileIO.matchTrashFilePattern(file1));
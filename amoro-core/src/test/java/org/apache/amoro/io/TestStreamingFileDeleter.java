@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.io;
+
+import org.apache.amoro.shade.guava32.com.google.common.collect.Sets;
+import org.apache.amoro.table.TableMetaStore;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.Executors;
+
+public class TestStreamingFileDeleter {
+
+  @Rule public TemporaryFolder temp = new TemporaryFolder();
+
+  private AuthenticatedFileIO io;
+
+  @Before
+  public void setupFileIO() {
+    io = AuthenticatedFileIOs.buildHadoopFileIO(TableMetaStore.EMPTY);
+  }
+
+  @Test
+  public void testDeleteInBatches() throws IOException {
+    File directory = temp.newFolder("data", "op_time_day=2022-01-01");
+    File keptFile = newFile(directory, "kept.parquet");
+    File file1 = newFile(directory, "file1.parquet");
+    File file2 = newFile(directory, "file2.parquet");
+    File file3 = newFile(directory, "file3.parquet");
+
+    StreamingFileDeleter deleter =
+        new StreamingFileDeleter(io, Collections.emptySet(), 2, Executors.newFixedThreadPool(2));
+    deleter.accept(file1.getAbsolutePath());
+    Assert.assertTrue(file1.exists());
+    // the full batch is deleted at once
+    deleter.accept(file2.getAbsolutePath());
+    Assert.assertFalse(file1.exists());
+    Assert.assertFalse(file2.exists());
+    Assert.assertEquals(2, deleter.deletedFileCount());
+
+    deleter.accept(file3.getAbsolutePath());
+    Assert.assertTrue(file3.exists());
+    deleter.finish();
+    Assert.assertFalse(file3.exists());
+    Assert.assertEquals(3, deleter.collectedFileCount());
+    Assert.assertEquals(3, deleter.deletedFileCount());
+    // the directory is not empty
+    Assert.assertTrue(keptFile.exists());
+    Assert.assertThrows(IllegalStateException.class, () -> deleter.accept("file4.parquet"));
+  }
+
+  @Test
+  public void testDeleteEmptyDirectories() throws IOException {
+    File dataDirectory = temp.newFolder("data");
+    File directory1 = temp.newFolder("data", "op_time_day=2022-01-01", "id_bucket=0");
+    File directory2 = temp.newFolder("data", "op_time_day=2022-01-01", "id_bucket=1");
+    File excludedDirectory = temp.newFolder("data", "op_time_day=2022-01-02");
+    File file1 = newFile(directory1, "file1.parquet");
+    File file2 = newFile(directory2, "file2.parquet");
+    File excludedFile = newFile(excludedDirectory, "file3.parquet");
+    newFile(dataDirectory, "kept.parquet");
+
+    StreamingFileDeleter deleter =
+        new StreamingFileDeleter(
+            io,
+            Sets.newHashSet(excludedDirectory.getAbsolutePath()),
+            StreamingFileDeleter.DEFAULT_BATCH_SIZE,
+            Executors.newFixedThreadPool(2));
+    deleter.accept(file1.getAbsolutePath());
+    deleter.accept(file2.getAbsolutePath());
+    deleter.accept(excludedFile.getAbsolutePath());
+    deleter.finish();
+
+    Assert.assertEquals(3, deleter.collectedFileCount());
+    Assert.assertEquals(2, deleter.deletedFileCount());
+    Assert.assertTrue(excludedFile.exists());
+    // empty directories are deleted up to the first non-empty one
+    Assert.assertFalse(directory1.exists());
+    Assert.assertFalse(directory2.exists());
+    Assert.assertFalse(directory1.getParentFile().exists());
+    Assert.assertTrue(dataDirectory.exists());
+  }
+
+  private static File newFile(File directory, String name) throws IOException {
+    File file = new File(directory, name);
+    Assert.assertTrue(file.createNewFile());
+    return file;
+  }
+}
@@ -27,6 +27,7 @@ import org.apache.amoro.catalog.BasicCatalogTestHelper;
 import org.apache.amoro.catalog.CatalogTestHelper;
 import org.apache.amoro.data.ChangeAction;
 import org.apache.amoro.io.reader.BaseIcebergPosDeleteReader;
+import org.apache.amoro.io.reader.DeleteIndexCache;
 import org.apache.amoro.scan.CombinedScanTask;
 import org.apache.amoro.scan.KeyedTableScanTask;
 import org.apache.amoro.shade.guava32.com.google.common.collect.ImmutableList;
@@ -107,6 +108,35 @@ public class TestTaskReader extends TableDataTestBase {
     Assert.assertEquals(expectRecords, records);
   }
 
+  @Test
+  public void testMergeOnReadWithDeleteIndexCache() {
+    DeleteIndexCache.initialize(64 * 1024 * 1024);
+    DeleteIndexCache cache = DeleteIndexCache.get();
+    cache.invalidateAll();
+    try {
+      Set<Record> expectRecords =
+          Sets.newHashSet(
+              allRecords.get(0), allRecords.get(1), allRecords.get(2), allRecords.get(5));
+      long hitCount = cache.stats().hitCount();
+      for (int i = 0; i < 2; i++) {
+        Set<Record> records =
+            Sets.newHashSet(
+                tableTestHelper()
+                    .readKeyedTable(
+                        getMixedTable().asKeyedTable(),
+                        Expressions.alwaysTrue(),
+                        null,
+                        useDiskMap,
+                        false));
+        Assert.assertEquals(expectRecords, records);
+      }
+      Assert.assertTrue(cache.estimatedSizeInBytes() > 0);
+      Assert.assertTrue(cache.stats().hitCount() > hitCount);
+    } finally {
+      cache.invalidateAll();
+    }
+  }
+
   @Test
   public void testMergeOnReadFilterLongType() {
     // where id = 1
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.optimizing;
+
+import org.apache.amoro.BasicTableTestHelper;
+import org.apache.amoro.TableFormat;
+import org.apache.amoro.catalog.BasicCatalogTestHelper;
+import org.apache.amoro.catalog.TableTestBase;
+import org.apache.amoro.io.MixedDataTestHelpers;
+import org.apache.amoro.shade.guava32.com.google.common.collect.Lists;
+import org.apache.amoro.table.UnkeyedTable;
+import org.apache.iceberg.AppendFiles;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.HasTableOperations;
+import org.apache.iceberg.Snapshot;
+import org.apache.iceberg.TableOperations;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+public class TestCleanExpiredFilesExecutor extends TableTestBase {
+
+  public TestCleanExpiredFilesExecutor() {
+    super(
+        new BasicCatalogTestHelper(TableFormat.MIXED_ICEBERG),
+        new BasicTableTestHelper(false, false));
+  }
+
+  @Test
+  public void testCleanInBatches() {
+    UnkeyedTable table = getMixedTable().asUnkeyedTable();
+    DataFile deleted = writeDataFile(1, "john");
+    DataFile retained = writeDataFile(2, "lily");
+    AppendFiles append = table.newAppend();
+    append.appendFile(deleted);
+    append.appendFile(retained);
+    append.commit();
+    Snapshot expiredSnapshot = table.currentSnapshot();
+    table.newDelete().deleteFile(deleted).commit();
+
+    TableOperations operations = ((HasTableOperations) table).operations();
+    String expiringMetadataLocation = operations.refresh().metadataFileLocation();
+    table
+        .expireSnapshots()
+        .expireSnapshotId(expiredSnapshot.snapshotId())
+        .cleanExpiredFiles(false)
+        .commit();
+    String expiredMetadataLocation = operations.refresh().metadataFileLocation();
+
+    CleanExpiredFilesInput input =
+        new CleanExpiredFilesInput(
+            getMixedTable(),
+            expiringMetadataLocation,
+            expiredMetadataLocation,
+            Collections.emptySet());
+    // each expired content file is checked against the retained manifests in its own batch
+    CleanExpiredFilesOutput output =
+        new CleanExpiredFilesExecutor(input, getMixedTable().io(), 1).execute();
+
+    List<String> expiredFiles =
+        Lists.newArrayList(deleted.path().toString(), expiredSnapshot.manifestListLocation());
+    expiredSnapshot.allManifests(table.io()).forEach(manifest -> expiredFiles.add(manifest.path()));
+    Assert.assertEquals(expiredFiles.size(), output.getExpiredFileCount());
+    Assert.assertEquals(expiredFiles.size(), output.getDeletedFileCount());
+    expiredFiles.forEach(file -> Assert.assertFalse(file, table.io().exists(file)));
+    Assert.assertTrue(table.io().exists(retained.path().toString()));
+  }
+
+  private DataFile writeDataFile(int id, String name) {
+    return MixedDataTestHelpers.writeBaseStore(
+            getMixedTable(),
+            0L,
+            Lists.newArrayList(
+                tableTestHelper().generateTestRecord(id, name, 0, "2022-01-01T12:00:00")),
+            false)
+        .get(0);
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.optimizing;
+
+import org.apache.amoro.shade.guava32.com.google.common.collect.Lists;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.data.GenericRecord;
+import org.apache.iceberg.data.Record;
+import org.apache.iceberg.types.Types;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class TestClusteringOrder {
+
+  private static final Schema SCHEMA =
+      new Schema(
+          Types.NestedField.required(1, "x", Types.IntegerType.get()),
+          Types.NestedField.optional(2, "y", Types.LongType.get()),
+          Types.NestedField.optional(3, "name", Types.StringType.get()));
+
+  @Test
+  public void testSort() {
+    ClusteringOrder order =
+        ClusteringOrder.of(SCHEMA, Lists.newArrayList("name", "x"), ClusteringStrategy.SORT);
+    List<Record> records =
+        Lists.newArrayList(
+            record(2, 0L, "b"), record(1, 0L, "b"), record(3, 0L, null), record(0, 0L, "a"));
+    order.sort(records);
+    Assert.assertEquals(
+        Lists.newArrayList(3, 0, 1, 2),
+        records.stream().map(r -> r.getField("x")).collect(Collectors.toList()));
+  }
+
+  @Test
+  public void testZOrder() {
+    ClusteringOrder order =
+        ClusteringOrder.of(SCHEMA, Lists.newArrayList("x", "y"), ClusteringStrategy.ZORDER);
+    List<Record> records = Lists.newArrayList();
+    for (int x = 3; x >= 0; x--) {
+      for (long y = 3; y >= 0; y--) {
+        records.add(record(x, y, null));
+      }
+    }
+    order.sort(records);
+    // the first quadrant of the Z-order curve
+    List<String> firstQuadrant =
+        records.subList(0, 4).stream()
+            .map(r -> r.getField("x") + "," + r.getField("y"))
+            .collect(Collectors.toList());
+    Assert.assertEquals(Lists.newArrayList("0,0", "0,1", "1,0", "1,1"), firstQuadrant);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownColumn() {
+    ClusteringOrder.of(SCHEMA, Lists.newArrayList("unknown"), ClusteringStrategy.SORT);
+  }
+
+  private static Record record(int x, long y, String name) {
+    Record record = GenericRecord.create(SCHEMA);
+    record.setField("x", x);
+    record.setField("y", y);
+    record.setField("name", name);
+    return record;
+  }
+}
@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.optimizing;
+
+import org.apache.amoro.BasicTableTestHelper;
+import org.apache.amoro.TableFormat;
+import org.apache.amoro.catalog.BasicCatalogTestHelper;
+import org.apache.amoro.catalog.TableTestBase;
+import org.apache.amoro.io.MixedDataTestHelpers;
+import org.apache.amoro.shade.guava32.com.google.common.collect.Lists;
+import org.apache.amoro.table.MixedTable;
+import org.apache.amoro.utils.SerializationUtil;
+import org.apache.iceberg.ContentFile;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.DeleteFile;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.List;
+
+@RunWith(Parameterized.class)
+public class TestRewriteFilesInput extends TableTestBase {
+
+  public TestRewriteFilesInput(boolean keyedTable) {
+    super(
+        new BasicCatalogTestHelper(TableFormat.MIXED_ICEBERG),
+        new BasicTableTestHelper(keyedTable, true));
+  }
+
+  @Parameterized.Parameters(name = "keyedTable = {0}")
+  public static Object[] parameters() {
+    return new Object[] {true, false};
+  }
+
+  @Test
+  public void testSerializeTableReference() {
+    MixedTable staleTable = getMixedFormatCatalog().loadTable(getMixedTable().id());
+    MixedDataTestHelpers.writeAndCommitBaseStore(
+        getMixedTable(),
+        1L,
+        Lists.newArrayList(
+            tableTestHelper().generateTestRecord(1, "john", 0, "2022-01-01T12:00:00")),
+        false);
+
+    RewriteFilesInput input =
+        new RewriteFilesInput(
+            new DataFile[0],
+            new DataFile[0],
+            new ContentFile<?>[0],
+            new ContentFile<?>[0],
+            getMixedTable());
+    RewriteFilesInput deserialized =
+        SerializationUtil.simpleDeserialize(SerializationUtil.simpleSerialize(input));
+
+    Assert.assertThrows(IllegalStateException.class, deserialized::getTable);
+    TableReference reference = deserialized.getTableReference();
+    Assert.assertEquals(getMixedTable().id(), reference.getIdentifier());
+    Assert.assertEquals(getMixedTable().location(), reference.getLocation());
+    Assert.assertTrue(reference.isSatisfiedBy(getMixedTable()));
+
+    // a table loaded before the planning should be refreshed
+    Assert.assertFalse(reference.isSatisfiedBy(staleTable));
+    staleTable.refresh();
+    Assert.assertTrue(reference.isSatisfiedBy(staleTable));
+
+    deserialized.resolveTable(r -> staleTable);
+    Assert.assertSame(staleTable, deserialized.getTable());
+  }
+
+  @Test
+  public void testFallbackToEmbeddedTable() {
+    RewriteFilesInput input =
+        new RewriteFilesInput(
+            new DataFile[0],
+            new DataFile[0],
+            new ContentFile<?>[0],
+            new ContentFile<?>[0],
+            getMixedTable());
+    input.option("key", "value");
+    RewriteFilesInput embedded =
+        input.withEmbeddedTable(
+            () -> {
+              throw new IllegalStateException("The input holds the table");
+            });
+    Assert.assertEquals("value", embedded.getOptions().get("key"));
+
+    // the embedded table is used only if the referenced table can not be resolved
+    RewriteFilesInput deserialized =
+        SerializationUtil.simpleDeserialize(SerializationUtil.simpleSerialize(embedded));
+    deserialized.resolveTable(
+        r -> {
+          throw new IllegalStateException("The catalog is not reachable");
+        });
+    Assert.assertEquals(getMixedTable().id(), deserialized.getTable().id());
+    Assert.assertTrue(deserialized.getTableReference().isSatisfiedBy(deserialized.getTable()));
+
+    deserialized = SerializationUtil.simpleDeserialize(SerializationUtil.simpleSerialize(embedded));
+    deserialized.resolveTable(r -> getMixedTable());
+    Assert.assertSame(getMixedTable(), deserialized.getTable());
+
+    // the table is not embedded once the input is serialized again
+    RewriteFilesInput reserialized =
+        SerializationUtil.simpleDeserialize(SerializationUtil.simpleSerialize(deserialized));
+    Assert.assertThrows(IllegalStateException.class, reserialized::getTable);
+    Assert.assertThrows(
+        IllegalStateException.class,
+        () ->
+            reserialized.resolveTable(
+                r -> {
+                  throw new IllegalStateException("The catalog is not reachable");
+                }));
+  }
+
+  @Test
+  public void testSplit() {
+    List<DataFile> dataFiles =
+        MixedDataTestHelpers.writeAndCommitBaseStore(
+            getMixedTable(),
+            1L,
+            Lists.newArrayList(
+                tableTestHelper().generateTestRecord(1, "john", 0, "2022-01-01T12:00:00"),
+                tableTestHelper().generateTestRecord(2, "lily", 0, "2022-01-01T12:00:00")),
+            false);
+    List<DeleteFile> deleteFiles =
+        MixedDataTestHelpers.writeBaseStorePosDelete(
+            getMixedTable(), 2L, dataFiles.get(0), Lists.newArrayList(0L));
+
+    RewriteFilesInput input =
+        new RewriteFilesInput(
+            dataFiles.toArray(new DataFile[0]),
+            new DataFile[0],
+            new ContentFile<?>[0],
+            deleteFiles.toArray(new ContentFile<?>[0]),
+            getMixedTable());
+    input.option("key", "value");
+    RewriteFilesInput split = input.split(new DataFile[] {dataFiles.get(0)});
+
+    Assert.assertArrayEquals(new DataFile[] {dataFiles.get(0)}, split.rewrittenDataFiles());
+    Assert.assertEquals(0, split.rePosDeletedDataFiles().length);
+    Assert.assertArrayEquals(input.deleteFiles(), split.readOnlyDeleteFiles());
+    Assert.assertEquals(0, split.rewrittenDeleteFiles().length);
+    Assert.assertEquals("value", split.getOptions().get("key"));
+    Assert.assertSame(input.getTableReference(), split.getTableReference());
+    Assert.assertSame(getMixedTable(), split.getTable());
+
+    RewriteFilesInput rePosInput =
+        new RewriteFilesInput(
+            new DataFile[0],
+            dataFiles.toArray(new DataFile[0]),
+            new ContentFile<?>[0],
+            new ContentFile<?>[0],
+            getMixedTable());
+    Assert.assertThrows(IllegalStateException.class, () -> rePosInput.split(new DataFile[0]));
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.optimizing;
+
+import org.apache.amoro.shade.guava32.com.google.common.collect.Lists;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.data.GenericRecord;
+import org.apache.iceberg.data.Record;
+import org.apache.iceberg.io.CloseableIterator;
+import org.apache.iceberg.types.Types;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+public class TestSpillableRecordSorter {
+
+  private static final Schema SCHEMA =
+      new Schema(
+          Types.NestedField.required(1, "x", Types.IntegerType.get()),
+          Types.NestedField.optional(2, "y", Types.LongType.get()),
+          Types.NestedField.optional(3, "name", Types.StringType.get()));
+
+  @Rule public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void testSortInMemory() throws IOException {
+    ClusteringOrder order =
+        ClusteringOrder.of(SCHEMA, Lists.newArrayList("name", "x", "y"), ClusteringStrategy.SORT);
+    File spillDirectory = temp.newFolder();
+    try (SpillableRecordSorter sorter =
+        new SpillableRecordSorter(order, Long.MAX_VALUE, spillDirectory.getPath())) {
+      Assert.assertEquals(expected(order), sort(sorter));
+      Assert.assertEquals(0, sorter.spilledRunCount());
+    }
+  }
+
+  @Test
+  public void testSortWithSpilledRuns() throws IOException {
+    ClusteringOrder order =
+        ClusteringOrder.of(SCHEMA, Lists.newArrayList("name", "x", "y"), ClusteringStrategy.SORT);
+    File spillDirectory = temp.newFolder();
+    try (SpillableRecordSorter sorter =
+        new SpillableRecordSorter(order, 1024, spillDirectory.getPath())) {
+      Assert.assertEquals(expected(order), sort(sorter));
+      Assert.assertTrue(sorter.spilledRunCount() > 1);
+      Assert.assertEquals(sorter.spilledRunCount(), listFiles(spillDirectory).length);
+    }
+    // spilled runs are deleted when the sorter is closed
+    Assert.assertEquals(0, listFiles(spillDirectory).length);
+  }
+
+  @Test
+  public void testZOrderWithSpilledRuns() throws IOException {
+    ClusteringOrder order =
+        ClusteringOrder.of(SCHEMA, Lists.newArrayList("x", "y"), ClusteringStrategy.ZORDER);
+    try (SpillableRecordSorter sorter =
+        new SpillableRecordSorter(order, 1024, temp.newFolder().getPath())) {
+      Assert.assertEquals(expected(order), sort(sorter));
+      Assert.assertTrue(sorter.spilledRunCount() > 1);
+    }
+  }
+
+  private static List<String> sort(SpillableRecordSorter sorter) throws IOException {
+    for (Record record : records()) {
+      sorter.add(record);
+    }
+    List<String> sorted = Lists.newArrayList();
+    try (CloseableIterator<Record> records = sorter.sorted()) {
+      records.forEachRemaining(record -> sorted.add(toString(record)));
+    }
+    Assert.assertEquals(records().size(), sorter.recordCount());
+    return sorted;
+  }
+
+  private static List<String> expected(ClusteringOrder order) {
+    List<Record> records = records();
+    order.sort(records);
+    return records.stream().map(TestSpillableRecordSorter::toString).collect(Collectors.toList());
+  }
+
+  /** Records with distinct clustering values in a shuffled order. */
+  private static List<Record> records() {
+    List<Record> records = Lists.newArrayList();
+    for (int x = 0; x < 20; x++) {
+      for (long y = 0; y < 10; y++) {
+        records.add(record(x, y, x % 3 == 0 ? null : "name-" + (x % 5)));
+      }
+    }
+    Collections.shuffle(records, new Random(1));
+    return records;
+  }
+
+  private static Record record(int x, long y, String name) {
+    Record record = GenericRecord.create(SCHEMA);
+    record.setField("x", x);
+    record.setField("y", y);
+    record.setField("name", name);
+    return record;
+  }
+
+  private static String toString(Record record) {
+    return record.getField("x") + "," + record.getField("y") + "," + record.getField("name");
+  }
+
+  private static File[] listFiles(File directory) {
+    return Objects.requireNonNull(directory.listFiles((dir, name) -> name.endsWith(".avro")));
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.table;
+
+import org.apache.amoro.io.AuthenticatedFileIO;
+import org.apache.amoro.io.AuthenticatedFileIOs;
+import org.apache.amoro.shade.guava32.com.google.common.collect.Lists;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class TestTableMetaStore {
+
+  private static final TableMetaStore USER_A = simpleAuthMetaStore("user_a");
+  private static final TableMetaStore USER_B = simpleAuthMetaStore("user_b");
+
+  @Test
+  public void testNestedDoAs() {
+    List<String> users =
+        USER_A.doAs(
+            () -> {
+              List<String> nestedUsers = Lists.newArrayList(currentUser());
+              // the same meta store runs directly as the outer ugi
+              nestedUsers.add(USER_A.doAs(TestTableMetaStore::currentUser));
+              // another meta store runs as its own ugi, then the outer ugi is back
+              nestedUsers.add(
+                  USER_B.doAs(
+                      () -> currentUser() + "," + USER_A.doAs(TestTableMetaStore::currentUser)));
+              nestedUsers.add(USER_A.doAs(TestTableMetaStore::currentUser));
+              return nestedUsers;
+            });
+    Assert.assertEquals(Lists.newArrayList("user_a", "user_a", "user_b,user_a", "user_a"), users);
+    Assert.assertEquals("user_b", USER_B.doAs(TestTableMetaStore::currentUser));
+  }
+
+  @Test
+  public void testNestedDoAsFailure() {
+    RuntimeException exception =
+        Assert.assertThrows(
+            RuntimeException.class,
+            () ->
+                USER_A.doAs(
+                    () ->
+                        USER_A.doAs(
+                            () -> {
+                              throw new IllegalStateException("nested failure");
+                            })));
+    Assert.assertEquals("nested failure", exception.getMessage());
+    // the failed nested call does not leave the thread authenticated
+    Assert.assertEquals("user_a", USER_A.doAs(TestTableMetaStore::currentUser));
+    Assert.assertEquals("user_a", USER_B.doAs(() -> USER_A.doAs(TestTableMetaStore::currentUser)));
+  }
+
+  @Test
+  public void testDoAsBatch() {
+    AuthenticatedFileIO io = AuthenticatedFileIOs.buildHadoopFileIO(USER_A);
+    List<String> users = Lists.newArrayList();
+    io.doAsBatch(
+        Lists.newArrayList(1, 2, 3),
+        i -> users.add(i + ":" + io.doAs(TestTableMetaStore::currentUser)));
+    Assert.assertEquals(Lists.newArrayList("1:user_a", "2:user_a", "3:user_a"), users);
+
+    List<String> otherUsers = Lists.newArrayList();
+    USER_B.doAs(
+        () -> {
+          io.doAsBatch(Lists.newArrayList(1), i -> otherUsers.add(currentUser()));
+          otherUsers.add(currentUser());
+          return null;
+        });
+    Assert.assertEquals(Lists.newArrayList("user_a", "user_b"), otherUsers);
+  }
+
+  private static String currentUser() throws Exception {
+    return UserGroupInformation.getCurrentUser().getShortUserName();
+  }
+
+  private static TableMetaStore simpleAuthMetaStore(String user) {
+    return TableMetaStore.builder()
+        .withSimpleAuth(user)
+        .withConfiguration(new Configuration())
+        .buildForTest();
+  }
+}
@@ -19,9 +19,11 @@
 package org.apache.amoro.hive;
 
 import org.apache.hadoop.hive.metastore.PartitionDropOptions;
+import org.apache.hadoop.hive.metastore.api.CurrentNotificationEventId;
 import org.apache.hadoop.hive.metastore.api.Database;
 import org.apache.hadoop.hive.metastore.api.EnvironmentContext;
 import org.apache.hadoop.hive.metastore.api.MetaException;
+import org.apache.hadoop.hive.metastore.api.NotificationEventResponse;
 import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.hadoop.hive.metastore.api.Table;
 import org.apache.thrift.TException;
@@ -88,4 +90,8 @@ public interface HMSClient {
           InvocationTargetException, ClassNotFoundException;
 
   List<Table> getTableObjectsByName(String dbName, List<String> tableNames) throws TException;
+
+  CurrentNotificationEventId getCurrentNotificationEventId() throws TException;
+
+  NotificationEventResponse getNextNotification(long lastEventId, int maxEvents) throws TException;
 }
@@ -40,10 +40,15 @@ public class MixFormatRewriteExecutorFactory
   @Override
   public OptimizingExecutor createExecutor(RewriteFilesInput input) {
     OptimizingInputProperties optimizingConfig = OptimizingInputProperties.parse(properties);
-    return new MixFormatRewriteExecutor(
-        input,
-        input.getTable(),
-        optimizingConfig.getStructLikeCollections(),
-        optimizingConfig.getOutputDir());
+    MixFormatRewriteExecutor executor =
+        new MixFormatRewriteExecutor(
+            input,
+            input.getTable(),
+            optimizingConfig.getStructLikeCollections(),
+            optimizingConfig.getOutputDir());
+    executor.setClusteringOrder(optimizingConfig.getClusteringOrder(input.getTable().schema()));
+    executor.setClusteringSpill(
+        optimizingConfig.getMaxSizeInMemory(), optimizingConfig.getSpillMapPath());
+    return executor;
   }
 }
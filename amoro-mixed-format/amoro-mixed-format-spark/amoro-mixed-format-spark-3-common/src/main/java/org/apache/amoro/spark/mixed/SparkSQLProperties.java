@@ -38,4 +38,16 @@ public class SparkSQLProperties {
   public static final String OPTIMIZE_WRITE_ENABLED =
       "spark.sql.mixed-format.optimize-write-enabled";
   public static final String OPTIMIZE_WRITE_ENABLED_DEFAULT = "true";
+
+  public static final String DELETE_INDEX_CACHE_MAX_SIZE_BYTES =
+      "spark.sql.mixed-format.delete-index-cache.max-size-bytes";
+  public static final String DELETE_INDEX_CACHE_MAX_SIZE_BYTES_DEFAULT = "0";
+
+  public static final String VECTORIZATION_ENABLED =
+      "spark.sql.mixed-format.vectorization.enabled";
+  public static final String VECTORIZATION_ENABLED_DEFAULT = "false";
+
+  public static final String PRESERVE_DATA_GROUPING =
+      "spark.sql.mixed-format.planning.preserve-data-grouping";
+  public static final String PRESERVE_DATA_GROUPING_DEFAULT = "false";
 }
@@ -18,7 +18,9 @@
 
 package org.apache.amoro.spark.reader;
 
+import org.apache.amoro.hive.table.SupportHive;
 import org.apache.amoro.io.AuthenticatedFileIO;
+import org.apache.amoro.io.reader.DeleteIndexCache;
 import org.apache.amoro.scan.CombinedScanTask;
 import org.apache.amoro.scan.KeyedTableScan;
 import org.apache.amoro.scan.KeyedTableScanTask;
@@ -27,6 +29,7 @@ import org.apache.amoro.shade.guava32.com.google.common.collect.Lists;
 import org.apache.amoro.spark.util.Stats;
 import org.apache.amoro.table.KeyedTable;
 import org.apache.amoro.table.PrimaryKeySpec;
+import org.apache.iceberg.FileFormat;
 import org.apache.iceberg.Schema;
 import org.apache.iceberg.TableProperties;
 import org.apache.iceberg.expressions.Expression;
@@ -34,7 +37,9 @@ import org.apache.iceberg.io.CloseableIterable;
 import org.apache.iceberg.io.CloseableIterator;
 import org.apache.iceberg.spark.Spark3Util;
 import org.apache.iceberg.spark.SparkSchemaUtil;
+import org.apache.iceberg.util.PropertyUtil;
 import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.connector.expressions.NamedReference;
 import org.apache.spark.sql.connector.read.Batch;
 import org.apache.spark.sql.connector.read.InputPartition;
 import org.apache.spark.sql.connector.read.PartitionReader;
@@ -42,8 +47,11 @@ import org.apache.spark.sql.connector.read.PartitionReaderFactory;
 import org.apache.spark.sql.connector.read.Scan;
 import org.apache.spark.sql.connector.read.Statistics;
 import org.apache.spark.sql.connector.read.SupportsReportStatistics;
+import org.apache.spark.sql.connector.read.SupportsRuntimeFiltering;
+import org.apache.spark.sql.sources.Filter;
 import org.apache.spark.sql.types.StructType;
 import org.apache.spark.sql.util.CaseInsensitiveStringMap;
+import org.apache.spark.sql.vectorized.ColumnarBatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -55,22 +63,29 @@ import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
-public class KeyedSparkBatchScan implements Scan, Batch, SupportsReportStatistics {
+public class KeyedSparkBatchScan
+    implements Scan, Batch, SupportsReportStatistics, SupportsRuntimeFiltering {
   private static final Logger LOG = LoggerFactory.getLogger(KeyedSparkBatchScan.class);
 
   private final KeyedTable table;
   private final boolean caseSensitive;
   private final Schema expectedSchema;
   private final List<Expression> filterExpressions;
+  private final List<Expression> runtimeFilterExpressions = Lists.newArrayList();
+  private final long deleteIndexCacheMaxSize;
+  private final boolean vectorizationEnabled;
   private StructType readSchema = null;
   private List<CombinedScanTask> tasks = null;
+  private Boolean columnarReads = null;
 
   KeyedSparkBatchScan(
       KeyedTable table,
       boolean caseSensitive,
       Schema expectedSchema,
       List<Expression> filters,
-      CaseInsensitiveStringMap options) {
+      CaseInsensitiveStringMap options,
+      long deleteIndexCacheMaxSize,
+      boolean vectorizationEnabled) {
     Preconditions.checkNotNull(table, "table must not be null");
     Preconditions.checkNotNull(expectedSchema, "expectedSchema must not be null");
     Preconditions.checkNotNull(filters, "filters must not be null");
@@ -79,6 +94,8 @@ public class KeyedSparkBatchScan implements Scan, Batch, SupportsReportStatistic
     this.caseSensitive = caseSensitive;
     this.expectedSchema = expectedSchema;
     this.filterExpressions = filters;
+    this.deleteIndexCacheMaxSize = deleteIndexCacheMaxSize;
+    this.vectorizationEnabled = vectorizationEnabled;
   }
 
   @Override
@@ -97,14 +114,39 @@ public class KeyedSparkBatchScan implements Scan, Batch, SupportsReportStatistic
   @Override
   public InputPartition[] planInputPartitions() {
     List<CombinedScanTask> scanTasks = tasks();
+    boolean columnar = columnarReads();
     MixedFormatInputPartition[] readTasks = new MixedFormatInputPartition[scanTasks.size()];
     for (int i = 0; i < scanTasks.size(); i++) {
       readTasks[i] =
-          new MixedFormatInputPartition(scanTasks.get(i), table, expectedSchema, caseSensitive);
+          new MixedFormatInputPartition(
+              scanTasks.get(i),
+              table,
+              expectedSchema,
+              caseSensitive,
+              deleteIndexCacheMaxSize,
+              columnar);
     }
     return readTasks;
   }
 
+  /**
+   * All partitions of a scan must be read in the same way, so only read as columnar batches when
+   * every data file of the scan is a parquet file.
+   */
+  private boolean columnarReads() {
+    if (columnarReads == null) {
+      this.columnarReads =
+          vectorizationEnabled
+              && !(table instanceof SupportHive)
+              && ColumnarBatchUtil.supportsColumnarReads(FileFormat.PARQUET, expectedSchema)
+              && tasks().stream()
+                  .flatMap(combinedScanTask -> combinedScanTask.tasks().stream())
+                  .flatMap(keyedTableScanTask -> keyedTableScanTask.dataTasks().stream())
+                  .allMatch(task -> task.file().format() == FileFormat.PARQUET);
+    }
+    return columnarReads;
+  }
+
   @Override
   public PartitionReaderFactory createReaderFactory() {
     return new ReaderFactory();
@@ -126,6 +168,28 @@ public class KeyedSparkBatchScan implements Scan, Batch, SupportsReportStatistic
     return new Stats(sizeInBytes, numRows);
   }
 
+  @Override
+  public NamedReference[] filterAttributes() {
+    return RuntimeFilterUtil.filterAttributes(table, expectedSchema);
+  }
+
+  @Override
+  public void filter(Filter[] filters) {
+    Expression runtimeFilterExpr =
+        RuntimeFilterUtil.convert(filters, table.schema(), caseSensitive);
+    if (runtimeFilterExpr.op() == Expression.Operation.TRUE) {
+      return;
+    }
+    int numTasks = tasks().size();
+    runtimeFilterExpressions.add(runtimeFilterExpr);
+    this.tasks = null;
+    LOG.info(
+        "{} of {} tasks are kept after runtime filtering with {}",
+        tasks().size(),
+        numTasks,
+        runtimeFilterExpr);
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -140,7 +204,8 @@ public class KeyedSparkBatchScan implements Scan, Batch, SupportsReportStatistic
     return table.id().equals(that.table.id())
         && readSchema().equals(that.readSchema())
         && // compare Spark schemas to ignore field ids
-        filterExpressions.toString().equals(that.filterExpressions.toString());
+        filterExpressions.toString().equals(that.filterExpressions.toString())
+        && runtimeFilterExpressions.toString().equals(that.runtimeFilterExpressions.toString());
   }
 
   @Override
@@ -155,6 +220,9 @@ public class KeyedSparkBatchScan implements Scan, Batch, SupportsReportStatistic
       for (Expression filter : filterExpressions) {
         scan = scan.filter(filter);
       }
+      for (Expression filter : runtimeFilterExpressions) {
+        scan = scan.filter(filter);
+      }
       long startTime = System.currentTimeMillis();
       LOG.info("mor statistics plan task start");
       try (CloseableIterable<CombinedScanTask> tasksIterable = scan.planTasks()) {
@@ -193,6 +261,21 @@ public class KeyedSparkBatchScan implements Scan, Batch, SupportsReportStatistic
         throw new UnsupportedOperationException("Incorrect input partition type: " + partition);
       }
     }
+
+    @Override
+    public PartitionReader<ColumnarBatch> createColumnarReader(InputPartition partition) {
+      if (partition instanceof MixedFormatInputPartition) {
+        return new BatchReader((MixedFormatInputPartition) partition);
+      } else {
+        throw new UnsupportedOperationException("Incorrect input partition type: " + partition);
+      }
+    }
+
+    @Override
+    public boolean supportColumnarReads(InputPartition partition) {
+      return partition instanceof MixedFormatInputPartition
+          && ((MixedFormatInputPartition) partition).columnar;
+    }
   }
 
   private static class RowReader implements PartitionReader<InternalRow> {
@@ -204,6 +287,8 @@ public class KeyedSparkBatchScan implements Scan, Batch, SupportsReportStatistic
     InternalRow current;
 
     RowReader(MixedFormatInputPartition task) {
+      // share decoded delete files among all tasks running in the same executor
+      DeleteIndexCache.initialize(task.deleteIndexCacheMaxSize);
       reader =
           new SparkKeyedDataReader(
               task.io,
@@ -246,6 +331,59 @@ public class KeyedSparkBatchScan implements Scan, Batch, SupportsReportStatistic
     }
   }
 
+  private static class BatchReader implements PartitionReader<ColumnarBatch> {
+
+    SparkKeyedDataReader reader;
+    Iterator<KeyedTableScanTask> scanTasks;
+    int batchSize;
+    CloseableIterator<ColumnarBatch> currentIterator = CloseableIterator.empty();
+    ColumnarBatch current;
+
+    BatchReader(MixedFormatInputPartition task) {
+      // share decoded delete files among all tasks running in the same executor
+      DeleteIndexCache.initialize(task.deleteIndexCacheMaxSize);
+      reader =
+          new SparkKeyedDataReader(
+              task.io,
+              task.tableSchema,
+              task.expectedSchema,
+              task.keySpec,
+              task.nameMapping,
+              task.caseSensitive);
+      scanTasks = task.combinedScanTask.tasks().iterator();
+      batchSize = task.batchSize;
+    }
+
+    @Override
+    public boolean next() throws IOException {
+      while (true) {
+        if (currentIterator.hasNext()) {
+          this.current = currentIterator.next();
+          return true;
+        } else if (scanTasks.hasNext()) {
+          this.currentIterator.close();
+          this.currentIterator = reader.readBatches(scanTasks.next(), batchSize);
+        } else {
+          this.currentIterator.close();
+          return false;
+        }
+      }
+    }
+
+    @Override
+    public ColumnarBatch get() {
+      return this.current;
+    }
+
+    @Override
+    public void close() throws IOException {
+      this.currentIterator.close();
+      while (scanTasks.hasNext()) {
+        scanTasks.next();
+      }
+    }
+  }
+
   private static class MixedFormatInputPartition implements InputPartition, Serializable {
     final CombinedScanTask combinedScanTask;
     final AuthenticatedFileIO io;
@@ -254,12 +392,17 @@ public class KeyedSparkBatchScan implements Scan, Batch, SupportsReportStatistic
     final Schema tableSchema;
     final PrimaryKeySpec keySpec;
     final String nameMapping;
+    final long deleteIndexCacheMaxSize;
+    final boolean columnar;
+    final int batchSize;
 
     MixedFormatInputPartition(
         CombinedScanTask combinedScanTask,
         KeyedTable table,
         Schema expectedSchema,
-        boolean caseSensitive) {
+        boolean caseSensitive,
+        long deleteIndexCacheMaxSize,
+        boolean columnar) {
       this.combinedScanTask = combinedScanTask;
       this.expectedSchema = expectedSchema;
       this.tableSchema = table.schema();
@@ -267,6 +410,13 @@ public class KeyedSparkBatchScan implements Scan, Batch, SupportsReportStatistic
       this.io = table.io();
       this.keySpec = table.primaryKeySpec();
       this.nameMapping = table.properties().get(TableProperties.DEFAULT_NAME_MAPPING);
+      this.deleteIndexCacheMaxSize = deleteIndexCacheMaxSize;
+      this.columnar = columnar;
+      this.batchSize =
+          PropertyUtil.propertyAsInt(
+              table.properties(),
+              TableProperties.PARQUET_BATCH_SIZE,
+              TableProperties.PARQUET_BATCH_SIZE_DEFAULT);
     }
   }
 }
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.spark.reader;
+
+import org.apache.amoro.shade.guava32.com.google.common.collect.Sets;
+import org.apache.amoro.table.MixedTable;
+import org.apache.amoro.table.PrimaryKeySpec;
+import org.apache.iceberg.PartitionField;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.exceptions.ValidationException;
+import org.apache.iceberg.expressions.Binder;
+import org.apache.iceberg.expressions.Expression;
+import org.apache.iceberg.expressions.Expressions;
+import org.apache.iceberg.spark.SparkFilters;
+import org.apache.iceberg.types.Types;
+import org.apache.spark.sql.connector.expressions.NamedReference;
+import org.apache.spark.sql.sources.Filter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.Set;
+
+/** Util class to apply runtime filters, e.g. dynamic partition pruning, to mixed-format scans. */
+class RuntimeFilterUtil {
+
+  private static final Logger LOG = LoggerFactory.getLogger(RuntimeFilterUtil.class);
+
+  private RuntimeFilterUtil() {}
+
+  /**
+   * Returns the columns runtime filters could be applied to: the partition source columns, and the
+   * primary key columns whose bounds in file metrics could skip files of keyed tables.
+   */
+  static NamedReference[] filterAttributes(MixedTable table, Schema expectedSchema) {
+    Set<Integer> fieldIds = Sets.newLinkedHashSet();
+    for (PartitionField field : table.spec().fields()) {
+      fieldIds.add(field.sourceId());
+    }
+    if (table.isKeyedTable()) {
+      for (PrimaryKeySpec.PrimaryKeyField field : table.asKeyedTable().primaryKeySpec().fields()) {
+        Types.NestedField column = table.schema().findField(field.fieldName());
+        if (column != null) {
+          fieldIds.add(column.fieldId());
+        }
+      }
+    }
+
+    return fieldIds.stream()
+        .map(expectedSchema::findColumnName)
+        .filter(Objects::nonNull)
+        .map(org.apache.spark.sql.connector.expressions.Expressions::column)
+        .toArray(NamedReference[]::new);
+  }
+
+  /**
+   * Convert runtime filters to an expression bound to the schema, filters which could not be
+   * converted or bound are ignored as Spark still evaluates them.
+   */
+  static Expression convert(Filter[] filters, Schema schema, boolean caseSensitive) {
+    Expression expression = Expressions.alwaysTrue();
+    for (Filter filter : filters) {
+      Expression converted = SparkFilters.convert(filter);
+      if (converted == null) {
+        LOG.warn("Ignoring runtime filter that could not be converted: {}", filter);
+        continue;
+      }
+      try {
+        Binder.bind(schema.asStruct(), converted, caseSensitive);
+        expression = Expressions.and(expression, converted);
+      } catch (ValidationException e) {
+        LOG.warn("Ignoring runtime filter that could not be bound: {}", filter, e);
+      }
+    }
+    return expression;
+  }
+}
@@ -20,11 +20,18 @@ package org.apache.amoro.spark.reader;
 
 import org.apache.amoro.hive.io.reader.AbstractAdaptHiveKeyedDataReader;
 import org.apache.amoro.io.AuthenticatedFileIO;
+import org.apache.amoro.io.reader.DataReaderCommon;
+import org.apache.amoro.io.reader.MixedDeleteFilter;
+import org.apache.amoro.scan.KeyedTableScanTask;
+import org.apache.amoro.scan.MixedFileScanTask;
+import org.apache.amoro.shade.guava32.com.google.common.collect.Iterables;
 import org.apache.amoro.spark.SparkInternalRowWrapper;
 import org.apache.amoro.spark.util.MixedFormatSparkUtils;
 import org.apache.amoro.table.PrimaryKeySpec;
 import org.apache.iceberg.Schema;
 import org.apache.iceberg.StructLike;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.io.CloseableIterator;
 import org.apache.iceberg.orc.OrcRowReader;
 import org.apache.iceberg.parquet.ParquetValueReader;
 import org.apache.iceberg.spark.SparkSchemaUtil;
@@ -33,6 +40,7 @@ import org.apache.orc.TypeDescription;
 import org.apache.parquet.schema.MessageType;
 import org.apache.spark.sql.catalyst.InternalRow;
 import org.apache.spark.sql.types.StructType;
+import org.apache.spark.sql.vectorized.ColumnarBatch;
 
 import java.util.Map;
 import java.util.function.Function;
@@ -57,6 +65,65 @@ public class SparkKeyedDataReader extends AbstractAdaptHiveKeyedDataReader<Inter
         true);
   }
 
+  /**
+   * Read a {@link KeyedTableScanTask} as {@link ColumnarBatch}es, all data files must be parquet
+   * files. Rows deleted by the equality and position delete files are masked out of the batches.
+   */
+  public CloseableIterator<ColumnarBatch> readBatches(
+      KeyedTableScanTask keyedTableScanTask, int batchSize) {
+    int numColumns = projectedSchema.columns().size();
+    boolean hasDeletes =
+        !keyedTableScanTask.mixedEquityDeletes().isEmpty()
+            || keyedTableScanTask.dataTasks().stream().anyMatch(task -> !task.deletes().isEmpty());
+    if (!hasDeletes) {
+      return CloseableIterable.concat(
+              Iterables.transform(
+                  keyedTableScanTask.dataTasks(),
+                  task ->
+                      CloseableIterable.transform(
+                          newBatchIterable(task, projectedSchema, batchSize),
+                          batch -> ColumnarBatchUtil.project(batch, numColumns))))
+          .iterator();
+    }
+
+    MixedDeleteFilter<InternalRow> mixedDeleteFilter =
+        createMixedDeleteFilter(
+            keyedTableScanTask,
+            tableSchema,
+            projectedSchema,
+            primaryKeySpec,
+            sourceNodes,
+            structLikeCollections);
+    Schema requiredSchema = mixedDeleteFilter.requiredSchema();
+    CloseableIterable<ColumnarBatch> batches =
+        CloseableIterable.concat(
+            Iterables.transform(
+                keyedTableScanTask.dataTasks(),
+                task ->
+                    CloseableIterable.transform(
+                        newBatchIterable(task, requiredSchema, batchSize),
+                        batch -> {
+                          mixedDeleteFilter.setCurrentDataPath(task.file().path().toString());
+                          return ColumnarBatchUtil.filter(
+                              batch, numColumns, mixedDeleteFilter::filter);
+                        })));
+    // batches are filtered without closing, release the equality deletes when reading finished
+    return CloseableIterable.combine(batches, mixedDeleteFilter.filter(CloseableIterable.empty()))
+        .iterator();
+  }
+
+  private CloseableIterable<ColumnarBatch> newBatchIterable(
+      MixedFileScanTask task, Schema schema, int batchSize) {
+    return ColumnarBatchUtil.newParquetBatchIterable(
+        fileIO,
+        task,
+        schema,
+        DataReaderCommon.getIdToConstant(task, schema, convertConstant),
+        nameMapping,
+        caseSensitive,
+        batchSize);
+  }
+
   @Override
   protected Function<MessageType, ParquetValueReader<?>> getParquetReaderFunction(
       Schema projectSchema, Map<Integer, ?> idToConstant) {
@@ -19,6 +19,7 @@
 package org.apache.amoro.spark.reader;
 
 import org.apache.amoro.shade.guava32.com.google.common.collect.Lists;
+import org.apache.amoro.spark.mixed.SparkSQLProperties;
 import org.apache.amoro.spark.table.SupportsExtendIdentColumns;
 import org.apache.amoro.table.MixedTable;
 import org.apache.amoro.table.UnkeyedTable;
@@ -59,6 +60,8 @@ public class SparkScanBuilder
   private Schema schema = null;
   private StructType requestedProjection;
   private final boolean caseSensitive;
+  private final long deleteIndexCacheMaxSize;
+  private final boolean vectorizationEnabled;
   private List<Expression> filterExpressions = Lists.newArrayList();
   private Filter[] pushedFilters = NO_FILTERS;
 
@@ -66,6 +69,8 @@ public class SparkScanBuilder
     this.table = table;
     this.options = options;
     this.caseSensitive = Boolean.parseBoolean(spark.conf().get("spark.sql.caseSensitive"));
+    this.deleteIndexCacheMaxSize = deleteIndexCacheMaxSize(spark);
+    this.vectorizationEnabled = vectorizationEnabled(spark);
   }
 
   public SparkScanBuilder(
@@ -74,6 +79,26 @@ public class SparkScanBuilder
     this.options = options;
     this.schema = schema;
     this.caseSensitive = Boolean.parseBoolean(spark.conf().get("spark.sql.caseSensitive"));
+    this.deleteIndexCacheMaxSize = deleteIndexCacheMaxSize(spark);
+    this.vectorizationEnabled = vectorizationEnabled(spark);
+  }
+
+  private static long deleteIndexCacheMaxSize(SparkSession spark) {
+    return Long.parseLong(
+        spark
+            .conf()
+            .get(
+                SparkSQLProperties.DELETE_INDEX_CACHE_MAX_SIZE_BYTES,
+                SparkSQLProperties.DELETE_INDEX_CACHE_MAX_SIZE_BYTES_DEFAULT));
+  }
+
+  private static boolean vectorizationEnabled(SparkSession spark) {
+    return Boolean.parseBoolean(
+        spark
+            .conf()
+            .get(
+                SparkSQLProperties.VECTORIZATION_ENABLED,
+                SparkSQLProperties.VECTORIZATION_ENABLED_DEFAULT));
   }
 
   private Schema lazySchemaWithRowIdent() {
@@ -160,14 +185,17 @@ public class SparkScanBuilder
           caseSensitive,
           lazySchemaWithRowIdent(),
           filterExpressions,
-          options);
+          options,
+          deleteIndexCacheMaxSize,
+          vectorizationEnabled);
     } else if (table.isUnkeyedTable()) {
       return new UnkeyedSparkBatchScan(
           table.asUnkeyedTable(),
           caseSensitive,
           lazySchemaWithRowIdent(),
           filterExpressions,
-          options);
+          options,
+          vectorizationEnabled);
     } else {
       throw new IllegalStateException(
           "Unable to build scan for table: " + table.id().toString() + ", unknown table " + "type");
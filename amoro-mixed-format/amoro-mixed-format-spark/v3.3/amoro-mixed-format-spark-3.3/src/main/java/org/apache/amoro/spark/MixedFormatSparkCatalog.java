@@ -25,6 +25,7 @@ import static org.apache.iceberg.spark.SparkSQLProperties.HANDLE_TIMESTAMP_WITHO
 import org.apache.amoro.hive.utils.CatalogUtil;
 import org.apache.amoro.shade.guava32.com.google.common.base.Preconditions;
 import org.apache.amoro.shade.guava32.com.google.common.collect.Maps;
+import org.apache.amoro.spark.functions.MixedFormatBucketFunction;
 import org.apache.amoro.spark.mixed.MixedSparkCatalogBase;
 import org.apache.amoro.spark.mixed.MixedTableStoreType;
 import org.apache.amoro.spark.table.MixedSparkTable;
@@ -44,10 +45,12 @@ import org.apache.iceberg.spark.Spark3Util;
 import org.apache.iceberg.spark.SparkSchemaUtil;
 import org.apache.iceberg.types.Types;
 import org.apache.spark.sql.SparkSession;
+import org.apache.spark.sql.catalyst.analysis.NoSuchFunctionException;
 import org.apache.spark.sql.catalyst.analysis.NoSuchNamespaceException;
 import org.apache.spark.sql.catalyst.analysis.NoSuchTableException;
 import org.apache.spark.sql.catalyst.analysis.NonEmptyNamespaceException;
 import org.apache.spark.sql.catalyst.analysis.TableAlreadyExistsException;
+import org.apache.spark.sql.connector.catalog.FunctionCatalog;
 import org.apache.spark.sql.connector.catalog.Identifier;
 import org.apache.spark.sql.connector.catalog.Table;
 import org.apache.spark.sql.connector.catalog.TableCatalog;
@@ -55,6 +58,7 @@ import org.apache.spark.sql.connector.catalog.TableChange;
 import org.apache.spark.sql.connector.catalog.TableChange.ColumnChange;
 import org.apache.spark.sql.connector.catalog.TableChange.RemoveProperty;
 import org.apache.spark.sql.connector.catalog.TableChange.SetProperty;
+import org.apache.spark.sql.connector.catalog.functions.UnboundFunction;
 import org.apache.spark.sql.connector.expressions.Transform;
 import org.apache.spark.sql.types.StructType;
 import scala.Option;
@@ -65,7 +69,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-public class MixedFormatSparkCatalog extends MixedSparkCatalogBase {
+public class MixedFormatSparkCatalog extends MixedSparkCatalogBase implements FunctionCatalog {
+
+  private static final MixedFormatBucketFunction BUCKET_FUNCTION = new MixedFormatBucketFunction();
 
   @Override
   public Table loadTable(Identifier ident) throws NoSuchTableException {
@@ -313,4 +319,20 @@ public class MixedFormatSparkCatalog extends MixedSparkCatalogBase {
     catalog.dropDatabase(database);
     return true;
   }
+
+  @Override
+  public Identifier[] listFunctions(String[] namespace) {
+    if (namespace.length == 0) {
+      return new Identifier[] {Identifier.of(namespace, BUCKET_FUNCTION.name())};
+    }
+    return new Identifier[0];
+  }
+
+  @Override
+  public UnboundFunction loadFunction(Identifier ident) throws NoSuchFunctionException {
+    if (ident.namespace().length == 0 && BUCKET_FUNCTION.name().equalsIgnoreCase(ident.name())) {
+      return BUCKET_FUNCTION;
+    }
+    throw new NoSuchFunctionException(ident);
+  }
 }
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.spark.functions;
+
+import org.apache.amoro.data.PrimaryKeyData;
+import org.apache.amoro.spark.SparkInternalRowWrapper;
+import org.apache.amoro.table.PrimaryKeySpec;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.spark.SparkSchemaUtil;
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.connector.catalog.functions.BoundFunction;
+import org.apache.spark.sql.connector.catalog.functions.ScalarFunction;
+import org.apache.spark.sql.connector.catalog.functions.UnboundFunction;
+import org.apache.spark.sql.types.DataType;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.IntegerType;
+import org.apache.spark.sql.types.StructField;
+import org.apache.spark.sql.types.StructType;
+
+/**
+ * The bucket function of mixed-format keyed tables, returns the index of the {@link
+ * org.apache.amoro.data.DataTreeNode} a primary key belongs to with the given number of buckets.
+ *
+ * <p>Only single column primary keys are supported. Spark loads the function to resolve the
+ * key-grouped partitioning reported by keyed table scans, so that joins and aggregations on the
+ * primary key of co-bucketed tables could avoid a shuffle.
+ */
+public class MixedFormatBucketFunction implements UnboundFunction {
+
+  public static final String NAME = "bucket";
+
+  @Override
+  public BoundFunction bind(StructType inputType) {
+    if (inputType.size() != 2) {
+      throw new UnsupportedOperationException(
+          "Wrong number of inputs (expected numBuckets and value)");
+    }
+    if (!(inputType.fields()[0].dataType() instanceof IntegerType)) {
+      throw new UnsupportedOperationException(
+          "Expected number of buckets to be int but got: " + inputType.fields()[0].dataType());
+    }
+    return new BucketByTreeNode(inputType.fields()[1].dataType());
+  }
+
+  @Override
+  public String description() {
+    return NAME
+        + "(numBuckets, col) - Call mixed-format's bucket transform of primary key\n"
+        + "  numBuckets :: number of buckets, must be a power of 2\n"
+        + "  col :: the single primary key column";
+  }
+
+  @Override
+  public String name() {
+    return NAME;
+  }
+
+  public static class BucketByTreeNode implements ScalarFunction<Integer> {
+
+    private final DataType valueType;
+    private final StructType rowType;
+    private final PrimaryKeyData primaryKeyData;
+    private transient SparkInternalRowWrapper wrapper;
+
+    public BucketByTreeNode(DataType valueType) {
+      this.valueType = valueType;
+      this.rowType =
+          new StructType(
+              new StructField[] {
+                DataTypes.createStructField("num_buckets", DataTypes.IntegerType, false),
+                DataTypes.createStructField("value", valueType, true)
+              });
+      Schema schema = SparkSchemaUtil.convert(rowType);
+      this.primaryKeyData =
+          new PrimaryKeyData(PrimaryKeySpec.builderFor(schema).addColumn("value").build(), schema);
+    }
+
+    @Override
+    public DataType[] inputTypes() {
+      return new DataType[] {DataTypes.IntegerType, valueType};
+    }
+
+    @Override
+    public DataType resultType() {
+      return DataTypes.IntegerType;
+    }
+
+    @Override
+    public boolean isResultNullable() {
+      return false;
+    }
+
+    @Override
+    public String name() {
+      return NAME;
+    }
+
+    @Override
+    public String canonicalName() {
+      return String.format("mixed_format.bucket(%s)", valueType.catalogString());
+    }
+
+    @Override
+    public Integer produceResult(InternalRow input) {
+      if (wrapper == null) {
+        this.wrapper = new SparkInternalRowWrapper(rowType);
+      }
+      int numBuckets = input.getInt(0);
+      primaryKeyData.primaryKey(wrapper.wrap(input));
+      return (int) primaryKeyData.treeNode(numBuckets - 1).index();
+    }
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.spark.reader;
+
+import org.apache.amoro.io.AuthenticatedFileIO;
+import org.apache.iceberg.FileFormat;
+import org.apache.iceberg.FileScanTask;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.mapping.NameMappingParser;
+import org.apache.iceberg.parquet.Parquet;
+import org.apache.iceberg.spark.data.vectorized.VectorizedSparkParquetReaders;
+import org.apache.iceberg.types.Type;
+import org.apache.iceberg.types.Types;
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.vectorized.ColumnVector;
+import org.apache.spark.sql.vectorized.ColumnarBatch;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/** Util class to read mixed-format data files as {@link ColumnarBatch}es. */
+class ColumnarBatchUtil {
+
+  private ColumnarBatchUtil() {}
+
+  /** Returns true if the files of the given format and schema could be read vectorized. */
+  static boolean supportsColumnarReads(FileFormat format, Schema schema) {
+    return format == FileFormat.PARQUET
+        && schema.columns().stream()
+            .map(Types.NestedField::type)
+            .allMatch(Type::isPrimitiveType);
+  }
+
+  static CloseableIterable<ColumnarBatch> newParquetBatchIterable(
+      AuthenticatedFileIO fileIO,
+      FileScanTask task,
+      Schema schema,
+      Map<Integer, ?> idToConstant,
+      String nameMapping,
+      boolean caseSensitive,
+      int batchSize) {
+    Parquet.ReadBuilder builder =
+        Parquet.read(fileIO.newInputFile(task.file().path().toString()))
+            .split(task.start(), task.length())
+            .project(schema)
+            .createBatchedReaderFunc(
+                fileSchema ->
+                    VectorizedSparkParquetReaders.buildReader(
+                        schema, fileSchema, idToConstant, null))
+            .recordsPerBatch(batchSize)
+            .filter(task.residual())
+            .caseSensitive(caseSensitive)
+            // Spark consumes a batch before asking for the next one, so the vectors could be reused
+            .reuseContainers();
+
+    if (nameMapping != null) {
+      builder.withNameMapping(NameMappingParser.fromJson(nameMapping));
+    }
+
+    return fileIO.doAs(builder::build);
+  }
+
+  /**
+   * Apply a row-based delete filter to a batch. Retained rows are exposed through a row id mapping,
+   * and only the first numColumns columns are kept, the others are only required by the filter.
+   */
+  static ColumnarBatch filter(
+      ColumnarBatch batch,
+      int numColumns,
+      Function<CloseableIterable<InternalRow>, CloseableIterable<InternalRow>> rowFilter) {
+    BatchRowIterator rows = new BatchRowIterator(batch);
+    int[] rowIdMapping = new int[batch.numRows()];
+    int numRows = 0;
+    // the filter consumes rows one by one, so the retained row is always the current one
+    CloseableIterable<InternalRow> retained =
+        rowFilter.apply(CloseableIterable.<InternalRow>withNoopClose(() -> rows));
+    for (InternalRow ignored : retained) {
+      rowIdMapping[numRows++] = rows.currentRowId;
+    }
+
+    ColumnVector[] vectors = new ColumnVector[numColumns];
+    for (int i = 0; i < numColumns; i++) {
+      vectors[i] = new RowIdMappingColumnVector(batch.column(i), rowIdMapping, numRows);
+    }
+    return new ColumnarBatch(vectors, numRows);
+  }
+
+  /** Only keep the first numColumns columns of a batch. */
+  static ColumnarBatch project(ColumnarBatch batch, int numColumns) {
+    if (batch.numCols() == numColumns) {
+      return batch;
+    }
+    ColumnVector[] vectors = new ColumnVector[numColumns];
+    for (int i = 0; i < numColumns; i++) {
+      vectors[i] = batch.column(i);
+    }
+    return new ColumnarBatch(vectors, batch.numRows());
+  }
+
+  private static class BatchRowIterator implements Iterator<InternalRow> {
+    private final ColumnarBatch batch;
+    private int currentRowId = -1;
+
+    BatchRowIterator(ColumnarBatch batch) {
+      this.batch = batch;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return currentRowId + 1 < batch.numRows();
+    }
+
+    @Override
+    public InternalRow next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      currentRowId++;
+      return batch.getRow(currentRowId);
+    }
+  }
+}
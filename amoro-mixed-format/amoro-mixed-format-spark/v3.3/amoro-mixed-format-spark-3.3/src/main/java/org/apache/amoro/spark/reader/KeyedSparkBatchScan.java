@@ -18,15 +18,22 @@
 
 package org.apache.amoro.spark.reader;
 
+import org.apache.amoro.data.DataTreeNode;
+import org.apache.amoro.hive.table.SupportHive;
 import org.apache.amoro.io.AuthenticatedFileIO;
+import org.apache.amoro.io.reader.DeleteIndexCache;
+import org.apache.amoro.scan.BaseCombinedScanTask;
 import org.apache.amoro.scan.CombinedScanTask;
 import org.apache.amoro.scan.KeyedTableScan;
 import org.apache.amoro.scan.KeyedTableScanTask;
+import org.apache.amoro.scan.NodeFileScanTask;
 import org.apache.amoro.shade.guava32.com.google.common.base.Preconditions;
 import org.apache.amoro.shade.guava32.com.google.common.collect.Lists;
+import org.apache.amoro.shade.guava32.com.google.common.collect.Maps;
 import org.apache.amoro.spark.util.Stats;
 import org.apache.amoro.table.KeyedTable;
 import org.apache.amoro.table.PrimaryKeySpec;
+import org.apache.iceberg.FileFormat;
 import org.apache.iceberg.Schema;
 import org.apache.iceberg.TableProperties;
 import org.apache.iceberg.expressions.Expression;
@@ -34,16 +41,29 @@ import org.apache.iceberg.io.CloseableIterable;
 import org.apache.iceberg.io.CloseableIterator;
 import org.apache.iceberg.spark.Spark3Util;
 import org.apache.iceberg.spark.SparkSchemaUtil;
+import org.apache.iceberg.util.PropertyUtil;
 import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.catalyst.expressions.GenericInternalRow;
+import org.apache.spark.sql.connector.expressions.Expressions;
+import org.apache.spark.sql.connector.expressions.NamedReference;
+import org.apache.spark.sql.connector.expressions.Transform;
 import org.apache.spark.sql.connector.read.Batch;
+import org.apache.spark.sql.connector.read.HasPartitionKey;
 import org.apache.spark.sql.connector.read.InputPartition;
 import org.apache.spark.sql.connector.read.PartitionReader;
 import org.apache.spark.sql.connector.read.PartitionReaderFactory;
 import org.apache.spark.sql.connector.read.Scan;
 import org.apache.spark.sql.connector.read.Statistics;
+import org.apache.spark.sql.connector.read.SupportsReportPartitioning;
 import org.apache.spark.sql.connector.read.SupportsReportStatistics;
+import org.apache.spark.sql.connector.read.SupportsRuntimeFiltering;
+import org.apache.spark.sql.connector.read.partitioning.KeyGroupedPartitioning;
+import org.apache.spark.sql.connector.read.partitioning.Partitioning;
+import org.apache.spark.sql.connector.read.partitioning.UnknownPartitioning;
+import org.apache.spark.sql.sources.Filter;
 import org.apache.spark.sql.types.StructType;
 import org.apache.spark.sql.util.CaseInsensitiveStringMap;
+import org.apache.spark.sql.vectorized.ColumnarBatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -52,25 +72,47 @@ import java.io.Serializable;
 import java.io.UncheckedIOException;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
-public class KeyedSparkBatchScan implements Scan, Batch, SupportsReportStatistics {
+public class KeyedSparkBatchScan
+    implements Scan,
+        Batch,
+        SupportsReportStatistics,
+        SupportsReportPartitioning,
+        SupportsRuntimeFiltering {
   private static final Logger LOG = LoggerFactory.getLogger(KeyedSparkBatchScan.class);
 
+  /**
+   * Max count of buckets reported by a scan grouped by tree node. Every bucket is an input
+   * partition even if it is empty, so scans of finer levels are not grouped.
+   */
+  static final long MAX_GROUPING_BUCKETS = 1024;
+
   private final KeyedTable table;
   private final boolean caseSensitive;
   private final Schema expectedSchema;
   private final List<Expression> filterExpressions;
+  private final List<Expression> runtimeFilterExpressions = Lists.newArrayList();
+  private final long deleteIndexCacheMaxSize;
+  private final boolean vectorizationEnabled;
+  private final boolean preserveDataGrouping;
   private StructType readSchema = null;
   private List<CombinedScanTask> tasks = null;
+  private Boolean columnarReads = null;
+  private Long groupingMask = null;
+  private Map<Long, CombinedScanTask> groupedTasks = null;
 
   KeyedSparkBatchScan(
       KeyedTable table,
       boolean caseSensitive,
       Schema expectedSchema,
       List<Expression> filters,
-      CaseInsensitiveStringMap options) {
+      CaseInsensitiveStringMap options,
+      long deleteIndexCacheMaxSize,
+      boolean vectorizationEnabled,
+      boolean preserveDataGrouping) {
     Preconditions.checkNotNull(table, "table must not be null");
     Preconditions.checkNotNull(expectedSchema, "expectedSchema must not be null");
     Preconditions.checkNotNull(filters, "filters must not be null");
@@ -79,6 +121,9 @@ public class KeyedSparkBatchScan implements Scan, Batch, SupportsReportStatistic
     this.caseSensitive = caseSensitive;
     this.expectedSchema = expectedSchema;
     this.filterExpressions = filters;
+    this.deleteIndexCacheMaxSize = deleteIndexCacheMaxSize;
+    this.vectorizationEnabled = vectorizationEnabled;
+    this.preserveDataGrouping = preserveDataGrouping;
   }
 
   @Override
@@ -96,15 +141,131 @@ public class KeyedSparkBatchScan implements Scan, Batch, SupportsReportStatistic
 
   @Override
   public InputPartition[] planInputPartitions() {
+    boolean columnar = columnarReads();
+    if (groupingMask() > 0) {
+      return groupedTasks().entrySet().stream()
+          .map(
+              entry ->
+                  new MixedFormatInputPartition(
+                      entry.getValue(),
+                      table,
+                      expectedSchema,
+                      caseSensitive,
+                      deleteIndexCacheMaxSize,
+                      columnar,
+                      entry.getKey().intValue()))
+          .toArray(InputPartition[]::new);
+    }
+
     List<CombinedScanTask> scanTasks = tasks();
     MixedFormatInputPartition[] readTasks = new MixedFormatInputPartition[scanTasks.size()];
     for (int i = 0; i < scanTasks.size(); i++) {
       readTasks[i] =
-          new MixedFormatInputPartition(scanTasks.get(i), table, expectedSchema, caseSensitive);
+          new MixedFormatInputPartition(
+              scanTasks.get(i),
+              table,
+              expectedSchema,
+              caseSensitive,
+              deleteIndexCacheMaxSize,
+              columnar,
+              null);
     }
     return readTasks;
   }
 
+  @Override
+  public Partitioning outputPartitioning() {
+    long mask = groupingMask();
+    if (mask > 0) {
+      String keyColumn = table.primaryKeySpec().fields().get(0).fieldName();
+      return new KeyGroupedPartitioning(
+          new Transform[] {Expressions.bucket((int) mask + 1, keyColumn)}, groupedTasks().size());
+    }
+    return new UnknownPartitioning(tasks().size());
+  }
+
+  /**
+   * Returns the mask of the coarsest {@link DataTreeNode} level of the scan, or 0 if input
+   * partitions should not be grouped by tree node.
+   *
+   * <p>Rows are bucketed into tree nodes by the hash of primary key. A node of a finer level always
+   * belongs to the node {@code index & mask} of the coarsest level, so grouping node tasks by the
+   * coarsest level keeps every primary key in a single input partition.
+   *
+   * <p>Input partitions are not grouped if the coarsest level has more than {@link
+   * #MAX_GROUPING_BUCKETS} nodes.
+   */
+  private long groupingMask() {
+    if (groupingMask == null) {
+      this.groupingMask = 0L;
+      PrimaryKeySpec keySpec = table.primaryKeySpec();
+      if (!preserveDataGrouping
+          || keySpec.fields().size() != 1
+          || expectedSchema.findField(keySpec.fields().get(0).fieldName()) == null) {
+        return groupingMask;
+      }
+      long mask = Long.MAX_VALUE;
+      for (CombinedScanTask combinedScanTask : tasks()) {
+        for (KeyedTableScanTask task : combinedScanTask.tasks()) {
+          if (!(task instanceof NodeFileScanTask)) {
+            return groupingMask;
+          }
+          mask = Math.min(mask, ((NodeFileScanTask) task).treeNode().mask());
+        }
+      }
+      if (mask != Long.MAX_VALUE && mask < MAX_GROUPING_BUCKETS) {
+        this.groupingMask = mask;
+      } else if (mask != Long.MAX_VALUE) {
+        LOG.info(
+            "Input partitions of {} are not grouped, as there are {} buckets more than {}",
+            table.id(),
+            mask + 1,
+            MAX_GROUPING_BUCKETS);
+      }
+    }
+    return groupingMask;
+  }
+
+  private Map<Long, CombinedScanTask> groupedTasks() {
+    if (groupedTasks == null) {
+      long mask = groupingMask();
+      // every bucket is reported, even if it has no file or all of its files are filtered out at
+      // runtime, since Spark requires the same partition keys after runtime filtering
+      Map<Long, List<NodeFileScanTask>> tasksByBucket = Maps.newTreeMap();
+      for (long bucket = 0; bucket <= mask; bucket++) {
+        tasksByBucket.put(bucket, Lists.newArrayList());
+      }
+      for (CombinedScanTask combinedScanTask : tasks()) {
+        for (KeyedTableScanTask task : combinedScanTask.tasks()) {
+          NodeFileScanTask nodeTask = (NodeFileScanTask) task;
+          tasksByBucket.get(nodeTask.treeNode().index() & mask).add(nodeTask);
+        }
+      }
+      this.groupedTasks = Maps.newLinkedHashMap();
+      tasksByBucket.forEach(
+          (bucket, nodeTasks) -> groupedTasks.put(bucket, new BaseCombinedScanTask(nodeTasks)));
+    }
+    return groupedTasks;
+  }
+
+  /**
+   * All partitions of a scan must be read in the same way, so only read as columnar batches when
+   * every data file of the scan is a parquet file.
+   */
+  private boolean columnarReads() {
+    if (columnarReads == null) {
+      this.columnarReads =
+          vectorizationEnabled
+              && !(table instanceof SupportHive)
+              && ColumnarBatchUtil.supportsColumnarReads(FileFormat.PARQUET, expectedSchema)
+              && tasks().stream()
+                  .flatMap(combinedScanTask -> combinedScanTask.tasks().stream())
+                  .flatMap(keyedTableScanTask -> keyedTableScanTask.dataTasks().stream())
+                  .allMatch(task -> task.file().format() == FileFormat.PARQUET);
+    }
+    return columnarReads;
+  }
+
   @Override
   public PartitionReaderFactory createReaderFactory() {
     return new ReaderFactory();
@@ -126,6 +287,31 @@ public class KeyedSparkBatchScan implements Scan, Batch, SupportsReportStatistic
     return new Stats(sizeInBytes, numRows);
   }
 
+  @Override
+  public NamedReference[] filterAttributes() {
+    return RuntimeFilterUtil.filterAttributes(table, expectedSchema);
+  }
+
+  @Override
+  public void filter(Filter[] filters) {
+    Expression runtimeFilterExpr =
+        RuntimeFilterUtil.convert(filters, table.schema(), caseSensitive);
+    if (runtimeFilterExpr.op() == Expression.Operation.TRUE) {
+      return;
+    }
+    // the grouping level is decided before filtering, to preserve the reported partitioning
+    groupingMask();
+    int numTasks = tasks().size();
+    runtimeFilterExpressions.add(runtimeFilterExpr);
+    this.tasks = null;
+    this.groupedTasks = null;
+    LOG.info(
+        "{} of {} tasks are kept after runtime filtering with {}",
+        tasks().size(),
+        numTasks,
+        runtimeFilterExpr);
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -140,7 +326,8 @@ public class KeyedSparkBatchScan implements Scan, Batch, SupportsReportStatistic
     return table.id().equals(that.table.id())
         && readSchema().equals(that.readSchema())
         && // compare Spark schemas to ignore field ids
-        filterExpressions.toString().equals(that.filterExpressions.toString());
+        filterExpressions.toString().equals(that.filterExpressions.toString())
+        && runtimeFilterExpressions.toString().equals(that.runtimeFilterExpressions.toString());
   }
 
   @Override
@@ -155,6 +342,9 @@ public class KeyedSparkBatchScan implements Scan, Batch, SupportsReportStatistic
       for (Expression filter : filterExpressions) {
         scan = scan.filter(filter);
       }
+      for (Expression filter : runtimeFilterExpressions) {
+        scan = scan.filter(filter);
+      }
       long startTime = System.currentTimeMillis();
       LOG.info("mor statistics plan task start");
       try (CloseableIterable<CombinedScanTask> tasksIterable = scan.planTasks()) {
@@ -193,6 +383,21 @@ public class KeyedSparkBatchScan implements Scan, Batch, SupportsReportStatistic
         throw new UnsupportedOperationException("Incorrect input partition type: " + partition);
       }
     }
+
+    @Override
+    public PartitionReader<ColumnarBatch> createColumnarReader(InputPartition partition) {
+      if (partition instanceof MixedFormatInputPartition) {
+        return new BatchReader((MixedFormatInputPartition) partition);
+      } else {
+        throw new UnsupportedOperationException("Incorrect input partition type: " + partition);
+      }
+    }
+
+    @Override
+    public boolean supportColumnarReads(InputPartition partition) {
+      return partition instanceof MixedFormatInputPartition
+          && ((MixedFormatInputPartition) partition).columnar;
+    }
   }
 
   private static class RowReader implements PartitionReader<InternalRow> {
@@ -204,6 +409,8 @@ public class KeyedSparkBatchScan implements Scan, Batch, SupportsReportStatistic
     InternalRow current;
 
     RowReader(MixedFormatInputPartition task) {
+      // share decoded delete files among all tasks running in the same executor
+      DeleteIndexCache.initialize(task.deleteIndexCacheMaxSize);
       reader =
           new SparkKeyedDataReader(
               task.io,
@@ -246,7 +453,61 @@ public class KeyedSparkBatchScan implements Scan, Batch, SupportsReportStatistic
     }
   }
 
-  private static class MixedFormatInputPartition implements InputPartition, Serializable {
+  private static class BatchReader implements PartitionReader<ColumnarBatch> {
+
+    SparkKeyedDataReader reader;
+    Iterator<KeyedTableScanTask> scanTasks;
+    int batchSize;
+    CloseableIterator<ColumnarBatch> currentIterator = CloseableIterator.empty();
+    ColumnarBatch current;
+
+    BatchReader(MixedFormatInputPartition task) {
+      // share decoded delete files among all tasks running in the same executor
+      DeleteIndexCache.initialize(task.deleteIndexCacheMaxSize);
+      reader =
+          new SparkKeyedDataReader(
+              task.io,
+              task.tableSchema,
+              task.expectedSchema,
+              task.keySpec,
+              task.nameMapping,
+              task.caseSensitive);
+      scanTasks = task.combinedScanTask.tasks().iterator();
+      batchSize = task.batchSize;
+    }
+
+    @Override
+    public boolean next() throws IOException {
+      while (true) {
+        if (currentIterator.hasNext()) {
+          this.current = currentIterator.next();
+          return true;
+        } else if (scanTasks.hasNext()) {
+          this.currentIterator.close();
+          this.currentIterator = reader.readBatches(scanTasks.next(), batchSize);
+        } else {
+          this.currentIterator.close();
+          return false;
+        }
+      }
+    }
+
+    @Override
+    public ColumnarBatch get() {
+      return this.current;
+    }
+
+    @Override
+    public void close() throws IOException {
+      this.currentIterator.close();
+      while (scanTasks.hasNext()) {
+        scanTasks.next();
+      }
+    }
+  }
+
+  private static class MixedFormatInputPartition
+      implements InputPartition, HasPartitionKey, Serializable {
     final CombinedScanTask combinedScanTask;
     final AuthenticatedFileIO io;
     final boolean caseSensitive;
@@ -254,12 +515,19 @@ public class KeyedSparkBatchScan implements Scan, Batch, SupportsReportStatistic
     final Schema tableSchema;
     final PrimaryKeySpec keySpec;
     final String nameMapping;
+    final long deleteIndexCacheMaxSize;
+    final boolean columnar;
+    final int batchSize;
+    final Integer bucket;
 
     MixedFormatInputPartition(
         CombinedScanTask combinedScanTask,
         KeyedTable table,
         Schema expectedSchema,
-        boolean caseSensitive) {
+        boolean caseSensitive,
+        long deleteIndexCacheMaxSize,
+        boolean columnar,
+        Integer bucket) {
       this.combinedScanTask = combinedScanTask;
       this.expectedSchema = expectedSchema;
       this.tableSchema = table.schema();
@@ -267,6 +535,20 @@ public class KeyedSparkBatchScan implements Scan, Batch, SupportsReportStatistic
       this.io = table.io();
       this.keySpec = table.primaryKeySpec();
       this.nameMapping = table.properties().get(TableProperties.DEFAULT_NAME_MAPPING);
+      this.deleteIndexCacheMaxSize = deleteIndexCacheMaxSize;
+      this.columnar = columnar;
+      this.batchSize =
+          PropertyUtil.propertyAsInt(
+              table.properties(),
+              TableProperties.PARQUET_BATCH_SIZE,
+              TableProperties.PARQUET_BATCH_SIZE_DEFAULT);
+      this.bucket = bucket;
+    }
+
+    @Override
+    public InternalRow partitionKey() {
+      Preconditions.checkState(bucket != null, "Input partition is not grouped by bucket");
+      return new GenericInternalRow(new Object[] {bucket});
     }
   }
 }
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.spark.reader;
+
+import org.apache.spark.sql.types.Decimal;
+import org.apache.spark.sql.vectorized.ColumnVector;
+import org.apache.spark.sql.vectorized.ColumnarArray;
+import org.apache.spark.sql.vectorized.ColumnarMap;
+import org.apache.spark.unsafe.types.UTF8String;
+
+/**
+ * A {@link ColumnVector} exposing the rows of another vector through a row id mapping, used to mask
+ * deleted rows out of a batch without copying the values.
+ */
+class RowIdMappingColumnVector extends ColumnVector {
+
+  private final ColumnVector vector;
+  private final int[] rowIdMapping;
+  private final int numRows;
+
+  RowIdMappingColumnVector(ColumnVector vector, int[] rowIdMapping, int numRows) {
+    super(vector.dataType());
+    this.vector = vector;
+    this.rowIdMapping = rowIdMapping;
+    this.numRows = numRows;
+  }
+
+  @Override
+  public void close() {
+    // the mapped vector is owned and reused by the batch reader
+  }
+
+  @Override
+  public boolean hasNull() {
+    return vector.hasNull();
+  }
+
+  @Override
+  public int numNulls() {
+    if (!vector.hasNull()) {
+      return 0;
+    }
+    int numNulls = 0;
+    for (int i = 0; i < numRows; i++) {
+      if (vector.isNullAt(rowIdMapping[i])) {
+        numNulls++;
+      }
+    }
+    return numNulls;
+  }
+
+  @Override
+  public boolean isNullAt(int rowId) {
+    return vector.isNullAt(rowIdMapping[rowId]);
+  }
+
+  @Override
+  public boolean getBoolean(int rowId) {
+    return vector.getBoolean(rowIdMapping[rowId]);
+  }
+
+  @Override
+  public byte getByte(int rowId) {
+    return vector.getByte(rowIdMapping[rowId]);
+  }
+
+  @Override
+  public short getShort(int rowId) {
+    return vector.getShort(rowIdMapping[rowId]);
+  }
+
+  @Override
+  public int getInt(int rowId) {
+    return vector.getInt(rowIdMapping[rowId]);
+  }
+
+  @Override
+  public long getLong(int rowId) {
+    return vector.getLong(rowIdMapping[rowId]);
+  }
+
+  @Override
+  public float getFloat(int rowId) {
+    return vector.getFloat(rowIdMapping[rowId]);
+  }
+
+  @Override
+  public double getDouble(int rowId) {
+    return vector.getDouble(rowIdMapping[rowId]);
+  }
+
+  @Override
+  public ColumnarArray getArray(int rowId) {
+    return vector.getArray(rowIdMapping[rowId]);
+  }
+
+  @Override
+  public ColumnarMap getMap(int rowId) {
+    return vector.getMap(rowIdMapping[rowId]);
+  }
+
+  @Override
+  public Decimal getDecimal(int rowId, int precision, int scale) {
+    return vector.getDecimal(rowIdMapping[rowId], precision, scale);
+  }
+
+  @Override
+  public UTF8String getUTF8String(int rowId) {
+    return vector.getUTF8String(rowIdMapping[rowId]);
+  }
+
+  @Override
+  public byte[] getBinary(int rowId) {
+    return vector.getBinary(rowIdMapping[rowId]);
+  }
+
+  @Override
+  public ColumnVector getChild(int ordinal) {
+    return new RowIdMappingColumnVector(vector.getChild(ordinal), rowIdMapping, numRows);
+  }
+}
@@ -20,6 +20,7 @@ package org.apache.amoro.spark.reader;
 
 import org.apache.amoro.shade.guava32.com.google.common.base.Preconditions;
 import org.apache.amoro.shade.guava32.com.google.common.collect.Lists;
+import org.apache.amoro.spark.mixed.SparkSQLProperties;
 import org.apache.amoro.spark.table.SupportsExtendIdentColumns;
 import org.apache.amoro.table.MixedTable;
 import org.apache.amoro.table.UnkeyedTable;
@@ -60,6 +61,9 @@ public class SparkScanBuilder
   private Schema schema = null;
   private StructType requestedProjection;
   private final boolean caseSensitive;
+  private final long deleteIndexCacheMaxSize;
+  private final boolean vectorizationEnabled;
+  private final boolean preserveDataGrouping;
   private List<Expression> filterExpressions = Lists.newArrayList();
   private Filter[] pushedFilters = NO_FILTERS;
 
@@ -67,6 +71,9 @@ public class SparkScanBuilder
     this.table = table;
     this.options = options;
     this.caseSensitive = Boolean.parseBoolean(spark.conf().get("spark.sql.caseSensitive"));
+    this.deleteIndexCacheMaxSize = deleteIndexCacheMaxSize(spark);
+    this.vectorizationEnabled = vectorizationEnabled(spark);
+    this.preserveDataGrouping = preserveDataGrouping(spark);
   }
 
   public SparkScanBuilder(
@@ -75,6 +82,36 @@ public class SparkScanBuilder
     this.options = options;
     this.schema = schema;
     this.caseSensitive = Boolean.parseBoolean(spark.conf().get("spark.sql.caseSensitive"));
+    this.deleteIndexCacheMaxSize = deleteIndexCacheMaxSize(spark);
+    this.vectorizationEnabled = vectorizationEnabled(spark);
+    this.preserveDataGrouping = preserveDataGrouping(spark);
+  }
+
+  private static long deleteIndexCacheMaxSize(SparkSession spark) {
+    return Long.parseLong(
+        spark
+            .conf()
+            .get(
+                SparkSQLProperties.DELETE_INDEX_CACHE_MAX_SIZE_BYTES,
+                SparkSQLProperties.DELETE_INDEX_CACHE_MAX_SIZE_BYTES_DEFAULT));
+  }
+
+  private static boolean vectorizationEnabled(SparkSession spark) {
+    return Boolean.parseBoolean(
+        spark
+            .conf()
+            .get(
+                SparkSQLProperties.VECTORIZATION_ENABLED,
+                SparkSQLProperties.VECTORIZATION_ENABLED_DEFAULT));
+  }
+
+  private static boolean preserveDataGrouping(SparkSession spark) {
+    return Boolean.parseBoolean(
+        spark
+            .conf()
+            .get(
+                SparkSQLProperties.PRESERVE_DATA_GROUPING,
+                SparkSQLProperties.PRESERVE_DATA_GROUPING_DEFAULT));
   }
 
   private Schema lazySchemaWithRowIdent() {
@@ -164,14 +201,18 @@ public class SparkScanBuilder
           caseSensitive,
           lazySchemaWithRowIdent(),
           filterExpressions,
-          options);
+          options,
+          deleteIndexCacheMaxSize,
+          vectorizationEnabled,
+          preserveDataGrouping);
     } else if (table.isUnkeyedTable()) {
       return new UnkeyedSparkBatchScan(
           table.asUnkeyedTable(),
           caseSensitive,
           lazySchemaWithRowIdent(),
           filterExpressions,
-          options);
+          options,
+          vectorizationEnabled);
     }
     return null;
   }
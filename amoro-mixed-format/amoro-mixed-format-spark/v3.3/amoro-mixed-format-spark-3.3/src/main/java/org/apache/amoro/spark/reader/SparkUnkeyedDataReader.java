@@ -20,10 +20,14 @@ package org.apache.amoro.spark.reader;
 
 import org.apache.amoro.hive.io.reader.AbstractAdaptHiveUnkeyedDataReader;
 import org.apache.amoro.io.AuthenticatedFileIO;
+import org.apache.amoro.io.reader.DataReaderCommon;
+import org.apache.amoro.io.reader.DeleteFilter;
 import org.apache.amoro.spark.SparkInternalRowWrapper;
 import org.apache.amoro.spark.util.MixedFormatSparkUtils;
+import org.apache.iceberg.FileScanTask;
 import org.apache.iceberg.Schema;
 import org.apache.iceberg.StructLike;
+import org.apache.iceberg.io.CloseableIterable;
 import org.apache.iceberg.orc.OrcRowReader;
 import org.apache.iceberg.parquet.ParquetValueReader;
 import org.apache.iceberg.spark.SparkSchemaUtil;
@@ -32,6 +36,7 @@ import org.apache.orc.TypeDescription;
 import org.apache.parquet.schema.MessageType;
 import org.apache.spark.sql.catalyst.InternalRow;
 import org.apache.spark.sql.types.StructType;
+import org.apache.spark.sql.vectorized.ColumnarBatch;
 
 import java.util.Map;
 import java.util.function.Function;
@@ -54,6 +59,46 @@ public class SparkUnkeyedDataReader extends AbstractAdaptHiveUnkeyedDataReader<I
         true);
   }
 
+  /**
+   * Read a parquet {@link FileScanTask} as {@link ColumnarBatch}es, rows deleted by the delete
+   * files are masked out of the batches.
+   */
+  public CloseableIterable<ColumnarBatch> readBatches(FileScanTask task, int batchSize) {
+    int numColumns = projectedSchema.columns().size();
+    if (task.deletes().isEmpty() && dataNodeFilter == null) {
+      return CloseableIterable.transform(
+          newBatchIterable(task, projectedSchema, batchSize),
+          batch -> ColumnarBatchUtil.project(batch, numColumns));
+    }
+
+    DeleteFilter<InternalRow> deleteFilter = createDeleteFilter(task);
+    CloseableIterable<ColumnarBatch> batches =
+        CloseableIterable.transform(
+            newBatchIterable(task, deleteFilter.requiredSchema(), batchSize),
+            batch ->
+                ColumnarBatchUtil.filter(
+                    batch,
+                    numColumns,
+                    rows -> {
+                      CloseableIterable<InternalRow> filtered = deleteFilter.filter(rows);
+                      return dataNodeFilter == null ? filtered : dataNodeFilter.filter(filtered);
+                    }));
+    // batches are filtered without closing, release the equality deletes when reading finished
+    return CloseableIterable.combine(batches, deleteFilter.filter(CloseableIterable.empty()));
+  }
+
+  private CloseableIterable<ColumnarBatch> newBatchIterable(
+      FileScanTask task, Schema schema, int batchSize) {
+    return ColumnarBatchUtil.newParquetBatchIterable(
+        fileIO,
+        task,
+        schema,
+        DataReaderCommon.getIdToConstant(task, schema, convertConstant),
+        nameMapping,
+        caseSensitive,
+        batchSize);
+  }
+
   @Override
   protected Function<MessageType, ParquetValueReader<?>> getParquetReaderFunction(
       Schema projectedSchema, Map<Integer, ?> idToConstant) {
@@ -18,12 +18,14 @@
 
 package org.apache.amoro.spark.reader;
 
+import org.apache.amoro.hive.table.SupportHive;
 import org.apache.amoro.io.AuthenticatedFileIO;
 import org.apache.amoro.shade.guava32.com.google.common.base.Preconditions;
 import org.apache.amoro.shade.guava32.com.google.common.collect.Lists;
 import org.apache.amoro.spark.util.Stats;
 import org.apache.amoro.table.UnkeyedTable;
 import org.apache.iceberg.CombinedScanTask;
+import org.apache.iceberg.FileFormat;
 import org.apache.iceberg.FileScanTask;
 import org.apache.iceberg.Schema;
 import org.apache.iceberg.SnapshotSummary;
@@ -36,6 +38,7 @@ import org.apache.iceberg.spark.Spark3Util;
 import org.apache.iceberg.spark.SparkSchemaUtil;
 import org.apache.iceberg.util.PropertyUtil;
 import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.connector.expressions.NamedReference;
 import org.apache.spark.sql.connector.read.Batch;
 import org.apache.spark.sql.connector.read.InputPartition;
 import org.apache.spark.sql.connector.read.PartitionReader;
@@ -43,8 +46,11 @@ import org.apache.spark.sql.connector.read.PartitionReaderFactory;
 import org.apache.spark.sql.connector.read.Scan;
 import org.apache.spark.sql.connector.read.Statistics;
 import org.apache.spark.sql.connector.read.SupportsReportStatistics;
+import org.apache.spark.sql.connector.read.SupportsRuntimeFiltering;
+import org.apache.spark.sql.sources.Filter;
 import org.apache.spark.sql.types.StructType;
 import org.apache.spark.sql.util.CaseInsensitiveStringMap;
+import org.apache.spark.sql.vectorized.ColumnarBatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -56,7 +62,8 @@ import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
-public class UnkeyedSparkBatchScan implements Scan, Batch, SupportsReportStatistics {
+public class UnkeyedSparkBatchScan
+    implements Scan, Batch, SupportsReportStatistics, SupportsRuntimeFiltering {
   private static final Logger LOG = LoggerFactory.getLogger(UnkeyedSparkBatchScan.class);
 
   public static final String FILE_NAME_COL = "_file";
@@ -67,16 +74,20 @@ public class UnkeyedSparkBatchScan implements Scan, Batch, SupportsReportStatist
   private final boolean caseSensitive;
   private final Schema expectedSchema;
   private final List<Expression> filterExpressions;
+  private final List<Expression> runtimeFilterExpressions = Lists.newArrayList();
+  private final boolean vectorizationEnabled;
 
   private StructType readSchema = null;
   private List<CombinedScanTask> tasks = null;
+  private Boolean columnarReads = null;
 
   UnkeyedSparkBatchScan(
       UnkeyedTable table,
       boolean caseSensitive,
       Schema expectedSchema,
       List<Expression> filters,
-      CaseInsensitiveStringMap options) {
+      CaseInsensitiveStringMap options,
+      boolean vectorizationEnabled) {
     Preconditions.checkNotNull(table, "table must not be null");
     Preconditions.checkNotNull(expectedSchema, "expectedSchema must not be null");
     Preconditions.checkNotNull(filters, "filters must not be null");
@@ -85,19 +96,39 @@ public class UnkeyedSparkBatchScan implements Scan, Batch, SupportsReportStatist
     this.caseSensitive = caseSensitive;
     this.expectedSchema = expectedSchema;
     this.filterExpressions = filters;
+    this.vectorizationEnabled = vectorizationEnabled;
   }
 
   @Override
   public InputPartition[] planInputPartitions() {
     List<CombinedScanTask> scanTasks = tasks();
+    boolean columnar = columnarReads();
     MixedFormatInputPartition[] readTasks = new MixedFormatInputPartition[scanTasks.size()];
     for (int i = 0; i < scanTasks.size(); i++) {
       readTasks[i] =
-          new MixedFormatInputPartition(scanTasks.get(i), table, expectedSchema, caseSensitive);
+          new MixedFormatInputPartition(
+              scanTasks.get(i), table, expectedSchema, caseSensitive, columnar);
     }
     return readTasks;
   }
 
+  /**
+   * All partitions of a scan must be read in the same way, so only read as columnar batches when
+   * every data file of the scan is a parquet file.
+   */
+  private boolean columnarReads() {
+    if (columnarReads == null) {
+      this.columnarReads =
+          vectorizationEnabled
+              && !(table instanceof SupportHive)
+              && ColumnarBatchUtil.supportsColumnarReads(FileFormat.PARQUET, expectedSchema)
+              && tasks().stream()
+                  .flatMap(combinedScanTask -> combinedScanTask.files().stream())
+                  .allMatch(task -> task.file().format() == FileFormat.PARQUET);
+    }
+    return columnarReads;
+  }
+
   @Override
   public PartitionReaderFactory createReaderFactory() {
     return new ReaderFactory();
@@ -130,6 +161,28 @@ public class UnkeyedSparkBatchScan implements Scan, Batch, SupportsReportStatist
     return new Stats(sizeInBytes, numRows);
   }
 
+  @Override
+  public NamedReference[] filterAttributes() {
+    return RuntimeFilterUtil.filterAttributes(table, expectedSchema);
+  }
+
+  @Override
+  public void filter(Filter[] filters) {
+    Expression runtimeFilterExpr =
+        RuntimeFilterUtil.convert(filters, table.schema(), caseSensitive);
+    if (runtimeFilterExpr.op() == Expression.Operation.TRUE) {
+      return;
+    }
+    int numTasks = tasks().size();
+    runtimeFilterExpressions.add(runtimeFilterExpr);
+    this.tasks = null;
+    LOG.info(
+        "{} of {} tasks are kept after runtime filtering with {}",
+        tasks().size(),
+        numTasks,
+        runtimeFilterExpr);
+  }
+
   @Override
   public StructType readSchema() {
     if (readSchema == null) {
@@ -150,6 +203,9 @@ public class UnkeyedSparkBatchScan implements Scan, Batch, SupportsReportStatist
       for (Expression filter : filterExpressions) {
         scan = scan.filter(filter);
       }
+      for (Expression filter : runtimeFilterExpressions) {
+        scan = scan.filter(filter);
+      }
       long startTime = System.currentTimeMillis();
       LOG.info("mor statistics plan task start");
       try (CloseableIterable<CombinedScanTask> tasksIterable = scan.planTasks()) {
@@ -174,6 +230,21 @@ public class UnkeyedSparkBatchScan implements Scan, Batch, SupportsReportStatist
         throw new UnsupportedOperationException("Incorrect input partition type: " + partition);
       }
     }
+
+    @Override
+    public PartitionReader<ColumnarBatch> createColumnarReader(InputPartition partition) {
+      if (partition instanceof MixedFormatInputPartition) {
+        return new BatchReader((MixedFormatInputPartition) partition);
+      } else {
+        throw new UnsupportedOperationException("Incorrect input partition type: " + partition);
+      }
+    }
+
+    @Override
+    public boolean supportColumnarReads(InputPartition partition) {
+      return partition instanceof MixedFormatInputPartition
+          && ((MixedFormatInputPartition) partition).columnar;
+    }
   }
 
   private static class RowReader implements PartitionReader<InternalRow> {
@@ -222,6 +293,52 @@ public class UnkeyedSparkBatchScan implements Scan, Batch, SupportsReportStatist
     }
   }
 
+  private static class BatchReader implements PartitionReader<ColumnarBatch> {
+
+    SparkUnkeyedDataReader reader;
+    Iterator<FileScanTask> scanTasks;
+    int batchSize;
+    CloseableIterator<ColumnarBatch> currentIterator = CloseableIterator.empty();
+    ColumnarBatch current;
+
+    BatchReader(MixedFormatInputPartition task) {
+      reader =
+          new SparkUnkeyedDataReader(
+              task.io, task.tableSchema, task.expectedSchema, task.nameMapping, task.caseSensitive);
+      scanTasks = task.combinedScanTask.files().iterator();
+      batchSize = task.batchSize;
+    }
+
+    @Override
+    public boolean next() throws IOException {
+      while (true) {
+        if (currentIterator.hasNext()) {
+          this.current = currentIterator.next();
+          return true;
+        } else if (scanTasks.hasNext()) {
+          this.currentIterator.close();
+          this.currentIterator = reader.readBatches(scanTasks.next(), batchSize).iterator();
+        } else {
+          this.currentIterator.close();
+          return false;
+        }
+      }
+    }
+
+    @Override
+    public ColumnarBatch get() {
+      return this.current;
+    }
+
+    @Override
+    public void close() throws IOException {
+      this.currentIterator.close();
+      while (scanTasks.hasNext()) {
+        scanTasks.next();
+      }
+    }
+  }
+
   private static class MixedFormatInputPartition implements InputPartition, Serializable {
     final CombinedScanTask combinedScanTask;
     final AuthenticatedFileIO io;
@@ -229,18 +346,27 @@ public class UnkeyedSparkBatchScan implements Scan, Batch, SupportsReportStatist
     final Schema expectedSchema;
     final Schema tableSchema;
     final String nameMapping;
+    final boolean columnar;
+    final int batchSize;
 
     MixedFormatInputPartition(
         CombinedScanTask combinedScanTask,
         UnkeyedTable table,
         Schema expectedSchema,
-        boolean caseSensitive) {
+        boolean caseSensitive,
+        boolean columnar) {
       this.combinedScanTask = combinedScanTask;
       this.expectedSchema = expectedSchema;
       this.tableSchema = table.schema();
       this.caseSensitive = caseSensitive;
       this.io = table.io();
       this.nameMapping = table.properties().get(TableProperties.DEFAULT_NAME_MAPPING);
+      this.columnar = columnar;
+      this.batchSize =
+          PropertyUtil.propertyAsInt(
+              table.properties(),
+              TableProperties.PARQUET_BATCH_SIZE,
+              TableProperties.PARQUET_BATCH_SIZE_DEFAULT);
     }
   }
 
@@ -256,7 +382,8 @@ public class UnkeyedSparkBatchScan implements Scan, Batch, SupportsReportStatist
     UnkeyedSparkBatchScan that = (UnkeyedSparkBatchScan) o;
     return table.id().equals(that.table.id())
         && readSchema().equals(that.readSchema())
-        && filterExpressions.toString().equals(that.filterExpressions.toString());
+        && filterExpressions.toString().equals(that.filterExpressions.toString())
+        && runtimeFilterExpressions.toString().equals(that.runtimeFilterExpressions.toString());
   }
 
   @Override
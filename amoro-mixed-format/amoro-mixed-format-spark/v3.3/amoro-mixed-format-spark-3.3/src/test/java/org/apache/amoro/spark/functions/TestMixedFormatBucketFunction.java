@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.spark.functions;
+
+import org.apache.amoro.data.PrimaryKeyData;
+import org.apache.amoro.table.PrimaryKeySpec;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.data.GenericRecord;
+import org.apache.iceberg.types.Types;
+import org.apache.spark.sql.catalyst.expressions.GenericInternalRow;
+import org.apache.spark.sql.connector.catalog.functions.BoundFunction;
+import org.apache.spark.sql.connector.catalog.functions.ScalarFunction;
+import org.apache.spark.sql.types.DataType;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.StructType;
+import org.apache.spark.unsafe.types.UTF8String;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TestMixedFormatBucketFunction {
+
+  private static final Schema SCHEMA =
+      new Schema(
+          Types.NestedField.required(1, "id", Types.IntegerType.get()),
+          Types.NestedField.required(2, "name", Types.StringType.get()));
+
+  @Test
+  public void testSameBucketAsTreeNode() {
+    assertSameBucket("id", DataTypes.IntegerType, 3, 1001);
+    assertSameBucket("id", DataTypes.IntegerType, 7, -17);
+    assertSameBucket("name", DataTypes.StringType, 3, "mixed");
+    assertSameBucket("name", DataTypes.StringType, 15, "format");
+  }
+
+  @Test
+  public void testBindWrongInputs() {
+    MixedFormatBucketFunction function = new MixedFormatBucketFunction();
+    Assertions.assertThrows(
+        UnsupportedOperationException.class,
+        () -> function.bind(new StructType().add("id", DataTypes.IntegerType)));
+    Assertions.assertThrows(
+        UnsupportedOperationException.class,
+        () ->
+            function.bind(
+                new StructType()
+                    .add("num_buckets", DataTypes.LongType)
+                    .add("id", DataTypes.IntegerType)));
+  }
+
+  @SuppressWarnings("unchecked")
+  private void assertSameBucket(String column, DataType sparkType, int mask, Object value) {
+    GenericRecord record = GenericRecord.create(SCHEMA);
+    record.setField("id", 0);
+    record.setField("name", "");
+    record.setField(column, value);
+    PrimaryKeyData primaryKeyData =
+        new PrimaryKeyData(PrimaryKeySpec.builderFor(SCHEMA).addColumn(column).build(), SCHEMA);
+    primaryKeyData.primaryKey(record);
+    long expected = primaryKeyData.treeNode(mask).index();
+
+    StructType inputType =
+        new StructType().add("num_buckets", DataTypes.IntegerType).add(column, sparkType);
+    BoundFunction bound = new MixedFormatBucketFunction().bind(inputType);
+    Object sparkValue = value instanceof String ? UTF8String.fromString((String) value) : value;
+    Integer bucket =
+        ((ScalarFunction<Integer>) bound)
+            .produceResult(new GenericInternalRow(new Object[] {mask + 1, sparkValue}));
+    Assertions.assertEquals(expected, bucket.longValue());
+  }
+}
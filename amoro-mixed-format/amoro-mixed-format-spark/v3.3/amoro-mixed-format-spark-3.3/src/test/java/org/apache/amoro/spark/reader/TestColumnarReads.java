@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.spark.reader;
+
+import org.apache.amoro.data.ChangeAction;
+import org.apache.amoro.io.MixedDataTestHelpers;
+import org.apache.amoro.shade.guava32.com.google.common.collect.Lists;
+import org.apache.amoro.spark.mixed.SparkSQLProperties;
+import org.apache.amoro.spark.test.MixedTableTestBase;
+import org.apache.amoro.spark.test.SparkTestContext;
+import org.apache.amoro.spark.test.extensions.EnableCatalogSelect;
+import org.apache.amoro.spark.test.utils.RecordGenerator;
+import org.apache.amoro.spark.test.utils.TestTable;
+import org.apache.amoro.spark.test.utils.TestTableUtil;
+import org.apache.amoro.spark.test.utils.TestTables;
+import org.apache.amoro.table.KeyedTable;
+import org.apache.amoro.table.TableProperties;
+import org.apache.amoro.table.UnkeyedTable;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.DeleteFile;
+import org.apache.iceberg.RowDelta;
+import org.apache.iceberg.data.Record;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.execution.vectorized.OnHeapColumnVector;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.vectorized.ColumnVector;
+import org.apache.spark.sql.vectorized.ColumnarBatch;
+import org.apache.spark.unsafe.types.UTF8String;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+@EnableCatalogSelect
+@EnableCatalogSelect.SelectCatalog(use = SparkTestContext.SparkCatalogNames.MIXED_ICEBERG)
+public class TestColumnarReads extends MixedTableTestBase {
+
+  @Test
+  public void testFilterBatch() {
+    // ids 0 to 4 with a null at row 3, and a column only required by the filter
+    OnHeapColumnVector ids = new OnHeapColumnVector(5, DataTypes.IntegerType);
+    OnHeapColumnVector data = new OnHeapColumnVector(5, DataTypes.StringType);
+    for (int i = 0; i < 5; i++) {
+      if (i == 3) {
+        ids.putNull(i);
+      } else {
+        ids.putInt(i, i);
+      }
+      data.putByteArray(i, UTF8String.fromString("data" + i).getBytes());
+    }
+    ColumnarBatch batch = new ColumnarBatch(new ColumnVector[] {ids, data}, 5);
+
+    ColumnarBatch filtered =
+        ColumnarBatchUtil.filter(
+            batch,
+            1,
+            rows ->
+                CloseableIterable.filter(
+                    rows, row -> !row.getUTF8String(1).toString().equals("data2")));
+
+    Assertions.assertEquals(1, filtered.numCols());
+    Assertions.assertEquals(4, filtered.numRows());
+    ColumnVector filteredIds = filtered.column(0);
+    Assertions.assertEquals(0, filteredIds.getInt(0));
+    Assertions.assertEquals(1, filteredIds.getInt(1));
+    Assertions.assertTrue(filteredIds.isNullAt(2));
+    Assertions.assertEquals(4, filteredIds.getInt(3));
+    Assertions.assertTrue(filteredIds.hasNull());
+    Assertions.assertEquals(1, filteredIds.numNulls());
+
+    // the null is deleted
+    filtered =
+        ColumnarBatchUtil.filter(
+            batch, 1, rows -> CloseableIterable.filter(rows, row -> !row.isNullAt(0)));
+    Assertions.assertEquals(4, filtered.numRows());
+    Assertions.assertEquals(0, filtered.column(0).numNulls());
+    Assertions.assertEquals(4, filtered.column(0).getInt(3));
+    batch.close();
+  }
+
+  @Test
+  public void testProjectBatch() {
+    OnHeapColumnVector ids = new OnHeapColumnVector(2, DataTypes.IntegerType);
+    OnHeapColumnVector data = new OnHeapColumnVector(2, DataTypes.StringType);
+    ColumnarBatch batch = new ColumnarBatch(new ColumnVector[] {ids, data}, 2);
+
+    Assertions.assertSame(batch, ColumnarBatchUtil.project(batch, 2));
+    ColumnarBatch projected = ColumnarBatchUtil.project(batch, 1);
+    Assertions.assertEquals(1, projected.numCols());
+    Assertions.assertEquals(2, projected.numRows());
+    Assertions.assertSame(ids, projected.column(0));
+    batch.close();
+  }
+
+  @Test
+  public void testKeyedTableWithDeletes() {
+    TestTable testTable = TestTables.MixedIceberg.PK_NO_PT;
+    createTarget(
+        testTable.schema,
+        builder ->
+            builder
+                .withPrimaryKeySpec(testTable.keySpec)
+                .withProperty(TableProperties.BASE_FILE_INDEX_HASH_BUCKET, "1")
+                .withProperty(TableProperties.BASE_FILE_FORMAT, "parquet")
+                .withProperty(TableProperties.CHANGE_FILE_FORMAT, "parquet"));
+    KeyedTable table = loadTable().asKeyedTable();
+    RecordGenerator dataGen = testTable.newDateGen();
+    List<Record> base = dataGen.records(10);
+    List<DataFile> baseFiles = TestTableUtil.writeToBase(table, base);
+    // position deletes of the base store, deleting the first base record
+    Assertions.assertEquals(1, baseFiles.size());
+    commitPositionDeletes(table.baseTable(), baseFiles.get(0), 0L);
+
+    // equality deletes of the change store, deleting base and change records
+    List<Record> changeInsert = dataGen.records(5);
+    TestTableUtil.writeToChange(table, changeInsert, ChangeAction.INSERT);
+    List<Record> changeDelete = Lists.newArrayList(base.get(8), base.get(9), changeInsert.get(0));
+    TestTableUtil.writeToChange(table, changeDelete, ChangeAction.DELETE);
+
+    assertColumnarReadsEqual(11);
+  }
+
+  @Test
+  public void testUnkeyedTableWithDeletes() {
+    TestTable testTable = TestTables.MixedIceberg.NO_PK_NO_PT;
+    createTarget(
+        testTable.schema,
+        builder -> builder.withProperty(TableProperties.BASE_FILE_FORMAT, "parquet"));
+    UnkeyedTable table = loadTable().asUnkeyedTable();
+    List<DataFile> dataFiles = TestTableUtil.writeToBase(table, testTable.newDateGen().records(10));
+    commitPositionDeletes(table, dataFiles.get(0), 0L, 2L);
+
+    assertColumnarReadsEqual(8);
+  }
+
+  private void commitPositionDeletes(UnkeyedTable table, DataFile dataFile, Long... positions) {
+    List<DeleteFile> deleteFiles =
+        MixedDataTestHelpers.writeBaseStorePosDelete(
+            loadTable(), System.currentTimeMillis(), dataFile, Arrays.asList(positions));
+    RowDelta rowDelta = table.newRowDelta();
+    deleteFiles.forEach(rowDelta::addDeletes);
+    rowDelta.commit();
+  }
+
+  /** Rows read as columnar batches are the same as the rows read one by one. */
+  private void assertColumnarReadsEqual(int expectedRowCount) {
+    List<Row> rows = readRows(false);
+    Assertions.assertEquals(expectedRowCount, rows.size());
+    Assertions.assertEquals(rows, readRows(true));
+  }
+
+  private List<Row> readRows(boolean vectorizationEnabled) {
+    spark()
+        .conf()
+        .set(SparkSQLProperties.VECTORIZATION_ENABLED, String.valueOf(vectorizationEnabled));
+    try {
+      Dataset<Row> dataset = sql("SELECT * FROM " + target() + " ORDER BY id");
+      List<Row> rows = dataset.collectAsList();
+      Assertions.assertEquals(
+          vectorizationEnabled,
+          dataset.queryExecution().executedPlan().toString().contains("ColumnarToRow"));
+      return rows;
+    } finally {
+      spark().conf().unset(SparkSQLProperties.VECTORIZATION_ENABLED);
+    }
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.spark.reader;
+
+import org.apache.amoro.spark.mixed.SparkSQLProperties;
+import org.apache.amoro.spark.test.MixedTableTestBase;
+import org.apache.amoro.spark.test.SparkTestContext;
+import org.apache.amoro.spark.test.extensions.EnableCatalogSelect;
+import org.apache.amoro.spark.test.utils.TestTable;
+import org.apache.amoro.spark.test.utils.TestTableUtil;
+import org.apache.amoro.spark.test.utils.TestTables;
+import org.apache.amoro.table.KeyedTable;
+import org.apache.amoro.table.TableBuilder;
+import org.apache.amoro.table.TableProperties;
+import org.apache.iceberg.data.Record;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.connector.read.HasPartitionKey;
+import org.apache.spark.sql.connector.read.InputPartition;
+import org.apache.spark.sql.connector.read.partitioning.KeyGroupedPartitioning;
+import org.apache.spark.sql.connector.read.partitioning.Partitioning;
+import org.apache.spark.sql.connector.read.partitioning.UnknownPartitioning;
+import org.apache.spark.sql.internal.SQLConf;
+import org.apache.spark.sql.sources.Filter;
+import org.apache.spark.sql.sources.In;
+import org.apache.spark.sql.util.CaseInsensitiveStringMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@EnableCatalogSelect
+@EnableCatalogSelect.SelectCatalog(use = SparkTestContext.SparkCatalogNames.MIXED_ICEBERG)
+public class TestKeyedSparkBatchScan extends MixedTableTestBase {
+
+  @Test
+  public void testRuntimeFilterBucketedScan() {
+    TestTable testTable = TestTables.MixedIceberg.PK_NO_PT;
+    createTarget(
+        testTable.schema,
+        builder ->
+            builder
+                .withPrimaryKeySpec(testTable.keySpec)
+                .withProperty(TableProperties.BASE_FILE_INDEX_HASH_BUCKET, "8"));
+    KeyedTable table = loadTable().asKeyedTable();
+    // 2 records are written to at most 2 of 8 buckets
+    List<Record> records = testTable.newDateGen().records(2);
+    TestTableUtil.writeToBase(table, records);
+
+    KeyedSparkBatchScan scan =
+        new KeyedSparkBatchScan(
+            table,
+            false,
+            table.schema(),
+            Collections.emptyList(),
+            CaseInsensitiveStringMap.empty(),
+            0,
+            false,
+            true);
+    Partitioning partitioning = scan.outputPartitioning();
+    Assertions.assertTrue(partitioning instanceof KeyGroupedPartitioning);
+    Assertions.assertEquals(8, partitioning.numPartitions());
+    List<Integer> buckets = IntStream.range(0, 8).boxed().collect(Collectors.toList());
+    Assertions.assertEquals(buckets, partitionKeys(scan.planInputPartitions()));
+
+    String keyColumn = testTable.keySpec.fields().get(0).fieldName();
+    Object key = records.get(0).getField(keyColumn);
+    scan.filter(new Filter[] {new In(keyColumn, new Object[] {key})});
+
+    // buckets whose files are all filtered out are still reported
+    Assertions.assertEquals(8, scan.outputPartitioning().numPartitions());
+    Assertions.assertEquals(buckets, partitionKeys(scan.planInputPartitions()));
+  }
+
+  @Test
+  public void testNotGroupTooManyBuckets() {
+    TestTable testTable = TestTables.MixedIceberg.PK_NO_PT;
+    createTarget(
+        testTable.schema,
+        builder ->
+            builder
+                .withPrimaryKeySpec(testTable.keySpec)
+                .withProperty(
+                    TableProperties.BASE_FILE_INDEX_HASH_BUCKET,
+                    String.valueOf(KeyedSparkBatchScan.MAX_GROUPING_BUCKETS * 2)));
+    KeyedTable table = loadTable().asKeyedTable();
+    TestTableUtil.writeToBase(table, testTable.newDateGen().records(2));
+
+    KeyedSparkBatchScan scan =
+        new KeyedSparkBatchScan(
+            table,
+            false,
+            table.schema(),
+            Collections.emptyList(),
+            CaseInsensitiveStringMap.empty(),
+            0,
+            false,
+            true);
+    Assertions.assertTrue(scan.outputPartitioning() instanceof UnknownPartitioning);
+  }
+
+  @Test
+  public void testCoBucketedTablesWithoutExchange() {
+    TestTable testTable = TestTables.MixedIceberg.PK_NO_PT;
+    Consumer<TableBuilder> bucketed =
+        builder ->
+            builder
+                .withPrimaryKeySpec(testTable.keySpec)
+                .withProperty(TableProperties.BASE_FILE_INDEX_HASH_BUCKET, "4");
+    KeyedTable source = createMixedFormatSource(testTable.schema, bucketed).asKeyedTable();
+    KeyedTable target = createTarget(testTable.schema, bucketed).asKeyedTable();
+    List<Record> records = testTable.newDateGen().records(10);
+    TestTableUtil.writeToBase(source, records);
+    TestTableUtil.writeToBase(target, records);
+
+    String keyColumn = testTable.keySpec.fields().get(0).fieldName();
+    spark().conf().set(SparkSQLProperties.PRESERVE_DATA_GROUPING, "true");
+    spark().conf().set(SQLConf.V2_BUCKETING_ENABLED().key(), "true");
+    spark().conf().set(SQLConf.AUTO_BROADCASTJOIN_THRESHOLD().key(), "-1");
+    spark().conf().set(SQLConf.ADAPTIVE_EXECUTION_ENABLED().key(), "false");
+    try {
+      Dataset<Row> joined =
+          sql(
+              String.format(
+                  "SELECT * FROM %s s JOIN %s t ON s.%s = t.%s",
+                  source(), target(), keyColumn, keyColumn));
+      Assertions.assertEquals(10, joined.collectAsList().size());
+      assertNoExchange(joined);
+
+      Dataset<Row> aggregated =
+          sql(
+              String.format(
+                  "SELECT %s, count(*) FROM %s GROUP BY %s", keyColumn, target(), keyColumn));
+      Assertions.assertEquals(10, aggregated.collectAsList().size());
+      assertNoExchange(aggregated);
+    } finally {
+      spark().conf().unset(SparkSQLProperties.PRESERVE_DATA_GROUPING);
+      spark().conf().unset(SQLConf.V2_BUCKETING_ENABLED().key());
+      spark().conf().unset(SQLConf.AUTO_BROADCASTJOIN_THRESHOLD().key());
+      spark().conf().unset(SQLConf.ADAPTIVE_EXECUTION_ENABLED().key());
+    }
+  }
+
+  private static void assertNoExchange(Dataset<Row> dataset) {
+    String plan = dataset.queryExecution().executedPlan().toString();
+    Assertions.assertFalse(plan.contains("Exchange"), plan);
+  }
+
+  private static List<Integer> partitionKeys(InputPartition[] partitions) {
+    return Arrays.stream(partitions)
+        .map(partition -> ((HasPartitionKey) partition).partitionKey().getInt(0))
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.trino;
+
+import org.apache.amoro.mixed.MixedFormatCatalog;
+import org.apache.amoro.table.MixedTable;
+import org.apache.amoro.table.TableBuilder;
+import org.apache.amoro.table.TableIdentifier;
+import org.apache.amoro.table.TableMetaStore;
+import org.apache.amoro.table.blocker.TableBlockerManager;
+import org.apache.iceberg.Schema;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A wrapper of {@link MixedFormatCatalog} to share loaded tables among transactions. Like iceberg's
+ * {@code CachingCatalog}, a shared unkeyed table may be committed by a transaction, which makes the
+ * cache replace it on the next validation.
+ */
+public class CachingMixedFormatCatalog implements MixedFormatCatalog {
+
+  private final MixedFormatCatalog mixedFormatCatalog;
+  private final MixedFormatTableCache tableCache;
+
+  public CachingMixedFormatCatalog(
+      MixedFormatCatalog mixedFormatCatalog, MixedFormatTableCache tableCache) {
+    this.mixedFormatCatalog = mixedFormatCatalog;
+    this.tableCache = tableCache;
+  }
+
+  @Override
+  public String name() {
+    return mixedFormatCatalog.name();
+  }
+
+  @Override
+  public void initialize(String name, Map<String, String> properties, TableMetaStore metaStore) {
+    mixedFormatCatalog.initialize(name, properties, metaStore);
+  }
+
+  @Override
+  public List<String> listDatabases() {
+    return mixedFormatCatalog.listDatabases();
+  }
+
+  @Override
+  public void createDatabase(String databaseName) {
+    mixedFormatCatalog.createDatabase(databaseName);
+  }
+
+  @Override
+  public void dropDatabase(String databaseName) {
+    mixedFormatCatalog.dropDatabase(databaseName);
+  }
+
+  @Override
+  public List<TableIdentifier> listTables(String database) {
+    return mixedFormatCatalog.listTables(database);
+  }
+
+  @Override
+  public MixedTable loadTable(TableIdentifier tableIdentifier) {
+    return tableCache.getOrLoad(tableIdentifier, mixedFormatCatalog::loadTable);
+  }
+
+  @Override
+  public void renameTable(TableIdentifier from, String newTableName) {
+    tableCache.invalidate(from);
+    mixedFormatCatalog.renameTable(from, newTableName);
+  }
+
+  @Override
+  public boolean dropTable(TableIdentifier tableIdentifier, boolean purge) {
+    tableCache.invalidate(tableIdentifier);
+    return mixedFormatCatalog.dropTable(tableIdentifier, purge);
+  }
+
+  @Override
+  public TableBuilder newTableBuilder(TableIdentifier identifier, Schema schema) {
+    tableCache.invalidate(identifier);
+    return mixedFormatCatalog.newTableBuilder(identifier, schema);
+  }
+
+  @Override
+  public TableBlockerManager getTableBlockerManager(TableIdentifier tableIdentifier) {
+    return mixedFormatCatalog.getTableBlockerManager(tableIdentifier);
+  }
+
+  @Override
+  public Map<String, String> properties() {
+    return mixedFormatCatalog.properties();
+  }
+}
@@ -33,12 +33,16 @@ import java.util.Collections;
 public class DefaultMixedFormatCatalogFactory implements MixedFormatCatalogFactory {
 
   private final MixedFormatConfig mixedFormatConfig;
+  private final MixedFormatTableCache tableCache;
   private volatile MixedFormatCatalog mixedFormatCatalog;
+  private volatile MixedFormatCatalog cachingMixedFormatCatalog;
   private volatile TableMetaStore tableMetaStore;
 
   @Inject
-  public DefaultMixedFormatCatalogFactory(MixedFormatConfig mixedFormatConfig) {
+  public DefaultMixedFormatCatalogFactory(
+      MixedFormatConfig mixedFormatConfig, MixedFormatTableCache tableCache) {
     this.mixedFormatConfig = mixedFormatConfig;
+    this.tableCache = tableCache;
   }
 
   public MixedFormatCatalog getMixedFormatCatalog() {
@@ -57,6 +61,26 @@ public class DefaultMixedFormatCatalogFactory implements MixedFormatCatalogFacto
     return mixedFormatCatalog;
   }
 
+  @Override
+  public MixedFormatCatalog getCachingMixedFormatCatalog() {
+    if (cachingMixedFormatCatalog == null) {
+      synchronized (this) {
+        if (cachingMixedFormatCatalog == null) {
+          try (ThreadContextClassLoader ignored =
+              new ThreadContextClassLoader(this.getClass().getClassLoader())) {
+            this.cachingMixedFormatCatalog =
+                new MixedFormatCatalogSupportTableSuffix(
+                    new CachingMixedFormatCatalog(
+                        CatalogLoader.load(
+                            mixedFormatConfig.getCatalogUrl(), Collections.emptyMap()),
+                        tableCache));
+          }
+        }
+      }
+    }
+    return cachingMixedFormatCatalog;
+  }
+
   @Override
   public TableMetaStore getTableMetastore() {
     if (this.tableMetaStore == null) {
@@ -27,5 +27,8 @@ public interface MixedFormatCatalogFactory {
   /** generate {@link MixedFormatCatalog} */
   MixedFormatCatalog getMixedFormatCatalog();
 
+  /** generate {@link MixedFormatCatalog} sharing loaded tables among transactions */
+  MixedFormatCatalog getCachingMixedFormatCatalog();
+
   TableMetaStore getTableMetastore();
 }
@@ -20,6 +20,10 @@ package org.apache.amoro.trino;
 
 import io.airlift.configuration.Config;
 import io.airlift.configuration.ConfigDescription;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+
+import java.util.concurrent.TimeUnit;
 
 /** Mixed-format configurations */
 public class MixedFormatConfig {
@@ -31,6 +35,16 @@ public class MixedFormatConfig {
 
   private boolean enableSplitTaskByDeleteRatio = true;
 
+  private DataSize deleteIndexCacheMaxSize = DataSize.of(0, DataSize.Unit.BYTE);
+
+  private boolean tableCacheEnabled = false;
+
+  private long tableCacheMaxSize = 1000;
+
+  private Duration tableCacheTtl = new Duration(5, TimeUnit.MINUTES);
+
+  private Duration tableCacheValidationInterval = new Duration(30, TimeUnit.SECONDS);
+
   public String getCatalogUrl() {
     return catalogUrl;
   }
@@ -51,6 +65,26 @@ public class MixedFormatConfig {
     return enableSplitTaskByDeleteRatio;
   }
 
+  public DataSize getDeleteIndexCacheMaxSize() {
+    return deleteIndexCacheMaxSize;
+  }
+
+  public boolean isTableCacheEnabled() {
+    return tableCacheEnabled;
+  }
+
+  public long getTableCacheMaxSize() {
+    return tableCacheMaxSize;
+  }
+
+  public Duration getTableCacheTtl() {
+    return tableCacheTtl;
+  }
+
+  public Duration getTableCacheValidationInterval() {
+    return tableCacheValidationInterval;
+  }
+
   @Config("amoro.url")
   public void setCatalogUrl(String catalogUrl) {
     this.catalogUrl = catalogUrl;
@@ -76,4 +110,37 @@ public class MixedFormatConfig {
   public void setSplitTaskByDeleteRatio(double splitTaskByDeleteRatio) {
     this.splitTaskByDeleteRatio = splitTaskByDeleteRatio;
   }
+
+  @Config("mixed-format.delete-index-cache.max-size")
+  @ConfigDescription(
+      "Max retained heap size of decoded delete files shared by all splits on a worker, which is"
+          + " not tracked by query memory contexts, 0 to disable it")
+  public void setDeleteIndexCacheMaxSize(DataSize deleteIndexCacheMaxSize) {
+    this.deleteIndexCacheMaxSize = deleteIndexCacheMaxSize;
+  }
+
+  @Config("mixed-format.table-cache.enabled")
+  @ConfigDescription("Enable sharing loaded tables among transactions")
+  public void setTableCacheEnabled(boolean tableCacheEnabled) {
+    this.tableCacheEnabled = tableCacheEnabled;
+  }
+
+  @Config("mixed-format.table-cache.max-size")
+  public void setTableCacheMaxSize(long tableCacheMaxSize) {
+    this.tableCacheMaxSize = tableCacheMaxSize;
+  }
+
+  @Config("mixed-format.table-cache.ttl")
+  @ConfigDescription("Max time a loaded table is kept in the table cache")
+  public void setTableCacheTtl(Duration tableCacheTtl) {
+    this.tableCacheTtl = tableCacheTtl;
+  }
+
+  @Config("mixed-format.table-cache.validation-interval")
+  @ConfigDescription(
+      "Min interval to load a cached table again, which replaces the cached one if its metadata"
+          + " location or snapshot changed")
+  public void setTableCacheValidationInterval(Duration tableCacheValidationInterval) {
+    this.tableCacheValidationInterval = tableCacheValidationInterval;
+  }
 }
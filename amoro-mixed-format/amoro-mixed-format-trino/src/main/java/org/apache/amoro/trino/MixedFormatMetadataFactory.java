@@ -26,6 +26,7 @@ import io.trino.plugin.iceberg.CommitTaskData;
 import io.trino.plugin.iceberg.TableStatisticsWriter;
 import io.trino.plugin.iceberg.catalog.TrinoCatalogFactory;
 import io.trino.spi.type.TypeManager;
+import org.apache.amoro.mixed.MixedFormatCatalog;
 import org.apache.amoro.trino.keyed.KeyedConnectorMetadata;
 import org.apache.amoro.trino.unkeyed.IcebergMetadata;
 
@@ -65,9 +66,11 @@ public class MixedFormatMetadataFactory {
             trinoCatalogFactory.create(null),
             fileSystemFactory,
             tableStatisticsWriter);
+    MixedFormatCatalog cachingMixedFormatCatalog =
+        mixedFormatCatalogFactory.getCachingMixedFormatCatalog();
     KeyedConnectorMetadata keyedConnectorMetadata =
-        new KeyedConnectorMetadata(mixedFormatCatalogFactory.getMixedFormatCatalog(), typeManager);
+        new KeyedConnectorMetadata(cachingMixedFormatCatalog, typeManager);
     return new MixedFormatConnectorMetadata(
-        keyedConnectorMetadata, icebergMetadata, mixedFormatCatalogFactory.getMixedFormatCatalog());
+        keyedConnectorMetadata, icebergMetadata, cachingMixedFormatCatalog);
   }
 }
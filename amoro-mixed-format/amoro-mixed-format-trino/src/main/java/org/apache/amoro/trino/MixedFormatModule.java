@@ -92,6 +92,8 @@ public class MixedFormatModule implements Module {
         .to(MixedFormatTrinoCatalogFactory.class)
         .in(Scopes.SINGLETON);
     binder.bind(MixedFormatTransactionManager.class).in(Scopes.SINGLETON);
+    binder.bind(MixedFormatTableCache.class).in(Scopes.SINGLETON);
+    newExporter(binder).export(MixedFormatTableCache.class).withGeneratedName();
     binder.bind(MixedFormatMetadataFactory.class).in(Scopes.SINGLETON);
     binder.bind(TableStatisticsWriter.class).in(Scopes.SINGLETON);
     binder
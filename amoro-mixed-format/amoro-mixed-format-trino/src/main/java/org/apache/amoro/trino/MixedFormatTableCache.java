@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.trino;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.apache.amoro.shade.guava32.com.google.common.annotations.VisibleForTesting;
+import org.apache.amoro.shade.guava32.com.google.common.collect.ImmutableList;
+import org.apache.amoro.table.KeyedTable;
+import org.apache.amoro.table.MixedTable;
+import org.apache.amoro.table.TableIdentifier;
+import org.apache.amoro.table.UnkeyedTable;
+import org.apache.iceberg.HasTableOperations;
+import org.apache.iceberg.Snapshot;
+import org.weakref.jmx.Managed;
+
+import javax.inject.Inject;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Connector level cache of loaded {@link MixedTable}s of all formats, sharing among transactions.
+ *
+ * <p>A shared table is never refreshed by the cache, since transactions reading it see one version
+ * of it. Each cached table is validated by a private probe of the same table, which is loaded on
+ * the first validation and only refreshed later, so that an unchanged table costs a check of its
+ * metadata pointer rather than a load. Once the metadata location or current snapshot id of the
+ * probe changed, the probe replaces the shared table. Transactions holding the replaced table keep
+ * reading the version they started with.
+ */
+public class MixedFormatTableCache {
+
+  private final boolean enabled;
+  private final long validationIntervalNanos;
+  private final Ticker ticker;
+  private final Cache<TableIdentifier, CachedTable> cache;
+
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+  private final AtomicLong staleCount = new AtomicLong();
+
+  @Inject
+  public MixedFormatTableCache(MixedFormatConfig mixedFormatConfig) {
+    this(mixedFormatConfig, Ticker.systemTicker());
+  }
+
+  @VisibleForTesting
+  MixedFormatTableCache(MixedFormatConfig mixedFormatConfig, Ticker ticker) {
+    this.enabled = mixedFormatConfig.isTableCacheEnabled();
+    this.validationIntervalNanos =
+        mixedFormatConfig.getTableCacheValidationInterval().roundTo(TimeUnit.NANOSECONDS);
+    this.ticker = ticker;
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumSize(mixedFormatConfig.getTableCacheMaxSize())
+            .expireAfterWrite(
+                mixedFormatConfig.getTableCacheTtl().toMillis(), TimeUnit.MILLISECONDS)
+            .ticker(ticker)
+            .build();
+  }
+
+  public MixedTable getOrLoad(
+      TableIdentifier identifier, Function<TableIdentifier, MixedTable> loader) {
+    if (!enabled) {
+      return loader.apply(identifier);
+    }
+    long now = ticker.read();
+    CachedTable cached = cache.getIfPresent(identifier);
+    if (cached == null) {
+      missCount.incrementAndGet();
+      MixedTable table = loader.apply(identifier);
+      cache.put(identifier, new CachedTable(table, null, version(table), now));
+      return table;
+    }
+    synchronized (cached) {
+      if (cache.getIfPresent(identifier) != cached) {
+        // replaced or invalidated while waiting for another validation
+        return getOrLoad(identifier, loader);
+      }
+      if (now - cached.validatedTime < validationIntervalNanos) {
+        hitCount.incrementAndGet();
+        return cached.table;
+      }
+      MixedTable probe = cached.probe;
+      if (probe == null) {
+        missCount.incrementAndGet();
+        probe = loader.apply(identifier);
+      } else {
+        probe.refresh();
+      }
+      List<String> version = version(probe);
+      if (version.equals(cached.version)) {
+        // keep sharing the unchanged table, with metadata already read by transactions
+        hitCount.incrementAndGet();
+        cached.probe = probe;
+        cached.validatedTime = now;
+        return cached.table;
+      }
+      staleCount.incrementAndGet();
+      // the probe has never been shared, so it becomes the shared table
+      cache.put(identifier, new CachedTable(probe, null, version, now));
+      return probe;
+    }
+  }
+
+  public void invalidate(TableIdentifier identifier) {
+    cache.invalidate(identifier);
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  @Managed
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  @Managed
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  @Managed
+  public long getStaleCount() {
+    return staleCount.get();
+  }
+
+  @Managed
+  public long getSize() {
+    return cache.estimatedSize();
+  }
+
+  private static class CachedTable {
+    private final MixedTable table;
+    private final List<String> version;
+    // guarded by the cached table itself
+    private MixedTable probe;
+    private long validatedTime;
+
+    CachedTable(MixedTable table, MixedTable probe, List<String> version, long validatedTime) {
+      this.table = table;
+      this.probe = probe;
+      this.version = version;
+      this.validatedTime = validatedTime;
+    }
+  }
+
+  private static List<String> version(MixedTable table) {
+    ImmutableList.Builder<String> builder = ImmutableList.builder();
+    if (table.isKeyedTable()) {
+      KeyedTable keyedTable = table.asKeyedTable();
+      appendVersion(builder, keyedTable.baseTable());
+      appendVersion(builder, keyedTable.changeTable());
+    } else {
+      appendVersion(builder, table.asUnkeyedTable());
+    }
+    return builder.build();
+  }
+
+  private static void appendVersion(ImmutableList.Builder<String> builder, UnkeyedTable table) {
+    if (table instanceof HasTableOperations) {
+      String location = ((HasTableOperations) table).operations().current().metadataFileLocation();
+      builder.add(String.valueOf(location));
+    }
+    Snapshot snapshot = table.currentSnapshot();
+    builder.add(snapshot == null ? "-1" : String.valueOf(snapshot.snapshotId()));
+  }
+}
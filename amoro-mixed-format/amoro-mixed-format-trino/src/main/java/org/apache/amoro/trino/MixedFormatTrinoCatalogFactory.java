@@ -36,6 +36,6 @@ public class MixedFormatTrinoCatalogFactory implements TrinoCatalogFactory {
 
   @Override
   public TrinoCatalog create(ConnectorIdentity identity) {
-    return new MixedFormatTrinoCatalog(mixedFormatCatalogFactory.getMixedFormatCatalog());
+    return new MixedFormatTrinoCatalog(mixedFormatCatalogFactory.getCachingMixedFormatCatalog());
   }
 }
@@ -195,7 +195,11 @@ public class KeyedConnectorPageSource implements ConnectorPageSource {
 
   @Override
   public long getMemoryUsage() {
-    return current == null ? 0 : current.getMemoryUsage();
+    // decoded delete files shared with other splits in DeleteIndexCache are not reported, they are
+    // bounded by mixed-format.delete-index-cache.max-size on their retained heap size instead
+    long deleteIndexSize =
+        mixedDeleteFilter == null ? 0 : mixedDeleteFilter.deleteIndexSizeInBytes();
+    return deleteIndexSize + (current == null ? 0 : current.getMemoryUsage());
   }
 
   @Override
@@ -33,9 +33,11 @@ import io.trino.spi.connector.DynamicFilter;
 import io.trino.spi.type.TypeManager;
 import org.apache.amoro.data.PrimaryKeyedFile;
 import org.apache.amoro.hive.io.reader.AdaptHiveMixedDeleteFilter;
+import org.apache.amoro.io.reader.DeleteIndexCache;
 import org.apache.amoro.scan.KeyedTableScanTask;
 import org.apache.amoro.scan.MixedFileScanTask;
 import org.apache.amoro.shade.guava32.com.google.common.collect.ImmutableList;
+import org.apache.amoro.trino.MixedFormatConfig;
 import org.apache.amoro.trino.delete.TrinoRow;
 import org.apache.amoro.trino.unkeyed.IcebergPageSourceProvider;
 import org.apache.iceberg.Schema;
@@ -55,10 +57,12 @@ public class KeyedPageSourceProvider implements ConnectorPageSourceProvider {
   public KeyedPageSourceProvider(
       IcebergPageSourceProvider icebergPageSourceProvider,
       TypeManager typeManager,
-      TrinoFileSystemFactory fileSystemFactory) {
+      TrinoFileSystemFactory fileSystemFactory,
+      MixedFormatConfig mixedFormatConfig) {
     this.icebergPageSourceProvider = icebergPageSourceProvider;
     this.typeManager = typeManager;
     this.fileSystemFactory = fileSystemFactory;
+    DeleteIndexCache.initialize(mixedFormatConfig.getDeleteIndexCacheMaxSize().toBytes());
   }
 
   @Override
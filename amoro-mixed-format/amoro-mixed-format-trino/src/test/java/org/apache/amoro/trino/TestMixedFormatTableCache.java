@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.amoro.trino;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.airlift.units.Duration;
+import io.trino.spi.connector.SchemaTableName;
+import org.apache.amoro.mixed.MixedFormatCatalog;
+import org.apache.amoro.table.MixedTable;
+import org.apache.amoro.table.TableIdentifier;
+import org.apache.amoro.table.UnkeyedTable;
+import org.apache.iceberg.Snapshot;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TestMixedFormatTableCache {
+
+  private static final TableIdentifier TABLE_ID = TableIdentifier.of("catalog", "db", "table");
+
+  private final AtomicLong nanoTime = new AtomicLong();
+  private final AtomicInteger loads = new AtomicInteger();
+  private MixedFormatTableCache tableCache;
+
+  @BeforeMethod
+  public void setUp() {
+    nanoTime.set(0);
+    loads.set(0);
+    MixedFormatConfig config = new MixedFormatConfig();
+    config.setTableCacheEnabled(true);
+    config.setTableCacheTtl(new Duration(1, TimeUnit.MINUTES));
+    config.setTableCacheValidationInterval(new Duration(10, TimeUnit.SECONDS));
+    tableCache = new MixedFormatTableCache(config, nanoTime::get);
+  }
+
+  @Test
+  public void testHit() {
+    MixedTable table = mockTable(new AtomicLong(1L));
+    assertThat(getOrLoad(table)).isSameAs(table);
+
+    advance(5);
+    assertThat(getOrLoad(mockTable(new AtomicLong(2L)))).isSameAs(table);
+    assertThat(loads.get()).isEqualTo(1);
+    assertThat(tableCache.getHitCount()).isEqualTo(1);
+    assertThat(tableCache.getMissCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testValidation() {
+    MixedTable table = mockTable(new AtomicLong(1L));
+    getOrLoad(table);
+
+    // the probe is loaded on the first validation, the cached table is still shared if unchanged
+    advance(10);
+    AtomicLong probeSnapshotId = new AtomicLong(1L);
+    MixedTable probe = mockTable(probeSnapshotId);
+    assertThat(getOrLoad(probe)).isSameAs(table);
+    assertThat(loads.get()).isEqualTo(2);
+
+    // later validations only refresh the probe
+    advance(10);
+    assertThat(getOrLoad(mockTable(new AtomicLong(3L)))).isSameAs(table);
+    assertThat(loads.get()).isEqualTo(2);
+    verify(probe).refresh();
+    assertThat(tableCache.getStaleCount()).isEqualTo(0);
+
+    // a changed probe replaces the cached table
+    advance(10);
+    probeSnapshotId.set(2L);
+    assertThat(getOrLoad(mockTable(new AtomicLong(3L)))).isSameAs(probe);
+    advance(5);
+    assertThat(getOrLoad(mockTable(new AtomicLong(3L)))).isSameAs(probe);
+    assertThat(loads.get()).isEqualTo(2);
+    assertThat(tableCache.getStaleCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testExpiry() {
+    getOrLoad(mockTable(new AtomicLong(1L)));
+
+    advance(60);
+    MixedTable table = mockTable(new AtomicLong(1L));
+    assertThat(getOrLoad(table)).isSameAs(table);
+    assertThat(loads.get()).isEqualTo(2);
+    assertThat(tableCache.getStaleCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void testIsolation() {
+    MixedTable table = mockTable(new AtomicLong(1L));
+    // a transaction keeps the table it loaded
+    MixedTable transactionTable = getOrLoad(table);
+
+    advance(10);
+    MixedTable changedTable = mockTable(new AtomicLong(2L));
+    assertThat(getOrLoad(changedTable)).isSameAs(changedTable);
+    advance(10);
+    getOrLoad(mockTable(new AtomicLong(3L)));
+    // the shared tables are never refreshed in place
+    verify(table, never()).refresh();
+    verify(changedTable, never()).refresh();
+    assertThat(transactionTable.asUnkeyedTable().currentSnapshot().snapshotId()).isEqualTo(1L);
+  }
+
+  @Test
+  public void testUnkeyedTableOfTrinoCatalog() {
+    MixedFormatCatalog catalog = mock(MixedFormatCatalog.class);
+    when(catalog.name()).thenReturn(TABLE_ID.getCatalog());
+    MixedTable table = mockTable(new AtomicLong(1L));
+    when(catalog.loadTable(TABLE_ID)).thenReturn(table);
+    MixedFormatTrinoCatalog trinoCatalog =
+        new MixedFormatTrinoCatalog(new CachingMixedFormatCatalog(catalog, tableCache));
+    SchemaTableName tableName =
+        new SchemaTableName(TABLE_ID.getDatabase(), TABLE_ID.getTableName());
+
+    // iceberg tables read by the iceberg metadata are shared as well
+    assertThat(trinoCatalog.loadTable(null, tableName)).isSameAs(table);
+    advance(5);
+    assertThat(trinoCatalog.loadTable(null, tableName)).isSameAs(table);
+    verify(catalog, times(1)).loadTable(TABLE_ID);
+    assertThat(tableCache.getHitCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testDisabled() {
+    tableCache = new MixedFormatTableCache(new MixedFormatConfig(), nanoTime::get);
+    MixedTable table = mockTable(new AtomicLong(1L));
+    getOrLoad(table);
+
+    MixedTable loadedTable = mockTable(new AtomicLong(1L));
+    assertThat(getOrLoad(loadedTable)).isSameAs(loadedTable);
+    assertThat(loads.get()).isEqualTo(2);
+    assertThat(tableCache.getSize()).isEqualTo(0);
+  }
+
+  private MixedTable getOrLoad(MixedTable loadedTable) {
+    return tableCache.getOrLoad(
+        TABLE_ID,
+        identifier -> {
+          loads.incrementAndGet();
+          return loadedTable;
+        });
+  }
+
+  private void advance(long seconds) {
+    nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+  }
+
+  /** Mock a table, whose current snapshot id is read from the given reference. */
+  private static MixedTable mockTable(AtomicLong snapshotId) {
+    UnkeyedTable table = mock(UnkeyedTable.class);
+    when(table.isKeyedTable()).thenReturn(false);
+    when(table.asUnkeyedTable()).thenReturn(table);
+    Snapshot snapshot = mock(Snapshot.class);
+    when(snapshot.snapshotId()).thenAnswer(invocation -> snapshotId.get());
+    when(table.currentSnapshot()).thenReturn(snapshot);
+    return table;
+  }
+}